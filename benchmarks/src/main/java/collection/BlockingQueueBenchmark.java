@@ -0,0 +1,81 @@
+package collection;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The blocking queues of BlockingQueueExample and ConcurrentCollectionsExample,
+ * one queue shared by all benchmark threads:
+ *
+ * offerPoll  offer() one element, then poll() one
+ *
+ * The queue starts half full and every thread polls only after its own offer,
+ * so poll() never finds it empty and offer() never finds it full; the score is
+ * the cost of a hand-off through the queue's locks (or CAS loops) at the given
+ * number of threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BlockingQueueBenchmark {
+
+    static final int CAPACITY = 1024;
+
+    @Param({ "ArrayBlockingQueue", "LinkedBlockingQueue", "LinkedBlockingDeque", "PriorityBlockingQueue",
+            "LinkedTransferQueue" })
+    public String impl;
+
+    private BlockingQueue<Integer> queue;
+
+    @Setup
+    public void setup() {
+        switch (impl) {
+            case "ArrayBlockingQueue":
+                queue = new ArrayBlockingQueue<>(CAPACITY);
+                break;
+            case "LinkedBlockingQueue":
+                queue = new LinkedBlockingQueue<>(CAPACITY);
+                break;
+            case "LinkedBlockingDeque":
+                queue = new LinkedBlockingDeque<>(CAPACITY);
+                break;
+            case "PriorityBlockingQueue":
+                queue = new PriorityBlockingQueue<>(CAPACITY);
+                break;
+            case "LinkedTransferQueue":
+                queue = new LinkedTransferQueue<>();
+                break;
+            default:
+                throw new IllegalArgumentException(impl);
+        }
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            queue.offer(i);
+        }
+    }
+
+    @Benchmark
+    public Integer offerPoll() {
+        queue.offer(42);
+        return queue.poll();
+    }
+}
@@ -0,0 +1,64 @@
+package collection;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the collection benchmarks at several thread counts and writes all
+ * results to one JMH JSON file, the committed baseline by default.
+ *
+ * JMH takes a single thread count per run, so the shared-structure benchmarks
+ * (ConcurrentMap, CopyOnWrite, BlockingQueue) are run once per count in
+ * -Dthreads (default 1,2,4); ListBenchmark and MapBenchmark only with one
+ * thread. Other arguments are passed to JMH, e.g. -f 1 -wi 3 -i 5 or a
+ * benchmark pattern; -Dout sets the file (default baseline/collection.json).
+ *
+ *   java -cp target/benchmarks.jar collection.CollectionBenchmarks -f 1
+ */
+public class CollectionBenchmarks {
+
+    static final String ALL = "collection\\..*Benchmark";
+    static final String SINGLE_THREADED = "collection\\.(List|Map)Benchmark";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        String out = System.getProperty("out", "baseline/collection.json");
+        List<RunResult> results = new ArrayList<>();
+
+        String[] threads = System.getProperty("threads", "1,2,4").split(",");
+        for (String t : threads) {
+            int count = Integer.parseInt(t.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder().parent(cli).threads(count);
+            if (cli.getIncludes().isEmpty()) {
+                options.include(ALL);
+            }
+            if (count > 1) {
+                options.exclude(SINGLE_THREADED);
+            }
+            results.addAll(new Runner(options.build()).run());
+        }
+
+        File file = new File(out);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (PrintStream stream = new PrintStream(new FileOutputStream(file), true, "UTF-8")) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, stream).writeOut(results);
+        }
+        System.out.println("Wrote " + results.size() + " results to " + file);
+    }
+}
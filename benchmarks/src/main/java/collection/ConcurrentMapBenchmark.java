@@ -0,0 +1,88 @@
+package collection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One map shared by all benchmark threads, as in ConcurrentCollectionsExample
+ * and ConcurrentSkipListMapExample; synchronizedMap(HashMap) is the locked
+ * baseline:
+ *
+ * get    one get() of a random present key
+ * put    one put() over a random present key
+ * mixed  nine gets to one put
+ *
+ * Run with several thread counts (CollectionBenchmarks, or -t) to see how each
+ * map holds up under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentMapBenchmark {
+
+    @Param({ "ConcurrentHashMap", "ConcurrentSkipListMap", "synchronizedMap" })
+    public String impl;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private Map<Integer, Integer> map;
+
+    @Setup
+    public void setup() {
+        switch (impl) {
+            case "ConcurrentHashMap":
+                map = new ConcurrentHashMap<>();
+                break;
+            case "ConcurrentSkipListMap":
+                map = new ConcurrentSkipListMap<>();
+                break;
+            case "synchronizedMap":
+                map = Collections.synchronizedMap(new HashMap<>());
+                break;
+            default:
+                throw new IllegalArgumentException(impl);
+        }
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Integer put() {
+        int key = ThreadLocalRandom.current().nextInt(size);
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public Integer mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(size);
+        return random.nextInt(10) == 0 ? map.put(key, key) : map.get(key);
+    }
+}
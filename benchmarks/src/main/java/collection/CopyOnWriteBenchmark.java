@@ -0,0 +1,88 @@
+package collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CopyOnWriteArrayList against synchronizedList(ArrayList), one list shared by
+ * all benchmark threads, as in CopyOnWriteArrayListExample:
+ *
+ * iterate  sum all elements (synchronizedList holds its lock meanwhile)
+ * write    add() one element and remove() it again
+ *
+ * CopyOnWriteArrayList should win iterate by a growing margin as threads are
+ * added and lose write by a factor of about size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CopyOnWriteBenchmark {
+
+    @Param({ "CopyOnWriteArrayList", "synchronizedList" })
+    public String impl;
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        List<Integer> initial = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            initial.add(i);
+        }
+        switch (impl) {
+            case "CopyOnWriteArrayList":
+                list = new CopyOnWriteArrayList<>(initial);
+                break;
+            case "synchronizedList":
+                list = Collections.synchronizedList(initial);
+                break;
+            default:
+                throw new IllegalArgumentException(impl);
+        }
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        if (list instanceof CopyOnWriteArrayList) {
+            for (Integer i : list) {
+                sum += i;
+            }
+        } else {
+            synchronized (list) { // required to iterate a synchronizedList
+                for (Integer i : list) {
+                    sum += i;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean write() {
+        Integer value = -1;
+        list.add(value);
+        return list.remove(value);
+    }
+}
@@ -0,0 +1,113 @@
+package collection;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ArrayList, LinkedList and Vector, the lists timed with System.nanoTime() in
+ * ArrayListExample, LinkedListExample, VectorExample and challenge4:
+ *
+ * append     build a list of size elements with add()
+ * iterate    sum all elements with for-each
+ * randomGet  GETS get(i) calls at random indexes
+ * insertHead GETS add(0, x) calls, each followed by remove(size - 1)
+ *
+ * Single-threaded; CollectionBenchmarks runs it with one thread only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ListBenchmark {
+
+    static final int GETS = 256;
+
+    @Param({ "ArrayList", "LinkedList", "Vector" })
+    public String impl;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private List<Integer> list;
+    private int[] indexes;
+
+    @Setup
+    public void setup() {
+        list = newList();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        Random random = new Random(42);
+        indexes = new int[GETS];
+        for (int i = 0; i < GETS; i++) {
+            indexes[i] = random.nextInt(size);
+        }
+    }
+
+    private List<Integer> newList() {
+        switch (impl) {
+            case "ArrayList":
+                return new ArrayList<>();
+            case "LinkedList":
+                return new LinkedList<>();
+            case "Vector":
+                return new Vector<>();
+            default:
+                throw new IllegalArgumentException(impl);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> append() {
+        List<Integer> result = newList();
+        for (int i = 0; i < size; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Integer i : list) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long randomGet() {
+        long sum = 0;
+        for (int index : indexes) {
+            sum += list.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int insertHead() {
+        for (int i = 0; i < GETS; i++) {
+            list.add(0, i);
+            list.remove(list.size() - 1);
+        }
+        return list.size();
+    }
+}
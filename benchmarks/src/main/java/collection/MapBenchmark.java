@@ -0,0 +1,120 @@
+package collection;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HashMap, TreeMap and LinkedHashMap with String keys, as in HashMapExample,
+ * TreeMapExample and LinkedHashMapExample:
+ *
+ * put      build a map of size entries
+ * getHit   GETS get() calls for keys that are present
+ * getMiss  GETS get() calls for keys that are absent
+ * iterate  sum the values over entrySet()
+ *
+ * Single-threaded; CollectionBenchmarks runs it with one thread only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MapBenchmark {
+
+    static final int GETS = 256;
+
+    @Param({ "HashMap", "TreeMap", "LinkedHashMap" })
+    public String impl;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private String[] keys;
+    private String[] hits;
+    private String[] misses;
+    private Map<String, Integer> map;
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+        }
+        map = put();
+        Random random = new Random(42);
+        hits = new String[GETS];
+        misses = new String[GETS];
+        for (int i = 0; i < GETS; i++) {
+            hits[i] = keys[random.nextInt(size)];
+            misses[i] = "missing" + random.nextInt(size);
+        }
+    }
+
+    private Map<String, Integer> newMap() {
+        switch (impl) {
+            case "HashMap":
+                return new HashMap<>();
+            case "TreeMap":
+                return new TreeMap<>();
+            case "LinkedHashMap":
+                return new LinkedHashMap<>();
+            default:
+                throw new IllegalArgumentException(impl);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> put() {
+        Map<String, Integer> result = newMap();
+        for (int i = 0; i < keys.length; i++) {
+            result.put(keys[i], i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long getHit() {
+        long sum = 0;
+        for (String key : hits) {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int getMiss() {
+        int found = 0;
+        for (String key : misses) {
+            if (map.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Map.Entry<String, Integer> e : map.entrySet()) {
+            sum += e.getValue();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,120 @@
+package datereflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pojo.StudentPojo;
+
+/**
+ * Reading and writing StudentPojo.name / id:
+ *
+ * direct          student.getName(), the floor
+ * methodInvoke    Method.invoke on a cached Method
+ * methodHandle    invokeExact on a static final MethodHandle
+ * beanProperty    BeanProperty.get/set held by the caller
+ * beansByName     Beans.get/set(bean, "name"), map lookup every call
+ *
+ * The id setters box and unbox an int, which is where Method.invoke pays most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BeanAccessBenchmark {
+
+    private static final MethodHandle GET_NAME;
+    private static final MethodHandle SET_ID;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_NAME = lookup.findVirtual(StudentPojo.class, "getName", MethodType.methodType(String.class));
+            SET_ID = lookup.findVirtual(StudentPojo.class, "setId", MethodType.methodType(void.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private StudentPojo student;
+    private Method getName;
+    private Method setId;
+    private BeanProperty name;
+    private BeanProperty id;
+    private int next;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        student = new StudentPojo();
+        student.setName("Ram");
+        getName = StudentPojo.class.getMethod("getName");
+        setId = StudentPojo.class.getMethod("setId", int.class);
+        name = Beans.property(StudentPojo.class, "name");
+        id = Beans.property(StudentPojo.class, "id");
+    }
+
+    @Benchmark
+    public Object getDirect() {
+        return student.getName();
+    }
+
+    @Benchmark
+    public Object getMethodInvoke() throws ReflectiveOperationException {
+        return getName.invoke(student);
+    }
+
+    @Benchmark
+    public Object getMethodHandle() throws Throwable {
+        return (String) GET_NAME.invokeExact(student);
+    }
+
+    @Benchmark
+    public Object getBeanProperty() {
+        return name.get(student);
+    }
+
+    @Benchmark
+    public Object getBeansByName() {
+        return Beans.get(student, "name");
+    }
+
+    @Benchmark
+    public void setDirect() {
+        student.setId(next++);
+    }
+
+    @Benchmark
+    public void setMethodInvoke() throws ReflectiveOperationException {
+        setId.invoke(student, next++);
+    }
+
+    @Benchmark
+    public void setMethodHandle() throws Throwable {
+        SET_ID.invokeExact(student, next++);
+    }
+
+    @Benchmark
+    public void setBeanProperty() {
+        id.set(student, next++);
+    }
+
+    @Benchmark
+    public void setBeansByName() {
+        Beans.set(student, "id", next++);
+    }
+}
@@ -0,0 +1,89 @@
+package datereflection;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting one timestamp per call:
+ *
+ * simpleDateFormatPerCall  what SimpleDateFormatTest did: new SimpleDateFormat each time
+ * simpleDateFormatShared   one SimpleDateFormat per thread (it is not thread safe)
+ * dateTimeFormatterPerCall DateTimeFormatter.ofPattern each time
+ * jodaForPattern           Joda DateTimeFormat.forPattern, as in JodaTimeExamples
+ * dateFormats              DateFormats.format, cached formatter or digit fast path
+ *
+ * "yyyy-MM-dd'T'HH:mm:ss" and "dd/MM/yyyy" take the fast path, "dd MMMM yyyy"
+ * goes through the cached DateTimeFormatter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DateFormatBenchmark {
+
+    @Param({ "yyyy-MM-dd'T'HH:mm:ss", "dd/MM/yyyy", "dd MMMM yyyy" })
+    public String pattern;
+
+    private Date date;
+    private LocalDateTime localDateTime;
+    private DateTime jodaDateTime;
+    private SimpleDateFormat shared;
+
+    @Setup
+    public void setUp() {
+        date = new Date(1_700_000_000_000L);
+        localDateTime = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        jodaDateTime = new DateTime(date.getTime());
+        shared = new SimpleDateFormat(pattern);
+    }
+
+    @Benchmark
+    public String simpleDateFormatPerCall() {
+        return new SimpleDateFormat(pattern).format(date);
+    }
+
+    @Benchmark
+    public String simpleDateFormatShared() {
+        return shared.format(date);
+    }
+
+    @Benchmark
+    public String dateTimeFormatterPerCall() {
+        return DateTimeFormatter.ofPattern(pattern).format(localDateTime);
+    }
+
+    @Benchmark
+    public String jodaForPattern() {
+        return jodaDateTime.toString(DateTimeFormat.forPattern(pattern));
+    }
+
+    @Benchmark
+    public String dateFormats() {
+        return DateFormats.format(localDateTime, pattern);
+    }
+
+    @Benchmark
+    public String dateFormatsUtilDate() {
+        return DateFormats.format(date, pattern);
+    }
+}
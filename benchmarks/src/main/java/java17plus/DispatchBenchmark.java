@@ -0,0 +1,227 @@
+package java17plus;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost per message of routing on the message's type, with 1 (monomorphic), 2
+ * (bimorphic) or 8 (megamorphic) message types mixed at random at the call site:
+ *
+ * typeSwitch      switch with type patterns over a sealed interface
+ * instanceofChain if (m instanceof A a) ... else if ...
+ * visitor         m.accept(visitor), one virtual call plus the visit method
+ * dispatcher      TypeDispatcher, a ClassValue lookup plus one handler call
+ *
+ * processObject / processObjectDispatched run the real Java17Features methods
+ * (switch with guards against the TypeDispatcher copy) on String, Integer, List
+ * and other values.
+ *
+ * With one type every form is a check the JIT predicts. With more types switch
+ * and instanceof pay for each case tested before the match, the visitor pays
+ * for a megamorphic virtual call, and the table pays a fixed ClassValue lookup
+ * and handler call whatever the number or order of cases.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    static final int MESSAGES = 1024;
+
+    sealed interface Msg permits Ping, Text, Num, Flag, Pair, Batch, Ack, Close {
+        int accept(Visitor v);
+    }
+
+    interface Visitor {
+        int ping(Ping m);
+        int text(Text m);
+        int num(Num m);
+        int flag(Flag m);
+        int pair(Pair m);
+        int batch(Batch m);
+        int ack(Ack m);
+        int close(Close m);
+    }
+
+    record Ping(int seq) implements Msg {
+        public int accept(Visitor v) { return v.ping(this); }
+    }
+
+    record Text(String text) implements Msg {
+        public int accept(Visitor v) { return v.text(this); }
+    }
+
+    record Num(long value) implements Msg {
+        public int accept(Visitor v) { return v.num(this); }
+    }
+
+    record Flag(boolean on) implements Msg {
+        public int accept(Visitor v) { return v.flag(this); }
+    }
+
+    record Pair(int a, int b) implements Msg {
+        public int accept(Visitor v) { return v.pair(this); }
+    }
+
+    record Batch(int size) implements Msg {
+        public int accept(Visitor v) { return v.batch(this); }
+    }
+
+    record Ack(int id) implements Msg {
+        public int accept(Visitor v) { return v.ack(this); }
+    }
+
+    record Close(int code) implements Msg {
+        public int accept(Visitor v) { return v.close(this); }
+    }
+
+    /* Types in switch/chain order; the bimorphic case uses the first and the last. */
+    private static final Msg[] SAMPLES = { new Ping(1), new Text("hi"), new Num(3), new Flag(true), new Pair(1, 2),
+            new Batch(5), new Ack(7), new Close(9) };
+
+    private static final Visitor VISITOR = new Visitor() {
+        public int ping(Ping m) { return m.seq(); }
+        public int text(Text m) { return m.text().length(); }
+        public int num(Num m) { return (int) m.value(); }
+        public int flag(Flag m) { return m.on() ? 1 : 0; }
+        public int pair(Pair m) { return m.a() + m.b(); }
+        public int batch(Batch m) { return m.size(); }
+        public int ack(Ack m) { return m.id(); }
+        public int close(Close m) { return m.code(); }
+    };
+
+    private static final TypeDispatcher<Integer> DISPATCHER = TypeDispatcher.<Integer>builder()
+            .on(Ping.class, Ping::seq)
+            .on(Text.class, m -> m.text().length())
+            .on(Num.class, m -> (int) m.value())
+            .on(Flag.class, m -> m.on() ? 1 : 0)
+            .on(Pair.class, m -> m.a() + m.b())
+            .on(Batch.class, Batch::size)
+            .on(Ack.class, Ack::id)
+            .on(Close.class, Close::code)
+            .build();
+
+    private static final Object[] OBJECT_SAMPLES = { "Hello World", 42, List.of(1, 2), "Hi", -10, List.of(), 3.5, 'c' };
+
+    @Param({ "1", "2", "8" })
+    public int types;
+
+    private Msg[] messages;
+    private Object[] objects;
+    private final Java17Features demo = new Java17Features();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        messages = new Msg[MESSAGES];
+        objects = new Object[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            int k = switch (types) {
+                case 1 -> 0;
+                case 2 -> random.nextBoolean() ? 0 : SAMPLES.length - 1;
+                default -> random.nextInt(types);
+            };
+            messages[i] = SAMPLES[k];
+            objects[i] = OBJECT_SAMPLES[k];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int typeSwitch() {
+        int sum = 0;
+        for (Msg m : messages) {
+            sum += switch (m) {
+                case Ping p -> p.seq();
+                case Text t -> t.text().length();
+                case Num n -> (int) n.value();
+                case Flag f -> f.on() ? 1 : 0;
+                case Pair p -> p.a() + p.b();
+                case Batch b -> b.size();
+                case Ack a -> a.id();
+                case Close c -> c.code();
+            };
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int instanceofChain() {
+        int sum = 0;
+        for (Msg m : messages) {
+            if (m instanceof Ping p) {
+                sum += p.seq();
+            } else if (m instanceof Text t) {
+                sum += t.text().length();
+            } else if (m instanceof Num n) {
+                sum += (int) n.value();
+            } else if (m instanceof Flag f) {
+                sum += f.on() ? 1 : 0;
+            } else if (m instanceof Pair p) {
+                sum += p.a() + p.b();
+            } else if (m instanceof Batch b) {
+                sum += b.size();
+            } else if (m instanceof Ack a) {
+                sum += a.id();
+            } else if (m instanceof Close c) {
+                sum += c.code();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int visitor() {
+        int sum = 0;
+        for (Msg m : messages) {
+            sum += m.accept(VISITOR);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int dispatcher() {
+        int sum = 0;
+        for (Msg m : messages) {
+            sum += DISPATCHER.dispatch(m);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void processObject(Blackhole bh) {
+        for (Object o : objects) {
+            bh.consume(demo.processObject(o));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void processObjectDispatched(Blackhole bh) {
+        for (Object o : objects) {
+            bh.consume(demo.processObjectDispatched(o));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package java17plus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Total and per-shape area of a mix of circles, rectangles and triangles:
+ *
+ * objectsLoop        for-each over List&lt;Shape&gt;, virtual area() per object
+ * objectsStream      shapes.stream().mapToDouble(Shape::area).sum()
+ * batchTotal         ShapeBatch.totalArea()
+ * batchTotalParallel ShapeBatch.parallelTotalArea()
+ * batchAreas         ShapeBatch.areas(out), one result per shape
+ * batchAreasParallel ShapeBatch.parallelAreas(out)
+ *
+ * Shapes per second is size divided by the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ShapeBatchBenchmark {
+
+    @Param({ "1000000" })
+    public int size;
+
+    private List<Java17Features.Shape> shapes;
+    private ShapeBatch batch;
+    private double[] out;
+
+    @Setup
+    public void setup() {
+        Java17Features demo = new Java17Features();
+        Random random = new Random(42);
+        shapes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double x = 1 + random.nextDouble() * 10;
+            double y = 1 + random.nextDouble() * 10;
+            shapes.add(switch (i % 3) {
+                case 0 -> demo.new Circle(x);
+                case 1 -> demo.new Rectangle(x, y);
+                default -> demo.new Triangle(x, y, (x + y) * 0.75);
+            });
+        }
+        Collections.shuffle(shapes, random);
+        batch = ShapeBatch.of(shapes);
+        out = new double[size];
+    }
+
+    @Benchmark
+    public double objectsLoop() {
+        double sum = 0;
+        for (Java17Features.Shape shape : shapes) {
+            sum += shape.area();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double objectsStream() {
+        return shapes.stream().mapToDouble(Java17Features.Shape::area).sum();
+    }
+
+    @Benchmark
+    public double batchTotal() {
+        return batch.totalArea();
+    }
+
+    @Benchmark
+    public double batchTotalParallel() {
+        return batch.parallelTotalArea();
+    }
+
+    @Benchmark
+    public double[] batchAreas() {
+        return batch.areas(out);
+    }
+
+    @Benchmark
+    public double[] batchAreasParallel() {
+        return batch.parallelAreas(out);
+    }
+}
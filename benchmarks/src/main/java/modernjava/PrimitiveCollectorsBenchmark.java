@@ -0,0 +1,142 @@
+package modernjava;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JDK collectors against PrimitiveCollectors over a list of people:
+ *
+ * groupingByBoxed     groupingBy(age, summarizingDouble(salary))
+ * groupingByInt       PrimitiveCollectors.groupingByInt(age, salary)
+ * topKSorted          sorted(comparingDouble(salary).reversed()).limit(k)
+ * topKHeap            PrimitiveCollectors.topK(k, salary)
+ * distinctExact       map(name).distinct().count()
+ * distinctHyperLogLog PrimitiveCollectors.approximateDistinct(name)
+ * medianSorted        mapToDouble(salary).sorted(), middle element
+ * medianSketch        PrimitiveCollectors.quantiles(salary).quantile(0.5)
+ *
+ * Each pair also runs on a parallel stream (the *Parallel methods).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PrimitiveCollectorsBenchmark {
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "10" })
+    public int k;
+
+    private List<Person> people;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        String[] jobs = { "Engineer", "Designer", "Manager", "Analyst" };
+        people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("P" + random.nextInt(size), 18 + random.nextInt(50), jobs[i % jobs.length]));
+        }
+    }
+
+    private static double salary(Person p) {
+        return 1000.0 * p.getAge() + p.getName().length();
+    }
+
+    @Benchmark
+    public Map<Integer, DoubleSummaryStatistics> groupingByBoxed() {
+        return people.stream().collect(Collectors.groupingBy(Person::getAge,
+                Collectors.summarizingDouble(PrimitiveCollectorsBenchmark::salary)));
+    }
+
+    @Benchmark
+    public IntGroupStats groupingByInt() {
+        return people.stream().collect(
+                PrimitiveCollectors.groupingByInt(Person::getAge, PrimitiveCollectorsBenchmark::salary));
+    }
+
+    @Benchmark
+    public Map<Integer, DoubleSummaryStatistics> groupingByBoxedParallel() {
+        return people.parallelStream().collect(Collectors.groupingByConcurrent(Person::getAge,
+                Collectors.summarizingDouble(PrimitiveCollectorsBenchmark::salary)));
+    }
+
+    @Benchmark
+    public IntGroupStats groupingByIntParallel() {
+        return people.parallelStream().collect(
+                PrimitiveCollectors.groupingByInt(Person::getAge, PrimitiveCollectorsBenchmark::salary));
+    }
+
+    @Benchmark
+    public List<Person> topKSorted() {
+        return people.stream()
+                .sorted(Comparator.comparingDouble(PrimitiveCollectorsBenchmark::salary).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Person> topKHeap() {
+        return people.stream().collect(PrimitiveCollectors.topK(k, PrimitiveCollectorsBenchmark::salary));
+    }
+
+    @Benchmark
+    public List<Person> topKHeapParallel() {
+        return people.parallelStream().collect(PrimitiveCollectors.topK(k, PrimitiveCollectorsBenchmark::salary));
+    }
+
+    @Benchmark
+    public long distinctExact() {
+        return people.stream().map(Person::getName).distinct().count();
+    }
+
+    @Benchmark
+    public long distinctHyperLogLog() {
+        return people.stream().collect(PrimitiveCollectors.approximateDistinct(Person::getName)).estimate();
+    }
+
+    @Benchmark
+    public long distinctHyperLogLogParallel() {
+        return people.parallelStream().collect(PrimitiveCollectors.approximateDistinct(Person::getName)).estimate();
+    }
+
+    @Benchmark
+    public double medianSorted() {
+        double[] sorted = people.stream().mapToDouble(PrimitiveCollectorsBenchmark::salary).sorted().toArray();
+        return sorted[sorted.length / 2];
+    }
+
+    @Benchmark
+    public double medianSketch() {
+        return people.stream().collect(PrimitiveCollectors.quantiles(PrimitiveCollectorsBenchmark::salary))
+                .quantile(0.5);
+    }
+
+    @Benchmark
+    public double medianSketchParallel() {
+        return people.parallelStream().collect(PrimitiveCollectors.quantiles(PrimitiveCollectorsBenchmark::salary))
+                .quantile(0.5);
+    }
+}
@@ -0,0 +1,102 @@
+package regression;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Results of a JMH run as written with -rf json (or by CollectionBenchmarks),
+ * keyed by benchmark, parameters and thread count:
+ *
+ *   collection.MapBenchmark.getHit impl=HashMap,size=1000 threads=1
+ *
+ * Each result keeps its score and one sample per fork: the mean of that fork's
+ * measurement iterations. Iterations within a fork share a JVM, its JIT
+ * decisions and heap layout, so they are not independent; forks are, and
+ * RegressionGate tests the fork means for significance.
+ */
+public final class BenchmarkResults {
+
+    /* One benchmark at one parameter combination; samples are the per-fork means. */
+    public record Result(String key, String mode, String unit, double score, double[] samples) {
+
+        public int forks() {
+            return samples.length;
+        }
+
+        /* Average time and single shot: lower is better; throughput: higher is better. */
+        public boolean lowerIsBetter() {
+            return !mode.equals("thrpt");
+        }
+    }
+
+    private final Map<String, Result> results;
+
+    private BenchmarkResults(Map<String, Result> results) {
+        this.results = results;
+    }
+
+    public static BenchmarkResults read(File json) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(json);
+        if (!root.isArray()) {
+            throw new IOException(json + ": not a JMH JSON result file");
+        }
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : root) {
+            JsonNode metric = run.path("primaryMetric");
+            List<Double> samples = new ArrayList<>();
+            for (JsonNode fork : metric.path("rawData")) {
+                double sum = 0;
+                for (JsonNode iteration : fork) {
+                    sum += iteration.asDouble();
+                }
+                if (fork.size() > 0) {
+                    samples.add(sum / fork.size());
+                }
+            }
+            String key = key(run.path("benchmark").asText(), params(run.path("params")), run.path("threads").asInt(1));
+            results.put(key, new Result(key, run.path("mode").asText(), metric.path("scoreUnit").asText(),
+                    metric.path("score").asDouble(), samples.stream().mapToDouble(Double::doubleValue).toArray()));
+        }
+        return new BenchmarkResults(results);
+    }
+
+    public static String key(String benchmark, Map<String, String> params, int threads) {
+        StringBuilder key = new StringBuilder(benchmark);
+        String separator = " ";
+        for (Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+            key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+            separator = ",";
+        }
+        return key.append(" threads=").append(threads).toString();
+    }
+
+    private static Map<String, String> params(JsonNode params) {
+        Map<String, String> result = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            result.put(param.getKey(), param.getValue().asText());
+        }
+        return result;
+    }
+
+    public Result get(String key) {
+        return results.get(key);
+    }
+
+    public Iterable<Result> all() {
+        return results.values();
+    }
+
+    public int size() {
+        return results.size();
+    }
+}
@@ -0,0 +1,121 @@
+package regression;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.stat.inference.TTest;
+
+/**
+ * Compares a JMH run against a stored baseline and says which benchmarks got
+ * slower.
+ *
+ * A benchmark regresses when it is worse than its baseline by more than the
+ * tolerance (relative, on the score) and Welch's t-test on the per-fork means
+ * of both runs puts the difference below alpha, i.e. it is unlikely to be
+ * noise. The test needs independent samples, and only forks are: run at least
+ * three on each side. With fewer than two forks on either side only the
+ * tolerance applies. Benchmarks that are only in the current run are reported
+ * as NEW and do not count as regressions here; callers that expect every
+ * benchmark to be compared check for them (PerformanceRegressionIT fails on
+ * any). Baseline entries that were not run are ignored.
+ *
+ *   java -cp target/benchmarks.jar regression.RegressionGate baseline/collection.json current.json [tolerance [alpha]]
+ *
+ * exits with status 1 when something regressed.
+ */
+public final class RegressionGate {
+
+    public static final double DEFAULT_TOLERANCE = 0.20;
+    public static final double DEFAULT_ALPHA = 0.01;
+
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED, NEW
+    }
+
+    /* change is relative and positive when the current run is worse. */
+    public record Comparison(String key, Verdict verdict, double baseline, double current, double change,
+            double pValue, String unit) {
+
+        @Override
+        public String toString() {
+            if (verdict == Verdict.NEW) {
+                return String.format("%-11s %s: %.3f %s", verdict, key, current, unit);
+            }
+            return String.format("%-11s %s: %.3f -> %.3f %s (%+.1f%%, p=%.4f)",
+                    verdict, key, baseline, current, unit, change * 100, pValue);
+        }
+    }
+
+    private final double tolerance;
+    private final double alpha;
+
+    public RegressionGate(double tolerance, double alpha) {
+        if (tolerance < 0 || alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("tolerance " + tolerance + ", alpha " + alpha);
+        }
+        this.tolerance = tolerance;
+        this.alpha = alpha;
+    }
+
+    public RegressionGate() {
+        this(DEFAULT_TOLERANCE, DEFAULT_ALPHA);
+    }
+
+    public List<Comparison> compare(BenchmarkResults baseline, BenchmarkResults current) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (BenchmarkResults.Result now : current.all()) {
+            BenchmarkResults.Result before = baseline.get(now.key());
+            comparisons.add(before == null
+                    ? new Comparison(now.key(), Verdict.NEW, Double.NaN, now.score(), Double.NaN, Double.NaN, now.unit())
+                    : compare(before, now));
+        }
+        return comparisons;
+    }
+
+    public Comparison compare(BenchmarkResults.Result before, BenchmarkResults.Result now) {
+        if (!before.unit().equals(now.unit()) || !before.mode().equals(now.mode())) {
+            throw new IllegalArgumentException(now.key() + ": " + now.mode() + " " + now.unit()
+                    + " against a baseline in " + before.mode() + " " + before.unit());
+        }
+        double change = (now.score() - before.score()) / before.score();
+        if (!now.lowerIsBetter()) {
+            change = -change;
+        }
+        double p = before.samples().length >= 2 && now.samples().length >= 2
+                ? new TTest().tTest(before.samples(), now.samples())
+                : Double.NaN;
+        boolean significant = Double.isNaN(p) || p < alpha;
+        Verdict verdict = change > tolerance && significant ? Verdict.REGRESSION
+                : change < -tolerance && significant ? Verdict.IMPROVEMENT
+                : Verdict.UNCHANGED;
+        return new Comparison(now.key(), verdict, before.score(), now.score(), change, p, now.unit());
+    }
+
+    public static List<Comparison> regressions(List<Comparison> comparisons) {
+        List<Comparison> result = new ArrayList<>();
+        for (Comparison c : comparisons) {
+            if (c.verdict() == Verdict.REGRESSION) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: RegressionGate baseline.json current.json [tolerance [alpha]]");
+            System.exit(2);
+        }
+        RegressionGate gate = new RegressionGate(
+                args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE,
+                args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_ALPHA);
+        List<Comparison> comparisons = gate.compare(
+                BenchmarkResults.read(new File(args[0])), BenchmarkResults.read(new File(args[1])));
+        comparisons.forEach(System.out::println);
+        int regressed = regressions(comparisons).size();
+        System.out.println(regressed + " of " + comparisons.size() + " benchmarks regressed");
+        System.exit(regressed == 0 ? 0 : 1);
+    }
+}
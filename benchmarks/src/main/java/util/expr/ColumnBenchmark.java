@@ -0,0 +1,73 @@
+package util.expr;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring a table of rows: a loop calling the hot-tier evaluator once per row
+ * against one evaluateColumns() call, sequential and on the common pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ColumnBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int rows;
+
+    private final CompiledExpression formula = ExpressionParser.parse("price * qty * (1 + tax) - discount");
+    private double[][] columns;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        formula.compileToBytecode();
+        columns = new double[4][rows];
+        for (int i = 0; i < rows; i++) {
+            columns[0][i] = 1 + i % 100;
+            columns[1][i] = i % 7;
+            columns[2][i] = 0.2;
+            columns[3][i] = i % 3;
+        }
+        out = new double[rows];
+    }
+
+    @Benchmark
+    public double[] rowByRow() {
+        double[] vars = new double[4];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < 4; j++) {
+                vars[j] = columns[j][i];
+            }
+            out[i] = formula.evaluate(vars);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] columns() {
+        formula.evaluateColumns(columns, out, null);
+        return out;
+    }
+
+    @Benchmark
+    public double[] columnsParallel() {
+        formula.evaluateColumns(columns, out, ForkJoinPool.commonPool());
+        return out;
+    }
+}
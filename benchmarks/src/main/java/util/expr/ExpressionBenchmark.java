@@ -0,0 +1,68 @@
+package util.expr;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of one pricing formula on the three paths of the expression engine:
+ *
+ * parseEveryTime  what CalculatorConsole used to do: parse on every evaluation
+ * interpreter     the TreeCompiler lambda tree (cold tier)
+ * bytecode        the BytecodeCompiler hidden class (hot tier)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ExpressionBenchmark {
+
+    @Param({
+        "price * qty",
+        "price * qty * (1 + tax) - discount",
+        "max(price * qty * (1 + tax) - discount, 0) + sqrt(qty) * fee % 7"
+    })
+    public String formula;
+
+    private CompiledExpression interpreted;
+    private CompiledExpression compiled;
+    private final double[] vars = new double[5];
+
+    @Setup
+    public void setUp() {
+        interpreted = ExpressionParser.parse(formula);
+        compiled = ExpressionParser.parse(formula);
+        if (!compiled.compileToBytecode()) {
+            throw new IllegalStateException("Could not compile " + formula);
+        }
+        double[] values = { 19.99, 3, 0.2, 1.5, 0.75 };
+        System.arraycopy(values, 0, vars, 0, Math.min(values.length, vars.length));
+    }
+
+    @Benchmark
+    public double parseEveryTime() {
+        return ExpressionParser.parse(formula).interpreter().evaluate(vars);
+    }
+
+    @Benchmark
+    public double interpreter() {
+        return interpreted.interpreter().evaluate(vars);
+    }
+
+    @Benchmark
+    public double bytecode() {
+        return compiled.evaluate(vars);
+    }
+}
@@ -0,0 +1,102 @@
+package util.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java17plus.Java17Features.Address;
+import java17plus.Java17Features.Employee;
+import java17plus.Java17Features.Person;
+
+/**
+ * Writing a list of Java17Features.Employee records (nested Person and Address)
+ * as UTF-8 JSON to an OutputStream that drops the bytes:
+ *
+ * jackson     a shared ObjectWriter for List, Jackson's own record support
+ * recordJson  RecordJson.write
+ *
+ * Jackson would also write isAdult() and getFullAddress() as properties; mix-ins
+ * hide them, so both write the record components only and produce the same bytes
+ * (checked in setup).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RecordJsonBenchmark {
+
+    interface PersonMixIn {
+        @JsonIgnore
+        boolean isAdult();
+    }
+
+    interface EmployeeMixIn {
+        @JsonIgnore
+        String getFullAddress();
+    }
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private List<Employee> employees;
+    private ObjectWriter jackson;
+    private OutputStream sink;
+
+    @Setup
+    public void setup() throws IOException {
+        employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Person person = new Person("Employee " + i, 20 + i % 45, "employee" + i + "@example.com");
+            Address address = new Address(i + " Main St", i % 2 == 0 ? "Anytown" : "Zürich", "USA");
+            employees.add(new Employee(person, address, 40_000 + i * 1.5));
+        }
+        jackson = new ObjectMapper()
+                .addMixIn(Person.class, PersonMixIn.class)
+                .addMixIn(Employee.class, EmployeeMixIn.class)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .writerFor(List.class);
+        sink = OutputStream.nullOutputStream();
+
+        byte[] expected = jackson.writeValueAsBytes(employees);
+        ByteArrayOutputStream ours = new ByteArrayOutputStream();
+        RecordJson.write(employees, ours);
+        if (!Arrays.equals(expected, ours.toByteArray())) {
+            throw new IllegalStateException("RecordJson and Jackson output differ");
+        }
+    }
+
+    @Benchmark
+    public OutputStream jackson() throws IOException {
+        jackson.writeValue(sink, employees);
+        return sink;
+    }
+
+    @Benchmark
+    public OutputStream recordJson() throws IOException {
+        RecordJson.write(employees, sink);
+        return sink;
+    }
+}
@@ -0,0 +1,95 @@
+package util.template;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering the Java17Features HTML page:
+ *
+ * formatted       "...".formatted(title, title, content), what the page did before
+ * stringFormat    String.format with the same pattern
+ * render          Template.render, a String built in a per-thread StringBuilder
+ * renderTo        Template.renderTo a StringBuilder the caller reuses
+ * encodeTo        Template.encodeTo a reused ByteBuffer, UTF-8 bytes ready to send
+ *
+ * The title contains '&' so the HTML escaping is part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TemplateBenchmark {
+
+    private static final String FORMAT = """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <title>%s</title>
+                <meta charset="UTF-8">
+            </head>
+            <body>
+                <h1>%s</h1>
+                <div class="content">
+                    %s
+                </div>
+            </body>
+            </html>
+            """;
+
+    private static final Template PAGE = Template.html(FORMAT.replace("<title>%s", "<title>{{title}}")
+            .replace("<h1>%s", "<h1>{{title}}").replace("    %s", "    {{{content}}}"));
+
+    private String title;
+    private String content;
+    private StringBuilder builder;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        title = "Fish & Chips, a short history";
+        content = "<p>Fried fish with chips has been a take-away meal since the 1860s.</p>";
+        builder = new StringBuilder(1024);
+        buffer = ByteBuffer.allocateDirect(4096);
+    }
+
+    @Benchmark
+    public String formatted() {
+        return FORMAT.formatted(title, title, content);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(FORMAT, title, title, content);
+    }
+
+    @Benchmark
+    public String render() {
+        return PAGE.render(title, content);
+    }
+
+    @Benchmark
+    public StringBuilder renderTo() {
+        builder.setLength(0);
+        return PAGE.renderTo(builder, title, content);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeTo() {
+        buffer.clear();
+        PAGE.encodeTo(buffer, title, content);
+        return buffer;
+    }
+}
@@ -0,0 +1,141 @@
+package regression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs a few benchmarks of the hot collection and stream paths in a short mode
+ * (three forks of 2 + 5 iterations of half a second) and fails when
+ * RegressionGate finds one slower than in the baseline, or when a benchmark
+ * has no baseline to compare with (a renamed parameter or a dropped entry
+ * would otherwise pass unchecked). Failsafe runs it in mvn verify -Pperf; it
+ * is not part of the default build.
+ *
+ * Scores only compare on the same hardware, so baselines are kept per machine
+ * in baseline/gate/<machine>/, the machine being os-arch-Ncpu (perf.machine
+ * overrides it). A machine without baselines fails the check; run once with
+ * -Dperf.record=true to write them, see README.md.
+ *
+ * Short runs drift more than full ones, so the tolerance defaults to 30%
+ * rather than the gate's 20%: enough to catch an accidental quadratic loop or
+ * boxing in a hot path, not a few percent. perf.tolerance and perf.alpha
+ * override the thresholds.
+ */
+@DisplayName("Performance Regression Tests")
+class PerformanceRegressionIT {
+
+    private static final File BASELINE_DIR = new File(System.getProperty("perf.baseline.dir", "baseline"));
+    private static final File OUTPUT_DIR = new File(System.getProperty("perf.output.dir", "target/perf"));
+    private static final String MACHINE = System.getProperty("perf.machine", machine());
+    private static final boolean RECORD = Boolean.getBoolean("perf.record");
+
+    /* Fork means are what the t-test compares, so it needs several. */
+    private static final int FORKS = 3;
+
+    private static final RegressionGate GATE = new RegressionGate(
+            Double.parseDouble(System.getProperty("perf.tolerance", "0.30")),
+            Double.parseDouble(System.getProperty("perf.alpha", String.valueOf(RegressionGate.DEFAULT_ALPHA))));
+
+    /* Benchmarks matching include, at these parameter values and this many threads (at most one per CPU). */
+    private record Check(String include, Map<String, String> params, int threads) {
+    }
+
+    @Test
+    @DisplayName("Collection hot paths should not be slower than the baseline")
+    void testCollections() throws Exception {
+        verify("collection", List.of(
+                new Check("collection\\.ListBenchmark\\.(iterate|randomGet)$", Map.of("impl", "ArrayList", "size", "100000"), 1),
+                new Check("collection\\.MapBenchmark\\.(getHit|put)$", Map.of("impl", "HashMap", "size", "1000"), 1),
+                new Check("collection\\.ConcurrentMapBenchmark\\.mixed$", Map.of("impl", "ConcurrentHashMap", "size", "100000"), 2),
+                new Check("collection\\.BlockingQueueBenchmark\\.offerPoll$", Map.of("impl", "ArrayBlockingQueue"), 2)));
+    }
+
+    @Test
+    @DisplayName("Stream collector hot paths should not be slower than the baseline")
+    void testStreams() throws Exception {
+        verify("streams", List.of(new Check(
+                "modernjava\\.PrimitiveCollectorsBenchmark\\.(groupingByInt|topKHeap|distinctHyperLogLog|medianSketch)$",
+                Map.of(), 1)));
+    }
+
+    private void verify(String name, List<Check> checks) throws RunnerException, IOException {
+        File baselineFile = new File(BASELINE_DIR, "gate/" + MACHINE + "/" + name + ".json");
+        assertTrue(RECORD || baselineFile.isFile(), () -> "no baseline " + baselineFile + " for this machine ("
+                + MACHINE + "); record one with -Dperf.record=true");
+
+        List<RunResult> results = new ArrayList<>();
+        for (Check check : checks) {
+            results.addAll(new Runner(options(check)).run());
+        }
+        OUTPUT_DIR.mkdirs();
+        File current = new File(OUTPUT_DIR, name + ".json");
+        try (PrintStream out = new PrintStream(new FileOutputStream(current), true, "UTF-8")) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+        if (RECORD) {
+            baselineFile.getParentFile().mkdirs();
+            Files.copy(current.toPath(), baselineFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Recorded " + results.size() + " results to " + baselineFile);
+            return;
+        }
+
+        BenchmarkResults baseline = BenchmarkResults.read(baselineFile);
+        for (BenchmarkResults.Result result : baseline.all()) {
+            assertTrue(result.forks() >= FORKS, () -> result.key() + " has " + result.forks() + " fork(s) in "
+                    + baselineFile + ", need " + FORKS + "; record it again with -Dperf.record=true");
+        }
+        List<RegressionGate.Comparison> comparisons = GATE.compare(baseline, BenchmarkResults.read(current));
+        comparisons.forEach(System.out::println);
+        assertFalse(comparisons.isEmpty(), "nothing was measured");
+        List<RegressionGate.Comparison> unmatched = comparisons.stream()
+                .filter(c -> c.verdict() == RegressionGate.Verdict.NEW).toList();
+        assertTrue(unmatched.isEmpty(), () -> unmatched.size() + " benchmark(s) not in " + baselineFile + ":\n"
+                + unmatched.stream().map(Object::toString).collect(Collectors.joining("\n")));
+        List<RegressionGate.Comparison> regressions = RegressionGate.regressions(comparisons);
+        assertTrue(regressions.isEmpty(), () -> regressions.size() + " regression(s) against " + baselineFile + ":\n"
+                + regressions.stream().map(Object::toString).collect(Collectors.joining("\n")));
+    }
+
+    private static Options options(Check check) {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(check.include())
+                .forks(FORKS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.milliseconds(500))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.milliseconds(500))
+                .threads(Math.min(check.threads(), Runtime.getRuntime().availableProcessors()));
+        check.params().forEach((param, value) -> options.param(param, value));
+        return options.build();
+    }
+
+    /* e.g. linux-amd64-8cpu */
+    private static String machine() {
+        String machine = System.getProperty("os.name") + "-" + System.getProperty("os.arch") + "-"
+                + Runtime.getRuntime().availableProcessors() + "cpu";
+        return machine.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9.]+", "-");
+    }
+}
@@ -0,0 +1,86 @@
+package regression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for RegressionGate and BenchmarkResults */
+@DisplayName("Regression Gate Tests")
+class RegressionGateTest {
+
+    private static BenchmarkResults.Result result(String mode, double... samples) {
+        double mean = Arrays.stream(samples).average().orElse(Double.NaN);
+        return new BenchmarkResults.Result("b", mode, mode.equals("thrpt") ? "ops/us" : "us/op", mean, samples);
+    }
+
+    @Test
+    @DisplayName("Should flag a significant slowdown beyond the tolerance only")
+    void testVerdicts() {
+        RegressionGate gate = new RegressionGate(0.10, 0.01);
+        BenchmarkResults.Result base = result("avgt", 100, 101, 99, 100, 100);
+
+        assertEquals(RegressionGate.Verdict.REGRESSION, gate.compare(base, result("avgt", 130, 131, 129, 130, 130)).verdict());
+        assertEquals(RegressionGate.Verdict.IMPROVEMENT, gate.compare(base, result("avgt", 70, 71, 69, 70, 70)).verdict());
+        // 5% slower: significant but within tolerance
+        assertEquals(RegressionGate.Verdict.UNCHANGED, gate.compare(base, result("avgt", 105, 106, 104, 105, 105)).verdict());
+        // 30% slower on average but too noisy to tell
+        assertEquals(RegressionGate.Verdict.UNCHANGED, gate.compare(base, result("avgt", 50, 210, 60, 200, 130)).verdict());
+        // A single sample: the tolerance decides
+        assertEquals(RegressionGate.Verdict.REGRESSION, gate.compare(base, result("avgt", 130)).verdict());
+    }
+
+    @Test
+    @DisplayName("Should treat lower throughput as a regression")
+    void testThroughput() {
+        RegressionGate gate = new RegressionGate(0.10, 0.01);
+        RegressionGate.Comparison c = gate.compare(result("thrpt", 10, 10.1, 9.9, 10), result("thrpt", 7, 7.1, 6.9, 7));
+        assertEquals(RegressionGate.Verdict.REGRESSION, c.verdict());
+        assertEquals(0.3, c.change(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> gate.compare(result("thrpt", 1, 2), result("avgt", 1, 2)));
+    }
+
+    @Test
+    @DisplayName("Should read JMH JSON and compare by benchmark, params and threads")
+    void testReadAndCompare(@TempDir File dir) throws IOException {
+        File baseline = json(dir, "baseline.json", run("a.B.get", 1, "10.0", "[[10.0, 10.1, 9.9]]"),
+                run("a.B.put", 1, "20.0", "[[20.0, 20.2], [19.8, 20.0]]"));
+        File current = json(dir, "current.json", run("a.B.get", 1, "15.0", "[[15.0, 15.1, 14.9]]"),
+                run("a.B.put", 1, "20.1", "[[20.1, 20.0], [20.2, 20.1]]"), run("a.B.get", 2, "30.0", "[[30.0]]"));
+
+        BenchmarkResults results = BenchmarkResults.read(baseline);
+        String key = BenchmarkResults.key("a.B.put", Map.of("size", "10", "impl", "X"), 1);
+        assertEquals("a.B.put impl=X,size=10 threads=1", key);
+        // one sample per fork, the mean of its iterations
+        assertArrayEquals(new double[] {20.1, 19.9}, results.get(key).samples(), 1e-9);
+        assertEquals(2, results.get(key).forks());
+
+        List<RegressionGate.Comparison> comparisons = new RegressionGate().compare(results, BenchmarkResults.read(current));
+        assertEquals(3, comparisons.size());
+        assertEquals(RegressionGate.Verdict.REGRESSION, comparisons.get(0).verdict());
+        assertEquals(RegressionGate.Verdict.UNCHANGED, comparisons.get(1).verdict());
+        assertEquals(RegressionGate.Verdict.NEW, comparisons.get(2).verdict());
+        assertEquals(1, RegressionGate.regressions(comparisons).size());
+        assertTrue(comparisons.get(0).toString().startsWith("REGRESSION  a.B.get impl=X,size=10 threads=1: 10.000 -> 15.000"));
+    }
+
+    private static String run(String benchmark, int threads, String score, String raw) {
+        return "{\"benchmark\": \"" + benchmark + "\", \"mode\": \"avgt\", \"threads\": " + threads
+                + ", \"params\": {\"size\": \"10\", \"impl\": \"X\"}, \"primaryMetric\": {\"score\": " + score
+                + ", \"scoreUnit\": \"us/op\", \"rawData\": " + raw + "}}";
+    }
+
+    private static File json(File dir, String name, String... runs) throws IOException {
+        File file = new File(dir, name);
+        Files.writeString(file.toPath(), "[" + String.join(",\n", runs) + "]");
+        return file;
+    }
+}
@@ -2,7 +2,13 @@ package collection;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import modernjava.AdaptiveExecutor;
 
 /**
  * Advanced Collection Exercises - Complex challenges for Java Collections Framework
@@ -177,6 +183,7 @@ public class AdvancedCollectionExercises {
         boundedQueue.add("Very High Priority Task", 0); // Should replace lowest priority
         
         System.out.println("3.1 Bounded priority queue:");
+        System.out.println("   Streamed: " + boundedQueue.stream().collect(Collectors.joining(", ")));
         while (!boundedQueue.isEmpty()) {
             System.out.println("   " + boundedQueue.poll());
         }
@@ -191,6 +198,8 @@ public class AdvancedCollectionExercises {
         
         System.out.println("3.2 LRU Cache contents:");
         cache.forEach((key, value) -> System.out.println("   " + key + " -> " + value));
+        System.out.println("   Sum of values (parallel stream): "
+                + cache.parallelStream().mapToInt(Map.Entry::getValue).sum());
         
         System.out.println();
     }
@@ -204,6 +213,7 @@ public class AdvancedCollectionExercises {
         System.out.println("====================================");
         
         // Task 4.1: Compare different collection implementations
+        // (one cold run without warmup; benchmarks/ has JMH numbers in collection.ListBenchmark)
         int size = 10000;
         
         // ArrayList vs LinkedList performance
@@ -248,6 +258,19 @@ public class AdvancedCollectionExercises {
         System.out.println("   Sequential: " + sequentialTime / 1000000 + " ms, Count: " + sequentialCount);
         System.out.println("   Parallel: " + parallelTime / 1000000 + " ms, Count: " + parallelCount);
         
+        // Task 4.3: Let a cost model choose sequential or parallel per input
+        System.out.println("4.3 Adaptive execution:");
+        try (AdaptiveExecutor executor = new AdaptiveExecutor()) {
+            for (List<Integer> input : Arrays.asList(numbers.subList(0, 1000), numbers)) {
+                startTime = System.nanoTime();
+                long adaptiveCount = executor.run("evens", input, s -> s.filter(n -> n % 2 == 0).count());
+                long adaptiveTime = System.nanoTime() - startTime;
+                System.out.println("   " + input.size() + " elements: " + adaptiveTime / 1000000
+                        + " ms, Count: " + adaptiveCount);
+            }
+            executor.history().forEach(decision -> System.out.println("   " + decision));
+        }
+        
         System.out.println();
     }
     
@@ -300,6 +323,58 @@ public class AdvancedCollectionExercises {
             return queue.isEmpty();
         }
         
+        public int size() {
+            return queue.size();
+        }
+        
+        // In heap order, not priority order; splits in halves over the queue's array
+        public Spliterator<T> spliterator() {
+            return new ItemSpliterator<>(queue.spliterator());
+        }
+        
+        public Stream<T> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+        
+        public Stream<T> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
+        
+        // The items of a PriorityQueue spliterator, which is SIZED and SUBSIZED
+        private static class ItemSpliterator<T> implements Spliterator<T> {
+            private final Spliterator<PriorityItem<T>> items;
+            
+            ItemSpliterator(Spliterator<PriorityItem<T>> items) {
+                this.items = items;
+            }
+            
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                return items.tryAdvance(item -> action.accept(item.getItem()));
+            }
+            
+            @Override
+            public void forEachRemaining(Consumer<? super T> action) {
+                items.forEachRemaining(item -> action.accept(item.getItem()));
+            }
+            
+            @Override
+            public Spliterator<T> trySplit() {
+                Spliterator<PriorityItem<T>> prefix = items.trySplit();
+                return prefix == null ? null : new ItemSpliterator<>(prefix);
+            }
+            
+            @Override
+            public long estimateSize() {
+                return items.estimateSize();
+            }
+            
+            @Override
+            public int characteristics() {
+                return items.characteristics();
+            }
+        }
+        
         private static class PriorityItem<T> implements Comparable<PriorityItem<T>> {
             private final T item;
             private final int priority;
@@ -330,5 +405,24 @@ public class AdvancedCollectionExercises {
         protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
             return size() > capacity;
         }
+        
+        /*
+         * Entries from least to most recently used. A linked map cannot be split
+         * without walking it, so the entries are copied to an array once and the
+         * copy is split in halves; reading it does not reorder the cache.
+         */
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            Object[] entries = entrySet().toArray();
+            return new ArraySpliterator<>(entries, 0, entries.length,
+                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+        
+        public Stream<Map.Entry<K, V>> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+        
+        public Stream<Map.Entry<K, V>> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
     }
 }
@@ -0,0 +1,88 @@
+package collection;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of an array that may wrap around its end, as in a
+ * circular buffer.
+ *
+ * The range is known exactly, so it reports SIZED and SUBSIZED, and trySplit
+ * hands off the first half: a parallel stream gets equal parts down to single
+ * elements, with no copying. Elements are read from the live array, so the
+ * owning collection must not change while a stream over it runs.
+ */
+final class ArraySpliterator<T> implements Spliterator<T> {
+
+    private final Object[] array;
+    private final int head;         // physical index of logical index 0
+    private int index;              // next logical index
+    private final int fence;        // one past the last logical index
+    private final int characteristics;
+
+    /* The size elements starting at array[head], continuing at array[0] past the end. */
+    ArraySpliterator(Object[] array, int head, int size, int characteristics) {
+        this(array, head, 0, size, characteristics | SIZED | SUBSIZED);
+    }
+
+    private ArraySpliterator(Object[] array, int head, int index, int fence, int characteristics) {
+        this.array = array;
+        this.head = head;
+        this.index = index;
+        this.fence = fence;
+        this.characteristics = characteristics;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int lo = index;
+        int mid = (lo + fence) >>> 1;
+        if (lo >= mid) {
+            return null;
+        }
+        index = mid;
+        return new ArraySpliterator<>(array, head, lo, mid, characteristics);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept((T) array[physical(index++)]);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super T> action) {
+        Object[] a = array;
+        int from = physical(index);
+        int remaining = fence - index;
+        index = fence;
+        // At most two contiguous runs: up to the end of the array, then from its start
+        int first = Math.min(remaining, a.length - from);
+        for (int i = from; i < from + first; i++) {
+            action.accept((T) a[i]);
+        }
+        for (int i = 0; i < remaining - first; i++) {
+            action.accept((T) a[i]);
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    private int physical(int logical) {
+        int i = head + logical;
+        return i < array.length ? i : i - array.length;
+    }
+}
@@ -2,7 +2,10 @@ package collection;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Collection Practice Exercises - Progressive difficulty exercises
@@ -261,6 +264,7 @@ public class CollectionPracticeExercises {
         for (int i = 0; i < 5; i++) {
             System.out.println("   " + buffer.get(i));
         }
+        System.out.println("12.2 Streamed: " + buffer.stream().collect(Collectors.joining(", ")));
         
         // Exercise 13: Multi-threaded Collection Operations
         System.out.println("\nExercise 13: Multi-threaded Collection Operations");
@@ -438,7 +442,7 @@ public class CollectionPracticeExercises {
         public double getTotal() { return total; }
     }
     
-    static class CircularBuffer<T> {
+    static class CircularBuffer<T> implements Iterable<T> {
         private final T[] buffer;
         private int head, tail, size;
         
@@ -464,5 +468,28 @@ public class CollectionPracticeExercises {
             if (index >= size) return null;
             return buffer[(head + index) % buffer.length];
         }
+        
+        public int size() {
+            return size;
+        }
+        
+        // Oldest to newest, split in halves straight over the backing array
+        @Override
+        public Spliterator<T> spliterator() {
+            return new ArraySpliterator<>(buffer, head, size, Spliterator.ORDERED);
+        }
+        
+        @Override
+        public Iterator<T> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+        
+        public Stream<T> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+        
+        public Stream<T> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
     }
 }
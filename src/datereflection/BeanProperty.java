@@ -0,0 +1,165 @@
+package datereflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * One property of a bean class with its getter and setter turned into plain
+ * Function / BiConsumer objects.
+ *
+ * The accessor objects are generated with LambdaMetafactory, the same way the
+ * compiler links a method reference like StudentPojo::getName, so a call is an
+ * interface call the JIT can inline, not a reflective Method.invoke. Primitive
+ * values are boxed and unboxed by the generated code. If a class cannot be
+ * linked that way the accessor wraps a MethodHandle instead.
+ *
+ * Getters and setters inherited from JDK classes (Throwable.getMessage,
+ * Date.getTime) are reached through their public API, since java.base is not open
+ * for deep reflection. An accessor that cannot be reached at all is left out: the
+ * property is then not readable or not writable.
+ */
+public final class BeanProperty {
+
+	private final String							name;
+	private final Class< ? >						type;
+	private final Function< Object, Object >		getter;
+	private final BiConsumer< Object, Object >	setter;
+
+	BeanProperty( String name, Class< ? > type, Method getter, Method setter ) {
+		this.name = name;
+		this.type = type;
+		this.getter = getter == null ? null : getter( getter );
+		this.setter = setter == null ? null : setter( setter );
+	}
+
+	public String name( ) {
+		return name;
+	}
+
+	public Class< ? > type( ) {
+		return type;
+	}
+
+	public boolean isReadable( ) {
+		return getter != null;
+	}
+
+	public boolean isWritable( ) {
+		return setter != null;
+	}
+
+	public Object get( Object bean ) {
+		if ( getter == null ) {
+			throw new UnsupportedOperationException( "Property " + name + " has no getter" );
+		}
+		return getter.apply( bean );
+	}
+
+	/* A null value for a primitive property throws NullPointerException, as unboxing does. */
+	public void set( Object bean, Object value ) {
+		if ( setter == null ) {
+			throw new UnsupportedOperationException( "Property " + name + " has no setter" );
+		}
+		setter.accept( bean, value );
+	}
+
+	@Override
+	public String toString( ) {
+		return name + ": " + type.getSimpleName( ) + ( getter == null ? " (write only)" : setter == null ? " (read only)" : "" );
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static Function< Object, Object > getter( Method method ) {
+		MethodHandles.Lookup lookup = lookup( method );
+		if ( lookup == null ) {
+			return null;
+		}
+		MethodHandle handle = null;
+		try {
+			handle = lookup.unreflect( method );
+			MethodType instantiated = MethodType.methodType( wrap( method.getReturnType( ) ), method.getDeclaringClass( ) );
+			CallSite site = LambdaMetafactory.metafactory( lookup, "apply", MethodType.methodType( Function.class ),
+					MethodType.methodType( Object.class, Object.class ), handle, instantiated );
+			return (Function< Object, Object >) site.getTarget( ).invoke( );
+		} catch ( Throwable e ) {
+			if ( handle == null ) {
+				return null;
+			}
+			final MethodHandle generic = handle.asType( MethodType.methodType( Object.class, Object.class ) );
+			return bean -> {
+				try {
+					return generic.invokeExact( bean );
+				} catch ( RuntimeException | Error x ) {
+					throw x;
+				} catch ( Throwable x ) {
+					throw new IllegalStateException( x );
+				}
+			};
+		}
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static BiConsumer< Object, Object > setter( Method method ) {
+		MethodHandles.Lookup lookup = lookup( method );
+		if ( lookup == null ) {
+			return null;
+		}
+		MethodHandle handle = null;
+		try {
+			handle = lookup.unreflect( method );
+			MethodType instantiated = MethodType.methodType( void.class, method.getDeclaringClass( ),
+					wrap( method.getParameterTypes( )[ 0 ] ) );
+			CallSite site = LambdaMetafactory.metafactory( lookup, "accept", MethodType.methodType( BiConsumer.class ),
+					MethodType.methodType( void.class, Object.class, Object.class ), handle, instantiated );
+			return (BiConsumer< Object, Object >) site.getTarget( ).invoke( );
+		} catch ( Throwable e ) {
+			if ( handle == null ) {
+				return null;
+			}
+			final MethodHandle generic = handle.asType( MethodType.methodType( void.class, Object.class, Object.class ) );
+			return ( bean, value ) -> {
+				try {
+					generic.invokeExact( bean, value );
+				} catch ( RuntimeException | Error x ) {
+					throw x;
+				} catch ( Throwable x ) {
+					throw new IllegalStateException( x );
+				}
+			};
+		}
+	}
+
+	/*
+	 * Full access to the declaring class, so non-public beans work too; the lambda
+	 * class is defined next to it. A module that is not open to us (java.base) only
+	 * allows public methods of public classes, linked from here. Null if neither.
+	 */
+	private static MethodHandles.Lookup lookup( Method method ) {
+		Class< ? > owner = method.getDeclaringClass( );
+		try {
+			return MethodHandles.privateLookupIn( owner, MethodHandles.lookup( ) );
+		} catch ( IllegalAccessException e ) {
+			MethodHandles.Lookup own = MethodHandles.lookup( );
+			if ( Modifier.isPublic( method.getModifiers( ) ) && Modifier.isPublic( owner.getModifiers( ) ) ) {
+				try {
+					own.accessClass( owner );
+					return own;
+				} catch ( IllegalAccessException notExported ) {
+					return null;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static Class< ? > wrap( Class< ? > type ) {
+		return type.isPrimitive( ) ? MethodType.methodType( type ).wrap( ).returnType( ) : type;
+	}
+}
@@ -0,0 +1,159 @@
+package datereflection;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pojo.StudentPojo;
+
+/**
+ * Property access by name for plain Java beans (StudentPojo, collection.User,
+ * io.User, ...).
+ *
+ * The getters and setters of a class are looked up once, the first time the class
+ * is used, and kept in a ClassValue: it is attached to the Class object itself,
+ * needs no locking to read, and goes away with the class when its class loader is
+ * unloaded. After that, Beans.get( bean, "name" ) is a map lookup plus an
+ * interface call (see BeanProperty), and holding on to the BeanProperty skips the
+ * map lookup as well.
+ *
+ * Properties follow the JavaBeans naming rules: getX( )/isX( ) for reading (isX
+ * only for boolean), setX( value ) for writing, public instance methods only.
+ */
+public final class Beans {
+
+	private static final ClassValue< BeanClass >	PROPERTIES	= new ClassValue< BeanClass >( ) {
+		@Override
+		protected BeanClass computeValue( Class< ? > type ) {
+			return new BeanClass( introspect( type ) );
+		}
+	};
+
+	/* HashMap for lookups by name, the list keeps declaration order */
+	private static final class BeanClass {
+		final Map< String, BeanProperty >	byName;
+		final List< BeanProperty >			ordered;
+
+		BeanClass( Map< String, BeanProperty > properties ) {
+			byName = new HashMap<>( properties );
+			ordered = Collections.unmodifiableList( new ArrayList<>( properties.values( ) ) );
+		}
+	}
+
+	private Beans( ) {
+	}
+
+	public static Collection< BeanProperty > properties( Class< ? > type ) {
+		return PROPERTIES.get( type ).ordered;
+	}
+
+	/* The property, or IllegalArgumentException if the class has none by that name. */
+	public static BeanProperty property( Class< ? > type, String name ) {
+		BeanProperty property = PROPERTIES.get( type ).byName.get( name );
+		if ( property == null ) {
+			throw new IllegalArgumentException( type.getName( ) + " has no property " + name );
+		}
+		return property;
+	}
+
+	public static Object get( Object bean, String name ) {
+		return property( bean.getClass( ), name ).get( bean );
+	}
+
+	public static void set( Object bean, String name, Object value ) {
+		property( bean.getClass( ), name ).set( bean, value );
+	}
+
+	/* All readable properties, in declaration order as far as the JVM reports it. */
+	public static Map< String, Object > toMap( Object bean ) {
+		Map< String, Object > values = new LinkedHashMap<>( );
+		for ( BeanProperty property : properties( bean.getClass( ) ) ) {
+			if ( property.isReadable( ) ) {
+				values.put( property.name( ), property.get( bean ) );
+			}
+		}
+		return values;
+	}
+
+	/* Copy every property that source can read and target can write, matched by name and type. */
+	public static void copy( Object source, Object target ) {
+		Map< String, BeanProperty > targetProperties = PROPERTIES.get( target.getClass( ) ).byName;
+		for ( BeanProperty from : properties( source.getClass( ) ) ) {
+			BeanProperty to = targetProperties.get( from.name( ) );
+			if ( from.isReadable( ) && to != null && to.isWritable( ) && to.type( ) == from.type( ) ) {
+				to.set( target, from.get( source ) );
+			}
+		}
+	}
+
+	private static Map< String, BeanProperty > introspect( Class< ? > type ) {
+		Map< String, Method > getters = new LinkedHashMap<>( );
+		Map< String, Method > setters = new LinkedHashMap<>( );
+		for ( Method m : type.getMethods( ) ) {
+			if ( Modifier.isStatic( m.getModifiers( ) ) || m.isBridge( ) || m.getDeclaringClass( ) == Object.class ) {
+				continue;
+			}
+			String n = m.getName( );
+			int params = m.getParameterCount( );
+			if ( params == 0 && n.startsWith( "get" ) && n.length( ) > 3 && m.getReturnType( ) != void.class ) {
+				getters.put( decapitalize( n.substring( 3 ) ), m );
+			} else if ( params == 0 && n.startsWith( "is" ) && n.length( ) > 2 && m.getReturnType( ) == boolean.class ) {
+				getters.putIfAbsent( decapitalize( n.substring( 2 ) ), m );
+			} else if ( params == 1 && n.startsWith( "set" ) && n.length( ) > 3 && m.getReturnType( ) == void.class ) {
+				setters.put( decapitalize( n.substring( 3 ) ), m );
+			}
+		}
+
+		Map< String, BeanProperty > properties = new LinkedHashMap<>( );
+		for ( Map.Entry< String, Method > e : getters.entrySet( ) ) {
+			Method setter = setters.remove( e.getKey( ) );
+			Class< ? > propertyType = e.getValue( ).getReturnType( );
+			if ( setter != null && setter.getParameterTypes( )[ 0 ] != propertyType ) {
+				setter = null; // setX( other type ) is not the same property
+			}
+			add( properties, new BeanProperty( e.getKey( ), propertyType, e.getValue( ), setter ) );
+		}
+		for ( Map.Entry< String, Method > e : setters.entrySet( ) ) {
+			if ( !properties.containsKey( e.getKey( ) ) ) {
+				add( properties, new BeanProperty( e.getKey( ), e.getValue( ).getParameterTypes( )[ 0 ], null, e.getValue( ) ) );
+			}
+		}
+		return properties;
+	}
+
+	/* Accessors we may not call (a class of a module that is not exported) leave nothing to add. */
+	private static void add( Map< String, BeanProperty > properties, BeanProperty property ) {
+		if ( property.isReadable( ) || property.isWritable( ) ) {
+			properties.put( property.name( ), property );
+		}
+	}
+
+	/* "Name" -> "name", but "URL" stays "URL", as java.beans.Introspector does. */
+	static String decapitalize( String s ) {
+		if ( s.length( ) > 1 && Character.isUpperCase( s.charAt( 1 ) ) && Character.isUpperCase( s.charAt( 0 ) ) ) {
+			return s;
+		}
+		return Character.toLowerCase( s.charAt( 0 ) ) + s.substring( 1 );
+	}
+
+	public static void main( String[ ] args ) {
+		StudentPojo student = new StudentPojo( );
+		Beans.set( student, "id", 7 );
+		Beans.set( student, "name", "Ram" );
+		System.out.println( "StudentPojo: " + Beans.toMap( student ) );
+
+		collection.User user = new collection.User( 0, null );
+		Beans.copy( student, user );
+		System.out.println( "collection.User copied from it: " + user );
+
+		for ( BeanProperty property : Beans.properties( io.User.class ) ) {
+			System.out.println( "io.User property " + property );
+		}
+	}
+}
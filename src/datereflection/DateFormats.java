@@ -0,0 +1,246 @@
+package datereflection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date formatting and parsing by pattern, without a new SimpleDateFormat per call.
+ *
+ * SimpleDateFormat is not thread safe and is expensive to build, which is why
+ * examples like SimpleDateFormatTest create one per use. DateTimeFormatter is
+ * immutable, so one per pattern and locale is built on first use and shared by
+ * all threads afterwards.
+ *
+ * Purely numeric patterns such as yyyy-MM-dd, yyyy-MM-dd'T'HH:mm:ss, dd/MM/yyyy
+ * or HH:mm:ss.SSS skip the formatter altogether: they are compiled to a list of
+ * fixed width fields and literals, and formatting writes the digits straight into
+ * a per-thread char buffer (several times cheaper than appending char by char to
+ * a StringBuilder) that is then copied into the String once.
+ */
+public final class DateFormats {
+
+	private static final int							MAX_PATTERNS	= 1000;
+
+	private static final Map< Locale, Map< String, Compiled > >	CACHE			= new ConcurrentHashMap<>( );
+
+	private static final ThreadLocal< char[ ] >			BUFFER			= ThreadLocal.withInitial( ( ) -> new char[ 64 ] );
+	private static final int							MISSING			= Integer.MIN_VALUE;
+
+	/* Fast path ops: a field to print with its width, or a literal char (negative). */
+	private static final ChronoField[ ]					FIELDS			= { ChronoField.YEAR, ChronoField.MONTH_OF_YEAR,
+			ChronoField.DAY_OF_MONTH, ChronoField.HOUR_OF_DAY, ChronoField.MINUTE_OF_HOUR, ChronoField.SECOND_OF_MINUTE,
+			ChronoField.MILLI_OF_SECOND };
+	private static final String							FIELD_LETTERS	= "yMdHmsS";
+	private static final int[ ]							FIELD_WIDTHS	= { 4, 2, 2, 2, 2, 2, 3 };
+
+	private static final class Compiled {
+		final DateTimeFormatter	formatter;
+		final int[ ]			fast;	// null when the pattern has no fast path
+
+		Compiled( DateTimeFormatter formatter, int[ ] fast ) {
+			this.formatter = formatter;
+			this.fast = fast;
+		}
+	}
+
+	private DateFormats( ) {
+	}
+
+	public static DateTimeFormatter formatter( String pattern ) {
+		return compiled( pattern, Locale.getDefault( Locale.Category.FORMAT ) ).formatter;
+	}
+
+	public static DateTimeFormatter formatter( String pattern, Locale locale ) {
+		return compiled( pattern, locale ).formatter;
+	}
+
+	public static String format( TemporalAccessor temporal, String pattern ) {
+		return format( temporal, pattern, Locale.getDefault( Locale.Category.FORMAT ) );
+	}
+
+	public static String format( TemporalAccessor temporal, String pattern, Locale locale ) {
+		Compiled c = compiled( pattern, locale );
+		if ( c.fast != null ) {
+			char[ ] buf = buffer( c.fast.length );
+			int n = formatFast( temporal, c.fast, buf );
+			if ( n >= 0 ) {
+				return new String( buf, 0, n );
+			}
+		}
+		return c.formatter.format( temporal );
+	}
+
+	/* java.util.Date in the system time zone, as SimpleDateFormat does. */
+	public static String format( Date date, String pattern ) {
+		return format( LocalDateTime.ofInstant( date.toInstant( ), ZoneId.systemDefault( ) ), pattern );
+	}
+
+	/* Append to out instead of returning a new String. */
+	public static StringBuilder formatTo( TemporalAccessor temporal, String pattern, StringBuilder out ) {
+		Compiled c = compiled( pattern, Locale.getDefault( Locale.Category.FORMAT ) );
+		if ( c.fast != null ) {
+			char[ ] buf = buffer( c.fast.length );
+			int n = formatFast( temporal, c.fast, buf );
+			if ( n >= 0 ) {
+				return out.append( buf, 0, n );
+			}
+		}
+		c.formatter.formatTo( temporal, out );
+		return out;
+	}
+
+	public static LocalDate parseDate( String text, String pattern ) {
+		return LocalDate.parse( text, formatter( pattern ) );
+	}
+
+	public static LocalDateTime parseDateTime( String text, String pattern ) {
+		return LocalDateTime.parse( text, formatter( pattern ) );
+	}
+
+	/* For code that still needs a java.util.Date; a date without time is midnight in the system zone. */
+	public static Date parseToDate( String text, String pattern ) {
+		TemporalAccessor parsed = formatter( pattern ).parse( text );
+		LocalDateTime dateTime = parsed.isSupported( ChronoField.HOUR_OF_DAY ) ? LocalDateTime.from( parsed )
+				: LocalDate.from( parsed ).atStartOfDay( );
+		return Date.from( dateTime.atZone( ZoneId.systemDefault( ) ).toInstant( ) );
+	}
+
+	private static Compiled compiled( String pattern, Locale locale ) {
+		Map< String, Compiled > patterns = CACHE.computeIfAbsent( locale, l -> new ConcurrentHashMap<>( ) );
+		Compiled c = patterns.get( pattern );
+		if ( c == null ) {
+			c = new Compiled( DateTimeFormatter.ofPattern( pattern, locale ), compileFast( pattern ) );
+			if ( patterns.size( ) < MAX_PATTERNS ) { // do not let generated patterns fill memory
+				patterns.putIfAbsent( pattern, c );
+			}
+		}
+		return c;
+	}
+
+	/*
+	 * yyyy, MM, dd, HH, mm, ss and SSS separated by non-letter literals (a quoted
+	 * 'T' is allowed). Anything else, e.g. MMMM, M or hh, uses the formatter.
+	 */
+	static int[ ] compileFast( String pattern ) {
+		int[ ] ops = new int[ pattern.length( ) ];
+		int n = 0;
+		int i = 0;
+		while ( i < pattern.length( ) ) {
+			char ch = pattern.charAt( i );
+			int field = FIELD_LETTERS.indexOf( ch );
+			if ( field >= 0 ) {
+				int run = 1;
+				while ( i + run < pattern.length( ) && pattern.charAt( i + run ) == ch ) {
+					run++;
+				}
+				if ( run != FIELD_WIDTHS[ field ] ) {
+					return null;
+				}
+				ops[ n++ ] = field;
+				i += run;
+			} else if ( ch == '\'' && i + 2 < pattern.length( ) && pattern.charAt( i + 2 ) == '\''
+					&& pattern.charAt( i + 1 ) != '\'' ) {
+				ops[ n++ ] = -1 - pattern.charAt( i + 1 );
+				i += 3;
+			} else if ( Character.isLetter( ch ) || ch == '\'' || ch == '[' || ch == ']' || ch == '{' || ch == '}'
+					|| ch == '#' ) {
+				return null;
+			} else {
+				ops[ n++ ] = -1 - ch;
+				i++;
+			}
+		}
+		int[ ] fast = new int[ n ];
+		System.arraycopy( ops, 0, fast, 0, n );
+		return fast;
+	}
+
+	/* Room for ops, each of which writes at most 4 chars. */
+	private static char[ ] buffer( int ops ) {
+		char[ ] buf = BUFFER.get( );
+		if ( buf.length < ops * 4 ) {
+			buf = new char[ ops * 4 ];
+			BUFFER.set( buf );
+		}
+		return buf;
+	}
+
+	/* Chars written, or -1 if a field is missing or out of range and the formatter has to do it. */
+	private static int formatFast( TemporalAccessor temporal, int[ ] ops, char[ ] out ) {
+		LocalDate date = null;
+		LocalTime time = null;
+		if ( temporal instanceof LocalDateTime ) {
+			date = ( (LocalDateTime) temporal ).toLocalDate( );
+			time = ( (LocalDateTime) temporal ).toLocalTime( );
+		} else if ( temporal instanceof LocalDate ) {
+			date = (LocalDate) temporal;
+		} else if ( temporal instanceof LocalTime ) {
+			time = (LocalTime) temporal;
+		}
+		boolean known = date != null || time != null;
+
+		int n = 0;
+		for ( int op : ops ) {
+			if ( op < 0 ) {
+				out[ n++ ] = (char) ( -1 - op );
+				continue;
+			}
+			int value = known ? field( date, time, op ) : generic( temporal, op );
+			if ( value == MISSING || op == 0 && ( value < 1 || value > 9999 ) ) {
+				return -1; // yyyy is year-of-era: let the formatter handle BC and 5 digit years
+			}
+			n = writePadded( out, n, value, FIELD_WIDTHS[ op ] );
+		}
+		return n;
+	}
+
+	/* Plain getters for the java.time local types, no field lookup. */
+	private static int field( LocalDate date, LocalTime time, int op ) {
+		if ( op <= 2 ) {
+			if ( date == null ) {
+				return MISSING;
+			}
+			return op == 0 ? date.getYear( ) : op == 1 ? date.getMonthValue( ) : date.getDayOfMonth( );
+		}
+		if ( time == null ) {
+			return MISSING;
+		}
+		switch ( op ) {
+		case 3:
+			return time.getHour( );
+		case 4:
+			return time.getMinute( );
+		case 5:
+			return time.getSecond( );
+		default:
+			return time.getNano( ) / 1_000_000;
+		}
+	}
+
+	private static int generic( TemporalAccessor temporal, int op ) {
+		ChronoField field = FIELDS[ op ];
+		return temporal.isSupported( field ) ? temporal.get( field ) : MISSING;
+	}
+
+	/* width is 2, 3 or 4 (FIELD_WIDTHS); the leading digits first, then the last two. */
+	private static int writePadded( char[ ] out, int n, int value, int width ) {
+		if ( width == 4 ) {
+			out[ n++ ] = (char) ( '0' + value / 1000 );
+			out[ n++ ] = (char) ( '0' + value / 100 % 10 );
+		} else if ( width == 3 ) {
+			out[ n++ ] = (char) ( '0' + value / 100 );
+		}
+		out[ n++ ] = (char) ( '0' + value / 10 % 10 );
+		out[ n++ ] = (char) ( '0' + value % 10 );
+		return n;
+	}
+}
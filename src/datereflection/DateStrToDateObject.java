@@ -1,7 +1,7 @@
 package datereflection;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 public class DateStrToDateObject {
@@ -9,12 +9,13 @@ public class DateStrToDateObject {
 
 		try {
 
-			SimpleDateFormat formatter = new SimpleDateFormat( "dd/MM/yyyy" );
-			Date date = formatter.parse( "31/03/2015" );
+			LocalDate localDate = DateFormats.parseDate( "31/03/2015", "dd/MM/yyyy" );
+			System.out.println( "LocalDate is: " + localDate );
 
+			Date date = DateFormats.parseToDate( "31/03/2015", "dd/MM/yyyy" );
 			System.out.println( "Date is: " + date );
 
-		} catch ( ParseException e ) {
+		} catch ( DateTimeParseException e ) {
 			e.printStackTrace( );
 		}
 	}
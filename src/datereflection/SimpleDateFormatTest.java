@@ -1,6 +1,5 @@
 package datereflection;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class SimpleDateFormatTest {
@@ -10,16 +9,14 @@ public class SimpleDateFormatTest {
 
 			Date date = new Date( );
 
-			SimpleDateFormat formatter = new SimpleDateFormat( "MM/dd/yyyy" );
-			String strDate = formatter.format( date );
+			// Formatters are cached per pattern, nothing is built inside the loop
+			String strDate = DateFormats.format( date, "MM/dd/yyyy" );
 			System.out.println( "DateFormat: MM/dd/yyyy : " + strDate );
 
-			formatter = new SimpleDateFormat( "dd-M-yyyy hh:mm:ss" );
-			strDate = formatter.format( date );
+			strDate = DateFormats.format( date, "dd-M-yyyy hh:mm:ss" );
 			System.out.println( "DateFormat: dd-M-yyyy hh:mm:ss : " + strDate );
 
-			formatter = new SimpleDateFormat( "dd MMMM yyyy" );
-			strDate = formatter.format( date );
+			strDate = DateFormats.format( date, "dd MMMM yyyy" );
 			System.out.println( "DateFormat: dd MMMM yyyy : " + strDate );
 
 			try { // Only continue loop after 2 second
@@ -6,6 +6,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import util.json.RecordJson;
+import util.template.Template;
+
 /**
  * Java 17+ Features Examples
  * 
@@ -128,6 +131,10 @@ public class Java17Features {
         public double perimeter() {
             return a + b + c;
         }
+
+        public double getA() { return a; }
+        public double getB() { return b; }
+        public double getC() { return c; }
     }
     
     // ==================== PATTERN MATCHING ====================
@@ -160,6 +167,28 @@ public class Java17Features {
             default -> "Unknown object: " + obj.getClass().getSimpleName();
         };
     }
+
+    @SuppressWarnings("unchecked") // List.class is a Class<List>, the raw type
+    private static final Class<List<?>> LIST = (Class<List<?>>) (Class<?>) List.class;
+
+    /**
+     * processObject as a TypeDispatcher table: same cases, same order, but the
+     * cases for a class are found once per class instead of tested on every call.
+     */
+    private static final TypeDispatcher<String> PROCESS_OBJECT = TypeDispatcher.<String>builder()
+            .on(String.class, s -> s.length() > 10, s -> "Long string: " + s.substring(0, 10) + "...")
+            .on(String.class, s -> "Short string: " + s)
+            .on(Integer.class, i -> i > 0, i -> "Positive integer: " + i)
+            .on(Integer.class, i -> i < 0, i -> "Negative integer: " + i)
+            .on(Integer.class, i -> "Zero")
+            .on(LIST, List::isEmpty, list -> "Empty list")
+            .on(LIST, list -> "List with " + list.size() + " elements")
+            .onNull(() -> "Null object")
+            .otherwise(obj -> "Unknown object: " + obj.getClass().getSimpleName());
+
+    public String processObjectDispatched(Object obj) {
+        return PROCESS_OBJECT.dispatch(obj);
+    }
     
     // ==================== ENHANCED SWITCH EXPRESSIONS ====================
     
@@ -182,26 +211,31 @@ public class Java17Features {
     
     // ==================== TEXT BLOCKS ====================
     
-    /**
-     * Text blocks provide a cleaner way to write multi-line strings.
-     * Available since Java 15.
-     */
-    public String generateHtmlTemplate(String title, String content) {
-        return """
+    /* Parsed once, not a format string parsed on every call. */
+    private static final Template HTML_PAGE = Template.html("""
             <!DOCTYPE html>
             <html>
             <head>
-                <title>%s</title>
+                <title>{{title}}</title>
                 <meta charset="UTF-8">
             </head>
             <body>
-                <h1>%s</h1>
+                <h1>{{title}}</h1>
                 <div class="content">
-                    %s
+                    {{{content}}}
                 </div>
             </body>
             </html>
-            """.formatted(title, title, content);
+            """);
+
+    /**
+     * Text blocks provide a cleaner way to write multi-line strings.
+     * Available since Java 15.
+     *
+     * The title is HTML-escaped, the content is inserted as markup.
+     */
+    public String generateHtmlTemplate(String title, String content) {
+        return HTML_PAGE.render(title, content);
     }
     
     public String generateJsonTemplate() {
@@ -223,6 +257,13 @@ public class Java17Features {
             }
             """;
     }
+
+    /**
+     * JSON of a record, derived from its components instead of written by hand.
+     */
+    public String toJson(Record record) {
+        return RecordJson.toJson(record);
+    }
     
     // ==================== ENHANCED INSTANCEOF ====================
     
@@ -268,6 +309,9 @@ public class Java17Features {
         System.out.println(getShapeInfo(circle));
         System.out.println(getShapeInfo(rectangle));
         System.out.println(getShapeInfo(triangle));
+
+        ShapeBatch batch = ShapeBatch.of(List.of(circle, rectangle, triangle));
+        System.out.printf("Total area of the batch: %.2f%n", batch.totalArea());
         System.out.println();
     }
     
@@ -303,6 +347,11 @@ public class Java17Features {
         String json = generateJsonTemplate();
         System.out.println("Generated JSON:");
         System.out.println(json);
+
+        Employee employee = new Employee(new Person("John Doe", 30, "john.doe@example.com"),
+                new Address("123 Main St", "Anytown", "USA"), 75000.0);
+        System.out.println("Employee record as JSON:");
+        System.out.println(toJson(employee));
         System.out.println();
     }
     
@@ -0,0 +1,285 @@
+package java17plus;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import java17plus.Java17Features.Circle;
+import java17plus.Java17Features.Rectangle;
+import java17plus.Java17Features.Shape;
+import java17plus.Java17Features.Triangle;
+
+/**
+ * Many shapes stored column-wise: one double[] per shape kind and field
+ * (radius; width and height; a, b and c) instead of one object per shape.
+ *
+ * The kernels are plain counted loops over these arrays with no calls and no
+ * branches, the form C2 turns into SIMD code: areas()/perimeters() write one
+ * result per shape, several shapes per instruction. The totals are reductions
+ * and run with four independent sums, since the JIT keeps a single double sum in
+ * order and cannot vectorize it. parallel*() split the columns into CHUNK sized
+ * pieces on the common ForkJoinPool.
+ *
+ * Result order for areas()/perimeters(): all circles, then rectangles, then
+ * triangles, each in the order they were added.
+ */
+public class ShapeBatch {
+
+    /* Shapes per parallel task; large enough that the split costs far less than the work. */
+    public static final int CHUNK = 1 << 16;
+
+    private double[] radius = new double[16];
+    private int circles;
+    private double[] width = new double[16];
+    private double[] height = new double[16];
+    private int rectangles;
+    private double[] sideA = new double[16];
+    private double[] sideB = new double[16];
+    private double[] sideC = new double[16];
+    private int triangles;
+
+    public static ShapeBatch of(Iterable<? extends Shape> shapes) {
+        ShapeBatch batch = new ShapeBatch();
+        for (Shape shape : shapes) {
+            batch.add(shape);
+        }
+        return batch;
+    }
+
+    public ShapeBatch add(Shape shape) {
+        return switch (shape) {
+            case Circle c -> addCircle(c.getRadius());
+            case Rectangle r -> addRectangle(r.getWidth(), r.getHeight());
+            case Triangle t -> addTriangle(t.getA(), t.getB(), t.getC());
+        };
+    }
+
+    public ShapeBatch addCircle(double r) {
+        if (circles == radius.length) {
+            radius = Arrays.copyOf(radius, circles * 2);
+        }
+        radius[circles++] = r;
+        return this;
+    }
+
+    public ShapeBatch addRectangle(double w, double h) {
+        if (rectangles == width.length) {
+            width = Arrays.copyOf(width, rectangles * 2);
+            height = Arrays.copyOf(height, rectangles * 2);
+        }
+        width[rectangles] = w;
+        height[rectangles++] = h;
+        return this;
+    }
+
+    public ShapeBatch addTriangle(double a, double b, double c) {
+        if (triangles == sideA.length) {
+            sideA = Arrays.copyOf(sideA, triangles * 2);
+            sideB = Arrays.copyOf(sideB, triangles * 2);
+            sideC = Arrays.copyOf(sideC, triangles * 2);
+        }
+        sideA[triangles] = a;
+        sideB[triangles] = b;
+        sideC[triangles++] = c;
+        return this;
+    }
+
+    public int size() {
+        return circles + rectangles + triangles;
+    }
+
+    public int circles() {
+        return circles;
+    }
+
+    public int rectangles() {
+        return rectangles;
+    }
+
+    public int triangles() {
+        return triangles;
+    }
+
+    /* Area of every shape into out, which needs size() elements; returns out. */
+    public double[] areas(double[] out) {
+        checkOut(out);
+        circleAreas(radius, out, 0, 0, circles);
+        rectangleAreas(width, height, out, circles, 0, rectangles);
+        triangleAreas(sideA, sideB, sideC, out, circles + rectangles, 0, triangles);
+        return out;
+    }
+
+    public double[] perimeters(double[] out) {
+        checkOut(out);
+        circlePerimeters(radius, out, 0, 0, circles);
+        rectanglePerimeters(width, height, out, circles, 0, rectangles);
+        trianglePerimeters(sideA, sideB, sideC, out, circles + rectangles, 0, triangles);
+        return out;
+    }
+
+    public double totalArea() {
+        return circleArea(0, circles) + rectangleArea(0, rectangles) + triangleArea(0, triangles);
+    }
+
+    public double totalPerimeter() {
+        return circlePerimeter(0, circles) + rectanglePerimeter(0, rectangles) + trianglePerimeter(0, triangles);
+    }
+
+    /* totalArea() with the columns split into CHUNKs on the common pool. */
+    public double parallelTotalArea() {
+        return chunks(circles).mapToDouble(i -> circleArea(i * CHUNK, end(i, circles))).sum()
+                + chunks(rectangles).mapToDouble(i -> rectangleArea(i * CHUNK, end(i, rectangles))).sum()
+                + chunks(triangles).mapToDouble(i -> triangleArea(i * CHUNK, end(i, triangles))).sum();
+    }
+
+    public double parallelTotalPerimeter() {
+        return chunks(circles).mapToDouble(i -> circlePerimeter(i * CHUNK, end(i, circles))).sum()
+                + chunks(rectangles).mapToDouble(i -> rectanglePerimeter(i * CHUNK, end(i, rectangles))).sum()
+                + chunks(triangles).mapToDouble(i -> trianglePerimeter(i * CHUNK, end(i, triangles))).sum();
+    }
+
+    /* areas() with every column split into CHUNKs on the common pool. */
+    public double[] parallelAreas(double[] out) {
+        checkOut(out);
+        int rOff = circles;
+        int tOff = circles + rectangles;
+        chunks(circles).forEach(i -> circleAreas(radius, out, i * CHUNK, i * CHUNK, end(i, circles)));
+        chunks(rectangles).forEach(i -> rectangleAreas(width, height, out, rOff + i * CHUNK, i * CHUNK, end(i, rectangles)));
+        chunks(triangles).forEach(i -> triangleAreas(sideA, sideB, sideC, out, tOff + i * CHUNK, i * CHUNK, end(i, triangles)));
+        return out;
+    }
+
+    // ---- kernels: counted loops over arrays, nothing else in the body ----
+
+    private static void circleAreas(double[] r, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[at + i - from] = Math.PI * r[i] * r[i];
+        }
+    }
+
+    private static void rectangleAreas(double[] w, double[] h, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[at + i - from] = w[i] * h[i];
+        }
+    }
+
+    /* Heron's formula, as Triangle.area() */
+    private static void triangleAreas(double[] a, double[] b, double[] c, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double s = (a[i] + b[i] + c[i]) * 0.5;
+            out[at + i - from] = Math.sqrt(s * (s - a[i]) * (s - b[i]) * (s - c[i]));
+        }
+    }
+
+    private static void circlePerimeters(double[] r, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[at + i - from] = 2 * Math.PI * r[i];
+        }
+    }
+
+    private static void rectanglePerimeters(double[] w, double[] h, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[at + i - from] = 2 * (w[i] + h[i]);
+        }
+    }
+
+    private static void trianglePerimeters(double[] a, double[] b, double[] c, double[] out, int at, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[at + i - from] = a[i] + b[i] + c[i];
+        }
+    }
+
+    // ---- reductions: four running sums so the adds do not wait on each other ----
+
+    private double circleArea(int from, int to) {
+        double[] r = radius;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += r[i] * r[i];
+            s1 += r[i + 1] * r[i + 1];
+            s2 += r[i + 2] * r[i + 2];
+            s3 += r[i + 3] * r[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += r[i] * r[i];
+        }
+        return Math.PI * (s0 + s1 + s2 + s3);
+    }
+
+    private double rectangleArea(int from, int to) {
+        double[] w = width;
+        double[] h = height;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += w[i] * h[i];
+            s1 += w[i + 1] * h[i + 1];
+            s2 += w[i + 2] * h[i + 2];
+            s3 += w[i + 3] * h[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += w[i] * h[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    private double triangleArea(int from, int to) {
+        double[] a = sideA;
+        double[] b = sideB;
+        double[] c = sideC;
+        double s0 = 0, s1 = 0;
+        int i = from;
+        for (; i + 1 < to; i += 2) {
+            double p = (a[i] + b[i] + c[i]) * 0.5;
+            double q = (a[i + 1] + b[i + 1] + c[i + 1]) * 0.5;
+            s0 += Math.sqrt(p * (p - a[i]) * (p - b[i]) * (p - c[i]));
+            s1 += Math.sqrt(q * (q - a[i + 1]) * (q - b[i + 1]) * (q - c[i + 1]));
+        }
+        for (; i < to; i++) {
+            double p = (a[i] + b[i] + c[i]) * 0.5;
+            s0 += Math.sqrt(p * (p - a[i]) * (p - b[i]) * (p - c[i]));
+        }
+        return s0 + s1;
+    }
+
+    private double circlePerimeter(int from, int to) {
+        return 2 * Math.PI * sum(radius, from, to);
+    }
+
+    private double rectanglePerimeter(int from, int to) {
+        return 2 * (sum(width, from, to) + sum(height, from, to));
+    }
+
+    private double trianglePerimeter(int from, int to) {
+        return sum(sideA, from, to) + sum(sideB, from, to) + sum(sideC, from, to);
+    }
+
+    private static double sum(double[] v, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += v[i];
+            s1 += v[i + 1];
+            s2 += v[i + 2];
+            s3 += v[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += v[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    private static IntStream chunks(int count) {
+        return IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel();
+    }
+
+    private static int end(int chunk, int count) {
+        return Math.min(count, (chunk + 1) * CHUNK);
+    }
+
+    private void checkOut(double[] out) {
+        if (out.length < size()) {
+            throw new IllegalArgumentException("Output has " + out.length + " elements, batch has " + size() + " shapes");
+        }
+    }
+}
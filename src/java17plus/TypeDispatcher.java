@@ -0,0 +1,139 @@
+package java17plus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Dispatch on the runtime class of a value through a table built at run time,
+ * for cases a switch cannot express (handlers registered by plugins or
+ * configuration) or case lists so long that testing them in order costs more
+ * than a table lookup.
+ *
+ * <pre>
+ * TypeDispatcher&lt;String&gt; describe = TypeDispatcher.&lt;String&gt;builder()
+ *         .on(String.class, s -&gt; s.length() &gt; 10, s -&gt; "Long string")
+ *         .on(String.class, s -&gt; "Short string")
+ *         .on(List.class, l -&gt; "List")
+ *         .onNull(() -&gt; "Null object")
+ *         .otherwise(o -&gt; "Unknown");
+ * describe.dispatch(value);
+ * </pre>
+ *
+ * Cases are tried in the order they were added, like the cases of a switch,
+ * but only once per concrete class: the first time a class is seen the cases
+ * that can match it are looked up and kept in a ClassValue. After that a
+ * dispatch is a ClassValue lookup and one handler call, however many cases
+ * there are, plus the guards of that class's guarded cases.
+ *
+ * That fixed cost is several nanoseconds: DispatchBenchmark (benchmarks module)
+ * shows a pattern switch or instanceof chain over up to 8 sealed types staying
+ * ahead of the table even when the call site is megamorphic.
+ */
+public final class TypeDispatcher<R> {
+
+    private record Case<R>(Class<?> type, Predicate<Object> guard, Function<Object, ? extends R> handler) {
+    }
+
+    private final List<Case<R>> cases;
+    private final Supplier<? extends R> onNull;
+    private final Function<Object, ? extends R> otherwise;
+    private final ClassValue<Function<Object, ? extends R>> table = new ClassValue<>() {
+        @Override
+        protected Function<Object, ? extends R> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private TypeDispatcher(Builder<R> builder, Function<Object, ? extends R> otherwise) {
+        this.cases = List.copyOf(builder.cases);
+        this.onNull = builder.onNull;
+        this.otherwise = otherwise;
+    }
+
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    public R dispatch(Object value) {
+        if (value == null) {
+            if (onNull == null) {
+                throw new NullPointerException("No null case");
+            }
+            return onNull.get();
+        }
+        return table.get(value.getClass()).apply(value);
+    }
+
+    /* The handler for one class: the first case that can match it, or a guard chain ending in an unguarded case. */
+    private Function<Object, ? extends R> resolve(Class<?> type) {
+        List<Case<R>> chain = new ArrayList<>();
+        for (Case<R> c : cases) {
+            if (c.type().isAssignableFrom(type)) {
+                chain.add(c);
+                if (c.guard() == null) {
+                    break; // later cases are never reached for this class
+                }
+            }
+        }
+        if (chain.isEmpty()) {
+            return otherwise;
+        }
+        if (chain.size() == 1 && chain.get(0).guard() == null) {
+            return chain.get(0).handler();
+        }
+        @SuppressWarnings("unchecked") // every element is a Case<R>
+        Case<R>[] guarded = (Case<R>[]) chain.toArray(new Case<?>[0]);
+        return value -> {
+            for (Case<R> c : guarded) {
+                if (c.guard() == null || c.guard().test(value)) {
+                    return c.handler().apply(value);
+                }
+            }
+            return otherwise.apply(value);
+        };
+    }
+
+    public static final class Builder<R> {
+
+        private final List<Case<R>> cases = new ArrayList<>();
+        private Supplier<? extends R> onNull;
+
+        private Builder() {
+        }
+
+        public <T> Builder<R> on(Class<T> type, Function<? super T, ? extends R> handler) {
+            return add(type, null, handler);
+        }
+
+        /* Only when guard holds, like case T t when guard. */
+        public <T> Builder<R> on(Class<T> type, Predicate<? super T> guard, Function<? super T, ? extends R> handler) {
+            return add(type, guard, handler);
+        }
+
+        public Builder<R> onNull(Supplier<? extends R> handler) {
+            this.onNull = handler;
+            return this;
+        }
+
+        /* Finishes the table; values no case matches go to handler. */
+        public TypeDispatcher<R> otherwise(Function<Object, ? extends R> handler) {
+            return new TypeDispatcher<>(this, handler);
+        }
+
+        /* Finishes the table; values no case matches throw IllegalArgumentException. */
+        public TypeDispatcher<R> build() {
+            return new TypeDispatcher<>(this, value -> {
+                throw new IllegalArgumentException("No case for " + value.getClass().getName());
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Builder<R> add(Class<T> type, Predicate<? super T> guard, Function<? super T, ? extends R> handler) {
+            cases.add(new Case<>(type, (Predicate<Object>) guard, (Function<Object, ? extends R>) handler));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package javafx;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+
+/**
+ * Compiles and runs the code editor contents inside the application.
+ *
+ * The source is compiled in memory with javax.tools (no files on disk), loaded by
+ * a class loader that is thrown away after the run, and its main method runs on a
+ * daemon worker thread. What the program prints to System.out and System.err goes
+ * to the two OutputStreams given to run(), including output of threads it starts.
+ * Compiled classes are
+ * cached by a SHA-256 of the source, so running unchanged code skips javac.
+ *
+ * The class to run is picked from javac's parse tree rather than by searching the
+ * text, so records, enums and interfaces count and the word "class" in a comment or
+ * string does not.
+ *
+ * Programs are not sandboxed: this is for learning code the user typed themselves.
+ */
+public class CodeRunner {
+
+    private static final int CACHE_SIZE = 32;
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "code-runner-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Program> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Program> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final AtomicInteger compilations = new AtomicInteger();
+    private final AtomicInteger runCounter = new AtomicInteger();
+
+    /**
+     * Result of compiling one source text: class bytes by binary name, or the
+     * compiler diagnostics when it did not compile.
+     */
+    public static final class Program {
+        private final String mainClass;
+        private final Map<String, byte[]> classes;
+        private final String errors;
+
+        Program(String mainClass, Map<String, byte[]> classes, String errors) {
+            this.mainClass = mainClass;
+            this.classes = classes;
+            this.errors = errors;
+        }
+
+        public boolean compiled() {
+            return errors == null;
+        }
+
+        public String mainClass() {
+            return mainClass;
+        }
+
+        public String errors() {
+            return errors;
+        }
+    }
+
+    /**
+     * A running program. await() blocks until it ends, stop() interrupts it.
+     */
+    public static final class Execution {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Thread worker;
+        private volatile Throwable failure;
+        private volatile boolean stopped;
+        private volatile boolean timedOut;
+
+        /* Interrupt the program; code that never checks for interrupts keeps running as a daemon. */
+        public void stop() {
+            Thread t = worker;
+            if (t != null && !isDone()) {
+                stopped = true;
+                t.interrupt();
+            }
+        }
+
+        /* Wait for the end of the program; false if it is still running after the timeout. */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        public boolean wasStopped() {
+            return stopped;
+        }
+
+        public boolean timedOut() {
+            return timedOut;
+        }
+
+        /* Exception thrown by main(), null if it returned normally. */
+        public Throwable failure() {
+            return failure;
+        }
+    }
+
+    /* Compile source, or return the cached result for identical source. */
+    public Program compile(String source) {
+        String key = hash(source);
+        synchronized (cache) {
+            Program cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Program program = doCompile(source);
+        synchronized (cache) {
+            cache.put(key, program);
+        }
+        return program;
+    }
+
+    /**
+     * Compile and run the program on a worker thread, so a slow javac never blocks
+     * the caller. System.out goes to out; System.err, compiler errors and uncaught
+     * exceptions go to err. timeoutMillis (0 for none) starts once the program is
+     * compiled; when it expires the program is interrupted as if stop() had been
+     * called. Both streams must be safe for use by several threads if the program
+     * starts threads of its own.
+     */
+    public Execution run(String source, OutputStream out, OutputStream err, long timeoutMillis) {
+        OutputRouter.install();
+        Execution execution = new Execution();
+        Thread worker = new Thread(() -> {
+            PrintStream printer = new PrintStream(err, true, StandardCharsets.UTF_8);
+            try {
+                Program program = compile(source);
+                if (!program.compiled()) {
+                    printer.print(program.errors());
+                    return;
+                }
+                if (execution.stopped) {
+                    return;
+                }
+                if (timeoutMillis > 0) {
+                    TIMEOUTS.schedule(() -> {
+                        if (!execution.isDone()) {
+                            execution.timedOut = true;
+                            execution.stop();
+                        }
+                    }, timeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                OutputRouter.route(out, err);
+                invokeMain(program);
+            } catch (InvocationTargetException e) {
+                execution.failure = e.getCause();
+                if (!execution.stopped) {
+                    e.getCause().printStackTrace(printer);
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                execution.failure = e;
+                printer.println(e);
+            } finally {
+                printer.flush();
+                execution.done.countDown();
+            }
+        }, "code-runner-" + runCounter.incrementAndGet());
+        worker.setDaemon(true);
+        execution.worker = worker;
+        worker.start();
+        return execution;
+    }
+
+    /* Same as above with System.out and System.err both going to out. */
+    public Execution run(String source, OutputStream out, long timeoutMillis) {
+        return run(source, out, out, timeoutMillis);
+    }
+
+    /* Number of times javac actually ran; cache hits do not count. */
+    public int compilations() {
+        return compilations.get();
+    }
+
+    private static void invokeMain(Program program) throws ReflectiveOperationException {
+        ClassLoader loader = new MemoryClassLoader(program.classes, CodeRunner.class.getClassLoader());
+        Class<?> main = Class.forName(program.mainClass, true, loader);
+        Method method = main.getMethod("main", String[].class);
+        if (!java.lang.reflect.Modifier.isStatic(method.getModifiers())) {
+            throw new NoSuchMethodException(program.mainClass + ".main is not static");
+        }
+        method.invoke(null, (Object) new String[0]);
+    }
+
+    private Program doCompile(String source) {
+        compilations.incrementAndGet();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return new Program(null, Map.of(), "No Java compiler available, run JavaStud on a JDK instead of a JRE.\n");
+        }
+        Layout layout = layout(compiler, source);
+        if (layout == null) {
+            return new Program(null, Map.of(), "No class found in the editor.\n");
+        }
+        String mainClass = layout.mainClass();
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        MemoryFileManager files = new MemoryFileManager(standard);
+        JavaFileObject unit = new SourceFile(layout.fileClass(), source);
+
+        boolean ok = compiler.getTask(null, files, diagnostics, List.of("-proc:none"), null, List.of(unit)).call();
+        if (!ok) {
+            StringBuilder sb = new StringBuilder("=== Compilation failed ===\n");
+            for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+                sb.append("Line ").append(d.getLineNumber()).append(": ").append(d.getMessage(null)).append('\n');
+            }
+            return new Program(mainClass, Map.of(), sb.toString());
+        }
+        return new Program(mainClass, files.classes(), null);
+    }
+
+    /**
+     * Binary name of the class to run: the first top-level type that declares
+     * static main(String[]), public types first; without one, the public type, else
+     * the first type. Null when the source declares no type or there is no compiler.
+     */
+    static String mainClass(String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Layout layout = compiler == null ? null : layout(compiler, source);
+        return layout == null ? null : layout.mainClass();
+    }
+
+    /* fileClass names the compilation unit, which javac requires to match a public type. */
+    private record Layout(String fileClass, String mainClass) {
+    }
+
+    private static Layout layout(JavaCompiler compiler, String source) {
+        // Parse only: no symbols are resolved and syntax errors are left to the real compile.
+        JavacTask task = (JavacTask) compiler.getTask(null, null, d -> { }, List.of("-proc:none"), null,
+                List.of(new SourceFile("Main", source)));
+        CompilationUnitTree unit;
+        try {
+            unit = task.parse().iterator().next();
+        } catch (IOException e) {
+            return null;
+        }
+
+        ClassTree first = null, publicType = null, withMain = null;
+        for (Tree decl : unit.getTypeDecls()) {
+            if (!(decl instanceof ClassTree type) || type.getSimpleName().isEmpty()) {
+                continue;
+            }
+            boolean isPublic = type.getModifiers().getFlags().contains(Modifier.PUBLIC);
+            if (first == null) {
+                first = type;
+            }
+            if (isPublic && publicType == null) {
+                publicType = type;
+            }
+            if (hasMain(type) && (withMain == null || isPublic)) {
+                withMain = type;
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+        String pkg = unit.getPackageName() == null ? "" : unit.getPackageName() + ".";
+        ClassTree file = publicType != null ? publicType : withMain != null ? withMain : first;
+        ClassTree main = withMain != null ? withMain : file;
+        return new Layout(pkg + file.getSimpleName(), pkg + main.getSimpleName());
+    }
+
+    private static boolean hasMain(ClassTree type) {
+        for (Tree member : type.getMembers()) {
+            if (member instanceof MethodTree method && method.getName().contentEquals("main")
+                    && method.getModifiers().getFlags().contains(Modifier.STATIC)
+                    && method.getParameters().size() == 1) {
+                String param = method.getParameters().get(0).getType().toString();
+                if (param.equals("String[]") || param.equals("java.lang.String[]")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String hash(String source) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* Source text held in memory. */
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    /* Class file written by javac into memory. */
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassFile(String className) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    /* Sends javac output to ClassFile objects instead of the file system. */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, ClassFile> outputs = new HashMap<>();
+
+        MemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            ClassFile file = new ClassFile(className);
+            outputs.put(className, file);
+            return file;
+        }
+
+        Map<String, byte[]> classes() {
+            Map<String, byte[]> result = new HashMap<>();
+            outputs.forEach((name, file) -> result.put(name, file.bytes.toByteArray()));
+            return result;
+        }
+    }
+
+    /**
+     * System.out and System.err replacement that sends each thread's output where
+     * that thread was routed. The route is inherited by threads the program starts;
+     * all other threads keep writing to the original streams.
+     */
+    static final class OutputRouter extends OutputStream {
+        private static final InheritableThreadLocal<OutputStream[]> ROUTE = new InheritableThreadLocal<>();
+        private static boolean installed;
+
+        private final OutputStream original;
+        private final int index; // 0 for System.out, 1 for System.err
+
+        private OutputRouter(OutputStream original, int index) {
+            this.original = original;
+            this.index = index;
+        }
+
+        static synchronized void install() {
+            if (!installed) {
+                System.setOut(new PrintStream(new OutputRouter(System.out, 0), true, StandardCharsets.UTF_8));
+                System.setErr(new PrintStream(new OutputRouter(System.err, 1), true, StandardCharsets.UTF_8));
+                installed = true;
+            }
+        }
+
+        static void route(OutputStream out, OutputStream err) {
+            ROUTE.set(new OutputStream[] { out, err });
+        }
+
+        private OutputStream target() {
+            OutputStream[] route = ROUTE.get();
+            return route != null ? route[index] : original;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+
+    /* One per run, so every run starts with fresh static state. */
+    private static final class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        MemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package javafx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Line based Java lexer for the code editor that re-tokenizes only what an edit
+ * can change.
+ *
+ * Every line stores the lexer state at its start (normal code, inside a block
+ * comment, inside a text block) and its tokens as packed (start, length, type)
+ * ints relative to the line. After an edit the changed lines are lexed again and
+ * lexing continues past them only while the state carried into the next line
+ * differs from the one stored for it, e.g. when "/*" was typed. Typing inside a
+ * method of a 10k line file re-lexes one line.
+ */
+public class JavaLexer {
+
+    public enum TokenType {
+        KEYWORD, IDENTIFIER, NUMBER, STRING, CHAR, TEXT_BLOCK, COMMENT, ANNOTATION, OPERATOR
+    }
+
+    /* Token at some position, absolute offsets. */
+    public record Token(int start, int length, TokenType type) {
+    }
+
+    static final int NORMAL = 0;
+    static final int BLOCK_COMMENT = 1;
+    static final int TEXT_BLOCK = 2;
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int[] NO_TOKENS = new int[0];
+
+    private static final Set<String> KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "true", "false", "null", "var", "record", "yield", "sealed", "permits");
+
+    private static final class Line {
+        int startState;
+        int[] tokens = NO_TOKENS;
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+    private int lastRelexed;
+
+    /* Tokens for the whole text. */
+    public JavaLexer(CharSequence text, LineIndex index) {
+        for (int i = 0; i < index.lineCount(); i++) {
+            lines.add(new Line());
+        }
+        lastRelexed = lexFrom(text, index, 0, index.lineCount() - 1);
+    }
+
+    /*
+     * Lines firstLine..oldLastLine were replaced by firstLine..newLastLine; text
+     * and index already reflect the edit.
+     */
+    public void edit(CharSequence text, LineIndex index, int firstLine, int oldLastLine, int newLastLine) {
+        int startState = lines.get(firstLine).startState;
+        lines.subList(firstLine, oldLastLine + 1).clear();
+        List<Line> inserted = new ArrayList<>();
+        for (int i = firstLine; i <= newLastLine; i++) {
+            inserted.add(new Line());
+        }
+        lines.addAll(firstLine, inserted);
+        lines.get(firstLine).startState = startState;
+        lastRelexed = lexFrom(text, index, firstLine, newLastLine);
+    }
+
+    /* Lines lexed by the last construction or edit. */
+    public int lastRelexed() {
+        return lastRelexed;
+    }
+
+    public int lineCount() {
+        return lines.size();
+    }
+
+    public List<Token> tokens(int line, LineIndex index) {
+        int base = index.lineStart(line);
+        int[] packed = lines.get(line).tokens;
+        List<Token> tokens = new ArrayList<>(packed.length / 3);
+        for (int i = 0; i < packed.length; i += 3) {
+            tokens.add(new Token(base + packed[i], packed[i + 1], TYPES[packed[i + 2]]));
+        }
+        return tokens;
+    }
+
+    /* Token covering offset, or null for whitespace. */
+    public Token tokenAt(int offset, LineIndex index) {
+        int line = index.lineOf(offset);
+        int rel = offset - index.lineStart(line);
+        int[] packed = lines.get(line).tokens;
+        for (int i = 0; i < packed.length; i += 3) {
+            if (rel >= packed[i] && rel < packed[i] + packed[i + 1]) {
+                return new Token(index.lineStart(line) + packed[i], packed[i + 1], TYPES[packed[i + 2]]);
+            }
+        }
+        return null;
+    }
+
+    /* Lex from line first to at least line last; returns how many lines were lexed. */
+    private int lexFrom(CharSequence text, LineIndex index, int first, int last) {
+        int state = lines.get(first).startState;
+        int line = first;
+        while (line < lines.size()) {
+            Line l = lines.get(line);
+            if (line > last && l.startState == state) {
+                break; // from here on nothing changes
+            }
+            l.startState = state;
+            state = lexLine(text, index.lineStart(line), index.lineEnd(line), l);
+            line++;
+        }
+        return line - first;
+    }
+
+    private static int lexLine(CharSequence text, int from, int to, Line line) {
+        int[] tokens = new int[24];
+        int count = 0;
+        int state = line.startState;
+        int i = from;
+        int open = -1; // where a comment or text block opened on this line starts
+
+        while (i < to) {
+            int start = i;
+            TokenType type;
+            if (state == BLOCK_COMMENT) {
+                int end = indexOf(text, "*/", i, to);
+                i = end < 0 ? to : end + 2;
+                state = end < 0 ? BLOCK_COMMENT : NORMAL;
+                type = TokenType.COMMENT;
+            } else if (state == TEXT_BLOCK) {
+                int end = closingTextBlock(text, i, to);
+                i = end < 0 ? to : end + 3;
+                state = end < 0 ? TEXT_BLOCK : NORMAL;
+                type = TokenType.TEXT_BLOCK;
+            } else {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                if (c == '/' && i + 1 < to && text.charAt(i + 1) == '/') {
+                    i = to;
+                    type = TokenType.COMMENT;
+                } else if (c == '/' && i + 1 < to && text.charAt(i + 1) == '*') {
+                    state = BLOCK_COMMENT;
+                    open = i;
+                    i += 2;
+                    continue; // the comment token is emitted by the BLOCK_COMMENT branch
+                } else if (c == '"' && startsWith(text, "\"\"\"", i, to)) {
+                    state = TEXT_BLOCK;
+                    open = i;
+                    i += 3;
+                    continue;
+                } else if (c == '"' || c == '\'') {
+                    i = closingQuote(text, c, i + 1, to);
+                    type = c == '"' ? TokenType.STRING : TokenType.CHAR;
+                } else if (Character.isDigit(c) || c == '.' && i + 1 < to && Character.isDigit(text.charAt(i + 1))) {
+                    i++;
+                    while (i < to && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_'
+                            || text.charAt(i) == '.')) {
+                        i++;
+                    }
+                    type = TokenType.NUMBER;
+                } else if (Character.isJavaIdentifierStart(c) || c == '@') {
+                    i++;
+                    while (i < to && Character.isJavaIdentifierPart(text.charAt(i))) {
+                        i++;
+                    }
+                    type = c == '@' ? TokenType.ANNOTATION
+                            : isKeyword(text, start, i) ? TokenType.KEYWORD : TokenType.IDENTIFIER;
+                } else {
+                    i++;
+                    type = TokenType.OPERATOR;
+                }
+            }
+            if (count + 3 > tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+            }
+            int tokenStart = open >= 0 ? open : start;
+            open = -1;
+            tokens[count++] = tokenStart - from;
+            tokens[count++] = i - tokenStart;
+            tokens[count++] = type.ordinal();
+        }
+        if (open >= 0) { // "/*" or opening quotes at the very end of the line
+            if (count + 3 > tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+            }
+            tokens[count++] = open - from;
+            tokens[count++] = to - open;
+            tokens[count++] = (state == BLOCK_COMMENT ? TokenType.COMMENT : TokenType.TEXT_BLOCK).ordinal();
+        }
+        line.tokens = count == 0 ? NO_TOKENS : Arrays.copyOf(tokens, count);
+        return state;
+    }
+
+    private static int closingQuote(CharSequence text, char quote, int i, int to) {
+        while (i < to) {
+            char c = text.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return to; // unterminated: runs to the end of the line
+    }
+
+    private static int closingTextBlock(CharSequence text, int i, int to) {
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' && startsWith(text, "\"\"\"", i, to)) {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isKeyword(CharSequence text, int start, int end) {
+        return end - start <= 12 && KEYWORDS.contains(text.subSequence(start, end).toString());
+    }
+
+    private static int indexOf(CharSequence text, String s, int from, int to) {
+        for (int i = from; i + s.length() <= to; i++) {
+            if (startsWith(text, s, i, to)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence text, String s, int at, int to) {
+        if (at + s.length() > to) {
+            return false;
+        }
+        for (int k = 0; k < s.length(); k++) {
+            if (text.charAt(at + k) != s.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
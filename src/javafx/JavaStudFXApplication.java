@@ -13,6 +13,10 @@ import javafx.stage.Stage;
 import javafx.scene.web.WebView;
 import javafx.scene.web.WebEngine;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 /**
  * JavaStud JavaFX Application
  * Modern desktop application for Java learning platform
@@ -21,9 +25,20 @@ public class JavaStudFXApplication extends Application {
 
     private TabPane tabPane;
     private TextArea codeEditor;
-    private TextArea outputArea;
+    private OutputConsole outputArea;
     private WebView documentationView;
     private TreeView<String> topicTree;
+    private TopicLibrary topicLibrary;
+    private final CodeDocument document = new CodeDocument("");
+    private Label lineLabel;
+    private Label colLabel;
+    private Label tokenLabel;
+
+    private static final Path TOPICS_BUNDLE = Path.of(System.getProperty("javastud.topics", "resource/topics/topics.txt"));
+
+    private static final long RUN_TIMEOUT_MILLIS = 30_000;
+    private final CodeRunner codeRunner = new CodeRunner();
+    private CodeRunner.Execution execution;
 
     @Override
     public void start(Stage primaryStage) {
@@ -200,80 +215,25 @@ public class JavaStudFXApplication extends Application {
      * Create topic tree view
      */
     private TreeView<String> createTopicTree() {
-        TreeItem<String> root = new TreeItem<>("JavaStud Learning");
+        TreeItem<String> root;
+        try {
+            topicLibrary = TopicLibrary.open(TOPICS_BUNDLE);
+            root = TopicTreeItem.root(topicLibrary, "JavaStud Learning");
+            System.out.println("Topic index: " + topicLibrary.size() + " topics"
+                    + (topicLibrary.indexRebuilt() ? " (rebuilt)" : ""));
+        } catch (IOException e) {
+            System.err.println("Could not open topics " + TOPICS_BUNDLE + ": " + e.getMessage());
+            root = new TreeItem<>("JavaStud Learning");
+        }
         root.setExpanded(true);
         
-        // Core Java
-        TreeItem<String> coreJava = new TreeItem<>("Core Java");
-        coreJava.getChildren().addAll(
-            new TreeItem<>("Basic Syntax"),
-            new TreeItem<>("Data Types"),
-            new TreeItem<>("Control Structures"),
-            new TreeItem<>("Arrays"),
-            new TreeItem<>("Strings"),
-            new TreeItem<>("Methods")
-        );
-        
-        // OOP
-        TreeItem<String> oop = new TreeItem<>("Object-Oriented Programming");
-        oop.getChildren().addAll(
-            new TreeItem<>("Classes & Objects"),
-            new TreeItem<>("Inheritance"),
-            new TreeItem<>("Polymorphism"),
-            new TreeItem<>("Abstraction"),
-            new TreeItem<>("Encapsulation")
-        );
-        
-        // Collections
-        TreeItem<String> collections = new TreeItem<>("Collections Framework");
-        collections.getChildren().addAll(
-            new TreeItem<>("List Collections"),
-            new TreeItem<>("Set Collections"),
-            new TreeItem<>("Map Collections"),
-            new TreeItem<>("Queue Collections"),
-            new TreeItem<>("Advanced Collections"),
-            new TreeItem<>("Concurrent Collections")
-        );
-        
-        // Advanced Java
-        TreeItem<String> advanced = new TreeItem<>("Advanced Java");
-        advanced.getChildren().addAll(
-            new TreeItem<>("Exception Handling"),
-            new TreeItem<>("File I/O"),
-            new TreeItem<>("Multithreading"),
-            new TreeItem<>("Lambda Expressions"),
-            new TreeItem<>("Streams API"),
-            new TreeItem<>("Optional")
-        );
-        
-        // Design Patterns
-        TreeItem<String> patterns = new TreeItem<>("Design Patterns");
-        patterns.getChildren().addAll(
-            new TreeItem<>("Singleton"),
-            new TreeItem<>("Factory"),
-            new TreeItem<>("Observer"),
-            new TreeItem<>("Strategy"),
-            new TreeItem<>("Builder")
-        );
-        
-        // Web Development
-        TreeItem<String> web = new TreeItem<>("Web Development");
-        web.getChildren().addAll(
-            new TreeItem<>("Spring Boot"),
-            new TreeItem<>("REST APIs"),
-            new TreeItem<>("Database"),
-            new TreeItem<>("Security")
-        );
-        
-        root.getChildren().addAll(coreJava, oop, collections, advanced, patterns, web);
-        
         TreeView<String> treeView = new TreeView<>(root);
         treeView.setShowRoot(true);
         
         // Add selection listener
         treeView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue != null && newValue.isLeaf() && newValue != root) {
-                loadTopic(newValue.getValue());
+            if (newValue instanceof TopicTreeItem item && topicLibrary.contains(item.getPath())) {
+                loadTopic(item.getPath());
             }
         });
         
@@ -297,11 +257,8 @@ public class JavaStudFXApplication extends Application {
         // Output Tab
         Tab outputTab = new Tab("Output");
         outputTab.setClosable(false);
-        outputArea = new TextArea();
-        outputArea.setEditable(false);
-        outputArea.setFont(Font.font("Consolas", 12));
-        outputArea.setStyle("-fx-background-color: #1e1e1e; -fx-text-fill: #ffffff;");
-        outputTab.setContent(outputArea);
+        outputArea = new OutputConsole();
+        outputTab.setContent(outputArea.getView());
         
         // Documentation Tab
         Tab docTab = new Tab("Documentation");
@@ -326,11 +283,12 @@ public class JavaStudFXApplication extends Application {
         bottomSection.setStyle("-fx-background-color: #e0e0e0;");
         
         Label statusLabel = new Label("Ready");
-        Label lineLabel = new Label("Line: 1");
-        Label colLabel = new Label("Column: 1");
+        lineLabel = new Label("Line: 1");
+        colLabel = new Label("Column: 1");
+        tokenLabel = new Label();
         Label encodingLabel = new Label("UTF-8");
         
-        bottomSection.getChildren().addAll(statusLabel, new Separator(), lineLabel, colLabel, encodingLabel);
+        bottomSection.getChildren().addAll(statusLabel, new Separator(), lineLabel, colLabel, tokenLabel, encodingLabel);
         
         return bottomSection;
     }
@@ -341,6 +299,10 @@ public class JavaStudFXApplication extends Application {
     private void initializeComponents() {
         // Set up code editor listeners
         codeEditor.textProperty().addListener((observable, oldValue, newValue) -> {
+            document.update(newValue);
+            updateLineColumnInfo();
+        });
+        codeEditor.caretPositionProperty().addListener((observable, oldValue, newValue) -> {
             updateLineColumnInfo();
         });
         
@@ -355,23 +317,14 @@ public class JavaStudFXApplication extends Application {
      * Update line and column information
      */
     private void updateLineColumnInfo() {
-        String text = codeEditor.getText();
         int caretPosition = codeEditor.getCaretPosition();
         
-        int line = 1;
-        int column = 1;
-        
-        for (int i = 0; i < caretPosition && i < text.length(); i++) {
-            if (text.charAt(i) == '\n') {
-                line++;
-                column = 1;
-            } else {
-                column++;
-            }
-        }
+        // Binary search in the line index instead of scanning the text
+        lineLabel.setText("Line: " + document.line(caretPosition));
+        colLabel.setText("Column: " + document.column(caretPosition));
         
-        // Update status bar (you would need to store references to these labels)
-        System.out.println("Line: " + line + ", Column: " + column);
+        JavaLexer.Token token = document.tokenAt(caretPosition);
+        tokenLabel.setText(token == null ? "" : token.type().name().toLowerCase().replace('_', ' '));
     }
 
     /**
@@ -419,103 +372,51 @@ public class JavaStudFXApplication extends Application {
     /**
      * Load topic content
      */
-    private void loadTopic(String topicName) {
-        System.out.println("Loading topic: " + topicName);
+    private void loadTopic(String topicPath) {
+        System.out.println("Loading topic: " + topicPath);
+        
+        TopicLibrary.Topic topic = topicLibrary.find(topicPath).orElse(null);
+        if (topic == null) {
+            return;
+        }
         
         // Switch to code editor tab
         tabPane.getSelectionModel().select(0);
-        
-        // Load topic-specific content
-        String topicCode = getTopicCode(topicName);
-        codeEditor.setText(topicCode);
+        codeEditor.setText(topic.code());
+        documentationView.getEngine().loadContent(
+                topic.hasDocumentation() ? topic.documentation() : createDocumentationHTML());
         
         // Update status
-        System.out.println("Topic loaded: " + topicName);
-    }
-
-    /**
-     * Get code for specific topic
-     */
-    private String getTopicCode(String topicName) {
-        return switch (topicName) {
-            case "Basic Syntax" -> """
-                // Basic Java Syntax Example
-                
-                public class BasicSyntax {
-                    public static void main(String[] args) {
-                        // Variables
-                        int number = 42;
-                        String message = "Hello, Java!";
-                        boolean isTrue = true;
-                        
-                        // Output
-                        System.out.println("Number: " + number);
-                        System.out.println("Message: " + message);
-                        System.out.println("Boolean: " + isTrue);
-                        
-                        // Basic operations
-                        int result = number * 2;
-                        System.out.println("Result: " + result);
-                    }
-                }
-                """;
-            case "Collections Framework" -> """
-                // Collections Framework Example
-                
-                import java.util.*;
-                
-                public class CollectionsExample {
-                    public static void main(String[] args) {
-                        // List
-                        List<String> names = new ArrayList<>();
-                        names.add("Alice");
-                        names.add("Bob");
-                        names.add("Charlie");
-                        
-                        // Set
-                        Set<Integer> numbers = new HashSet<>();
-                        numbers.add(1);
-                        numbers.add(2);
-                        numbers.add(3);
-                        
-                        // Map
-                        Map<String, Integer> scores = new HashMap<>();
-                        scores.put("Alice", 95);
-                        scores.put("Bob", 87);
-                        scores.put("Charlie", 92);
-                        
-                        System.out.println("Names: " + names);
-                        System.out.println("Numbers: " + numbers);
-                        System.out.println("Scores: " + scores);
-                    }
-                }
-                """;
-            default -> """
-                // Topic: """ + topicName + """
-                
-                public class """ + topicName.replaceAll("\\s+", "") + """ {
-                    public static void main(String[] args) {
-                        System.out.println("Learning: """ + topicName + """");
-                        System.out.println("This topic is under development...");
-                    }
-                }
-                """;
-        };
+        System.out.println("Topic loaded: " + topic.title());
     }
 
     /**
      * Run the current code
      */
     private void runCode() {
+        if (execution != null && !execution.isDone()) {
+            execution.stop();
+        }
         String code = codeEditor.getText();
         outputArea.appendText("=== Running Code ===\n");
-        outputArea.appendText(code + "\n\n");
-        outputArea.appendText("=== Output ===\n");
-        outputArea.appendText("Code execution simulation...\n");
-        outputArea.appendText("Hello, JavaStud!\n");
-        outputArea.appendText("5 + 10 = 15\n");
-        outputArea.appendText("=== Execution Complete ===\n\n");
-        
+
+        OutputBuffer buffer = outputArea.getBuffer();
+        CodeRunner.Execution current = codeRunner.run(code, buffer.stream(), buffer.stream(), RUN_TIMEOUT_MILLIS);
+        execution = current;
+        Thread watcher = new Thread(() -> {
+            try {
+                current.await(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            String end = current.timedOut() ? "=== Execution Timed Out ===\n\n"
+                    : current.wasStopped() ? "=== Execution Stopped ===\n\n"
+                    : "=== Execution Complete ===\n\n";
+            outputArea.appendText(end);
+        }, "code-runner-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+
         // Switch to output tab
         tabPane.getSelectionModel().select(1);
     }
@@ -524,7 +425,9 @@ public class JavaStudFXApplication extends Application {
      * Stop code execution
      */
     private void stopCode() {
-        outputArea.appendText("=== Execution Stopped ===\n\n");
+        if (execution != null && !execution.isDone()) {
+            execution.stop();
+        }
     }
 
     /**
@@ -625,6 +528,17 @@ public class JavaStudFXApplication extends Application {
             """;
     }
 
+    @Override
+    public void stop() throws Exception {
+        stopCode();
+        if (outputArea != null) {
+            outputArea.dispose();
+        }
+        if (topicLibrary != null) {
+            topicLibrary.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,105 @@
+package javafx;
+
+import java.util.Arrays;
+
+/**
+ * Start offset of every line of a text, kept up to date edit by edit.
+ *
+ * lineOf(offset) is a binary search over the sorted start offsets instead of a
+ * scan from the beginning of the text. An edit rescans only the inserted text and
+ * shifts the starts after it, which for a 10k line file is a short array copy.
+ */
+public final class LineIndex {
+
+    private int[] starts = new int[16];
+    private int lines;
+    private int length;
+
+    public LineIndex(CharSequence text) {
+        starts[0] = 0;
+        lines = 1;
+        replace(0, 0, text);
+    }
+
+    public int lineCount() {
+        return lines;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /* Zero-based line containing offset; offset may be length(). */
+    public int lineOf(int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+        }
+        int i = Arrays.binarySearch(starts, 0, lines, offset);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /* Zero-based column of offset within its line. */
+    public int columnOf(int offset) {
+        return offset - starts[lineOf(offset)];
+    }
+
+    public int lineStart(int line) {
+        checkLine(line);
+        return starts[line];
+    }
+
+    /* End of the line, not counting its newline. */
+    public int lineEnd(int line) {
+        checkLine(line);
+        return line + 1 < lines ? starts[line + 1] - 1 : length;
+    }
+
+    /*
+     * The text between start and end (old offsets) was replaced with inserted.
+     * Lines starting inside the replaced range go, lines in the inserted text are
+     * added and later lines move by the change in length.
+     */
+    public void replace(int start, int end, CharSequence inserted) {
+        if (start < 0 || end < start || end > length) {
+            throw new IndexOutOfBoundsException("range " + start + ".." + end + ", length " + length);
+        }
+        int delta = inserted.length() - (end - start);
+
+        // Old lines that started in (start, end] no longer exist.
+        int first = lineOf(start) + 1;
+        int last = first;
+        while (last < lines && starts[last] <= end) {
+            last++;
+        }
+
+        int added = 0;
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') {
+                added++;
+            }
+        }
+
+        int newLines = lines - (last - first) + added;
+        if (newLines > starts.length) {
+            starts = Arrays.copyOf(starts, Math.max(newLines, starts.length * 2));
+        }
+        System.arraycopy(starts, last, starts, first + added, lines - last);
+        for (int i = first + added; i < newLines; i++) {
+            starts[i] += delta;
+        }
+        int k = first;
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') {
+                starts[k++] = start + i + 1;
+            }
+        }
+        lines = newLines;
+        length += delta;
+    }
+
+    private void checkLine(int line) {
+        if (line < 0 || line >= lines) {
+            throw new IndexOutOfBoundsException("line " + line + ", lines " + lines);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package javafx;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Worker side of the output pipeline between a running program and OutputConsole.
+ *
+ * Program threads write bytes into stream(); they are decoded and appended to a
+ * pending buffer under a short lock, nothing touches the UI. The console drains
+ * the buffer at most once per frame and appends everything that arrived since the
+ * previous frame in one go. If the program prints faster than the console drains,
+ * the pending buffer keeps only its newest maxPendingChars and the number of
+ * dropped characters is reported instead of stalling the program or the UI.
+ *
+ * The pending buffer is a char ring that grows up to maxPendingChars: once full,
+ * evicting the oldest characters only moves the head, so an append costs the length
+ * of its text whatever the backlog. After an eviction the head is moved to the next
+ * line start if one is within LINE_SEARCH characters.
+ *
+ * No JavaFX types here, so the buffering can be tested without a toolkit.
+ */
+public class OutputBuffer {
+
+    public static final int DEFAULT_MAX_PENDING_CHARS = 1 << 20;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int LINE_SEARCH = 512;
+
+    private final int maxPendingChars;
+    private char[] ring;
+    private int head;
+    private int size;
+    private long dropped;
+
+    public OutputBuffer(int maxPendingChars) {
+        if (maxPendingChars <= 0) {
+            throw new IllegalArgumentException("maxPendingChars must be positive: " + maxPendingChars);
+        }
+        this.maxPendingChars = maxPendingChars;
+        this.ring = new char[Math.min(maxPendingChars, INITIAL_CAPACITY)];
+    }
+
+    public OutputBuffer() {
+        this(DEFAULT_MAX_PENDING_CHARS);
+    }
+
+    /**
+     * A new stream feeding this buffer. Give stdout and stderr their own stream so a
+     * UTF-8 sequence split across writes is decoded per stream.
+     */
+    public OutputStream stream() {
+        return new DecodingStream();
+    }
+
+    public synchronized void append(CharSequence text) {
+        int len = text.length();
+        int from = 0;
+        if (len > maxPendingChars) {
+            // Only the tail of the text can survive.
+            from = len - maxPendingChars;
+            dropped += from;
+        }
+        int count = len - from;
+        if (size + count > ring.length && ring.length < maxPendingChars) {
+            grow(size + count);
+        }
+        int excess = size + count - ring.length;
+        if (excess > 0) {
+            evict(excess);
+        }
+
+        int tail = (head + size) % ring.length;
+        int first = Math.min(count, ring.length - tail);
+        copy(text, from, ring, tail, first);
+        copy(text, from + first, ring, 0, count - first);
+        size += count;
+
+        if (excess > 0 || from > 0) {
+            skipToLineStart();
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return size > 0 || dropped > 0;
+    }
+
+    /* Everything appended since the last drain, with a notice if output was dropped. */
+    public synchronized String drain() {
+        if (!hasPending()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(size + 64);
+        if (dropped > 0) {
+            text.append("... ").append(dropped).append(" characters of output skipped ...\n");
+        }
+        int first = Math.min(size, ring.length - head);
+        text.append(ring, head, first).append(ring, 0, size - first);
+        head = 0;
+        size = 0;
+        dropped = 0;
+        return text.toString();
+    }
+
+    private void grow(int needed) {
+        int capacity = (int) Math.min(maxPendingChars, Math.max((long) ring.length * 2, needed));
+        char[] bigger = new char[capacity];
+        int first = Math.min(size, ring.length - head);
+        System.arraycopy(ring, head, bigger, 0, first);
+        System.arraycopy(ring, 0, bigger, first, size - first);
+        ring = bigger;
+        head = 0;
+    }
+
+    private void evict(int n) {
+        head = (head + n) % ring.length;
+        size -= n;
+        dropped += n;
+    }
+
+    /* Drop a partial first line so the view does not start mid-line; bounded search. */
+    private void skipToLineStart() {
+        int limit = Math.min(size - 1, LINE_SEARCH);
+        for (int i = 0; i < limit; i++) {
+            if (ring[(head + i) % ring.length] == '\n') {
+                evict(i + 1);
+                return;
+            }
+        }
+    }
+
+    private static void copy(CharSequence text, int from, char[] dst, int at, int count) {
+        if (text instanceof String s) {
+            s.getChars(from, from + count, dst, at);
+        } else {
+            for (int i = 0; i < count; i++) {
+                dst[at + i] = text.charAt(from + i);
+            }
+        }
+    }
+
+    /**
+     * Append text to a list of lines, the last element being the line still being
+     * written, and keep only the newest maxLines lines. Used by OutputConsole on the
+     * FX thread with the ListView's item list.
+     */
+    public static void appendLines(List<String> lines, String text, int maxLines) {
+        int start = 0;
+        if (!lines.isEmpty()) {
+            int nl = text.indexOf('\n');
+            int end = nl < 0 ? text.length() : nl;
+            if (end > 0) {
+                int last = lines.size() - 1;
+                lines.set(last, lines.get(last) + text.substring(0, end));
+            }
+            if (nl < 0) {
+                return;
+            }
+            start = nl + 1;
+        }
+
+        // Lines from start; the piece after the final newline (possibly "") is the open line.
+        int count = 0;
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        String[] added = new String[count + 1];
+        int from = start;
+        for (int k = 0; k < count; k++) {
+            int nl = text.indexOf('\n', from);
+            added[k] = text.substring(from, nl);
+            from = nl + 1;
+        }
+        added[count] = text.substring(from);
+
+        int skip = Math.max(0, added.length - maxLines);
+        lines.addAll(List.of(added).subList(skip, added.length));
+        int excess = lines.size() - maxLines;
+        if (excess > 0) {
+            lines.subList(0, excess).clear();
+        }
+    }
+
+    private final class DecodingStream extends OutputStream {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer in = ByteBuffer.allocate(8192);
+        private final CharBuffer out = CharBuffer.allocate(8192);
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int n = Math.min(len, in.remaining());
+                in.put(b, off, n);
+                off += n;
+                len -= n;
+                in.flip();
+                decoder.decode(in, out, false);
+                in.compact(); // keeps an incomplete UTF-8 sequence for the next write
+                out.flip();
+                append(out);
+                out.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package javafx;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Output tab of JavaStudFXApplication.
+ *
+ * A TextArea re-lays out its whole text on every appendText, so a chatty program
+ * froze the UI. This console is a ListView with one item per line: only the
+ * visible rows have cells, and at most maxLines lines are kept. Program output
+ * arrives through an OutputBuffer and is moved to the list at most once per frame
+ * (FRAME_MILLIS) with a single Platform.runLater. The frame tick runs on a shared
+ * daemon thread until dispose() is called.
+ */
+public class OutputConsole {
+
+    public static final int DEFAULT_MAX_LINES = 100_000;
+    private static final long FRAME_MILLIS = 16;
+
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "output-console-ticker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ObservableList<String> lines = FXCollections.observableArrayList();
+    private final ListView<String> view = new ListView<>(lines);
+    private final int maxLines;
+    private final OutputBuffer buffer = new OutputBuffer();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ScheduledFuture<?> ticks;
+
+    public OutputConsole(int maxLines) {
+        this.maxLines = maxLines;
+        view.setFixedCellSize(18);
+        view.setStyle("-fx-font-family: 'Consolas'; -fx-font-size: 12; -fx-control-inner-background: #1e1e1e;");
+        ticks = TICKER.scheduleWithFixedDelay(this::tick, FRAME_MILLIS, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public OutputConsole() {
+        this(DEFAULT_MAX_LINES);
+    }
+
+    public ListView<String> getView() {
+        return view;
+    }
+
+    /* Buffer for program output: hand getBuffer().stream() to CodeRunner. Safe from any thread. */
+    public OutputBuffer getBuffer() {
+        return buffer;
+    }
+
+    /*
+     * Append a status line from any thread. It goes through the same buffer as the
+     * program output, so it shows up in order after what the program printed.
+     */
+    public void appendText(String text) {
+        buffer.append(text);
+    }
+
+    /* FX thread only. */
+    public void clear() {
+        buffer.drain();
+        lines.clear();
+    }
+
+    /* Stop the frame tick when the console goes away; output still pending is not shown. */
+    public void dispose() {
+        ticks.cancel(false);
+    }
+
+    /* Runs every frame off the FX thread; posts one flush when there is output and none is queued. */
+    private void tick() {
+        if (buffer.hasPending() && flushQueued.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                flushQueued.set(false);
+                String text = buffer.drain();
+                if (!text.isEmpty()) {
+                    OutputBuffer.appendLines(lines, text, maxLines);
+                    view.scrollTo(lines.size() - 1);
+                }
+            });
+        }
+    }
+}
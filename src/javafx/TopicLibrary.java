@@ -0,0 +1,320 @@
+package javafx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Learning topics for the JavaStud application, read from a bundle file on demand.
+ *
+ * The bundle is plain UTF-8 text; every topic starts with a header line and may
+ * have a documentation part:
+ *
+ * <pre>
+ * &#64;topic Core Java &gt; Basic Syntax
+ * public class BasicSyntax { ... }
+ * &#64;doc
+ * &lt;h1&gt;Basic Syntax&lt;/h1&gt; ...
+ * </pre>
+ *
+ * Opening the library only loads the index (path, byte offset and length of each
+ * topic), which is kept next to the bundle in a .idx file and rebuilt when the
+ * bundle changes. Topic bodies are read with a positional read when they are
+ * selected and the most recent CACHE_SIZE of them are kept, so startup time and
+ * heap do not grow with the size of the bundle.
+ */
+public class TopicLibrary implements AutoCloseable {
+
+    public static final String SEPARATOR = " > ";
+    public static final int CACHE_SIZE = 64;
+
+    private static final String TOPIC_HEADER = "@topic ";
+    private static final String DOC_HEADER = "@doc";
+    private static final int INDEX_MAGIC = 0x4A53_5449; // "JSTI"
+    private static final int INDEX_VERSION = 1;
+
+    /* Where a topic body lives in the bundle. */
+    public record Entry(String path, long offset, int length) {
+        public String title() {
+            return titleOf(path);
+        }
+    }
+
+    public record Topic(String path, String code, String documentation) {
+        public String title() {
+            return titleOf(path);
+        }
+
+        public boolean hasDocumentation() {
+            return !documentation.isBlank();
+        }
+    }
+
+    private final Path bundle;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, List<String>> children = new HashMap<>();
+    private final boolean indexRebuilt;
+    private int reads;
+
+    private final Map<String, Topic> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Topic> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private TopicLibrary(Path bundle, List<Entry> index, boolean indexRebuilt) throws IOException {
+        this.bundle = bundle;
+        this.indexRebuilt = indexRebuilt;
+        this.channel = FileChannel.open(bundle, StandardOpenOption.READ);
+        Set<String> known = new HashSet<>();
+        for (Entry e : index) {
+            entries.put(e.path(), e);
+            addPath(e.path(), known);
+        }
+    }
+
+    /**
+     * Open a bundle, reusing bundle + ".idx" if it is up to date and writing it
+     * otherwise. A read-only directory only costs the rescan on the next start.
+     */
+    public static TopicLibrary open(Path bundle) throws IOException {
+        Path indexFile = bundle.resolveSibling(bundle.getFileName() + ".idx");
+        long size = Files.size(bundle);
+        long modified = Files.getLastModifiedTime(bundle).toMillis();
+
+        List<Entry> index = readIndex(indexFile, size, modified);
+        if (index != null) {
+            return new TopicLibrary(bundle, index, false);
+        }
+        index = scan(bundle);
+        try {
+            writeIndex(indexFile, index, size, modified);
+        } catch (IOException e) {
+            System.err.println("Could not write topic index " + indexFile + ": " + e.getMessage());
+        }
+        return new TopicLibrary(bundle, index, true);
+    }
+
+    public Path bundle() {
+        return bundle;
+    }
+
+    /* Child titles of a path, in bundle order; "" is the root. */
+    public List<String> children(String path) {
+        return children.getOrDefault(path, List.of());
+    }
+
+    public boolean hasChildren(String path) {
+        return children.containsKey(path);
+    }
+
+    public boolean contains(String path) {
+        return entries.containsKey(path);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /* The topic at path, read from the bundle unless it is cached. */
+    public synchronized Optional<Topic> find(String path) {
+        Topic topic = cache.get(path);
+        if (topic == null) {
+            Entry entry = entries.get(path);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            topic = read(entry);
+            cache.put(path, topic);
+        }
+        return Optional.of(topic);
+    }
+
+    /* Whether open() had to scan the bundle rather than use the stored index. */
+    public boolean indexRebuilt() {
+        return indexRebuilt;
+    }
+
+    /* Bundle reads so far; a cache hit does not count. */
+    public synchronized int reads() {
+        return reads;
+    }
+
+    public synchronized int cached() {
+        return cache.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static String titleOf(String path) {
+        int i = path.lastIndexOf(SEPARATOR);
+        return i < 0 ? path : path.substring(i + SEPARATOR.length());
+    }
+
+    public static String child(String parent, String title) {
+        return parent.isEmpty() ? title : parent + SEPARATOR + title;
+    }
+
+    private void addPath(String path, Set<String> known) {
+        if (!known.add(path)) {
+            return;
+        }
+        int i = path.lastIndexOf(SEPARATOR);
+        String parent = i < 0 ? "" : path.substring(0, i);
+        String title = titleOf(path);
+        if (!parent.isEmpty()) {
+            addPath(parent, known);
+        }
+        children.computeIfAbsent(parent, p -> new ArrayList<>()).add(title);
+    }
+
+    private Topic read(Entry entry) {
+        ByteBuffer buf = ByteBuffer.allocate(entry.length());
+        try {
+            long position = entry.offset();
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, position);
+                if (n < 0) {
+                    throw new IOException("Topic bundle shorter than its index: " + bundle);
+                }
+                position += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reads++;
+
+        String body = new String(buf.array(), StandardCharsets.UTF_8);
+        String code = body;
+        String doc = "";
+        int d = body.startsWith(DOC_HEADER + "\n") ? 0 : body.indexOf("\n" + DOC_HEADER + "\n");
+        if (d > 0) {
+            d++; // keep the code's last newline
+        }
+        if (d >= 0) {
+            code = body.substring(0, d);
+            doc = body.substring(d + DOC_HEADER.length() + 1);
+        }
+        if (code.isBlank()) {
+            code = placeholder(titleOf(entry.path()));
+        }
+        return new Topic(entry.path(), code, doc);
+    }
+
+    /* Starter code for a topic that has no example yet. */
+    static String placeholder(String title) {
+        String className = title.replaceAll("[^A-Za-z0-9]", "");
+        if (className.isEmpty() || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className = "Topic" + className;
+        }
+        return """
+            // Topic: %s
+
+            public class %s {
+                public static void main(String[] args) {
+                    System.out.println("Learning: %s");
+                    System.out.println("This topic is under development...");
+                }
+            }
+            """.formatted(title, className, title.replace("\\", "\\\\").replace("\"", "\\\""));
+    }
+
+    /* One pass over the bundle, recording the byte range after each header. */
+    static List<Entry> scan(Path bundle) throws IOException {
+        List<Entry> index = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(bundle))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            String path = null;
+            long start = 0;
+            for (int b; (b = in.read()) >= 0; ) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.UTF_8);
+                if (text.startsWith(TOPIC_HEADER)) {
+                    long headerStart = position - line.size() - 1;
+                    if (path != null) {
+                        index.add(new Entry(path, start, Math.toIntExact(headerStart - start)));
+                    }
+                    path = text.substring(TOPIC_HEADER.length()).strip();
+                    start = position;
+                }
+                line.reset();
+            }
+            if (path != null) {
+                index.add(new Entry(path, start, Math.toIntExact(position - start)));
+            }
+        }
+        return index;
+    }
+
+    private static List<Entry> readIndex(Path indexFile, long size, long modified) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION
+                    || in.readLong() != size || in.readLong() != modified) {
+                return null;
+            }
+            int count = in.readInt();
+            List<Entry> index = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                index.add(new Entry(in.readUTF(), in.readLong(), in.readInt()));
+            }
+            return Collections.unmodifiableList(index);
+        } catch (IOException e) {
+            return null; // unreadable or truncated: rebuild
+        }
+    }
+
+    private static void writeIndex(Path indexFile, List<Entry> index, long size, long modified) throws IOException {
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(index.size());
+            for (Entry e : index) {
+                out.writeUTF(e.path());
+                out.writeLong(e.offset());
+                out.writeInt(e.length());
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,52 @@
+package javafx;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tree node for one path of a TopicLibrary. Children are only created the first
+ * time the node is expanded (or its children are asked for), so a tree over
+ * thousands of topics starts with just the root and the first level.
+ */
+public class TopicTreeItem extends TreeItem<String> {
+
+    private final TopicLibrary library;
+    private final String path;
+    private boolean loaded;
+
+    public TopicTreeItem(TopicLibrary library, String path, String label) {
+        super(label);
+        this.library = library;
+        this.path = path;
+    }
+
+    /* Root item for the whole library. */
+    public static TopicTreeItem root(TopicLibrary library, String label) {
+        return new TopicTreeItem(library, "", label);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return !library.hasChildren(path);
+    }
+
+    @Override
+    public ObservableList<TreeItem<String>> getChildren() {
+        if (!loaded) {
+            loaded = true; // before setAll, which calls back into getChildren()
+            List<TreeItem<String>> items = new ArrayList<>();
+            for (String title : library.children(path)) {
+                items.add(new TopicTreeItem(library, TopicLibrary.child(path, title), title));
+            }
+            super.getChildren().setAll(items);
+        }
+        return super.getChildren();
+    }
+}
@@ -0,0 +1,272 @@
+package modernjava;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a stream pipeline sequentially, on the common pool or on a dedicated
+ * ForkJoinPool, whichever its estimated cost calls for.
+ *
+ * parallelStream() pays for splitting, task scheduling and merging whatever
+ * the input; for a few thousand cheap elements that costs more than the work
+ * itself, and every parallel stream competes for the same common pool. Here
+ * each named task keeps a measured cost per element (an average over its
+ * previous runs, seeded with defaultCost or expectCost) and the estimated work
+ * (elements times cost) decides:
+ *
+ * - below sequentialThreshold: sequential;
+ * - above dedicatedThreshold: parallel on the dedicated pool, so long batch
+ *   jobs do not starve other users of the common pool;
+ * - otherwise parallel on the common pool.
+ *
+ * A source that does not split evenly (not SIZED and SUBSIZED, e.g. a
+ * HashSet) needs four times the work before it goes
+ * parallel, and with parallelism 1 everything runs sequentially. The last
+ * HISTORY decisions are kept for inspection.
+ *
+ * The pipeline function is handed a sequential or parallel stream and must
+ * give the same result either way, as any stream pipeline should.
+ *
+ * @author JavaStud Team
+ * @version 2.0
+ * @since Java 8
+ */
+public class AdaptiveExecutor implements AutoCloseable {
+
+    public enum Mode {
+        SEQUENTIAL, COMMON_POOL, DEDICATED_POOL
+    }
+
+    public static final int HISTORY = 256;
+
+    /* Why a pipeline ran the way it did. */
+    public static final class Decision {
+        private final String task;
+        private final Mode mode;
+        private final long size;
+        private final boolean evenSplits;
+        private final double nanosPerElement;
+        private long elapsedNanos;
+
+        Decision(String task, Mode mode, long size, boolean evenSplits, double nanosPerElement) {
+            this.task = task;
+            this.mode = mode;
+            this.size = size;
+            this.evenSplits = evenSplits;
+            this.nanosPerElement = nanosPerElement;
+        }
+
+        public String getTask() { return task; }
+        public Mode getMode() { return mode; }
+        public long getSize() { return size; }
+        public boolean hasEvenSplits() { return evenSplits; }
+        public double getNanosPerElement() { return nanosPerElement; }
+        public double getEstimatedNanos() { return size * nanosPerElement; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s for %d elements at %.1f ns each (estimated %.0f us, took %.0f us)%s",
+                    task, mode, size, nanosPerElement, getEstimatedNanos() / 1000, elapsedNanos / 1000.0,
+                    evenSplits ? "" : ", uneven splits");
+        }
+    }
+
+    private final long sequentialThreshold;
+    private final long dedicatedThreshold;
+    private final int commonParallelism;
+    private final int dedicatedParallelism;
+    private final double defaultCost;
+
+    private final Map<String, double[]> costs = new ConcurrentHashMap<>(); // task -> {ns per element, runs}
+    private final Deque<Decision> history = new ArrayDeque<>();
+    private final int[] modeCounts = new int[Mode.values().length];
+    private volatile ForkJoinPool dedicated;
+
+    private AdaptiveExecutor(Builder builder) {
+        this.sequentialThreshold = builder.sequentialThreshold;
+        this.dedicatedThreshold = builder.dedicatedThreshold;
+        this.commonParallelism = builder.commonParallelism;
+        this.dedicatedParallelism = builder.dedicatedParallelism;
+        this.defaultCost = builder.defaultCost;
+    }
+
+    public AdaptiveExecutor() {
+        this(builder());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public <T, R> R run(String task, Collection<T> source, Function<Stream<T>, R> pipeline) {
+        return run(task, source.spliterator(), pipeline);
+    }
+
+    public <T, R> R run(String task, Spliterator<T> source, Function<Stream<T>, R> pipeline) {
+        Decision decision = decide(task, source);
+        long start = System.nanoTime();
+        R result;
+        switch (decision.mode) {
+            case SEQUENTIAL:
+                result = pipeline.apply(StreamSupport.stream(source, false));
+                break;
+            case COMMON_POOL:
+                result = pipeline.apply(StreamSupport.stream(source, true));
+                break;
+            default:
+                // A parallel stream started from a pool's worker splits into that pool
+                result = dedicatedPool().submit(() -> pipeline.apply(StreamSupport.stream(source, true))).join();
+        }
+        decision.elapsedNanos = System.nanoTime() - start;
+        learn(decision);
+        return result;
+    }
+
+    /* The decision run would make now, without running anything. */
+    public <T> Decision decide(String task, Spliterator<T> source) {
+        long size = source.estimateSize();
+        boolean even = source.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED);
+        double cost = nanosPerElement(task);
+        double work = size * cost;
+        double minWork = even ? sequentialThreshold : sequentialThreshold * 4.0;
+        Mode mode;
+        // Long.MAX_VALUE: size unknown, nothing to base an estimate on
+        if (size == Long.MAX_VALUE || work < minWork || Math.max(commonParallelism, dedicatedParallelism) < 2) {
+            mode = Mode.SEQUENTIAL;
+        } else if (dedicatedParallelism > 1 && (work >= dedicatedThreshold || commonParallelism < 2)) {
+            mode = Mode.DEDICATED_POOL;
+        } else {
+            mode = Mode.COMMON_POOL;
+        }
+        return new Decision(task, mode, size, even, cost);
+    }
+
+    /* Seeds the cost of a task, e.g. from a benchmark; its first measured run replaces it. */
+    public void expectCost(String task, double nanosPerElement) {
+        costs.put(task, new double[] {nanosPerElement, 0});
+    }
+
+    public double nanosPerElement(String task) {
+        double[] cost = costs.get(task);
+        return cost == null ? defaultCost : cost[0];
+    }
+
+    /* Oldest first. */
+    public synchronized List<Decision> history() {
+        return new ArrayList<>(history);
+    }
+
+    public synchronized int count(Mode mode) {
+        return modeCounts[mode.ordinal()];
+    }
+
+    @Override
+    public void close() {
+        ForkJoinPool pool = dedicated;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private void learn(Decision decision) {
+        if (decision.size > 0) {
+            // CPU time per element: a parallel run spreads the elapsed time over its threads
+            int threads = decision.mode == Mode.SEQUENTIAL ? 1
+                    : decision.mode == Mode.COMMON_POOL ? commonParallelism : dedicatedParallelism;
+            threads = Math.min(threads, Runtime.getRuntime().availableProcessors());
+            double observed = (double) decision.elapsedNanos * threads / decision.size;
+            costs.compute(decision.task, (task, cost) -> {
+                if (cost == null) {
+                    return new double[] {observed, 1};
+                }
+                double runs = Math.min(cost[1] + 1, 8); // average over about the last 8 runs
+                return new double[] {cost[0] + (observed - cost[0]) / runs, runs};
+            });
+        }
+        synchronized (this) {
+            if (history.size() == HISTORY) {
+                history.removeFirst();
+            }
+            history.addLast(decision);
+            modeCounts[decision.mode.ordinal()]++;
+        }
+    }
+
+    private ForkJoinPool dedicatedPool() {
+        ForkJoinPool pool = dedicated;
+        if (pool == null) {
+            synchronized (this) {
+                pool = dedicated;
+                if (pool == null) {
+                    AtomicInteger threads = new AtomicInteger();
+                    pool = new ForkJoinPool(dedicatedParallelism, p -> {
+                        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        t.setName("adaptive-stream-" + threads.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }, null, false);
+                    dedicated = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    public static final class Builder {
+        private long sequentialThreshold = 100_000;         // 100 us
+        private long dedicatedThreshold = 50_000_000;       // 50 ms
+        private int commonParallelism = ForkJoinPool.getCommonPoolParallelism();
+        private int dedicatedParallelism = Runtime.getRuntime().availableProcessors();
+        private double defaultCost = 20;
+
+        private Builder() {
+        }
+
+        /* Estimated work (ns) below which a pipeline runs sequentially. */
+        public Builder sequentialThreshold(long nanos) {
+            this.sequentialThreshold = nanos;
+            return this;
+        }
+
+        /* Estimated work (ns) from which a pipeline runs on the dedicated pool. */
+        public Builder dedicatedThreshold(long nanos) {
+            this.dedicatedThreshold = nanos;
+            return this;
+        }
+
+        /* Threads of the common pool as seen by the cost model. */
+        public Builder commonParallelism(int parallelism) {
+            this.commonParallelism = parallelism;
+            return this;
+        }
+
+        /* Threads of the dedicated pool; below 2 there is none. */
+        public Builder dedicatedParallelism(int parallelism) {
+            this.dedicatedParallelism = parallelism;
+            return this;
+        }
+
+        /* Assumed ns per element of a task that has not run yet. */
+        public Builder defaultCost(double nanosPerElement) {
+            this.defaultCost = nanosPerElement;
+            return this;
+        }
+
+        public AdaptiveExecutor build() {
+            return new AdaptiveExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package modernjava;
+
+/**
+ * Count, sum, min, max, mean and variance of double values in one pass, without
+ * boxing; the accumulator of PrimitiveCollectors.summarizing.
+ *
+ * Mean and variance are updated with Welford's method and two partial results
+ * are merged with Chan's formula, so a parallel stream gets the same figures as
+ * a sequential one up to rounding. The sum is compensated (Kahan), like
+ * DoubleSummaryStatistics.
+ */
+public class DoubleStats {
+
+    private long count;
+    private double mean;
+    private double m2;          // sum of squared differences from the mean
+    private double sum;
+    private double compensation;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        addToSum(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public DoubleStats combine(DoubleStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            sum = other.sum;
+            compensation = other.compensation;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+        addToSum(other.sum);
+        addToSum(-other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    private void addToSum(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /* NaN when empty; min and max are infinite then, as in DoubleSummaryStatistics. */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /* Population variance. */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    public double getSampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DoubleStats{count=%d, sum=%f, min=%f, mean=%f, max=%f, stddev=%f}",
+                count, sum, min, getMean(), max, getStandardDeviation());
+    }
+}
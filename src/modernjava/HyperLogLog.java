@@ -0,0 +1,89 @@
+package modernjava;
+
+/**
+ * Approximate count of distinct values in fixed memory; the accumulator of
+ * PrimitiveCollectors.approximateDistinct.
+ *
+ * Each value is hashed to 64 bits; the first p bits pick one of 2^p registers,
+ * which keeps the longest run of leading zeros seen in the remaining bits. The
+ * default p = 14 uses 16 KB and has a standard error of about 0.8%, whether the
+ * stream has a thousand distinct values or a billion, where distinct().count()
+ * keeps every one of them in a HashSet. Merging takes the maximum per register,
+ * so a parallel stream gives exactly the sequential estimate.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int p;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18: " + precision);
+        }
+        this.p = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /* Adds a value's 64-bit hash, which should be well mixed (see mix). */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - p));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << p), 64 - p) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public HyperLogLog combine(HyperLogLog other) {
+        if (other.p != p) {
+            throw new IllegalArgumentException("precision " + other.p + " does not match " + p);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += Double.longBitsToDouble((1023L - r) << 52); // 2^-r
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // linear counting for small sets
+        }
+        return Math.round(estimate);
+    }
+
+    public int precision() {
+        return p;
+    }
+
+    /* Murmur3 finalizer: spreads every input bit over the whole hash. */
+    public static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,161 @@
+package modernjava;
+
+import java.util.Arrays;
+
+/**
+ * Count, sum, min and max per int key, gathered in one pass; the accumulator of
+ * PrimitiveCollectors.groupingByInt.
+ *
+ * Where groupingBy(key, summarizingDouble(value)) builds a HashMap with an
+ * Integer key and a statistics object per group, this is one open-addressing
+ * table: parallel arrays of keys, counts, sums, minimums and maximums, indexed
+ * by the key's slot. Adding a value boxes nothing and allocates nothing unless
+ * the table grows.
+ */
+public class IntGroupStats {
+
+    private int[] keys;
+    private boolean[] used;
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxs;
+    private int size;
+    private int mask;
+
+    public IntGroupStats() {
+        allocate(16);
+    }
+
+    public void accept(int key, double value) {
+        int slot = slot(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            mins[slot] = value;
+            maxs[slot] = value;
+            if (++size > (mask + 1) * 3 / 4) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        counts[slot]++;
+        sums[slot] += value;
+        mins[slot] = Math.min(mins[slot], value);
+        maxs[slot] = Math.max(maxs[slot], value);
+    }
+
+    public IntGroupStats combine(IntGroupStats other) {
+        for (int i = 0; i < other.used.length; i++) {
+            if (other.used[i]) {
+                add(other.keys[i], other.counts[i], other.sums[i], other.mins[i], other.maxs[i]);
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int key) {
+        return used[slot(key)];
+    }
+
+    /* The keys, sorted. */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                result[n++] = keys[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public long count(int key) {
+        int slot = slot(key);
+        return used[slot] ? counts[slot] : 0;
+    }
+
+    public double sum(int key) {
+        int slot = slot(key);
+        return used[slot] ? sums[slot] : 0;
+    }
+
+    /* NaN for a key that was never seen, as are min and max. */
+    public double mean(int key) {
+        int slot = slot(key);
+        return used[slot] ? sums[slot] / counts[slot] : Double.NaN;
+    }
+
+    public double min(int key) {
+        int slot = slot(key);
+        return used[slot] ? mins[slot] : Double.NaN;
+    }
+
+    public double max(int key) {
+        int slot = slot(key);
+        return used[slot] ? maxs[slot] : Double.NaN;
+    }
+
+    private void add(int key, long count, double sum, double min, double max) {
+        int slot = slot(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            mins[slot] = min;
+            maxs[slot] = max;
+            if (++size > (mask + 1) * 3 / 4) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        counts[slot] += count;
+        sums[slot] += sum;
+        mins[slot] = Math.min(mins[slot], min);
+        maxs[slot] = Math.max(maxs[slot], max);
+    }
+
+    /* The key's slot, or the free slot where it would go (linear probing). */
+    private int slot(int key) {
+        int slot = (key * 0x9E3779B9) >>> 7 & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        long[] oldCounts = counts;
+        double[] oldSums = sums;
+        double[] oldMins = mins;
+        double[] oldMaxs = maxs;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                sums[slot] = oldSums[i];
+                mins[slot] = oldMins[i];
+                maxs[slot] = oldMaxs[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        counts = new long[capacity];
+        sums = new double[capacity];
+        mins = new double[capacity];
+        maxs = new double[capacity];
+        mask = capacity - 1;
+    }
+}
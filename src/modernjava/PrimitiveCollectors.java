@@ -0,0 +1,111 @@
+package modernjava;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+
+/**
+ * Collectors that aggregate into primitive accumulators, in the spirit of the
+ * MinMaxResult collector in StreamsAPI but without boxing a value per element.
+ *
+ * - summarizing: count, sum, min, max, mean and variance (DoubleStats)
+ * - groupingByInt: count, sum, min and max per int key in one pass (IntGroupStats)
+ * - topK: the k highest scoring elements without sorting the stream (TopK)
+ * - approximateDistinct: distinct count in 16 KB (HyperLogLog)
+ * - quantiles: median, p99 and so on within 1% (QuantileSketch)
+ *
+ * Every accumulator has a combine method that merges two partial results, so
+ * all of them work on parallel streams; they are declared UNORDERED because the
+ * result does not depend on encounter order.
+ *
+ * @author JavaStud Team
+ * @version 2.0
+ * @since Java 8
+ */
+public final class PrimitiveCollectors {
+
+    private PrimitiveCollectors() {
+    }
+
+    public static <T> Collector<T, DoubleStats, DoubleStats> summarizing(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(
+                DoubleStats::new,
+                (stats, t) -> stats.accept(mapper.applyAsDouble(t)),
+                DoubleStats::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static DoubleStats summarize(DoubleStream values) {
+        return values.collect(DoubleStats::new, DoubleStats::accept, DoubleStats::combine);
+    }
+
+    /*
+     * One pass instead of one groupingBy per aggregate: e.g. count, total and
+     * range of salaries per age, keyed by the age itself.
+     */
+    public static <T> Collector<T, IntGroupStats, IntGroupStats> groupingByInt(
+            ToIntFunction<? super T> key, ToDoubleFunction<? super T> value) {
+        return Collector.of(
+                IntGroupStats::new,
+                (groups, t) -> groups.accept(key.applyAsInt(t), value.applyAsDouble(t)),
+                IntGroupStats::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /* The k elements with the highest score, highest first. */
+    public static <T> Collector<T, TopK<T>, List<T>> topK(int k, ToDoubleFunction<? super T> score) {
+        return Collector.of(
+                () -> new TopK<T>(k),
+                (top, t) -> top.accept(t, score.applyAsDouble(t)),
+                TopK::combine,
+                TopK::toList,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /*
+     * Distinct count of keys, estimated from their hashCode. Keys with equal
+     * hash codes count once, so for more than a few million distinct values
+     * prefer approximateDistinctLong with a 64-bit key.
+     */
+    public static <T> Collector<T, HyperLogLog, HyperLogLog> approximateDistinct(Function<? super T, ?> key) {
+        return Collector.of(
+                HyperLogLog::new,
+                (hll, t) -> hll.add(key.apply(t).hashCode()),
+                HyperLogLog::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, HyperLogLog, HyperLogLog> approximateDistinctLong(ToLongFunction<? super T> key) {
+        return Collector.of(
+                HyperLogLog::new,
+                (hll, t) -> hll.add(key.applyAsLong(t)),
+                HyperLogLog::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, QuantileSketch, QuantileSketch> quantiles(ToDoubleFunction<? super T> mapper) {
+        return quantiles(mapper, QuantileSketch.DEFAULT_ACCURACY);
+    }
+
+    public static <T> Collector<T, QuantileSketch, QuantileSketch> quantiles(
+            ToDoubleFunction<? super T> mapper, double relativeAccuracy) {
+        return Collector.of(
+                () -> new QuantileSketch(relativeAccuracy),
+                (sketch, t) -> sketch.accept(mapper.applyAsDouble(t)),
+                QuantileSketch::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static QuantileSketch quantiles(DoubleStream values) {
+        return values.collect(QuantileSketch::new, QuantileSketch::accept, QuantileSketch::combine);
+    }
+}
@@ -0,0 +1,171 @@
+package modernjava;
+
+/**
+ * Quantiles of double values with a bounded relative error; the accumulator of
+ * PrimitiveCollectors.quantiles.
+ *
+ * Values are counted in logarithmic buckets: bucket i holds the values in
+ * (gamma^(i-1), gamma^i] with gamma = (1 + a) / (1 - a), so reporting the
+ * bucket's middle is off by at most a fraction a of the true value (1% by
+ * default). Negative values use a mirrored set of buckets, zero its own count.
+ * Memory depends on the range of the values, not on their number: one bucket
+ * per 2% step, about 700 buckets from 1 to 1e6. Sketches merge by adding bucket
+ * counts, so a parallel stream gives exactly the sequential quantiles. NaN is
+ * skipped.
+ */
+public class QuantileSketch {
+
+    public static final double DEFAULT_ACCURACY = 0.01;
+
+    private static final double MIN_POSITIVE = 1e-300; // smaller magnitudes count as zero
+
+    private final double accuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeros;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.accuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value > MIN_POSITIVE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_POSITIVE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeros++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public QuantileSketch combine(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("accuracy " + other.accuracy + " does not match " + accuracy);
+        }
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeros += other.zeros;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /* Value at quantile q (0 = min, 0.5 = median, 1 = max); NaN when empty. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        double value;
+        if (rank < negative.total) {
+            // Most negative first: walk the mirrored buckets from the top
+            value = -bucketValue(negative.indexAtRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeros) {
+            value = 0;
+        } else {
+            value = bucketValue(positive.indexAtRank(rank - negative.total - zeros));
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public double[] quantiles(double... qs) {
+        double[] result = new double[qs.length];
+        for (int i = 0; i < qs.length; i++) {
+            result[i] = quantile(qs[i]);
+        }
+        return result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double relativeAccuracy() {
+        return accuracy;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    private double bucketValue(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /* Counts per bucket index, in an array that covers just the indexes seen. */
+    private static final class Buckets {
+        long[] counts = new long[0];
+        int offset;     // bucket index of counts[0]
+        long total;
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[64];
+                offset = index - 32;
+            } else if (index < offset || index >= offset + counts.length) {
+                int low = Math.min(offset, index);
+                int high = Math.max(offset + counts.length, index + 1);
+                int length = Math.max(high - low, counts.length * 2);
+                int newOffset = index < offset ? high - length : low;
+                long[] grown = new long[length];
+                System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+                counts = grown;
+                offset = newOffset;
+            }
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        void addAll(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        /* Index of the bucket holding the rank-th smallest value (0-based). */
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            throw new IllegalStateException("rank " + rank + " of " + total);
+        }
+    }
+}
@@ -258,6 +258,12 @@ public class StreamsAPI {
         System.out.println("Sequential sum: " + sequentialSum + " (time: " + sequentialTime + "ms)");
         System.out.println("Parallel sum: " + parallelSum + " (time: " + parallelTime + "ms)");
         
+        // Let the cost model decide: ten cheap elements are not worth a parallel split
+        try (AdaptiveExecutor executor = new AdaptiveExecutor()) {
+            int adaptiveSum = executor.run("sum", numbers, s -> s.mapToInt(Integer::intValue).sum());
+            System.out.println("Adaptive sum: " + adaptiveSum + " (" + executor.history().get(0).getMode() + ")");
+        }
+        
         // Parallel stream with complex operations
         List<String> words = Arrays.asList("hello", "world", "java", "streams", "parallel", "processing");
         
@@ -334,7 +340,7 @@ public class StreamsAPI {
         
         // Custom collector to find min and max
         MinMaxResult<String> minMax = words.stream()
-                                          .collect(Collector.of(
+                                          .collect(Collector.<String, MinMaxResult<String>, MinMaxResult<String>>of(
                                               MinMaxResult::new,
                                               MinMaxResult::accept,
                                               MinMaxResult::combine,
@@ -342,6 +348,20 @@ public class StreamsAPI {
                                           ));
         System.out.println("Min: " + minMax.getMin() + ", Max: " + minMax.getMax());
         
+        // Primitive collectors: no boxing per element, safe on parallel streams
+        DoubleStats lengths = words.parallelStream()
+                                   .collect(PrimitiveCollectors.summarizing(String::length));
+        System.out.println("Word lengths: " + lengths);
+        List<String> longest = words.stream()
+                                    .collect(PrimitiveCollectors.topK(3, String::length));
+        System.out.println("Three longest: " + longest);
+        System.out.println("Distinct first letters (approx): " + words.stream()
+                .collect(PrimitiveCollectors.approximateDistinct(w -> w.charAt(0)))
+                .estimate());
+        QuantileSketch median = words.stream()
+                                     .collect(PrimitiveCollectors.quantiles(String::length));
+        System.out.println("Median length: " + median.quantile(0.5));
+        
         System.out.println();
     }
 }
@@ -0,0 +1,110 @@
+package modernjava;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The k elements with the highest score; the accumulator of PrimitiveCollectors.topK.
+ *
+ * A min-heap of at most k entries kept in two arrays (double scores, elements),
+ * so an element that does not beat the current k-th best costs one comparison
+ * and scores are never boxed. Sorting the whole stream and taking k would be
+ * O(n log n) and hold every element; this is O(n log k) in O(k) memory.
+ * NaN scores are skipped.
+ */
+public class TopK<T> {
+
+    private final int k;
+    private final double[] scores;
+    private final Object[] elements;
+    private int size;
+
+    public TopK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        this.k = k;
+        this.scores = new double[k];
+        this.elements = new Object[k];
+    }
+
+    public void accept(T element, double score) {
+        if (Double.isNaN(score)) {
+            return;
+        }
+        if (size < k) {
+            scores[size] = score;
+            elements[size] = element;
+            siftUp(size++);
+        } else if (k > 0 && score > scores[0]) {
+            scores[0] = score;
+            elements[0] = element;
+            siftDown(0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public TopK<T> combine(TopK<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            accept((T) other.elements[i], other.scores[i]);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Highest score first. */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<T> result = new ArrayList<>(size);
+        for (int i : order) {
+            result.add((T) elements[i]);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[i] <= scores[child]) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        Object element = elements[i];
+        elements[i] = elements[j];
+        elements[j] = element;
+    }
+}
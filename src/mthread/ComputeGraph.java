@@ -0,0 +1,265 @@
+package mthread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Dependency graph of double formulas, the general form of ThreadJoinCalcTanx.
+ *
+ * Instead of one new Thread per sub-computation plus join(), nodes declare which
+ * other nodes they read and the graph schedules them on a pool:
+ *
+ * <pre>
+ * ComputeGraph g = new ComputeGraph( );
+ * g.input( "angle" );
+ * g.node( "sin", in -&gt; Math.sin( in[0] ), "angle" );
+ * g.node( "cos", in -&gt; Math.cos( in[0] ), "angle" );
+ * g.node( "tan", in -&gt; in[0] / in[1], "sin", "cos" );
+ * </pre>
+ *
+ * evaluate() runs independent nodes (sin, cos) in parallel as CompletableFutures,
+ * and every node is computed once per evaluation however many nodes depend on it.
+ * evaluateTable() is for many rows of small formulas: there a future per node costs
+ * more than the math, so rows are split across the ForkJoinPool and each row is
+ * computed sequentially in dependency order.
+ *
+ * Dependencies must be declared before the nodes that use them, which keeps the
+ * graph acyclic and makes declaration order a valid evaluation order. Declare all
+ * nodes first; the graph is not meant to change while it is being evaluated.
+ */
+public class ComputeGraph {
+
+	/* A formula over the values of the node's dependencies, in declaration order. */
+	@FunctionalInterface
+	public interface Formula {
+		double apply( double[] args );
+	}
+
+	private static final int	TABLE_CHUNK	= 1024;
+
+	private final Map<String, Integer>	index		= new HashMap<>( );
+	private final List<String>			names		= new ArrayList<>( );
+	private final List<Formula>			formulas	= new ArrayList<>( );	// null for inputs
+	private final List<int[]>			deps		= new ArrayList<>( );
+	private final List<Integer>			inputs		= new ArrayList<>( );
+
+	/* Declare a value supplied by the caller on every evaluation. */
+	public ComputeGraph input( String name ) {
+		inputs.add( add( name, null, new int[0] ) );
+		return this;
+	}
+
+	/* Declare a computed node; every dependency must already exist. */
+	public ComputeGraph node( String name, Formula formula, String... dependsOn ) {
+		if ( formula == null ) {
+			throw new IllegalArgumentException( "Formula of " + name + " is null" );
+		}
+		int[] d = new int[dependsOn.length];
+		for ( int i = 0; i < d.length; i++ ) {
+			d[i] = indexOf( dependsOn[i] );
+		}
+		add( name, formula, d );
+		return this;
+	}
+
+	public List<String> inputNames( ) {
+		List<String> result = new ArrayList<>( );
+		for ( int i : inputs ) {
+			result.add( names.get( i ) );
+		}
+		return result;
+	}
+
+	/* Evaluate every node on the common pool and wait for the result. */
+	public Map<String, Double> evaluate( Map<String, Double> inputValues ) {
+		try {
+			return evaluateAsync( inputValues, ForkJoinPool.commonPool( ) ).join( );
+		} catch ( CompletionException e ) {
+			if ( e.getCause( ) instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause( );
+			}
+			throw e;
+		}
+	}
+
+	/*
+	 * Evaluate every node, each one starting as soon as its dependencies are done.
+	 * The map holds inputs and computed nodes in declaration order.
+	 */
+	public CompletableFuture<Map<String, Double>> evaluateAsync( Map<String, Double> inputValues, Executor executor ) {
+		List<CompletableFuture<Double>> futures = new ArrayList<>( names.size( ) );
+
+		for ( int n = 0; n < names.size( ); n++ ) {
+			Formula formula = formulas.get( n );
+			if ( formula == null ) {
+				futures.add( CompletableFuture.completedFuture( inputValue( inputValues, names.get( n ) ) ) );
+				continue;
+			}
+
+			int[] d = deps.get( n );
+			CompletableFuture<?>[] upstream = new CompletableFuture<?>[d.length];
+			for ( int i = 0; i < d.length; i++ ) {
+				upstream[i] = futures.get( d[i] );
+			}
+			futures.add( CompletableFuture.allOf( upstream ).thenApplyAsync( ignored -> {
+				double[] args = new double[d.length];
+				for ( int i = 0; i < d.length; i++ ) {
+					args[i] = futures.get( d[i] ).join( );
+				}
+				return formula.apply( args );
+			}, executor ) );
+		}
+
+		return CompletableFuture.allOf( futures.toArray( new CompletableFuture<?>[0] ) ).thenApply( ignored -> {
+			Map<String, Double> result = new LinkedHashMap<>( );
+			for ( int n = 0; n < futures.size( ); n++ ) {
+				result.put( names.get( n ), futures.get( n ).join( ) );
+			}
+			return result;
+		} );
+	}
+
+	/*
+	 * Evaluate a whole table. Each row holds the input values in inputNames() order;
+	 * the result has one row per input row and one column per requested output.
+	 */
+	public double[][] evaluateTable( double[][] rows, String... outputs ) {
+		return evaluateTable( rows, ForkJoinPool.commonPool( ), outputs );
+	}
+
+	public double[][] evaluateTable( double[][] rows, ForkJoinPool pool, String... outputs ) {
+		int[] out = new int[outputs.length];
+		for ( int i = 0; i < out.length; i++ ) {
+			out[i] = indexOf( outputs[i] );
+		}
+		double[][] result = new double[rows.length][];
+		pool.invoke( new TableTask( rows, result, out, 0, rows.length ) );
+		return result;
+	}
+
+	/* Evaluate one row in declaration order, reusing the scratch arrays. */
+	private void evaluateRow( double[] row, double[] values, double[][] argBuffers ) {
+		if ( row.length != inputs.size( ) ) {
+			throw new IllegalArgumentException( "Expected " + inputs.size( ) + " inputs, got " + row.length );
+		}
+		int nextInput = 0;
+		for ( int n = 0; n < values.length; n++ ) {
+			Formula formula = formulas.get( n );
+			if ( formula == null ) {
+				values[n] = row[nextInput++];
+				continue;
+			}
+			int[] d = deps.get( n );
+			double[] args = argBuffers[n];
+			for ( int i = 0; i < d.length; i++ ) {
+				args[i] = values[d[i]];
+			}
+			values[n] = formula.apply( args );
+		}
+	}
+
+	private class TableTask extends RecursiveAction {
+		private static final long	serialVersionUID	= 1L;
+
+		private final double[][]	rows;
+		private final double[][]	result;
+		private final int[]			out;
+		private final int			from, to;
+
+		TableTask( double[][] rows, double[][] result, int[] out, int from, int to ) {
+			this.rows = rows;
+			this.result = result;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute( ) {
+			if ( to - from > TABLE_CHUNK ) {
+				int mid = ( from + to ) >>> 1;
+				invokeAll( new TableTask( rows, result, out, from, mid ), new TableTask( rows, result, out, mid, to ) );
+				return;
+			}
+
+			double[] values = new double[names.size( )];
+			double[][] argBuffers = new double[values.length][];
+			for ( int n = 0; n < values.length; n++ ) {
+				argBuffers[n] = new double[deps.get( n ).length];
+			}
+			for ( int r = from; r < to; r++ ) {
+				evaluateRow( rows[r], values, argBuffers );
+				double[] line = new double[out.length];
+				for ( int i = 0; i < out.length; i++ ) {
+					line[i] = values[out[i]];
+				}
+				result[r] = line;
+			}
+		}
+	}
+
+	private int add( String name, Formula formula, int[] d ) {
+		if ( index.containsKey( name ) ) {
+			throw new IllegalArgumentException( "Duplicate node: " + name );
+		}
+		int n = names.size( );
+		index.put( name, n );
+		names.add( name );
+		formulas.add( formula );
+		deps.add( d );
+		return n;
+	}
+
+	private int indexOf( String name ) {
+		Integer n = index.get( name );
+		if ( n == null ) {
+			throw new IllegalArgumentException( "Unknown node: " + name );
+		}
+		return n;
+	}
+
+	private static double inputValue( Map<String, Double> inputValues, String name ) {
+		Double value = inputValues.get( name );
+		if ( value == null ) {
+			throw new IllegalArgumentException( "Missing input: " + name );
+		}
+		return value;
+	}
+
+	public static void main( String[] args ) {
+
+		/* ThreadJoinCalcTanx without a Thread per sub-computation. */
+		ComputeGraph trig = new ComputeGraph( );
+		trig.input( "angle" );
+		trig.node( "sin", in -> Math.sin( in[0] ), "angle" );
+		trig.node( "cos", in -> Math.cos( in[0] ), "angle" );
+		trig.node( "tan", in -> in[0] / in[1], "sin", "cos" );
+		System.out.println( "Tan45: " + Math.round( trig.evaluate( Map.of( "angle", Math.PI / 4 ) ).get( "tan" ) ) );
+
+		/* Compound interest for a million (principal, rate, years) rows. */
+		ComputeGraph finance = new ComputeGraph( );
+		finance.input( "principal" ).input( "rate" ).input( "years" );
+		finance.node( "growth", in -> Math.pow( 1 + in[0], in[1] ), "rate", "years" );
+		finance.node( "amount", in -> in[0] * in[1], "principal", "growth" );
+		finance.node( "interest", in -> in[1] - in[0], "principal", "amount" );
+
+		double[][] rows = new double[1_000_000][];
+		for ( int i = 0; i < rows.length; i++ ) {
+			rows[i] = new double[] { 1000 + i % 5000, 0.01 + ( i % 10 ) / 100.0, 1 + i % 30 };
+		}
+		long start = System.nanoTime( );
+		double[][] table = finance.evaluateTable( rows, "amount", "interest" );
+		long millis = ( System.nanoTime( ) - start ) / 1_000_000;
+
+		System.out.println( "Rows: " + table.length + " in " + millis + " ms, first: " + Arrays.toString( table[0] ) );
+	}
+}
@@ -0,0 +1,33 @@
+package mthread;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LikeStore kept in a HashMap. Stands in for the database in demos and tests and
+ * counts how many batches reached it, which shows how well clicks were coalesced.
+ */
+public class InMemoryLikeStore implements LikeStore {
+
+	private final Map<String, Long>	totals	= new HashMap<>( );
+	private final AtomicLong		batches	= new AtomicLong( );
+
+	@Override
+	public synchronized void persist( Map<String, Long> deltas ) {
+		for ( Map.Entry<String, Long> e : deltas.entrySet( ) ) {
+			totals.merge( e.getKey( ), e.getValue( ), Long::sum );
+		}
+		batches.incrementAndGet( );
+	}
+
+	@Override
+	public synchronized long load( String pageId ) {
+		return totals.getOrDefault( pageId, 0L );
+	}
+
+	/* Number of persist() calls so far. */
+	public long batches( ) {
+		return batches.get( );
+	}
+}
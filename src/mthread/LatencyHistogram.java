@@ -0,0 +1,60 @@
+package mthread;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets. Bucket i counts
+ * values in [2^i, 2^(i+1)), so percentiles are accurate to a factor of two, which is
+ * plenty to tell a 50 us task from a 50 ms one.
+ */
+public class LatencyHistogram {
+
+	private static final int	BUCKETS	= 64;
+
+	private final AtomicLongArray	counts	= new AtomicLongArray( BUCKETS );
+	private final LongAdder			total	= new LongAdder( );
+	private final LongAdder			sum		= new LongAdder( );
+
+	public void record( long nanos ) {
+		long v = Math.max( 1, nanos );
+		counts.incrementAndGet( 63 - Long.numberOfLeadingZeros( v ) );
+		total.increment( );
+		sum.add( v );
+	}
+
+	public long count( ) {
+		return total.sum( );
+	}
+
+	public long meanNanos( ) {
+		long n = total.sum( );
+		return n == 0 ? 0 : sum.sum( ) / n;
+	}
+
+	/* Upper bound of the bucket holding the given percentile (0..100), 0 if empty. */
+	public long percentileNanos( double percentile ) {
+		long n = total.sum( );
+		if ( n == 0 ) {
+			return 0;
+		}
+		long rank = (long) Math.ceil( n * percentile / 100.0 );
+		long seen = 0;
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			seen += counts.get( i );
+			if ( seen >= rank ) {
+				return ( 1L << ( i + 1 ) ) - 1;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/* Raw bucket counts, index i covers [2^i, 2^(i+1)) nanoseconds. */
+	public long[] buckets( ) {
+		long[] copy = new long[BUCKETS];
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			copy[i] = counts.get( i );
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,300 @@
+package mthread;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Like counter for many pages, the scalable version of FacebookLike.
+ *
+ * Every page owns a LongAdder, so concurrent clicks on the same page land in
+ * different cells instead of fighting over one field (SynchronizeFbLike shows what
+ * happens with a plain Integer). Clicks are never written one by one: a background
+ * flusher collects the pages that changed and hands their deltas to the LikeStore
+ * in batches.
+ *
+ * Exactly-once: a page's adder is never reset. The flusher remembers how much of it
+ * was already persisted and only sends the difference, so a click is either in this
+ * batch or in a later one, never in both and never lost. A failed batch is simply
+ * offered again. The service assumes it is the only writer of the pages it owns.
+ *
+ * Closing waits for clicks that already passed the closed check, so the final flush
+ * sees them, but only until the close timeout: a click stuck inside add() is given up
+ * and logged rather than hanging shutdown. Final because the constructor hands this
+ * to the flusher thread.
+ */
+public final class LikeCounterService implements AutoCloseable {
+
+	public static final int			DEFAULT_MAX_BATCH		= 10_000;
+	public static final Duration	DEFAULT_CLOSE_TIMEOUT	= Duration.ofSeconds( 10 );
+
+	private final LikeStore		store;
+	private final int			maxBatch;
+
+	private final ConcurrentHashMap<String, PageCounter>	pages	= new ConcurrentHashMap<>( );
+	private final ConcurrentLinkedQueue<PageCounter>		dirty	= new ConcurrentLinkedQueue<>( );
+
+	private final ScheduledExecutorService	flusher;
+	private volatile boolean				closed;
+
+	/* Clicks inside add(); close() drains them before the final flush. */
+	private final LongAdder		entered			= new LongAdder( );
+	private final LongAdder		exited			= new LongAdder( );
+
+	private final LongAdder		clicks			= new LongAdder( );
+	private final AtomicLong	batches			= new AtomicLong( );
+	private final AtomicLong	failedBatches	= new AtomicLong( );
+
+	/* One page: persisted total at load time plus every click since. */
+	private static final class PageCounter {
+		final String		pageId;
+		final long			base;
+		final LongAdder		likes	= new LongAdder( );
+		final AtomicBoolean	queued	= new AtomicBoolean( );
+		long				flushed;	// flusher thread only
+		long				inFlight;	// flusher thread only
+
+		PageCounter( String pageId, long base ) {
+			this.pageId = pageId;
+			this.base = base;
+		}
+	}
+
+	/* Flush every flushIntervalMillis on a daemon thread; 0 means manual flush() only. */
+	public LikeCounterService( LikeStore store, long flushIntervalMillis, int maxBatch ) {
+		if ( maxBatch <= 0 ) {
+			throw new IllegalArgumentException( "maxBatch must be positive: " + maxBatch );
+		}
+		this.store = store;
+		this.maxBatch = maxBatch;
+
+		if ( flushIntervalMillis > 0 ) {
+			flusher = Executors.newSingleThreadScheduledExecutor( r -> {
+				Thread t = new Thread( r, "like-flusher" );
+				t.setDaemon( true );
+				return t;
+			} );
+			flusher.scheduleWithFixedDelay( this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+					TimeUnit.MILLISECONDS );
+		} else {
+			flusher = null;
+		}
+	}
+
+	public LikeCounterService( LikeStore store, long flushIntervalMillis ) {
+		this( store, flushIntervalMillis, DEFAULT_MAX_BATCH );
+	}
+
+	/* One user hit like on the page. Lock free, no I/O. */
+	public void plusOne( String pageId ) {
+		add( pageId, 1 );
+	}
+
+	public void add( String pageId, long delta ) {
+		// Enter before reading closed: close() sets closed first, then waits for us.
+		entered.increment( );
+		try {
+			if ( closed ) {
+				throw new IllegalStateException( "LikeCounterService is closed" );
+			}
+			PageCounter page = page( pageId );
+			page.likes.add( delta );
+			clicks.increment( );
+
+			// Enqueue after the add, so a flusher that dequeues the page always sees it.
+			if ( !page.queued.get( ) && page.queued.compareAndSet( false, true ) ) {
+				dirty.add( page );
+			}
+		} finally {
+			exited.increment( );
+		}
+	}
+
+	/* Current total of the page, including clicks not persisted yet. */
+	public long likes( String pageId ) {
+		PageCounter page = page( pageId );
+		return page.base + page.likes.sum( );
+	}
+
+	/*
+	 * Persist everything clicked so far, maxBatch pages per LikeStore call. Returns the
+	 * number of pages written. Stops at the first failing batch, whose pages stay dirty.
+	 */
+	public synchronized int flush( ) throws Exception {
+		int written = 0;
+		while ( !dirty.isEmpty( ) ) {
+			Map<String, Long> batch = new HashMap<>( );
+			List<PageCounter> taken = new ArrayList<>( );
+
+			PageCounter page;
+			while ( batch.size( ) < maxBatch && ( page = dirty.poll( ) ) != null ) {
+				// Clear the flag before reading, a click racing with us re-enqueues the page.
+				page.queued.set( false );
+				long seen = page.likes.sum( );
+				if ( seen != page.flushed ) {
+					page.inFlight = seen;
+					batch.put( page.pageId, seen - page.flushed );
+					taken.add( page );
+				}
+			}
+			if ( batch.isEmpty( ) ) {
+				break;
+			}
+
+			try {
+				store.persist( batch );
+			} catch ( Exception e ) {
+				failedBatches.incrementAndGet( );
+				for ( PageCounter p : taken ) {
+					if ( p.queued.compareAndSet( false, true ) ) {
+						dirty.add( p );
+					}
+				}
+				throw e;
+			}
+
+			for ( PageCounter p : taken ) {
+				p.flushed = p.inFlight;
+			}
+			batches.incrementAndGet( );
+			written += batch.size( );
+		}
+		return written;
+	}
+
+	@Override
+	public void close( ) {
+		close( DEFAULT_CLOSE_TIMEOUT );
+	}
+
+	/*
+	 * Stop accepting clicks, wait up to timeout for the ones already inside add() and
+	 * for the flusher, then persist what is left. Clicks still inside add() at the
+	 * deadline are logged and left out. A failing final flush is rethrown as
+	 * IllegalStateException; interrupting close() stops the waiting but still flushes.
+	 */
+	public void close( Duration timeout ) {
+		long deadline = System.nanoTime( ) + timeout.toNanos( );
+		closed = true;
+		long abandoned = awaitInFlightClicks( deadline );
+		if ( abandoned > 0 ) {
+			System.err.println( "LikeCounterService: " + abandoned + " add() calls still running after "
+					+ timeout.toMillis( ) + " ms, closing without them" );
+		}
+
+		boolean interrupted = false;
+		if ( flusher != null ) {
+			flusher.shutdown( );
+			try {
+				flusher.awaitTermination( Math.max( 0, deadline - System.nanoTime( ) ), TimeUnit.NANOSECONDS );
+			} catch ( InterruptedException e ) {
+				interrupted = true;
+			}
+		}
+		try {
+			flush( );
+		} catch ( Exception e ) {
+			throw new IllegalStateException( "Final flush failed, unsaved likes: " + dirty.size( ) + " pages", e );
+		} finally {
+			if ( interrupted ) {
+				Thread.currentThread( ).interrupt( );
+			}
+		}
+	}
+
+	/*
+	 * Spin until every add() that entered has exited, the deadline passes or the thread
+	 * is interrupted; returns how many are still inside. exited is summed before entered:
+	 * every exit counted then has its entry counted too, so equal sums mean nobody is
+	 * between the two. Adds arriving now see closed and leave at once.
+	 */
+	private long awaitInFlightClicks( long deadline ) {
+		while ( true ) {
+			long out = exited.sum( );
+			long pending = entered.sum( ) - out;
+			if ( pending == 0 || System.nanoTime( ) - deadline >= 0 || Thread.currentThread( ).isInterrupted( ) ) {
+				return pending;
+			}
+			Thread.yield( );
+		}
+	}
+
+	public long totalClicks( ) {
+		return clicks.sum( );
+	}
+
+	public long batchesWritten( ) {
+		return batches.get( );
+	}
+
+	public long failedBatches( ) {
+		return failedBatches.get( );
+	}
+
+	public int pageCount( ) {
+		return pages.size( );
+	}
+
+	private PageCounter page( String pageId ) {
+		PageCounter page = pages.get( pageId );
+		if ( page == null ) {
+			page = pages.computeIfAbsent( pageId, id -> new PageCounter( id, loadBase( id ) ) );
+		}
+		return page;
+	}
+
+	private long loadBase( String pageId ) {
+		try {
+			return store.load( pageId );
+		} catch ( Exception e ) {
+			throw new IllegalStateException( "Could not load likes of page " + pageId, e );
+		}
+	}
+
+	private void flushQuietly( ) {
+		try {
+			flush( );
+		} catch ( Exception e ) {
+			// Pages stay dirty and are retried on the next tick.
+			System.err.println( "like-flusher: " + e );
+		}
+	}
+
+	public static void main( String[] args ) throws Exception {
+		InMemoryLikeStore store = new InMemoryLikeStore( );
+		final LikeCounterService service = new LikeCounterService( store, 50 );
+
+		/* Same 4 users as SynchronizeFbLike, but 100000 clicks each and no lost update. */
+		Thread[] users = new Thread[4];
+		for ( int i = 0; i < users.length; i++ ) {
+			users[i] = new Thread( ( ) -> {
+				for ( int j = 0; j < 100_000; j++ ) {
+					service.plusOne( "everest" );
+				}
+			}, "user" + ( i + 1 ) );
+		}
+
+		long start = System.nanoTime( );
+		for ( Thread t : users ) {
+			t.start( );
+		}
+		for ( Thread t : users ) {
+			t.join( );
+		}
+		long nanos = System.nanoTime( ) - start;
+		service.close( );
+
+		System.out.println( "Likes: " + service.likes( "everest" ) + ", persisted: " + store.load( "everest" ) );
+		System.out.println( "Batches: " + store.batches( ) + ", clicks/s: " + service.totalClicks( ) * 1_000_000_000L / nanos );
+	}
+}
@@ -0,0 +1,19 @@
+package mthread;
+
+import java.util.Map;
+
+/**
+ * Durable side of the like counter. LikeCounterService hands it coalesced
+ * per-page deltas, never single clicks.
+ */
+public interface LikeStore {
+
+	/*
+	 * Add every delta to its page total. Must be all-or-nothing: when it throws, the
+	 * service keeps the deltas and offers them again on the next flush.
+	 */
+	void persist( Map<String, Long> deltas ) throws Exception;
+
+	/* Persisted total of a page, 0 if the page was never seen. */
+	long load( String pageId ) throws Exception;
+}
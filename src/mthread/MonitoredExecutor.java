@@ -0,0 +1,198 @@
+package mthread;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ExecutorService wrapper that measures its pool. The counters are kept by the
+ * wrapper rather than read from a ThreadPoolExecutor, so platform and
+ * thread-per-task (virtual) pools report the same numbers:
+ *
+ * queued    tasks accepted but not started yet
+ * active    tasks running right now
+ * rejected  tasks the delegate refused
+ * wait/run  histograms of time spent queued and time spent running
+ *
+ * A task counts as failed when it throws, whether it came in through execute() or
+ * was wrapped in a Future by submit()/invokeAll().
+ */
+public class MonitoredExecutor extends AbstractExecutorService {
+
+	private final String			name;
+	private final ExecutorService	delegate;
+	private final int				maxThreads;	// Integer.MAX_VALUE when unbounded
+	private final boolean			virtual;
+
+	private final AtomicInteger		queued		= new AtomicInteger( );
+	private final AtomicInteger		active		= new AtomicInteger( );
+	private final LongAdder			completed	= new LongAdder( );
+	private final LongAdder			failed		= new LongAdder( );
+	private final LongAdder			rejected	= new LongAdder( );
+	private final LatencyHistogram	waitTime	= new LatencyHistogram( );
+	private final LatencyHistogram	runTime		= new LatencyHistogram( );
+
+	public MonitoredExecutor( String name, ExecutorService delegate, int maxThreads, boolean virtual ) {
+		this.name = name;
+		this.delegate = delegate;
+		this.maxThreads = maxThreads;
+		this.virtual = virtual;
+	}
+
+	@Override
+	public void execute( Runnable command ) {
+		final long submitted = System.nanoTime( );
+		queued.incrementAndGet( );
+		try {
+			delegate.execute( ( ) -> {
+				long started = System.nanoTime( );
+				queued.decrementAndGet( );
+				active.incrementAndGet( );
+				waitTime.record( started - submitted );
+				try {
+					command.run( );
+					if ( command instanceof TrackedTask && ( (TrackedTask<?>) command ).threw ) {
+						failed.increment( );
+					} else {
+						completed.increment( );
+					}
+				} catch ( RuntimeException | Error e ) {
+					failed.increment( );
+					throw e;
+				} finally {
+					active.decrementAndGet( );
+					runTime.record( System.nanoTime( ) - started );
+				}
+			} );
+		} catch ( RejectedExecutionException e ) {
+			queued.decrementAndGet( );
+			rejected.increment( );
+			throw e;
+		}
+	}
+
+	/* submit() swallows the task's exception into its Future; remember that it threw. */
+	@Override
+	protected <T> FutureTask<T> newTaskFor( Runnable runnable, T value ) {
+		return new TrackedTask<>( Executors.callable( runnable, value ) );
+	}
+
+	@Override
+	protected <T> FutureTask<T> newTaskFor( Callable<T> callable ) {
+		return new TrackedTask<>( callable );
+	}
+
+	private static final class TrackedTask<T> extends FutureTask<T> {
+		volatile boolean threw;
+
+		TrackedTask( Callable<T> callable ) {
+			super( callable );
+		}
+
+		@Override
+		protected void setException( Throwable t ) {
+			threw = true;
+			super.setException( t );
+		}
+	}
+
+	/* Point-in-time view of the pool. */
+	public PoolStats stats( ) {
+		return new PoolStats( name, virtual, maxThreads, queued.get( ), active.get( ), completed.sum( ), failed.sum( ),
+				rejected.sum( ), waitTime.percentileNanos( 99 ), runTime.percentileNanos( 50 ), runTime.percentileNanos( 99 ) );
+	}
+
+	public LatencyHistogram waitTime( ) {
+		return waitTime;
+	}
+
+	public LatencyHistogram runTime( ) {
+		return runTime;
+	}
+
+	public String name( ) {
+		return name;
+	}
+
+	@Override
+	public void shutdown( ) {
+		delegate.shutdown( );
+	}
+
+	@Override
+	public List<Runnable> shutdownNow( ) {
+		List<Runnable> dropped = delegate.shutdownNow( );
+		queued.addAndGet( -dropped.size( ) );
+		return dropped;
+	}
+
+	@Override
+	public boolean isShutdown( ) {
+		return delegate.isShutdown( );
+	}
+
+	@Override
+	public boolean isTerminated( ) {
+		return delegate.isTerminated( );
+	}
+
+	@Override
+	public boolean awaitTermination( long timeout, TimeUnit unit ) throws InterruptedException {
+		return delegate.awaitTermination( timeout, unit );
+	}
+
+	/* Immutable snapshot of one pool's metrics. */
+	public static final class PoolStats {
+		public final String		name;
+		public final boolean	virtual;
+		public final int		maxThreads;
+		public final int		queued;
+		public final int		active;
+		public final long		completed;
+		public final long		failed;
+		public final long		rejected;
+		public final long		p99WaitNanos;
+		public final long		p50RunNanos;
+		public final long		p99RunNanos;
+
+		PoolStats( String name, boolean virtual, int maxThreads, int queued, int active, long completed, long failed,
+				long rejected, long p99WaitNanos, long p50RunNanos, long p99RunNanos ) {
+			this.name = name;
+			this.virtual = virtual;
+			this.maxThreads = maxThreads;
+			this.queued = queued;
+			this.active = active;
+			this.completed = completed;
+			this.failed = failed;
+			this.rejected = rejected;
+			this.p99WaitNanos = p99WaitNanos;
+			this.p50RunNanos = p50RunNanos;
+			this.p99RunNanos = p99RunNanos;
+		}
+
+		/* Busy threads over pool size; 0 for unbounded pools. */
+		public double utilization( ) {
+			return maxThreads == Integer.MAX_VALUE ? 0 : (double) active / maxThreads;
+		}
+
+		/* All threads busy with work waiting, or work being turned away. */
+		public boolean isSaturated( ) {
+			return rejected > 0 || ( queued > 0 && active >= maxThreads );
+		}
+
+		@Override
+		public String toString( ) {
+			return String.format( "%-16s %-8s active=%d/%s queued=%d done=%d failed=%d rejected=%d wait.p99=%dus run.p50=%dus run.p99=%dus%s",
+					name, virtual ? "virtual" : "platform", active, maxThreads == Integer.MAX_VALUE ? "-" : maxThreads,
+					queued, completed, failed, rejected, p99WaitNanos / 1000, p50RunNanos / 1000, p99RunNanos / 1000,
+					isSaturated( ) ? " SATURATED" : "" );
+		}
+	}
+}
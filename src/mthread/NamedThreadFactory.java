@@ -0,0 +1,93 @@
+package mthread;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ThreadFactory that does what ThreadsWithName does by hand: every thread is named
+ * "pool-N" after its pool and gets the pool's priority and daemon flag.
+ *
+ * The virtual flavor needs Java 21. The project compiles for Java 17, so
+ * Thread.ofVirtual() is looked up at runtime; on older JVMs virtual() returns a
+ * daemon platform factory and isVirtual() tells which one you got.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+	private static final MethodHandle	VIRTUAL_BUILDER	= findVirtualBuilder( );
+
+	private final String				poolName;
+	private final boolean				daemon;
+	private final int					priority;
+	private final boolean				virtual;
+	private final AtomicInteger			counter			= new AtomicInteger( );
+
+	private NamedThreadFactory( String poolName, boolean daemon, int priority, boolean virtual ) {
+		this.poolName = poolName;
+		this.daemon = daemon;
+		this.priority = priority;
+		this.virtual = virtual;
+	}
+
+	public static NamedThreadFactory platform( String poolName, boolean daemon, int priority ) {
+		return new NamedThreadFactory( poolName, daemon, priority, false );
+	}
+
+	public static NamedThreadFactory platform( String poolName ) {
+		return platform( poolName, false, Thread.NORM_PRIORITY );
+	}
+
+	public static NamedThreadFactory virtual( String poolName ) {
+		return new NamedThreadFactory( poolName, true, Thread.NORM_PRIORITY, VIRTUAL_BUILDER != null );
+	}
+
+	public static boolean virtualThreadsSupported( ) {
+		return VIRTUAL_BUILDER != null;
+	}
+
+	@Override
+	public Thread newThread( Runnable r ) {
+		String name = poolName + "-" + counter.incrementAndGet( );
+		if ( virtual ) {
+			try {
+				return (Thread) VIRTUAL_BUILDER.invoke( name, r );
+			} catch ( Throwable e ) {
+				throw new IllegalStateException( "Could not create virtual thread " + name, e );
+			}
+		}
+		Thread t = new Thread( r, name );
+		t.setDaemon( daemon );
+		t.setPriority( priority );
+		return t;
+	}
+
+	public String poolName( ) {
+		return poolName;
+	}
+
+	public boolean isVirtual( ) {
+		return virtual;
+	}
+
+	/* (String name, Runnable task) -> Thread.ofVirtual().name(name).unstarted(task), or null. */
+	private static MethodHandle findVirtualBuilder( ) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup( );
+			Class<?> builder = Class.forName( "java.lang.Thread$Builder" );
+			Class<?> ofVirtual = Class.forName( "java.lang.Thread$Builder$OfVirtual" );
+
+			MethodHandle create = lookup.findStatic( Thread.class, "ofVirtual", MethodType.methodType( ofVirtual ) );
+			MethodHandle name = lookup.findVirtual( ofVirtual, "name", MethodType.methodType( ofVirtual, String.class ) );
+			MethodHandle unstarted = lookup.findVirtual( builder, "unstarted", MethodType.methodType( Thread.class, Runnable.class ) );
+
+			// name(ofVirtual(), n) then unstarted(builder, r)
+			MethodHandle named = MethodHandles.foldArguments( name, create );
+			named = named.asType( MethodType.methodType( builder, String.class ) );
+			return MethodHandles.filterArguments( unstarted, 0, named );
+		} catch ( ReflectiveOperationException | RuntimeException e ) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package mthread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import mthread.MonitoredExecutor.PoolStats;
+
+/**
+ * Registry of named, measured thread pools. Replaces ad-hoc threads like the ones in
+ * ThreadsWithName and RunnableInterface: every pool has a name, its threads are
+ * called after it, and report() lists all pools with the most saturated first.
+ */
+public class PoolRegistry {
+
+	private final ConcurrentHashMap<String, MonitoredExecutor>	pools	= new ConcurrentHashMap<>( );
+
+	/*
+	 * Platform pool with a bounded queue. When threads and queue are full, submit()
+	 * throws RejectedExecutionException and the pool's rejected count goes up.
+	 */
+	public MonitoredExecutor newFixedPool( String name, int threads, int queueCapacity, int priority ) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>( queueCapacity ), NamedThreadFactory.platform( name, false, priority ) );
+		return add( new MonitoredExecutor( name, executor, threads, false ) );
+	}
+
+	public MonitoredExecutor newFixedPool( String name, int threads, int queueCapacity ) {
+		return newFixedPool( name, threads, queueCapacity, Thread.NORM_PRIORITY );
+	}
+
+	/*
+	 * One new thread per task, virtual when the JVM supports it (Java 21+), daemon
+	 * platform threads otherwise. Never queues, so queued stays near 0 and only
+	 * active and latency tell how busy it is.
+	 */
+	public MonitoredExecutor newVirtualPool( String name ) {
+		NamedThreadFactory factory = NamedThreadFactory.virtual( name );
+		ThreadPoolExecutor executor = new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<>( ), factory );
+		return add( new MonitoredExecutor( name, executor, Integer.MAX_VALUE, factory.isVirtual( ) ) );
+	}
+
+	public MonitoredExecutor get( String name ) {
+		return pools.get( name );
+	}
+
+	public Collection<MonitoredExecutor> pools( ) {
+		return pools.values( );
+	}
+
+	/* Stats of every pool, saturated pools first, then by queue depth. */
+	public List<PoolStats> snapshot( ) {
+		List<PoolStats> stats = new ArrayList<>( );
+		for ( MonitoredExecutor pool : pools.values( ) ) {
+			stats.add( pool.stats( ) );
+		}
+		stats.sort( Comparator.comparing( ( PoolStats s ) -> !s.isSaturated( ) )
+				.thenComparing( s -> -s.queued )
+				.thenComparing( s -> -s.utilization( ) ) );
+		return stats;
+	}
+
+	public String report( ) {
+		StringBuilder sb = new StringBuilder( );
+		for ( PoolStats s : snapshot( ) ) {
+			sb.append( s ).append( System.lineSeparator( ) );
+		}
+		return sb.toString( );
+	}
+
+	/* Let the coordinator stop, drain and close every registered pool. */
+	public void registerWith( ShutdownCoordinator coordinator ) {
+		for ( MonitoredExecutor pool : pools.values( ) ) {
+			coordinator.registerExecutor( pool.name( ), pool );
+		}
+	}
+
+	public void shutdownAll( ) {
+		for ( MonitoredExecutor pool : pools.values( ) ) {
+			pool.shutdown( );
+		}
+	}
+
+	private MonitoredExecutor add( MonitoredExecutor pool ) {
+		if ( pools.putIfAbsent( pool.name( ), pool ) != null ) {
+			pool.shutdownNow( );
+			throw new IllegalArgumentException( "Pool already registered: " + pool.name( ) );
+		}
+		return pool;
+	}
+
+	public static void main( String[] args ) throws Exception {
+		PoolRegistry registry = new PoolRegistry( );
+		MonitoredExecutor io = registry.newFixedPool( "io", 2, 100 );
+		MonitoredExecutor cpu = registry.newFixedPool( "cpu", Runtime.getRuntime( ).availableProcessors( ), 1000 );
+		MonitoredExecutor requests = registry.newVirtualPool( "requests" );
+
+		for ( int i = 0; i < 50; i++ ) {
+			io.submit( ( ) -> {
+				Thread.sleep( 20 );
+				return null;
+			} );
+			cpu.submit( ( ) -> Math.sqrt( System.nanoTime( ) ) );
+			requests.submit( ( ) -> System.out.println( "Handled by " + Thread.currentThread( ).getName( ) ) );
+		}
+
+		Thread.sleep( 100 );
+		System.out.print( registry.report( ) );
+		registry.shutdownAll( );
+	}
+}
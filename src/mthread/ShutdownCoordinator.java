@@ -0,0 +1,265 @@
+package mthread;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ordered shutdown, the grown-up version of ShutdownHookExample.
+ *
+ * Components register work for one of four phases which always run in this order:
+ * STOP_INTAKE, DRAIN_QUEUES, FLUSH_WRITERS, CLOSE_POOLS. Tasks of one phase run in
+ * parallel and share the phase deadline; a task still running at the deadline is
+ * interrupted and reported as timed out, and the next phase starts anyway. A
+ * watchdog thread guards the whole sequence: if it exceeds the overall timeout the
+ * watchdog action runs, by default Runtime.halt(), so a stuck component can never
+ * keep the JVM from exiting.
+ */
+public class ShutdownCoordinator {
+
+	public enum Phase {
+		STOP_INTAKE, DRAIN_QUEUES, FLUSH_WRITERS, CLOSE_POOLS
+	}
+
+	public enum Status {
+		OK, FAILED, TIMED_OUT
+	}
+
+	/* Shutdown work of one component; remaining is what is left of the phase deadline. */
+	@FunctionalInterface
+	public interface Task {
+		void run( Duration remaining ) throws Exception;
+	}
+
+	/* Outcome of one task. */
+	public static final class Result {
+		public final Phase		phase;
+		public final String		name;
+		public final Status		status;
+		public final long		millis;
+		public final Throwable	error;
+
+		Result( Phase phase, String name, Status status, long millis, Throwable error ) {
+			this.phase = phase;
+			this.name = name;
+			this.status = status;
+			this.millis = millis;
+			this.error = error;
+		}
+
+		@Override
+		public String toString( ) {
+			return phase + "/" + name + ": " + status + " in " + millis + " ms" + ( error == null ? "" : " (" + error + ")" );
+		}
+	}
+
+	private static final class Registration {
+		final String	name;
+		final Task		task;
+
+		Registration( String name, Task task ) {
+			this.name = name;
+			this.task = task;
+		}
+	}
+
+	private final Map<Phase, List<Registration>>	tasks			= new EnumMap<>( Phase.class );
+	private final Map<Phase, Duration>				phaseTimeouts	= new EnumMap<>( Phase.class );
+	private final Duration							overallTimeout;
+	private final AtomicBoolean						started			= new AtomicBoolean( );
+	private final CountDownLatch					done			= new CountDownLatch( 1 );
+	private volatile Runnable						watchdogAction	= ( ) -> Runtime.getRuntime( ).halt( 2 );
+	private volatile List<Result>					results			= Collections.emptyList( );
+
+	/* Every phase gets phaseTimeout; the whole shutdown gets overallTimeout. */
+	public ShutdownCoordinator( Duration phaseTimeout, Duration overallTimeout ) {
+		for ( Phase phase : Phase.values( ) ) {
+			tasks.put( phase, new CopyOnWriteArrayList<>( ) );
+			phaseTimeouts.put( phase, phaseTimeout );
+		}
+		this.overallTimeout = overallTimeout;
+	}
+
+	public ShutdownCoordinator phaseTimeout( Phase phase, Duration timeout ) {
+		phaseTimeouts.put( phase, timeout );
+		return this;
+	}
+
+	/* What the watchdog does when the overall timeout expires. */
+	public ShutdownCoordinator onWatchdogTimeout( Runnable action ) {
+		this.watchdogAction = action;
+		return this;
+	}
+
+	public ShutdownCoordinator register( Phase phase, String name, Task task ) {
+		if ( started.get( ) ) {
+			throw new IllegalStateException( "Shutdown already started, cannot register " + name );
+		}
+		tasks.get( phase ).add( new Registration( name, task ) );
+		return this;
+	}
+
+	/*
+	 * An executor stops taking tasks in STOP_INTAKE, finishes its queue in
+	 * DRAIN_QUEUES and is forced down with shutdownNow() in CLOSE_POOLS if it is
+	 * still not done.
+	 */
+	public ShutdownCoordinator registerExecutor( String name, ExecutorService executor ) {
+		register( Phase.STOP_INTAKE, name, remaining -> executor.shutdown( ) );
+		register( Phase.DRAIN_QUEUES, name, remaining -> {
+			if ( !executor.awaitTermination( remaining.toNanos( ), TimeUnit.NANOSECONDS ) ) {
+				throw new TimeoutException( "Queue not drained" );
+			}
+		} );
+		register( Phase.CLOSE_POOLS, name, remaining -> {
+			if ( !executor.isTerminated( ) ) {
+				List<Runnable> dropped = executor.shutdownNow( );
+				throw new IllegalStateException( dropped.size( ) + " queued tasks dropped" );
+			}
+		} );
+		return this;
+	}
+
+	/* Writers and connection pools: close() in the given phase. */
+	public ShutdownCoordinator registerCloseable( Phase phase, String name, AutoCloseable closeable ) {
+		return register( phase, name, remaining -> closeable.close( ) );
+	}
+
+	/* Run shutdown() from a JVM shutdown hook. */
+	public ShutdownCoordinator installHook( ) {
+		Runtime.getRuntime( ).addShutdownHook( new Thread( this::shutdown, "shutdown-coordinator" ) );
+		return this;
+	}
+
+	/* Run all phases once. Later calls wait for the first one and return its results. */
+	public List<Result> shutdown( ) {
+		if ( !started.compareAndSet( false, true ) ) {
+			try {
+				done.await( );
+			} catch ( InterruptedException e ) {
+				Thread.currentThread( ).interrupt( );
+			}
+			return results;
+		}
+
+		Thread watchdog = new Thread( ( ) -> {
+			try {
+				Thread.sleep( overallTimeout.toMillis( ) );
+				System.err.println( "Shutdown exceeded " + overallTimeout.toMillis( ) + " ms, giving up." );
+				watchdogAction.run( );
+			} catch ( InterruptedException e ) {
+				// Shutdown finished in time.
+			}
+		}, "shutdown-watchdog" );
+		watchdog.setDaemon( true );
+		watchdog.start( );
+
+		ExecutorService runner = Executors.newCachedThreadPool( r -> {
+			Thread t = new Thread( r, "shutdown-task" );
+			t.setDaemon( true );
+			return t;
+		} );
+		List<Result> all = new ArrayList<>( );
+		try {
+			for ( Phase phase : Phase.values( ) ) {
+				all.addAll( runPhase( phase, runner ) );
+			}
+		} finally {
+			runner.shutdownNow( );
+			watchdog.interrupt( );
+			results = Collections.unmodifiableList( all );
+			done.countDown( );
+		}
+		return results;
+	}
+
+	public List<Result> results( ) {
+		return results;
+	}
+
+	private List<Result> runPhase( Phase phase, ExecutorService runner ) {
+		List<Registration> registrations = tasks.get( phase );
+		long deadline = System.nanoTime( ) + phaseTimeouts.get( phase ).toNanos( );
+		long phaseStart = System.nanoTime( );
+
+		// Each task times itself; set before its future completes, so get() makes it visible.
+		AtomicLongArray nanos = new AtomicLongArray( registrations.size( ) );
+		List<Future<?>> futures = new ArrayList<>( );
+		for ( int i = 0; i < registrations.size( ); i++ ) {
+			Registration r = registrations.get( i );
+			int index = i;
+			futures.add( runner.submit( ( ) -> {
+				long start = System.nanoTime( );
+				try {
+					r.task.run( Duration.ofNanos( Math.max( 0, deadline - start ) ) );
+				} finally {
+					nanos.set( index, System.nanoTime( ) - start );
+				}
+				return null;
+			} ) );
+		}
+
+		List<Result> phaseResults = new ArrayList<>( );
+		for ( int i = 0; i < futures.size( ); i++ ) {
+			Future<?> f = futures.get( i );
+			String name = registrations.get( i ).name;
+			Status status = Status.OK;
+			Throwable error = null;
+			try {
+				f.get( Math.max( 0, deadline - System.nanoTime( ) ), TimeUnit.NANOSECONDS );
+			} catch ( TimeoutException e ) {
+				f.cancel( true );
+				status = Status.TIMED_OUT;
+			} catch ( ExecutionException e ) {
+				status = Status.FAILED;
+				error = e.getCause( );
+			} catch ( InterruptedException e ) {
+				f.cancel( true );
+				status = Status.TIMED_OUT;
+				Thread.currentThread( ).interrupt( );
+			}
+			// A task that timed out ran from the phase start until it was given up on.
+			long millis = ( status == Status.TIMED_OUT ? System.nanoTime( ) - phaseStart : nanos.get( i ) ) / 1_000_000;
+			phaseResults.add( new Result( phase, name, status, millis, error ) );
+		}
+		return phaseResults;
+	}
+
+	public static void main( String[] args ) throws Exception {
+		final ExecutorService workers = Executors.newFixedThreadPool( 4 );
+		final InMemoryLikeStore store = new InMemoryLikeStore( );
+		final LikeCounterService likes = new LikeCounterService( store, 1000 );
+
+		ShutdownCoordinator coordinator = new ShutdownCoordinator( Duration.ofSeconds( 5 ), Duration.ofSeconds( 20 ) );
+		coordinator.registerExecutor( "workers", workers );
+		coordinator.register( Phase.FLUSH_WRITERS, "likes", likes::close );
+		coordinator.installHook( );
+
+		for ( int i = 0; i < 1000; i++ ) {
+			workers.submit( ( ) -> likes.plusOne( "everest" ) );
+		}
+
+		System.out.println( "Calling System.exit()..." );
+		Runtime.getRuntime( ).addShutdownHook( new Thread( ( ) -> {
+			// Hooks run concurrently; this shutdown() call waits for the coordinator's run.
+			for ( Result r : coordinator.shutdown( ) ) {
+				System.out.println( r );
+			}
+			System.out.println( "Persisted likes: " + store.load( "everest" ) );
+		} ) );
+		System.exit( 0 );
+	}
+}
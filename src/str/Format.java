@@ -1,11 +1,19 @@
 package str;
 
+import util.template.Template;
+
 public class Format {
+
+	/* Parsed once; String.format parses its pattern on every call */
+	private static final Template	WELCOME	= Template.text( "Welcome {{name}}, to Java Programming." );
+
 	public static void main( String[] args ) {
 
 		String name = "Peter";
 		String message = String.format( "Welcome %s, to Java Programming.", name );
-		System.out.println( message );
+		// The same message both ways
+		System.out.println( "String.format: " + message );
+		System.out.println( "Template:      " + WELCOME.render( name ) );
 
 	}
 }
@@ -0,0 +1,56 @@
+package swing.proj;
+
+/**
+ * Made-up students, computed from the row number, for trying the table without a
+ * database. latencyMillis simulates a slow query per block.
+ */
+public class GeneratedStudentSource implements StudentSource {
+
+	private static final String[ ]	COLUMNS		= { "Roll No", "Name", "Semester", "Faculty", "Birth Date", "College", "Sex" };
+	private static final String[ ]	NAMES		= { "Ram", "Sita", "Hari", "Gita", "Shyam", "Rita", "Bikash", "Anita" };
+	private static final String[ ]	SURNAMES	= { "Sharma", "Thapa", "Shrestha", "Gurung", "Rai", "Karki" };
+	private static final String[ ]	FACULTIES	= { "Science", "Management", "Humanities", "Engineering" };
+	private static final String[ ]	COLLEGES	= { "Amrit", "Patan", "Tri-Chandra", "Pulchowk" };
+
+	private final int				rows;
+	private final long				latencyMillis;
+
+	public GeneratedStudentSource( int rows, long latencyMillis ) {
+		this.rows = rows;
+		this.latencyMillis = latencyMillis;
+	}
+
+	public GeneratedStudentSource( int rows ) {
+		this( rows, 0 );
+	}
+
+	@Override
+	public String[ ] columns( ) {
+		return COLUMNS;
+	}
+
+	@Override
+	public int count( ) {
+		return rows;
+	}
+
+	@Override
+	public Object[ ][ ] load( int from, int length ) throws InterruptedException {
+		if ( latencyMillis > 0 ) {
+			Thread.sleep( latencyMillis );
+		}
+		int n = Math.max( 0, Math.min( length, rows - from ) );
+		Object[ ][ ] block = new Object[ n ][ ];
+		for ( int i = 0; i < n; i++ ) {
+			block[ i ] = row( from + i );
+		}
+		return block;
+	}
+
+	static Object[ ] row( int i ) {
+		int girl = i % NAMES.length % 2;
+		return new Object[ ] { i + 1, NAMES[ i % NAMES.length ] + " " + SURNAMES[ i / 7 % SURNAMES.length ], 1 + i % 8,
+				FACULTIES[ i / 3 % FACULTIES.length ], String.format( "%d-%02d-%02d", 1995 + i % 10, 1 + i % 12, 1 + i % 28 ),
+				COLLEGES[ i / 11 % COLLEGES.length ], girl == 1 ? "Female" : "Male" };
+	}
+}
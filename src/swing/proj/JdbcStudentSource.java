@@ -0,0 +1,118 @@
+package swing.proj;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import jdbc.MysqlConnection;
+
+/**
+ * Students from the student table of MysqlConnection, one page query per block.
+ *
+ * Pages are read by key, not by offset: the id that ends every page is remembered
+ * by row number, and the next query starts with "where id > ?" instead of skipping
+ * rows, so a deep page costs as much as the first. A jump to a row no page ended
+ * near falls back to an offset from the closest known key. A sorted or filtered
+ * view's rows are loaded on one connection.
+ */
+public class JdbcStudentSource implements StudentSource {
+
+	private volatile String[ ]	columns	= { "id", "name" };
+
+	/* Row number -> id of that row, for the last row of every page read so far. */
+	private final ConcurrentSkipListMap< Integer, Object >	keys	= new ConcurrentSkipListMap<>( );
+	private final ThreadLocal< Connection >					batch	= new ThreadLocal<>( );
+
+	@Override
+	public String[ ] columns( ) {
+		return columns;
+	}
+
+	@Override
+	public int count( ) throws ClassNotFoundException, SQLException {
+		// A new count means the table may have changed, known keys may have moved.
+		keys.clear( );
+		try ( Connection conn = MysqlConnection.getConnection( );
+				Statement stmt = conn.createStatement( );
+				ResultSet rs = stmt.executeQuery( "select * from student where 1 = 0" ) ) {
+			ResultSetMetaData meta = rs.getMetaData( );
+			String[ ] names = new String[ meta.getColumnCount( ) ];
+			for ( int i = 0; i < names.length; i++ ) {
+				names[ i ] = meta.getColumnLabel( i + 1 );
+			}
+			columns = names;
+
+			try ( ResultSet count = stmt.executeQuery( "select count(*) from student" ) ) {
+				count.next( );
+				return count.getInt( 1 );
+			}
+		}
+	}
+
+	@Override
+	public Object[ ][ ] load( int from, int length ) throws ClassNotFoundException, SQLException {
+		Connection shared = batch.get( );
+		if ( shared != null ) {
+			return load( shared, from, length );
+		}
+		try ( Connection conn = MysqlConnection.getConnection( ) ) {
+			return load( conn, from, length );
+		}
+	}
+
+	@Override
+	public Object[ ][ ] load( int[ ] rows ) throws Exception {
+		try ( Connection conn = MysqlConnection.getConnection( ) ) {
+			batch.set( conn );
+			try {
+				return StudentSource.super.load( rows );
+			} finally {
+				batch.remove( );
+			}
+		}
+	}
+
+	private Object[ ][ ] load( Connection conn, int from, int length ) throws SQLException {
+		Map.Entry< Integer, Object > anchor = keys.floorEntry( from - 1 );
+		String sql = anchor == null ? "select * from student order by id limit ? offset ?"
+				: "select * from student where id > ? order by id limit ? offset ?";
+		try ( PreparedStatement stmt = conn.prepareStatement( sql ) ) {
+			int p = 1;
+			if ( anchor != null ) {
+				stmt.setObject( p++, anchor.getValue( ) );
+			}
+			stmt.setInt( p++, length );
+			stmt.setInt( p, anchor == null ? from : from - 1 - anchor.getKey( ) );
+
+			List< Object[ ] > rows = new ArrayList<>( length );
+			int idColumn = -1;
+			try ( ResultSet rs = stmt.executeQuery( ) ) {
+				ResultSetMetaData meta = rs.getMetaData( );
+				int columnCount = meta.getColumnCount( );
+				for ( int i = 0; i < columnCount; i++ ) {
+					if ( "id".equalsIgnoreCase( meta.getColumnLabel( i + 1 ) ) ) {
+						idColumn = i;
+					}
+				}
+				while ( rs.next( ) ) {
+					Object[ ] row = new Object[ columnCount ];
+					for ( int i = 0; i < columnCount; i++ ) {
+						row[ i ] = rs.getObject( i + 1 );
+					}
+					rows.add( row );
+				}
+			}
+			if ( idColumn >= 0 && !rows.isEmpty( ) ) {
+				keys.put( from + rows.size( ) - 1, rows.get( rows.size( ) - 1 )[ idColumn ] );
+			}
+			return rows.toArray( new Object[ 0 ][ ] );
+		}
+	}
+}
@@ -58,9 +58,10 @@ public class LoginScreenLayout extends JFrame {
 		EventQueue.invokeLater( new Runnable( ) {
 			public void run( ) {
 				try {
-					LoginScreenLayout loginWindow = new LoginScreenLayout( );
-					WindowManager.ui.put( "LoginScreenLayout", loginWindow );
+					LoginScreenLayout loginWindow = WindowManager.get( WindowManager.LOGIN );
 					loginWindow.setVisible( true );
+					// Build the student screen while the user types the password
+					WindowManager.prewarm( WindowManager.STUDENTS );
 				} catch ( Exception e ) {
 					e.printStackTrace( );
 				}
@@ -215,7 +216,7 @@ public class LoginScreenLayout extends JFrame {
 			btnCancel.addActionListener( new ActionListener( ) {
 				@Override
 				public void actionPerformed( ActionEvent e ) {
-					WindowManager.ui.clear( );
+					WindowManager.disposeAll( );
 					System.exit( 0 );
 				}
 			} );
@@ -247,11 +248,13 @@ public class LoginScreenLayout extends JFrame {
 
 	private void switchToStudMangScreen( ) {
 		// Open next Student Window
-		StudentMangement studMngWindow = new StudentMangement( username.getText( ) );
-		WindowManager.ui.put( "StudentMangement", studMngWindow );
+		StudentMangement studMngWindow = WindowManager.get( WindowManager.STUDENTS );
+		studMngWindow.setActiveUser( username.getText( ) );
+		// Signed in: only now may the student screen read the database
+		studMngWindow.loadStudents( );
 		studMngWindow.setVisible( true );
 
-		LoginScreenLayout loginWindow = ( LoginScreenLayout ) WindowManager.ui.get( "LoginScreenLayout" );
+		LoginScreenLayout loginWindow = WindowManager.get( WindowManager.LOGIN );
 		loginWindow.clearData( );
 		loginWindow.setVisible( false );
 
@@ -0,0 +1,218 @@
+package swing.proj;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model that loads students a block at a time, only for the rows the
+ * JTable actually paints.
+ *
+ * getValueAt() never waits: a row whose block is not cached shows LOADING and
+ * the block is fetched by a SwingWorker, together with the blocks just before and
+ * after it so plain scrolling finds them ready. When a block arrives its rows are
+ * repainted. At most MAX_BLOCKS blocks are kept (least recently used go first), so
+ * the model's memory stays the same for 1000 or 1M students (a StudentQueryEngine
+ * source holds the whole table itself, see there). Requests for blocks that were
+ * scrolled far past before their turn came are dropped.
+ *
+ * setRowMap() shows a sorted or filtered selection of the source rows instead;
+ * blocks are then blocks of the selection.
+ *
+ * All methods except the workers' doInBackground run on the EDT.
+ */
+public class PagedStudentTableModel extends AbstractTableModel {
+
+	private static final long			serialVersionUID	= 4196453201582715320L;
+
+	public static final int				BLOCK_SIZE			= 256;
+	public static final int				MAX_BLOCKS			= 64;
+	public static final String			LOADING				= "...";
+
+	private final transient StudentSource	source;
+	private final int					blockSize;
+	private final int					maxBlocks;
+	private String[ ]					columns				= new String[ 0 ];
+	private int							rowCount;
+	private int							sourceRowCount;
+	private int[ ]						rowMap;
+	private int							generation;
+
+	private final transient Map< Integer, Object[ ][ ] >	blocks;
+	private final transient Set< Integer >	loading				= new HashSet<>( );
+	private volatile int				wantedBlock;
+	private int							loads;
+
+	public PagedStudentTableModel( StudentSource source, int blockSize, int maxBlocks ) {
+		this.source = source;
+		this.blockSize = blockSize;
+		this.maxBlocks = maxBlocks;
+		this.blocks = new LinkedHashMap< Integer, Object[ ][ ] >( 16, 0.75f, true ) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry< Integer, Object[ ][ ] > eldest ) {
+				return size( ) > PagedStudentTableModel.this.maxBlocks;
+			}
+		};
+	}
+
+	public PagedStudentTableModel( StudentSource source ) {
+		this( source, BLOCK_SIZE, MAX_BLOCKS );
+	}
+
+	/* Count the students in the background, then show that many (not yet loaded) rows. */
+	public SwingWorker< Integer, Void > refresh( ) {
+		SwingWorker< Integer, Void > worker = new SwingWorker< Integer, Void >( ) {
+			@Override
+			protected Integer doInBackground( ) throws Exception {
+				return source.count( );
+			}
+
+			@Override
+			protected void done( ) {
+				try {
+					int count = get( );
+					columns = source.columns( ).clone( );
+					sourceRowCount = count;
+					rowCount = rowMap == null ? count : rowMap.length;
+					clearBlocks( );
+				} catch ( InterruptedException | ExecutionException e ) {
+					e.printStackTrace( );
+				}
+				fireTableStructureChanged( );
+			}
+		};
+		worker.execute( );
+		return worker;
+	}
+
+	@Override
+	public int getRowCount( ) {
+		return rowCount;
+	}
+
+	@Override
+	public int getColumnCount( ) {
+		return columns.length;
+	}
+
+	@Override
+	public String getColumnName( int column ) {
+		return columns[ column ];
+	}
+
+	@Override
+	public Object getValueAt( int row, int column ) {
+		int block = row / blockSize;
+		wantedBlock = block;
+		Object[ ][ ] rows = blocks.get( block );
+		prefetch( block );
+		if ( rows == null ) {
+			request( block );
+			return LOADING;
+		}
+		// a block comes back short when students were deleted after count()
+		int offset = row % blockSize;
+		if ( offset >= rows.length ) {
+			return null;
+		}
+		Object[ ] values = rows[ offset ];
+		return column < values.length ? values[ column ] : null;
+	}
+
+	/*
+	 * Show only these source rows, in this order (null: all rows in source order).
+	 * The table switches over in one step; blocks of the old view are dropped.
+	 */
+	public void setRowMap( int[ ] rows ) {
+		rowMap = rows;
+		rowCount = rows == null ? sourceRowCount : rows.length;
+		clearBlocks( );
+		fireTableDataChanged( );
+	}
+
+	/* Source row shown at a table row. */
+	public int sourceRow( int row ) {
+		return rowMap == null ? row : rowMap[ row ];
+	}
+
+	public boolean isLoaded( int row ) {
+		return blocks.containsKey( row / blockSize );
+	}
+
+	public int cachedBlocks( ) {
+		return blocks.size( );
+	}
+
+	/* Blocks fetched from the source so far. */
+	public int loads( ) {
+		return loads;
+	}
+
+	private void prefetch( int block ) {
+		if ( block > 0 && !blocks.containsKey( block - 1 ) ) {
+			request( block - 1 );
+		}
+		if ( ( block + 1 ) * blockSize < rowCount && !blocks.containsKey( block + 1 ) ) {
+			request( block + 1 );
+		}
+	}
+
+	private void clearBlocks( ) {
+		blocks.clear( );
+		loading.clear( );
+		generation++;
+	}
+
+	private void request( final int block ) {
+		if ( !loading.add( block ) ) {
+			return;
+		}
+		final int gen = generation;
+		final int[ ] map = rowMap;
+		final int from = block * blockSize;
+		final int to = Math.min( rowCount, from + blockSize );
+		new SwingWorker< Object[ ][ ], Void >( ) {
+			@Override
+			protected Object[ ][ ] doInBackground( ) throws Exception {
+				// Scrolled on far enough that this block would be evicted again right away
+				if ( Math.abs( wantedBlock - block ) > maxBlocks / 2 ) {
+					return null;
+				}
+				return map == null ? source.load( from, to - from ) : source.load( Arrays.copyOfRange( map, from, to ) );
+			}
+
+			@Override
+			protected void done( ) {
+				if ( gen != generation ) {
+					return; // rows of a previous view
+				}
+				loading.remove( block );
+				Object[ ][ ] rows;
+				try {
+					rows = get( );
+				} catch ( InterruptedException | ExecutionException e ) {
+					e.printStackTrace( );
+					return;
+				}
+				if ( rows == null ) {
+					return; // skipped; asked for again if it is painted
+				}
+				loads++;
+				blocks.put( block, rows );
+				int first = block * blockSize;
+				int last = Math.min( rowCount, first + rows.length ) - 1;
+				if ( first <= last ) {
+					fireTableRowsUpdated( first, last );
+				}
+			}
+		}.execute( );
+	}
+}
@@ -6,17 +6,23 @@ import java.awt.EventQueue;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
+import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.UIManager;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 
 import javax.swing.ImageIcon;
 
@@ -43,12 +49,21 @@ public class StudentMangement extends JFrame {
 	private JPanel				sexPanel;
 	private JButton				btnSave;
 	private JTable				studTable;
+	private JScrollPane			studScroll;
+	private PagedStudentTableModel	studModel;
+	private final StudentQueryEngine	queryEngine;
+	private JLabel				lblSearch;
+	private JTextField			searchTxt;
+	private int					sortColumn			= -1;
+	private boolean				sortAscending;
 	private JLabel				lblUser;
 	private JLabel			activeUser;
 	private JButton				btnLogout;
 
 	private JButton				btnExit;
 
+	private boolean				studentsRequested;
+
 	/**
 	 * Launch the application.
 	 */
@@ -57,6 +72,7 @@ public class StudentMangement extends JFrame {
 			public void run( ) {
 				try {
 					StudentMangement frame = new StudentMangement( );
+					frame.loadStudents( );
 					frame.setVisible( true );
 				} catch ( Exception e ) {
 					e.printStackTrace( );
@@ -67,6 +83,10 @@ public class StudentMangement extends JFrame {
 
 	public StudentMangement( String activeUser ) {
 		this( );
+		setActiveUser( activeUser );
+	}
+
+	public void setActiveUser( String activeUser ) {
 		this.getActiveUser( ).setText( activeUser );
 	}
 
@@ -74,6 +94,30 @@ public class StudentMangement extends JFrame {
 	 * Create the frame.
 	 */
 	public StudentMangement( ) {
+		this( new JdbcStudentSource( ) );
+	}
+
+	public StudentMangement( StudentSource studentSource ) {
+		this.queryEngine = new StudentQueryEngine( studentSource, new StudentQueryEngine.Listener( ) {
+
+			@Override
+			public void published( StudentQueryEngine.Result result ) {
+				studModel.setRowMap( result.rows );
+			}
+
+			private Exception	shown;
+
+			@Override
+			public void failed( Exception error ) {
+				// Every search after a failed load reports the same error; say it once
+				if ( error == shown ) {
+					return;
+				}
+				shown = error;
+				JOptionPane.showMessageDialog( StudentMangement.this, "Search is not available: " + error.getMessage( ),
+						"Students", JOptionPane.WARNING_MESSAGE );
+			}
+		} );
 		setDefaultCloseOperation( JFrame.EXIT_ON_CLOSE );
 		setBounds( 100, 100, 771, 538 );
 		contentPane = new JPanel( );
@@ -83,13 +127,28 @@ public class StudentMangement extends JFrame {
 		contentPane.add( getMainPanel( ) );
 	}
 
+	/*
+	 * Start reading the students in the background. Not done by the constructor: the
+	 * frame is pre-warmed at the login screen and must not touch the database before
+	 * the user has signed in. Only the first call loads. EDT only.
+	 */
+	public void loadStudents( ) {
+		if ( !studentsRequested ) {
+			studentsRequested = true;
+			studModel.refresh( );
+			queryEngine.load( );
+		}
+	}
+
 	private JPanel getMainPanel( ) {
 		if ( mainPanel == null ) {
 			mainPanel = new JPanel( );
 			mainPanel.setBounds( 0, 0, 753, 487 );
 			mainPanel.setLayout( null );
 			mainPanel.add( getPanel( ) );
-			mainPanel.add( getStudTable( ) );
+			mainPanel.add( getLblSearch( ) );
+			mainPanel.add( getSearchTxt( ) );
+			mainPanel.add( getStudScroll( ) );
 			mainPanel.add( getLblUser( ) );
 			mainPanel.add( getActiveUser( ) );
 			mainPanel.add( getBtnLogout( ) );
@@ -260,14 +319,77 @@ public class StudentMangement extends JFrame {
 		return btnSave;
 	}
 
+	private JScrollPane getStudScroll( ) {
+		if ( studScroll == null ) {
+			studScroll = new JScrollPane( getStudTable( ) );
+			studScroll.setBounds( 10, 214, 678, 195 );
+		}
+		return studScroll;
+	}
+
 	private JTable getStudTable( ) {
 		if ( studTable == null ) {
-			studTable = new JTable( );
-			studTable.setBounds( 10, 214, 678, 195 );
+			/* Rows are paged in from the source as they are scrolled into view */
+			studModel = new PagedStudentTableModel( queryEngine );
+			studTable = new JTable( studModel );
+			studTable.setFillsViewportHeight( true );
+			/* Sorting is done by the query engine, not a TableRowSorter on the EDT */
+			studTable.getTableHeader( ).addMouseListener( new MouseAdapter( ) {
+
+				@Override
+				public void mouseClicked( MouseEvent e ) {
+					int column = studTable.convertColumnIndexToModel( studTable.columnAtPoint( e.getPoint( ) ) );
+					if ( column < 0 ) {
+						return;
+					}
+					sortAscending = column != sortColumn || !sortAscending;
+					sortColumn = column;
+					runQuery( );
+				}
+			} );
 		}
 		return studTable;
 	}
 
+	private JLabel getLblSearch( ) {
+		if ( lblSearch == null ) {
+			lblSearch = new JLabel( "Search" );
+			lblSearch.setBounds( 10, 185, 48, 14 );
+		}
+		return lblSearch;
+	}
+
+	private JTextField getSearchTxt( ) {
+		if ( searchTxt == null ) {
+			searchTxt = new JTextField( );
+			searchTxt.setBounds( 65, 182, 200, 20 );
+			searchTxt.setColumns( 10 );
+			searchTxt.getDocument( ).addDocumentListener( new DocumentListener( ) {
+
+				@Override
+				public void insertUpdate( DocumentEvent e ) {
+					runQuery( );
+				}
+
+				@Override
+				public void removeUpdate( DocumentEvent e ) {
+					runQuery( );
+				}
+
+				@Override
+				public void changedUpdate( DocumentEvent e ) {
+					runQuery( );
+				}
+			} );
+		}
+		return searchTxt;
+	}
+
+	/* Every keystroke or header click queues a query; the newest one wins. */
+	private void runQuery( ) {
+		queryEngine.query( getSearchTxt( ).getText( ), sortColumn, sortAscending );
+	}
+
 	private JLabel getLblUser( ) {
 		if ( lblUser == null ) {
 			lblUser = new JLabel( "Active User" );
@@ -315,7 +437,7 @@ public class StudentMangement extends JFrame {
 
 				@Override
 				public void actionPerformed( ActionEvent e ) {
-					WindowManager.ui.clear( );
+					WindowManager.disposeAll( );
 					System.exit( 0 );
 				}
 			} );
@@ -323,12 +445,20 @@ public class StudentMangement extends JFrame {
 		return btnExit;
 	}
 
+	/* Stops the query engine along with the frame. */
+	@Override
+	public void dispose( ) {
+		queryEngine.close( );
+		super.dispose( );
+	}
+
 	private void switchToLoginScreen( ) {
-		LoginScreenLayout loginWindow = ( LoginScreenLayout ) WindowManager.ui.get( "LoginScreenLayout" );
+		LoginScreenLayout loginWindow = WindowManager.get( WindowManager.LOGIN );
 		loginWindow.setVisible( true );
 
-		StudentMangement studManagWindow = ( StudentMangement ) WindowManager.ui.get( "StudentMangement" );
-		studManagWindow.dispose( );
+		WindowManager.dispose( WindowManager.STUDENTS );
+		// A fresh student screen for the next sign in
+		WindowManager.prewarm( WindowManager.STUDENTS );
 	}
 
 }
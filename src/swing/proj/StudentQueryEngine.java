@@ -0,0 +1,385 @@
+package swing.proj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Search and sort for the student table, done on one background thread instead of
+ * with a TableRowSorter on the EDT.
+ *
+ * load() reads all students once into column arrays. Each column gets a sorted
+ * index per direction (an int[] of row numbers) the first time it is sorted on, and
+ * it is kept, so switching sort columns later is a walk over a ready array. A query
+ * produces the matching row numbers in the wanted order:
+ *
+ * - typing more of the same search only re-checks the rows of the previous result;
+ * - a new sort on the same search walks the column index and keeps rows of the
+ *   previous result (a BitSet), so nothing is re-matched;
+ * - a query that is overtaken by a newer one stops at its next check.
+ *
+ * Results are handed to the listener on the EDT as one Result, so the table
+ * switches from the old rows to the new ones in a single step.
+ *
+ * Once loaded the engine also serves rows from memory as a StudentSource, so the
+ * table can page through sorted results without going back to the database.
+ *
+ * Memory: unlike PagedStudentTableModel, whose block cache stays the same size for
+ * any table, the engine holds the whole table, one reference per cell plus up to two
+ * int[] per sorted column. Columns are kept narrow: a column with few distinct
+ * values (faculty, college, sex) stores each value once and shares it between rows.
+ * Searching and sorting in memory is the point of the engine, so it is meant for
+ * tables that fit in the heap; a bigger table needs the filter and the order in SQL.
+ *
+ * A failed load() is reported to Listener.failed(), and so is every query made
+ * while no table is loaded.
+ */
+public class StudentQueryEngine implements StudentSource, AutoCloseable {
+
+	private static final int	CHECK_EVERY	= 4096;
+	private static final int	MAX_SHARED	= 4096;	// distinct values per column worth sharing
+
+	public interface Listener {
+		void published( Result result );
+
+		/* load() failed, or a query ran without a loaded table. */
+		default void failed( Exception error ) {
+		}
+	}
+
+	/* Rows matching filter in the requested order; sortColumn -1 is source order. */
+	public static final class Result {
+		public final int[ ]		rows;
+		public final String		filter;
+		public final int		sortColumn;
+		public final boolean	ascending;
+
+		Result( int[ ] rows, String filter, int sortColumn, boolean ascending ) {
+			this.rows = rows;
+			this.filter = filter;
+			this.sortColumn = sortColumn;
+			this.ascending = ascending;
+		}
+	}
+
+	private final StudentSource		source;
+	private final Listener			listener;
+	private final Executor			publisher;
+	private final ExecutorService	worker;
+	private final AtomicInteger		generation	= new AtomicInteger( );
+
+	/* Written by the worker before loaded is set */
+	private String[ ]				columns;
+	private Object[ ][ ]			data;		// data[ column ][ row ]
+	private int						rowCount;
+	private volatile boolean		loaded;
+	private volatile Exception		loadFailure;
+
+	/* Worker thread only */
+	private int[ ][ ]				sortIndex;		// ascending, per column
+	private int[ ][ ]				sortIndexDesc;	// descending, per column
+	private Result					last;
+	private long					rowsChecked;
+
+	public StudentQueryEngine( StudentSource source, Listener listener, Executor publisher ) {
+		this.source = source;
+		this.listener = listener;
+		this.publisher = publisher;
+		this.worker = Executors.newSingleThreadExecutor( r -> {
+			Thread t = new Thread( r, "student-query" );
+			t.setDaemon( true );
+			return t;
+		} );
+	}
+
+	/* Publishes on the EDT. */
+	public StudentQueryEngine( StudentSource source, Listener listener ) {
+		this( source, listener, SwingUtilities::invokeLater );
+	}
+
+	/*
+	 * Read every student into memory; queries submitted meanwhile run after it. A
+	 * failure is handed to the listener and kept in the returned Future.
+	 */
+	public Future< ? > load( ) {
+		return worker.submit( ( ) -> {
+			try {
+				int count = source.count( );
+				String[ ] names = source.columns( ).clone( );
+				Object[ ][ ] cols = new Object[ names.length ][ count ];
+				List< Map< Object, Object > > shared = new ArrayList<>( );
+				for ( int c = 0; c < names.length; c++ ) {
+					shared.add( new HashMap<>( ) );
+				}
+				int block = PagedStudentTableModel.BLOCK_SIZE * 16;
+				for ( int from = 0; from < count; from += block ) {
+					Object[ ][ ] rows = source.load( from, Math.min( block, count - from ) );
+					for ( int r = 0; r < rows.length; r++ ) {
+						for ( int c = 0; c < names.length; c++ ) {
+							Object value = c < rows[ r ].length ? rows[ r ][ c ] : null;
+							cols[ c ][ from + r ] = share( shared, c, value );
+						}
+					}
+				}
+				columns = names;
+				data = cols;
+				rowCount = count;
+				sortIndex = new int[ names.length ][ ];
+				sortIndexDesc = new int[ names.length ][ ];
+				last = null;
+				loadFailure = null;
+				loaded = true;
+				return null;
+			} catch ( Exception e ) {
+				loadFailure = e;
+				publisher.execute( ( ) -> listener.failed( e ) );
+				throw e;
+			}
+		} );
+	}
+
+	/* The first equal value seen in column c, while the column has few distinct values. */
+	private static Object share( List< Map< Object, Object > > shared, int c, Object value ) {
+		Map< Object, Object > values = shared.get( c );
+		if ( value == null || values == null ) {
+			return value;
+		}
+		Object first = values.putIfAbsent( value, value );
+		if ( first == null && values.size( ) > MAX_SHARED ) {
+			shared.set( c, null ); // mostly unique values (names, ids): nothing to share
+		}
+		return first != null ? first : value;
+	}
+
+	/*
+	 * Rows whose text contains filter (any column, ignoring case) sorted by
+	 * sortColumn. Supersedes any query still running.
+	 */
+	public Future< ? > query( final String filter, final int sortColumn, final boolean ascending ) {
+		final int gen = generation.incrementAndGet( );
+		return worker.submit( ( ) -> {
+			if ( !loaded ) {
+				Exception error = loadFailure != null ? loadFailure
+						: new IllegalStateException( "Query before load( ) finished" );
+				publisher.execute( ( ) -> listener.failed( error ) );
+				return;
+			}
+			if ( gen != generation.get( ) ) {
+				return;
+			}
+			int[ ] rows = run( filter.trim( ), sortColumn, ascending, gen );
+			if ( rows == null ) {
+				return; // overtaken
+			}
+			final Result result = new Result( rows, filter.trim( ), sortColumn, ascending );
+			last = result;
+			publisher.execute( ( ) -> {
+				if ( gen == generation.get( ) ) {
+					listener.published( result );
+				}
+			} );
+		} );
+	}
+
+	public boolean isLoaded( ) {
+		return loaded;
+	}
+
+	/* Rows tested against a filter so far; shows how much work the incremental paths save. */
+	public long rowsChecked( ) {
+		return rowsChecked;
+	}
+
+	@Override
+	public void close( ) {
+		worker.shutdownNow( );
+	}
+
+	private int[ ] run( String filter, int sortColumn, boolean ascending, int gen ) {
+		Result prev = last;
+		boolean sameOrder = prev != null && prev.sortColumn == sortColumn && prev.ascending == ascending;
+
+		// Narrowing the same search: only the previous matches can still match
+		if ( sameOrder && filter.toLowerCase( ).contains( prev.filter.toLowerCase( ) ) ) {
+			return filter( prev.rows, prev.rows.length, filter, gen );
+		}
+
+		int[ ] order = order( sortColumn, ascending );
+		if ( order == null ) {
+			return null;
+		}
+		// Same search, new order: keep the previous matches, walk the new order
+		if ( prev != null && prev.filter.equals( filter ) ) {
+			BitSet matches = new BitSet( rowCount );
+			for ( int row : prev.rows ) {
+				matches.set( row );
+			}
+			int[ ] rows = new int[ prev.rows.length ];
+			int n = 0;
+			for ( int row : order ) {
+				if ( matches.get( row ) ) {
+					rows[ n++ ] = row;
+				}
+			}
+			return rows;
+		}
+		return filter( order, order.length, filter, gen );
+	}
+
+	private int[ ] filter( int[ ] candidates, int length, String filter, int gen ) {
+		if ( filter.isEmpty( ) ) {
+			return Arrays.copyOf( candidates, length );
+		}
+		int[ ] rows = new int[ length ];
+		int n = 0;
+		for ( int i = 0; i < length; i++ ) {
+			if ( i % CHECK_EVERY == 0 && gen != generation.get( ) ) {
+				return null;
+			}
+			int row = candidates[ i ];
+			if ( matches( row, filter ) ) {
+				rows[ n++ ] = row;
+			}
+		}
+		rowsChecked += length;
+		return Arrays.copyOf( rows, n );
+	}
+
+	private boolean matches( int row, String filter ) {
+		for ( Object[ ] column : data ) {
+			Object value = column[ row ];
+			if ( value != null && containsIgnoreCase( value.toString( ), filter ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsIgnoreCase( String text, String part ) {
+		for ( int i = 0; i + part.length( ) <= text.length( ); i++ ) {
+			if ( text.regionMatches( true, i, part, 0, part.length( ) ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * All rows in the given order; each column's index is built once per direction.
+	 * Descending has its own stable sort, so equal values keep source order both ways
+	 * (reversing the ascending index would reverse them too).
+	 */
+	private int[ ] order( int sortColumn, boolean ascending ) {
+		if ( sortColumn < 0 ) {
+			int[ ] index = new int[ rowCount ];
+			for ( int i = 0; i < rowCount; i++ ) {
+				index[ i ] = ascending ? i : rowCount - 1 - i;
+			}
+			return index;
+		}
+		int[ ][ ] indexes = ascending ? sortIndex : sortIndexDesc;
+		if ( indexes[ sortColumn ] == null ) {
+			indexes[ sortColumn ] = sortedIndex( data[ sortColumn ], ascending );
+		}
+		return indexes[ sortColumn ];
+	}
+
+	static int[ ] sortedIndex( Object[ ] values ) {
+		return sortedIndex( values, true );
+	}
+
+	/* Row numbers ordered by value, a stable merge sort on the int[] itself. */
+	static int[ ] sortedIndex( Object[ ] values, boolean ascending ) {
+		int n = values.length;
+		int[ ] a = new int[ n ];
+		for ( int i = 0; i < n; i++ ) {
+			a[ i ] = i;
+		}
+		int[ ] b = new int[ n ];
+		for ( int width = 1; width < n; width *= 2 ) {
+			for ( int lo = 0; lo < n; lo += 2 * width ) {
+				int mid = Math.min( lo + width, n );
+				int hi = Math.min( lo + 2 * width, n );
+				int i = lo, j = mid, k = lo;
+				while ( i < mid && j < hi ) {
+					// Take from the right run only when strictly before, which keeps ties stable
+					int cmp = ascending ? compare( values[ a[ j ] ], values[ a[ i ] ] )
+							: compare( values[ a[ i ] ], values[ a[ j ] ] );
+					b[ k++ ] = cmp < 0 ? a[ j++ ] : a[ i++ ];
+				}
+				while ( i < mid ) {
+					b[ k++ ] = a[ i++ ];
+				}
+				while ( j < hi ) {
+					b[ k++ ] = a[ j++ ];
+				}
+			}
+			int[ ] t = a;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	private static int compare( Object x, Object y ) {
+		if ( x == null || y == null ) {
+			return x == null ? ( y == null ? 0 : -1 ) : 1;
+		}
+		if ( x instanceof Comparable && x.getClass( ) == y.getClass( ) ) {
+			return ( (Comparable) x ).compareTo( y );
+		}
+		return x.toString( ).compareToIgnoreCase( y.toString( ) );
+	}
+
+	/* StudentSource: from memory once loaded, from the wrapped source until then */
+
+	@Override
+	public String[ ] columns( ) {
+		return loaded ? columns : source.columns( );
+	}
+
+	@Override
+	public int count( ) throws Exception {
+		return loaded ? rowCount : source.count( );
+	}
+
+	@Override
+	public Object[ ][ ] load( int from, int length ) throws Exception {
+		if ( !loaded ) {
+			return source.load( from, length );
+		}
+		int n = Math.max( 0, Math.min( length, rowCount - from ) );
+		int[ ] rows = new int[ n ];
+		for ( int i = 0; i < n; i++ ) {
+			rows[ i ] = from + i;
+		}
+		return load( rows );
+	}
+
+	@Override
+	public Object[ ][ ] load( int[ ] rows ) throws Exception {
+		if ( !loaded ) {
+			return source.load( rows );
+		}
+		Object[ ][ ] block = new Object[ rows.length ][ ];
+		for ( int i = 0; i < rows.length; i++ ) {
+			Object[ ] row = new Object[ data.length ];
+			for ( int c = 0; c < data.length; c++ ) {
+				row[ c ] = data[ c ][ rows[ i ] ];
+			}
+			block[ i ] = row;
+		}
+		return block;
+	}
+}
@@ -0,0 +1,52 @@
+package swing.proj;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where the student table gets its rows from. Both methods are called off the EDT
+ * and may be slow (a database query), rows are loaded a block at a time.
+ */
+public interface StudentSource {
+
+	/* Rows at most this far apart are read by one range query, gap included. */
+	int	ROW_GAP	= 16;
+
+	String[ ] columns( );
+
+	int count( ) throws Exception;
+
+	/* Rows from..from+length-1, fewer if the end is reached. */
+	Object[ ][ ] load( int from, int length ) throws Exception;
+
+	/*
+	 * The given rows, in that order; used when the table is sorted or filtered. The
+	 * rows are sorted and read with one load( from, length ) per run of nearby rows,
+	 * not one query per row.
+	 */
+	default Object[ ][ ] load( int[ ] rows ) throws Exception {
+		int[ ] sorted = rows.clone( );
+		Arrays.sort( sorted );
+		Map< Integer, Object[ ] > byRow = new HashMap<>( rows.length * 2 );
+		for ( int i = 0; i < sorted.length; ) {
+			int j = i;
+			while ( j + 1 < sorted.length && sorted[ j + 1 ] - sorted[ j ] <= ROW_GAP ) {
+				j++;
+			}
+			int from = sorted[ i ];
+			Object[ ][ ] range = load( from, sorted[ j ] - from + 1 );
+			for ( int k = 0; k < range.length; k++ ) {
+				byRow.put( from + k, range[ k ] );
+			}
+			i = j + 1;
+		}
+
+		Object[ ][ ] block = new Object[ rows.length ][ ];
+		for ( int i = 0; i < rows.length; i++ ) {
+			Object[ ] row = byRow.get( rows[ i ] );
+			block[ i ] = row != null ? row : new Object[ 0 ];
+		}
+		return block;
+	}
+}
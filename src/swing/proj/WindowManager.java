@@ -1,8 +1,162 @@
 package swing.proj;
 
-import java.util.HashMap;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
-public class WindowManager {
-	public static Map< String, Object >	ui	= new HashMap< String, Object >( );
+import javax.swing.SwingUtilities;
+
+/**
+ * Registry of the application's windows, one per Key.
+ *
+ * A window is created the first time get() asks for it, or ahead of time by
+ * prewarm(): the window class is loaded and initialized on a background thread
+ * and the window is then built on the EDT without being shown, so switching to it
+ * later only has to make it visible. Windows are held weakly once handed out (the
+ * toolkit keeps a shown window alive); a pre-warmed window is held strongly until
+ * its first get(). dispose() and closing a window both release it and drop the
+ * entry, so disposed frames are not kept reachable from here.
+ *
+ * A window's constructor may run during prewarm(), long before the user asked for
+ * the window (the student screen is built at the login screen), so it should only
+ * build components. Loading data belongs in a method the caller runs when the
+ * window is really needed, such as StudentMangement.loadStudents() after sign in.
+ *
+ * All methods except prewarm() must be called on the EDT.
+ */
+public final class WindowManager {
+
+	/* Typed name of a window, with how to create it. */
+	public static final class Key< W extends Window > {
+		private final String		name;
+		private final Class< W >	type;
+		private final Supplier< W >	factory;
+
+		public Key( String name, Class< W > type, Supplier< W > factory ) {
+			this.name = name;
+			this.type = type;
+			this.factory = factory;
+		}
+
+		public String name( ) {
+			return name;
+		}
+
+		@Override
+		public String toString( ) {
+			return name;
+		}
+	}
+
+	public static final Key< LoginScreenLayout >	LOGIN		= new Key<>( "LoginScreenLayout", LoginScreenLayout.class, LoginScreenLayout::new );
+	public static final Key< StudentMangement >		STUDENTS	= new Key<>( "StudentMangement", StudentMangement.class, StudentMangement::new );
+
+	private static final Map< Key< ? >, WeakReference< Window > >	open	= new ConcurrentHashMap<>( );
+	private static final Map< Key< ? >, Window >					warm	= new ConcurrentHashMap<>( );
+
+	private WindowManager( ) {
+	}
+
+	/* The window for key, created now if it does not exist yet. */
+	public static < W extends Window > W get( Key< W > key ) {
+		checkEdt( );
+		W window = peek( key );
+		if ( window == null ) {
+			window = create( key );
+		}
+		warm.remove( key );
+		return window;
+	}
+
+	/* The window for key if it exists, without creating it. */
+	public static < W extends Window > W peek( Key< W > key ) {
+		Window window = warm.get( key );
+		if ( window == null ) {
+			WeakReference< Window > ref = open.get( key );
+			window = ref == null ? null : ref.get( );
+		}
+		return window == null ? null : key.type.cast( window );
+	}
+
+	/*
+	 * Get the window ready in the background: class loading and static setup off
+	 * the EDT, then construction on the EDT. Safe to call from any thread.
+	 */
+	public static void prewarm( final Key< ? > key ) {
+		Thread loader = new Thread( new Runnable( ) {
+
+			@Override
+			public void run( ) {
+				try {
+					Class.forName( key.type.getName( ), true, key.type.getClassLoader( ) );
+				} catch ( ClassNotFoundException e ) {
+					e.printStackTrace( );
+					return;
+				}
+				SwingUtilities.invokeLater( new Runnable( ) {
+
+					@Override
+					public void run( ) {
+						if ( peek( key ) == null ) {
+							warm.put( key, create( key ) );
+						}
+					}
+				} );
+			}
+		}, "prewarm-" + key.name( ) );
+		loader.setDaemon( true );
+		loader.start( );
+	}
+
+	/* Dispose the window for key, freeing its native resources, and forget it. */
+	public static void dispose( Key< ? > key ) {
+		checkEdt( );
+		Window window = peek( key );
+		forget( key );
+		if ( window != null ) {
+			window.dispose( );
+		}
+	}
+
+	public static void disposeAll( ) {
+		checkEdt( );
+		List< Key< ? > > keys = new ArrayList<>( open.keySet( ) );
+		for ( Key< ? > key : keys ) {
+			dispose( key );
+		}
+	}
+
+	private static < W extends Window > W create( final Key< W > key ) {
+		final W window = key.factory.get( );
+		open.put( key, new WeakReference< Window >( window ) );
+		window.addWindowListener( new WindowAdapter( ) {
+
+			@Override
+			public void windowClosed( WindowEvent e ) {
+				// Only if the entry is still this window, not a newer one
+				WeakReference< Window > ref = open.get( key );
+				if ( ref != null && ref.get( ) == window ) {
+					forget( key );
+				}
+			}
+		} );
+		return window;
+	}
+
+	private static void forget( Key< ? > key ) {
+		open.remove( key );
+		warm.remove( key );
+	}
+
+	private static void checkEdt( ) {
+		if ( !SwingUtilities.isEventDispatchThread( ) ) {
+			throw new IllegalStateException( "WindowManager must be used on the event dispatch thread" );
+		}
+	}
 }
@@ -0,0 +1,112 @@
+package collection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the spliterators and streams of CircularBuffer,
+ * BoundedPriorityQueue and LRUCache
+ */
+@DisplayName("Custom Collection Streams Tests")
+class CustomCollectionStreamsTest {
+
+    private static CollectionPracticeExercises.CircularBuffer<Integer> wrappedBuffer(int capacity, int added) {
+        CollectionPracticeExercises.CircularBuffer<Integer> buffer = new CollectionPracticeExercises.CircularBuffer<>(capacity);
+        for (int i = 0; i < added; i++) {
+            buffer.add(i);
+        }
+        return buffer;
+    }
+
+    /* Splits all the way down, then reads the parts in encounter order. */
+    private static <T> void splitAll(Spliterator<T> spliterator, List<T> out, List<Long> partSizes) {
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            partSizes.add(spliterator.estimateSize());
+            spliterator.forEachRemaining(out::add);
+            return;
+        }
+        long before = prefix.estimateSize();
+        assertTrue(Math.abs(before - spliterator.estimateSize()) <= 1, "unbalanced split");
+        splitAll(prefix, out, partSizes);
+        splitAll(spliterator, out, partSizes);
+    }
+
+    @Test
+    @DisplayName("Circular buffer splits evenly and keeps oldest-to-newest order across the wrap")
+    void testCircularBufferSpliterator() {
+        CollectionPracticeExercises.CircularBuffer<Integer> buffer = wrappedBuffer(1000, 1700);
+        Spliterator<Integer> spliterator = buffer.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+
+        List<Integer> out = new ArrayList<>();
+        List<Long> parts = new ArrayList<>();
+        splitAll(spliterator, out, parts);
+        assertEquals(IntStream.range(700, 1700).boxed().collect(Collectors.toList()), out);
+        assertTrue(parts.stream().allMatch(size -> size == 1));
+
+        List<Integer> iterated = new ArrayList<>();
+        buffer.forEach(iterated::add);
+        assertEquals(out, iterated);
+        assertEquals(0, wrappedBuffer(4, 0).stream().count());
+    }
+
+    @Test
+    @DisplayName("Parallel reductions match sequential ones")
+    void testParallelReductions() {
+        CollectionPracticeExercises.CircularBuffer<Integer> buffer = wrappedBuffer(1_000_000, 1_250_000);
+        assertEquals(buffer.stream().mapToLong(Integer::longValue).sum(),
+                buffer.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(buffer.stream().collect(Collectors.toList()),
+                buffer.parallelStream().collect(Collectors.toList()));
+
+        AdvancedCollectionExercises.LRUCache<Integer, Integer> cache = new AdvancedCollectionExercises.LRUCache<>(50_000);
+        for (int i = 0; i < 60_000; i++) {
+            cache.put(i, i * 2);
+        }
+        assertEquals(cache.stream().mapToLong(Map.Entry::getValue).sum(),
+                cache.parallelStream().mapToLong(Map.Entry::getValue).sum());
+        assertEquals(50_000, cache.spliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    @DisplayName("Bounded priority queue streams its items")
+    void testBoundedPriorityQueueStream() {
+        AdvancedCollectionExercises.BoundedPriorityQueue<String> queue = new AdvancedCollectionExercises.BoundedPriorityQueue<>(100);
+        for (int i = 0; i < 100; i++) {
+            queue.add("task" + i, i);
+        }
+        Spliterator<String> spliterator = queue.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertNotNull(spliterator.trySplit());
+
+        assertEquals(100, queue.parallelStream().distinct().count());
+        assertEquals(queue.stream().sorted().collect(Collectors.toList()),
+                queue.parallelStream().sorted().collect(Collectors.toList()));
+        assertEquals(100, queue.size());
+    }
+
+    @Test
+    @DisplayName("LRU cache streams least recently used first without reordering")
+    void testLruCacheStream() {
+        AdvancedCollectionExercises.LRUCache<String, Integer> cache = new AdvancedCollectionExercises.LRUCache<>(3);
+        cache.put("A", 1);
+        cache.put("B", 2);
+        cache.put("C", 3);
+        cache.get("A");
+
+        assertEquals(List.of("B", "C", "A"), cache.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(List.of("B", "C", "A"), cache.parallelStream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(List.of("B", "C", "A"), new ArrayList<>(cache.keySet()));
+    }
+}
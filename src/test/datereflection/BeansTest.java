@@ -0,0 +1,140 @@
+package datereflection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import pojo.StudentPojo;
+
+/**
+ * Unit tests for Beans
+ */
+class BeansTest {
+
+    public static class Flags {
+        private boolean active;
+        private long count;
+        private String url;
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public String getURL() {
+            return url;
+        }
+
+        public void setURL(String url) {
+            this.url = url;
+        }
+
+        public void setSecret(String secret) {
+        }
+    }
+
+    static class Hidden {
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    @DisplayName("Get and set by name, primitives boxed and unboxed")
+    void testGetSet() {
+        StudentPojo student = new StudentPojo();
+        Beans.set(student, "id", 42);
+        Beans.set(student, "name", "Sita");
+        assertEquals(42, student.getId());
+        assertEquals("Sita", student.getName());
+        assertEquals(42, Beans.get(student, "id"));
+        assertEquals("Sita", Beans.get(student, "name"));
+        assertThrows(IllegalArgumentException.class, () -> Beans.get(student, "age"));
+        assertThrows(ClassCastException.class, () -> Beans.set(student, "id", "x"));
+        assertThrows(NullPointerException.class, () -> Beans.set(student, "id", null));
+    }
+
+    @Test
+    @DisplayName("Property discovery follows the bean naming rules")
+    void testProperties() {
+        assertEquals(boolean.class, Beans.property(Flags.class, "active").type());
+        assertFalse(Beans.property(Flags.class, "count").isWritable());
+        assertTrue(Beans.property(Flags.class, "URL").isWritable());
+        assertFalse(Beans.property(Flags.class, "secret").isReadable());
+        assertThrows(IllegalArgumentException.class, () -> Beans.property(Flags.class, "class"));
+
+        Flags flags = new Flags();
+        Beans.set(flags, "active", true);
+        assertEquals(Boolean.TRUE, Beans.get(flags, "active"));
+        assertThrows(UnsupportedOperationException.class, () -> Beans.set(flags, "count", 1L));
+        assertThrows(UnsupportedOperationException.class, () -> Beans.get(flags, "secret"));
+    }
+
+    @Test
+    @DisplayName("Properties are introspected once per class")
+    void testCachedPerClass() {
+        assertSame(Beans.property(StudentPojo.class, "name"), Beans.property(StudentPojo.class, "name"));
+        assertSame(Beans.properties(collection.User.class), Beans.properties(collection.User.class));
+    }
+
+    @Test
+    @DisplayName("Non-public bean classes work too")
+    void testNonPublicClass() {
+        Hidden hidden = new Hidden();
+        Beans.set(hidden, "value", 5);
+        assertEquals(5, Beans.get(hidden, "value"));
+    }
+
+    @Test
+    @DisplayName("toMap and copy between different bean classes")
+    void testToMapAndCopy() {
+        io.User source = new io.User(3, "Gita");
+        Map<String, Object> values = Beans.toMap(source);
+        assertEquals(3, values.get("id"));
+        assertEquals("Gita", values.get("name"));
+
+        collection.User target = new collection.User(0, null);
+        Beans.copy(source, target);
+        assertEquals(3, target.getId());
+        assertEquals("Gita", target.getName());
+    }
+
+    /* Only getTime/setTime and friends, all inherited from java.util.Date. */
+    public static class Stamp extends java.util.Date {
+        private static final long serialVersionUID = 1L;
+
+        public Stamp(long time) {
+            super(time);
+        }
+    }
+
+    @Test
+    @DisplayName("Getters and setters inherited from JDK classes are linked")
+    void testInheritedJdkAccessors() {
+        Stamp stamp = new Stamp(1_000L);
+        assertEquals(1_000L, Beans.get(stamp, "time"));
+        Beans.set(stamp, "time", 2_000L);
+        assertEquals(2_000L, stamp.getTime());
+
+        Map<String, Object> error = Beans.toMap(new RuntimeException("boom"));
+        assertEquals("boom", error.get("message"));
+        assertTrue(error.containsKey("stackTrace"));
+
+        assertEquals(false, Beans.toMap(new StringBuilder("x")).get("empty"));
+    }
+}
@@ -0,0 +1,122 @@
+package datereflection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for DateFormats
+ */
+class DateFormatsTest {
+
+    private static final String[] FAST = { "yyyy-MM-dd", "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS",
+            "dd/MM/yyyy", "MM/dd/yyyy", "HH:mm:ss", "yyyyMMdd" };
+    private static final String[] SLOW = { "dd-M-yyyy hh:mm:ss", "dd MMMM yyyy", "EEE, d MMM yyyy", "yy-MM-dd" };
+
+    private static LocalDateTime randomDateTime(Random random) {
+        return LocalDateTime.of(1 + random.nextInt(9999), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000_000));
+    }
+
+    @Test
+    @DisplayName("Fast path is used for numeric patterns only")
+    void testCompileFast() {
+        for (String pattern : FAST) {
+            assertNotNull(DateFormats.compileFast(pattern), pattern);
+        }
+        for (String pattern : SLOW) {
+            assertNull(DateFormats.compileFast(pattern), pattern);
+        }
+    }
+
+    @Test
+    @DisplayName("Fast path and DateTimeFormatter print the same text")
+    void testFastMatchesFormatter() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime t = randomDateTime(random);
+            for (String pattern : FAST) {
+                assertEquals(DateTimeFormatter.ofPattern(pattern).format(t), DateFormats.format(t, pattern), pattern);
+            }
+            for (String pattern : SLOW) {
+                assertEquals(DateTimeFormatter.ofPattern(pattern, Locale.UK).format(t),
+                        DateFormats.format(t, pattern, Locale.UK), pattern);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Unsupported fields and years fall back to the formatter")
+    void testFallback() {
+        LocalDate date = LocalDate.of(2024, 2, 29);
+        assertThrows(RuntimeException.class, () -> DateFormats.format(date, "yyyy-MM-dd HH:mm"));
+        assertEquals("2024-02-29", DateFormats.format(date, "yyyy-MM-dd"));
+        assertEquals("12:05:09", DateFormats.format(LocalTime.of(12, 5, 9), "HH:mm:ss"));
+
+        LocalDate far = LocalDate.of(12345, 1, 2);
+        assertEquals(DateTimeFormatter.ofPattern("yyyy-MM-dd").format(far), DateFormats.format(far, "yyyy-MM-dd"));
+
+        StringBuilder sb = new StringBuilder("at ");
+        DateFormats.formatTo(far, "yyyy-MM-dd", sb);
+        assertEquals("at " + DateTimeFormatter.ofPattern("yyyy-MM-dd").format(far), sb.toString());
+    }
+
+    @Test
+    @DisplayName("java.util.Date formats like SimpleDateFormat")
+    void testUtilDate() {
+        Date now = new Date();
+        for (String pattern : new String[] { "MM/dd/yyyy", "dd-M-yyyy hh:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS" }) {
+            assertEquals(new SimpleDateFormat(pattern).format(now), DateFormats.format(now, pattern), pattern);
+        }
+    }
+
+    @Test
+    @DisplayName("Parsing uses the cached formatters")
+    void testParse() throws Exception {
+        assertEquals(LocalDate.of(2015, 3, 31), DateFormats.parseDate("31/03/2015", "dd/MM/yyyy"));
+        assertEquals(LocalDateTime.of(2015, 3, 31, 10, 15, 30),
+                DateFormats.parseDateTime("2015-03-31 10:15:30", "yyyy-MM-dd HH:mm:ss"));
+        assertEquals(new SimpleDateFormat("dd/MM/yyyy").parse("31/03/2015"),
+                DateFormats.parseToDate("31/03/2015", "dd/MM/yyyy"));
+        assertSame(DateFormats.formatter("dd/MM/yyyy"), DateFormats.formatter("dd/MM/yyyy"));
+    }
+
+    @Test
+    @DisplayName("Safe to share between threads")
+    void testThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        LocalDateTime time = randomDateTime(random);
+                        String pattern = FAST[i % FAST.length];
+                        assertEquals(DateTimeFormatter.ofPattern(pattern).format(time), DateFormats.format(time, pattern));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
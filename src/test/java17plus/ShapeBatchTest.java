@@ -0,0 +1,91 @@
+package java17plus;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for ShapeBatch
+ */
+class ShapeBatchTest {
+
+    private final Java17Features demo = new Java17Features();
+
+    /* Circles, rectangles and valid triangles in random order. */
+    private List<Java17Features.Shape> randomShapes(int n, long seed) {
+        Random random = new Random(seed);
+        List<Java17Features.Shape> shapes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> shapes.add(demo.new Circle(random.nextDouble() * 10));
+                case 1 -> shapes.add(demo.new Rectangle(random.nextDouble() * 10, random.nextDouble() * 10));
+                default -> {
+                    double a = 1 + random.nextDouble() * 10;
+                    double b = 1 + random.nextDouble() * 10;
+                    double c = Math.abs(a - b) + random.nextDouble() * (a + b - Math.abs(a - b));
+                    shapes.add(demo.new Triangle(a, b, c));
+                }
+            }
+        }
+        return shapes;
+    }
+
+    /* The objects in batch order: circles, rectangles, triangles. */
+    private static List<Java17Features.Shape> batchOrder(List<Java17Features.Shape> shapes) {
+        List<Java17Features.Shape> ordered = new ArrayList<>();
+        shapes.stream().filter(s -> s instanceof Java17Features.Circle).forEach(ordered::add);
+        shapes.stream().filter(s -> s instanceof Java17Features.Rectangle).forEach(ordered::add);
+        shapes.stream().filter(s -> s instanceof Java17Features.Triangle).forEach(ordered::add);
+        return ordered;
+    }
+
+    @Test
+    @DisplayName("areas and perimeters match the Shape objects one by one")
+    void testPerShape() {
+        List<Java17Features.Shape> shapes = randomShapes(1_001, 1);
+        ShapeBatch batch = ShapeBatch.of(shapes);
+        assertEquals(1_001, batch.size());
+        assertEquals(1_001, batch.circles() + batch.rectangles() + batch.triangles());
+
+        List<Java17Features.Shape> ordered = batchOrder(shapes);
+        double[] areas = batch.areas(new double[batch.size()]);
+        double[] perimeters = batch.perimeters(new double[batch.size()]);
+        double[] parallelAreas = batch.parallelAreas(new double[batch.size()]);
+        for (int i = 0; i < ordered.size(); i++) {
+            assertEquals(ordered.get(i).area(), areas[i], 1e-9, "area " + i);
+            assertEquals(ordered.get(i).perimeter(), perimeters[i], 1e-9, "perimeter " + i);
+            assertEquals(areas[i], parallelAreas[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Totals, sequential and parallel, over several chunks")
+    void testTotals() {
+        List<Java17Features.Shape> shapes = randomShapes(3 * ShapeBatch.CHUNK + 7, 2);
+        ShapeBatch batch = ShapeBatch.of(shapes);
+        double area = shapes.stream().mapToDouble(Java17Features.Shape::area).sum();
+        double perimeter = shapes.stream().mapToDouble(Java17Features.Shape::perimeter).sum();
+        assertEquals(area, batch.totalArea(), area * 1e-12);
+        assertEquals(area, batch.parallelTotalArea(), area * 1e-12);
+        assertEquals(perimeter, batch.totalPerimeter(), perimeter * 1e-12);
+        assertEquals(perimeter, batch.parallelTotalPerimeter(), perimeter * 1e-12);
+
+        double[] areas = batch.parallelAreas(new double[batch.size()]);
+        assertArrayEquals(batch.areas(new double[batch.size()]), areas);
+    }
+
+    @Test
+    @DisplayName("Empty batch and too small output")
+    void testEdges() {
+        ShapeBatch batch = new ShapeBatch();
+        assertEquals(0.0, batch.totalArea());
+        assertEquals(0.0, batch.parallelTotalPerimeter());
+        batch.addCircle(1).addRectangle(2, 3);
+        assertEquals(Math.PI + 6, batch.totalArea(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> batch.areas(new double[1]));
+    }
+}
@@ -0,0 +1,69 @@
+package java17plus;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for TypeDispatcher
+ */
+class TypeDispatcherTest {
+
+    @Test
+    @DisplayName("Same answers as the processObject switch")
+    void testMatchesSwitch() {
+        Java17Features demo = new Java17Features();
+        List<Object> inputs = Arrays.asList("Hello World", "Hi", 42, -10, 0, List.of(), List.of(1, 2),
+                new ArrayList<>(List.of("a")), new LinkedList<>(), 3.5, 'c', null, new int[0]);
+        for (Object input : inputs) {
+            assertEquals(demo.processObject(input), demo.processObjectDispatched(input), String.valueOf(input));
+        }
+    }
+
+    @Test
+    @DisplayName("First matching case wins, subclasses and interfaces included")
+    void testOrder() {
+        TypeDispatcher<String> d = TypeDispatcher.<String>builder()
+                .on(Integer.class, i -> "int")
+                .on(Number.class, n -> "number")
+                .on(CharSequence.class, s -> "text")
+                .on(Object.class, o -> "object")
+                .build();
+        assertEquals("int", d.dispatch(1));
+        assertEquals("number", d.dispatch(1L));
+        assertEquals("text", d.dispatch(new StringBuilder()));
+        assertEquals("object", d.dispatch(new Object()));
+        assertThrows(NullPointerException.class, () -> d.dispatch(null));
+    }
+
+    @Test
+    @DisplayName("Guards are evaluated per call, case lookup once per class")
+    void testGuardsAndCaching() {
+        AtomicInteger guardCalls = new AtomicInteger();
+        TypeDispatcher<String> d = TypeDispatcher.<String>builder()
+                .on(String.class, s -> guardCalls.incrementAndGet() > 0 && s.isEmpty(), s -> "empty")
+                .on(String.class, s -> "text")
+                .build();
+        assertEquals("empty", d.dispatch(""));
+        assertEquals("text", d.dispatch("x"));
+        assertEquals(2, guardCalls.get());
+        assertThrows(IllegalArgumentException.class, () -> d.dispatch(1));
+    }
+
+    @Test
+    @DisplayName("Guard failing on the last case falls through to otherwise")
+    void testOtherwiseAfterGuards() {
+        TypeDispatcher<String> d = TypeDispatcher.<String>builder()
+                .on(Integer.class, i -> i > 0, i -> "positive")
+                .otherwise(o -> "other");
+        assertEquals("positive", d.dispatch(5));
+        assertEquals("other", d.dispatch(-5));
+        assertEquals("other", d.dispatch("x"));
+    }
+}
@@ -0,0 +1,165 @@
+package javafx;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javafx.JavaLexer.Token;
+import javafx.JavaLexer.TokenType;
+
+/**
+ * Unit tests for CodeDocument, LineIndex and JavaLexer
+ */
+class CodeDocumentTest {
+
+    private static String bigSource(int methods) {
+        StringBuilder sb = new StringBuilder("public class Big {\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("    // method ").append(i).append('\n');
+            sb.append("    int m").append(i).append("(int x) {\n");
+            sb.append("        return x * ").append(i).append(" + \"s\".length();\n");
+            sb.append("    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private static List<TokenType> types(CodeDocument doc, int line) {
+        return doc.lexer().tokens(line, doc.lines()).stream().map(Token::type).collect(Collectors.toList());
+    }
+
+    /* Tokens of a fresh lex over the same text, to compare against the incremental result. */
+    private static void assertSameAsFullLex(CodeDocument doc) {
+        CodeDocument fresh = new CodeDocument(doc.getText());
+        assertEquals(fresh.lines().lineCount(), doc.lines().lineCount());
+        for (int line = 0; line < fresh.lines().lineCount(); line++) {
+            assertEquals(fresh.lines().lineStart(line), doc.lines().lineStart(line), "start of line " + line);
+            assertEquals(fresh.lexer().tokens(line, fresh.lines()), doc.lexer().tokens(line, doc.lines()),
+                    "tokens of line " + line);
+        }
+    }
+
+    @Test
+    @DisplayName("Line index finds line and column by binary search")
+    void testLineIndex() {
+        LineIndex index = new LineIndex("ab\ncde\n\nf");
+        assertEquals(4, index.lineCount());
+        assertEquals(0, index.lineOf(0));
+        assertEquals(0, index.lineOf(2));
+        assertEquals(1, index.lineOf(3));
+        assertEquals(2, index.columnOf(5));
+        assertEquals(2, index.lineOf(7));
+        assertEquals(3, index.lineOf(9));
+        assertEquals(6, index.lineEnd(1));
+
+        index.replace(1, 4, "X\nY\nZ"); // "aX\nY\nZde\n\nf"
+        assertEquals(5, index.lineCount());
+        assertEquals(List.of(0, 3, 5, 9, 10), List.of(index.lineStart(0), index.lineStart(1),
+                index.lineStart(2), index.lineStart(3), index.lineStart(4)));
+        assertEquals(11, index.length());
+    }
+
+    @Test
+    @DisplayName("Lexer classifies Java tokens")
+    void testTokens() {
+        CodeDocument doc = new CodeDocument("@Override public int f() { return 0x1F + 'c'; } // done\n"
+                + "String s = \"a\\\"b\"; /* x */ var t = \"\"\"\n  text\n  \"\"\";\n");
+        assertEquals(List.of(TokenType.ANNOTATION, TokenType.KEYWORD, TokenType.KEYWORD, TokenType.IDENTIFIER,
+                TokenType.OPERATOR, TokenType.OPERATOR, TokenType.OPERATOR, TokenType.KEYWORD, TokenType.NUMBER,
+                TokenType.OPERATOR, TokenType.CHAR, TokenType.OPERATOR, TokenType.OPERATOR, TokenType.COMMENT),
+                types(doc, 0));
+        assertEquals(List.of(TokenType.IDENTIFIER, TokenType.IDENTIFIER, TokenType.OPERATOR, TokenType.STRING,
+                TokenType.OPERATOR, TokenType.COMMENT, TokenType.KEYWORD, TokenType.IDENTIFIER, TokenType.OPERATOR,
+                TokenType.TEXT_BLOCK), types(doc, 1));
+        assertEquals(List.of(TokenType.TEXT_BLOCK), types(doc, 2));
+        assertEquals(List.of(TokenType.TEXT_BLOCK, TokenType.OPERATOR), types(doc, 3));
+
+        Token comment = doc.lexer().tokens(1, doc.lines()).get(5);
+        assertEquals("/* x */", doc.getText().substring(comment.start(), comment.start() + comment.length()));
+    }
+
+    @Test
+    @DisplayName("Typing inside a line re-lexes only that line")
+    void testLocalEdit() {
+        String source = bigSource(2500);
+        CodeDocument doc = new CodeDocument(source);
+        assertEquals(10_003, doc.lines().lineCount()); // the final newline opens an empty line
+
+        int at = source.indexOf("return x * 1234");
+        doc.update(source.substring(0, at) + "int y = 1; " + source.substring(at));
+        assertEquals(1, doc.lexer().lastRelexed());
+        assertSameAsFullLex(doc);
+    }
+
+    @Test
+    @DisplayName("Opening and closing a block comment re-lexes until the state settles")
+    void testBlockComment() {
+        String source = bigSource(100);
+        CodeDocument doc = new CodeDocument(source);
+
+        int open = source.indexOf("    int m10(");
+        String commented = source.substring(0, open) + "/*" + source.substring(open);
+        doc.update(commented);
+        assertEquals(doc.lines().lineCount() - doc.lines().lineOf(open), doc.lexer().lastRelexed());
+        assertEquals(TokenType.COMMENT, doc.tokenAt(source.indexOf("m50")).type());
+        assertSameAsFullLex(doc);
+
+        int close = commented.indexOf("    int m20(");
+        doc.update(commented.substring(0, close) + "*/" + commented.substring(close));
+        assertEquals(TokenType.IDENTIFIER, doc.tokenAt(doc.getText().indexOf("m50")).type());
+        assertSameAsFullLex(doc);
+    }
+
+    @Test
+    @DisplayName("Line breaks inserted and removed keep index and tokens consistent")
+    void testMultiLineEdits() {
+        String source = bigSource(50);
+        CodeDocument doc = new CodeDocument(source);
+
+        String text = source.replace("return x * 7 +", "return x\n * 7\n +");
+        doc.update(text);
+        assertSameAsFullLex(doc);
+
+        text = text.substring(0, 100) + text.substring(400);
+        doc.update(text);
+        assertSameAsFullLex(doc);
+
+        doc.update("");
+        assertEquals(1, doc.lines().lineCount());
+        assertSameAsFullLex(doc);
+    }
+
+    @Test
+    @DisplayName("Status bar line and column come from the index")
+    void testLineAndColumn() {
+        CodeDocument doc = new CodeDocument("class A {\n    int x;\n}");
+        assertEquals(1, doc.line(0));
+        assertEquals(2, doc.line(14));
+        assertEquals(5, doc.column(14));
+        assertEquals(3, doc.line(100));
+    }
+
+    @Test
+    @DisplayName("Keystrokes on a 10k line file stay well under a frame")
+    void testKeystrokeCost() {
+        String text = bigSource(2500);
+        CodeDocument doc = new CodeDocument(text);
+        int caret = text.indexOf("return x * 1250");
+
+        long start = System.nanoTime();
+        int keystrokes = 2000;
+        for (int i = 0; i < keystrokes; i++) {
+            text = text.substring(0, caret) + 'a' + text.substring(caret);
+            caret++;
+            doc.update(text);
+            doc.line(caret);
+            doc.column(caret);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / keystrokes;
+        System.out.printf("%.1f us per keystroke on %d lines%n", micros, doc.lines().lineCount());
+        assertTrue(micros < 16_000, micros + " us per keystroke");
+        assertSameAsFullLex(doc);
+    }
+}
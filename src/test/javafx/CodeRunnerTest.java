@@ -0,0 +1,154 @@
+package javafx;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for CodeRunner
+ */
+class CodeRunnerTest {
+
+    private static final String HELLO = """
+        public class Hello {
+            public static void main(String[] args) throws Exception {
+                System.out.println("Hello, JavaStud!");
+                Thread t = new Thread(() -> System.out.println("5 + 10 = " + (5 + 10)));
+                t.start();
+                t.join();
+            }
+        }
+        """;
+
+    private final CodeRunner runner = new CodeRunner();
+
+    private String run(String source, long timeoutMillis) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodeRunner.Execution execution = runner.run(source, synchronizedStream(out), timeoutMillis);
+        assertTrue(execution.await(60, TimeUnit.SECONDS));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static OutputStream synchronizedStream(ByteArrayOutputStream out) {
+        return new OutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                out.write(b);
+            }
+
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                out.write(b, off, len);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Program output, including its threads, is captured")
+    void testRunCapturesOutput() throws Exception {
+        String output = run(HELLO, 0);
+        assertTrue(output.contains("Hello, JavaStud!"), output);
+        assertTrue(output.contains("5 + 10 = 15"), output);
+    }
+
+    @Test
+    @DisplayName("System.out and System.err go to their own streams")
+    void testSeparateStreams() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        CodeRunner.Execution execution = runner.run("""
+            public class Both {
+                public static void main(String[] args) {
+                    System.out.println("to out");
+                    System.err.println("to err");
+                    throw new IllegalStateException("boom");
+                }
+            }
+            """, synchronizedStream(out), synchronizedStream(err), 0);
+        assertTrue(execution.await(60, TimeUnit.SECONDS));
+
+        assertEquals("to out\n", out.toString(StandardCharsets.UTF_8).replace("\r\n", "\n"));
+        String errText = err.toString(StandardCharsets.UTF_8);
+        assertTrue(errText.startsWith("to err"), errText);
+        assertTrue(errText.contains("IllegalStateException: boom"), errText);
+    }
+
+    @Test
+    @DisplayName("Unchanged source is compiled only once")
+    void testCompileCache() throws Exception {
+        run(HELLO, 0);
+        run(HELLO, 0);
+        assertEquals(1, runner.compilations());
+
+        run(HELLO.replace("JavaStud", "World"), 0);
+        assertEquals(2, runner.compilations());
+    }
+
+    @Test
+    @DisplayName("Compiler errors are reported with line numbers")
+    void testCompileError() throws Exception {
+        String output = run("public class Broken {\n    int x = ;\n}\n", 0);
+        assertTrue(output.contains("Compilation failed"), output);
+        assertTrue(output.contains("Line 2"), output);
+    }
+
+    @Test
+    @DisplayName("Long running program is interrupted at the timeout")
+    void testTimeout() throws Exception {
+        String sleeper = """
+            package demo;
+            public class Sleeper {
+                public static void main(String[] args) throws InterruptedException {
+                    System.out.println("sleeping");
+                    Thread.sleep(60_000);
+                }
+            }
+            """;
+        CodeRunner.Execution execution = runner.run(sleeper, OutputStream.nullOutputStream(), 200);
+        assertTrue(execution.await(30, TimeUnit.SECONDS));
+        assertTrue(execution.timedOut());
+        assertTrue(execution.failure() instanceof InterruptedException);
+    }
+
+    @Test
+    @DisplayName("Main class is the public class, with its package")
+    void testMainClass() {
+        assertEquals("demo.Sleeper", CodeRunner.mainClass("package demo;\nclass Helper {}\npublic class Sleeper {}"));
+        assertEquals("Helper", CodeRunner.mainClass("class Helper {}"));
+        assertNull(CodeRunner.mainClass("int x;"));
+    }
+
+    @Test
+    @DisplayName("Main class is found in records, enums and interfaces, not in comments")
+    void testMainClassFromParseTree() throws Exception {
+        assertEquals("Point", CodeRunner.mainClass("""
+            // class Decoy is only mentioned here
+            record Point(int x, int y) {
+                public static void main(String... args) { }
+            }
+            """));
+        assertEquals("Cli", CodeRunner.mainClass("""
+            class Helper { String s = "class Wrong {}"; }
+            interface Cli { static void main(String[] args) { } }
+            """));
+        assertEquals("app.Color", CodeRunner.mainClass("""
+            package app;
+            public class Palette { }
+            enum Color { RED; public static void main(String[] args) { } }
+            """));
+
+        String output = run("""
+            /* class Nope */
+            public enum Greeter {
+                HI;
+                public static void main(String[] args) { System.out.println("enum main"); }
+            }
+            """, 0);
+        assertTrue(output.contains("enum main"), output);
+    }
+}
@@ -0,0 +1,105 @@
+package javafx;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for OutputBuffer
+ */
+class OutputBufferTest {
+
+    @Test
+    @DisplayName("Writes are coalesced until the next drain")
+    void testDrainCoalesces() throws Exception {
+        OutputBuffer buffer = new OutputBuffer();
+        OutputStream out = buffer.stream();
+        for (int i = 0; i < 1000; i++) {
+            out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        String text = buffer.drain();
+        assertTrue(text.startsWith("line 0\n"));
+        assertTrue(text.endsWith("line 999\n"));
+        assertFalse(buffer.hasPending());
+        assertEquals("", buffer.drain());
+    }
+
+    @Test
+    @DisplayName("UTF-8 sequences split across writes are decoded")
+    void testSplitMultiByteCharacter() throws Exception {
+        OutputBuffer buffer = new OutputBuffer();
+        OutputStream out = buffer.stream();
+        byte[] bytes = "héllo ✓".getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            out.write(b);
+        }
+        assertEquals("héllo ✓", buffer.drain());
+    }
+
+    @Test
+    @DisplayName("Pending output is capped and the drop is reported")
+    void testPendingCap() {
+        OutputBuffer buffer = new OutputBuffer(100);
+        for (int i = 0; i < 1000; i++) {
+            buffer.append("line " + i + "\n");
+        }
+
+        String text = buffer.drain();
+        assertTrue(text.startsWith("... "), text);
+        assertTrue(text.contains("characters of output skipped"));
+        assertTrue(text.endsWith("line 999\n"));
+        assertTrue(text.length() < 200);
+    }
+
+    @Test
+    @DisplayName("A full buffer evicts in constant time and keeps whole lines")
+    void testRingEviction() {
+        OutputBuffer buffer = new OutputBuffer(1000);
+        for (int i = 0; i < 2_000_000; i++) {
+            buffer.append("line " + i + "\n");
+        }
+
+        String text = buffer.drain();
+        String kept = text.substring(text.indexOf("...\n") + 4);
+        assertTrue(kept.startsWith("line "), kept);
+        assertTrue(kept.endsWith("line 1999999\n"));
+        assertTrue(kept.length() <= 1000);
+        assertTrue(kept.length() > 900, "a line boundary is found near the head: " + kept.length());
+
+        buffer.append("x".repeat(5000));
+        text = buffer.drain();
+        assertTrue(text.endsWith("x".repeat(1000)));
+        assertTrue(text.startsWith("... 4000 characters"), text.substring(0, 40));
+    }
+
+    @Test
+    @DisplayName("Chunks are split into lines and the open line is continued")
+    void testAppendLines() {
+        List<String> lines = new ArrayList<>();
+        OutputBuffer.appendLines(lines, "a\nb", 10);
+        OutputBuffer.appendLines(lines, "c\nd\n", 10);
+        OutputBuffer.appendLines(lines, "e", 10);
+
+        assertEquals(List.of("a", "bc", "d", "e"), lines);
+    }
+
+    @Test
+    @DisplayName("Only the newest lines are retained")
+    void testAppendLinesCap() {
+        List<String> lines = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append(i).append('\n');
+        }
+        OutputBuffer.appendLines(lines, text.toString(), 5);
+        OutputBuffer.appendLines(lines, "1000\n", 5);
+
+        assertEquals(List.of("997", "998", "999", "1000", ""), lines);
+    }
+}
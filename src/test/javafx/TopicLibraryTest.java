@@ -0,0 +1,122 @@
+package javafx;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for TopicLibrary
+ */
+class TopicLibraryTest {
+
+    private static final int CATEGORIES = 50;
+    private static final int TOPICS_PER_CATEGORY = 100;
+
+    @TempDir
+    Path dir;
+
+    private Path writeBundle() throws IOException {
+        Path bundle = dir.resolve("topics.txt");
+        try (Writer w = Files.newBufferedWriter(bundle, StandardCharsets.UTF_8)) {
+            w.write("# header comment\n\n");
+            for (int c = 0; c < CATEGORIES; c++) {
+                for (int t = 0; t < TOPICS_PER_CATEGORY; t++) {
+                    w.write("@topic Category " + c + " > Topic " + t + "\n");
+                    w.write("class T" + c + "_" + t + " {} // é\n");
+                    w.write("@doc\n<p>Doc " + c + "/" + t + "</p>\n");
+                }
+            }
+            w.write("@topic Category 0 > Empty\n");
+        }
+        return bundle;
+    }
+
+    @Test
+    @DisplayName("Index lists every topic and the tree structure")
+    void testIndex() throws Exception {
+        try (TopicLibrary library = TopicLibrary.open(writeBundle())) {
+            assertEquals(CATEGORIES * TOPICS_PER_CATEGORY + 1, library.size());
+            assertEquals(CATEGORIES, library.children("").size());
+            assertEquals("Category 0", library.children("").get(0));
+            assertEquals(TOPICS_PER_CATEGORY + 1, library.children("Category 0").size());
+            assertTrue(library.hasChildren("Category 7"));
+            assertFalse(library.hasChildren("Category 7 > Topic 3"));
+            assertFalse(library.contains("Category 7"));
+            assertEquals(0, library.reads());
+        }
+    }
+
+    @Test
+    @DisplayName("Topics are read on demand with code and documentation")
+    void testFind() throws Exception {
+        try (TopicLibrary library = TopicLibrary.open(writeBundle())) {
+            TopicLibrary.Topic topic = library.find("Category 3 > Topic 42").orElseThrow();
+            assertEquals("class T3_42 {} // é\n", topic.code());
+            assertEquals("<p>Doc 3/42</p>\n", topic.documentation());
+            assertEquals("Topic 42", topic.title());
+
+            TopicLibrary.Topic last = library.find("Category 49 > Topic 99").orElseThrow();
+            assertEquals("<p>Doc 49/99</p>\n", last.documentation());
+
+            assertTrue(library.find("Category 3 > Missing").isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Topics without code get starter code")
+    void testPlaceholder() throws Exception {
+        try (TopicLibrary library = TopicLibrary.open(writeBundle())) {
+            TopicLibrary.Topic topic = library.find("Category 0 > Empty").orElseThrow();
+            assertTrue(topic.code().contains("public class Empty {"));
+            assertFalse(topic.hasDocumentation());
+        }
+        assertTrue(TopicLibrary.placeholder("Classes & Objects").contains("public class ClassesObjects {"));
+        assertTrue(TopicLibrary.placeholder("File I/O").contains("Learning: File I/O"));
+    }
+
+    @Test
+    @DisplayName("Cache keeps the most recent topics only")
+    void testCache() throws Exception {
+        try (TopicLibrary library = TopicLibrary.open(writeBundle())) {
+            library.find("Category 1 > Topic 1");
+            library.find("Category 1 > Topic 1");
+            assertEquals(1, library.reads());
+
+            for (int t = 0; t < TopicLibrary.CACHE_SIZE * 2; t++) {
+                library.find("Category " + (2 + t / TOPICS_PER_CATEGORY) + " > Topic " + t % TOPICS_PER_CATEGORY);
+            }
+            assertEquals(TopicLibrary.CACHE_SIZE, library.cached());
+
+            library.find("Category 1 > Topic 1");
+            assertEquals(TopicLibrary.CACHE_SIZE * 2 + 2, library.reads());
+        }
+    }
+
+    @Test
+    @DisplayName("Stored index is reused until the bundle changes")
+    void testIndexReuse() throws Exception {
+        Path bundle = writeBundle();
+        try (TopicLibrary library = TopicLibrary.open(bundle)) {
+            assertTrue(library.indexRebuilt());
+        }
+        try (TopicLibrary library = TopicLibrary.open(bundle)) {
+            assertFalse(library.indexRebuilt());
+            assertEquals("class T5_5 {} // é\n", library.find("Category 5 > Topic 5").orElseThrow().code());
+        }
+
+        Files.writeString(bundle, "@topic Only > One\nclass One {}\n");
+        try (TopicLibrary library = TopicLibrary.open(bundle)) {
+            assertTrue(library.indexRebuilt());
+            assertEquals(List.of("Only"), library.children(""));
+            assertEquals("class One {}\n", library.find("Only > One").orElseThrow().code());
+        }
+    }
+}
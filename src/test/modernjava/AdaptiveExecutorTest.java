@@ -0,0 +1,97 @@
+package modernjava;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for AdaptiveExecutor; parallelism is set explicitly so the
+ * decisions do not depend on the machine running the tests.
+ */
+@DisplayName("Adaptive Executor Tests")
+class AdaptiveExecutorTest {
+
+    private static AdaptiveExecutor executor(int parallelism) {
+        return AdaptiveExecutor.builder()
+                .commonParallelism(parallelism)
+                .dedicatedParallelism(parallelism)
+                .sequentialThreshold(100_000)
+                .dedicatedThreshold(10_000_000)
+                .build();
+    }
+
+    private static List<Integer> numbers(int n) {
+        return IntStream.range(0, n).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should pick the mode from the estimated work")
+    void testModes() {
+        try (AdaptiveExecutor executor = executor(4)) {
+            executor.expectCost("cheap", 10);
+            executor.expectCost("costly", 1000);
+
+            assertEquals(AdaptiveExecutor.Mode.SEQUENTIAL, executor.decide("cheap", numbers(1000).spliterator()).getMode());
+            assertEquals(AdaptiveExecutor.Mode.COMMON_POOL, executor.decide("cheap", numbers(100_000).spliterator()).getMode());
+            assertEquals(AdaptiveExecutor.Mode.DEDICATED_POOL, executor.decide("costly", numbers(100_000).spliterator()).getMode());
+            // Uneven splits need four times the work
+            assertEquals(AdaptiveExecutor.Mode.SEQUENTIAL,
+                    executor.decide("cheap", new HashSet<>(numbers(20_000)).spliterator()).getMode());
+            assertEquals(AdaptiveExecutor.Mode.COMMON_POOL, executor.decide("cheap", numbers(20_000).spliterator()).getMode());
+        }
+        try (AdaptiveExecutor single = executor(1)) {
+            single.expectCost("costly", 1000);
+            assertEquals(AdaptiveExecutor.Mode.SEQUENTIAL, single.decide("costly", numbers(100_000).spliterator()).getMode());
+        }
+    }
+
+    @Test
+    @DisplayName("Should run costly work on the dedicated pool with the same result")
+    void testDedicatedPool() {
+        try (AdaptiveExecutor executor = executor(4)) {
+            executor.expectCost("square", 1000);
+            List<Integer> input = numbers(100_000);
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+
+            long sum = executor.run("square", input, s -> s.peek(i -> threads.add(Thread.currentThread().getName()))
+                    .mapToLong(i -> (long) i * i).sum());
+
+            assertEquals(input.stream().mapToLong(i -> (long) i * i).sum(), sum);
+            assertEquals(AdaptiveExecutor.Mode.DEDICATED_POOL, executor.history().get(0).getMode());
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("adaptive-stream-")), threads.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should learn the per-element cost and record every decision")
+    void testLearningAndHistory() {
+        try (AdaptiveExecutor executor = executor(4)) {
+            executor.expectCost("sum", 1_000_000);
+            List<Integer> input = numbers(10_000);
+            for (int i = 0; i < 20; i++) {
+                assertEquals(49_995_000, (int) executor.run("sum", input, s -> s.mapToInt(Integer::intValue).sum()));
+            }
+            // A cheap sum measures far below the seeded 1 ms per element
+            assertTrue(executor.nanosPerElement("sum") < 10_000, "cost " + executor.nanosPerElement("sum"));
+            assertEquals(executor.nanosPerElement("sum"), executor.decide("sum", input.spliterator()).getNanosPerElement());
+
+            List<AdaptiveExecutor.Decision> history = executor.history();
+            assertEquals(20, history.size());
+            assertEquals(AdaptiveExecutor.Mode.DEDICATED_POOL, history.get(0).getMode());
+            assertEquals(20, executor.count(AdaptiveExecutor.Mode.SEQUENTIAL) + executor.count(AdaptiveExecutor.Mode.COMMON_POOL)
+                    + executor.count(AdaptiveExecutor.Mode.DEDICATED_POOL));
+            assertTrue(history.get(0).toString().startsWith("sum: DEDICATED_POOL for 10000 elements"));
+
+            List<Integer> collected = executor.run("copy", new ArrayList<>(input), s -> s.collect(Collectors.toList()));
+            assertEquals(input, collected);
+        }
+    }
+}
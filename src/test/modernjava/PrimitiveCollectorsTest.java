@@ -0,0 +1,144 @@
+package modernjava;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for PrimitiveCollectors; every collector is checked on a parallel
+ * stream against the same collector on a sequential one.
+ */
+@DisplayName("Primitive Collectors Tests")
+class PrimitiveCollectorsTest {
+
+    private static final List<Person> PEOPLE = people(100_000);
+
+    private static List<Person> people(int n) {
+        Random random = new Random(42);
+        String[] jobs = {"Engineer", "Designer", "Manager", "Analyst"};
+        List<Person> people = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            people.add(new Person("P" + i, 18 + random.nextInt(50), jobs[random.nextInt(jobs.length)]));
+        }
+        return people;
+    }
+
+    private static double salary(Person p) {
+        return 1000.0 * p.getAge() + p.getName().length();
+    }
+
+    @Test
+    @DisplayName("Should summarize like DoubleSummaryStatistics, adding variance")
+    void testSummarizing() {
+        DoubleStats seq = PEOPLE.stream().collect(PrimitiveCollectors.summarizing(PrimitiveCollectorsTest::salary));
+        DoubleStats par = PEOPLE.parallelStream().collect(PrimitiveCollectors.summarizing(PrimitiveCollectorsTest::salary));
+        DoubleSummaryStatistics expected = PEOPLE.stream().mapToDouble(PrimitiveCollectorsTest::salary).summaryStatistics();
+
+        for (DoubleStats stats : List.of(seq, par)) {
+            assertEquals(expected.getCount(), stats.getCount());
+            assertEquals(expected.getSum(), stats.getSum(), 1e-6);
+            assertEquals(expected.getMin(), stats.getMin());
+            assertEquals(expected.getMax(), stats.getMax());
+            assertEquals(expected.getAverage(), stats.getMean(), 1e-6);
+        }
+        double mean = expected.getAverage();
+        double variance = PEOPLE.stream().mapToDouble(p -> Math.pow(salary(p) - mean, 2)).sum() / PEOPLE.size();
+        assertEquals(variance, seq.getVariance(), variance * 1e-9);
+        assertEquals(variance, par.getVariance(), variance * 1e-9);
+
+        DoubleStats empty = PrimitiveCollectors.summarize(DoubleStream.empty());
+        assertEquals(0, empty.getCount());
+        assertTrue(Double.isNaN(empty.getMean()));
+    }
+
+    @Test
+    @DisplayName("Should aggregate per int key in one pass")
+    void testGroupingByInt() {
+        IntGroupStats seq = PEOPLE.stream()
+                .collect(PrimitiveCollectors.groupingByInt(Person::getAge, PrimitiveCollectorsTest::salary));
+        IntGroupStats par = PEOPLE.parallelStream()
+                .collect(PrimitiveCollectors.groupingByInt(Person::getAge, PrimitiveCollectorsTest::salary));
+        Map<Integer, DoubleSummaryStatistics> expected = PEOPLE.stream()
+                .collect(Collectors.groupingBy(Person::getAge,
+                        Collectors.summarizingDouble(PrimitiveCollectorsTest::salary)));
+
+        for (IntGroupStats groups : List.of(seq, par)) {
+            assertEquals(expected.size(), groups.size());
+            assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), groups.keys());
+            expected.forEach((age, stats) -> {
+                assertEquals(stats.getCount(), groups.count(age));
+                assertEquals(stats.getSum(), groups.sum(age), 1e-6);
+                assertEquals(stats.getMin(), groups.min(age));
+                assertEquals(stats.getMax(), groups.max(age));
+            });
+        }
+        assertFalse(seq.contains(5));
+        assertEquals(0, seq.count(5));
+        assertTrue(Double.isNaN(seq.mean(5)));
+    }
+
+    @Test
+    @DisplayName("Should keep the k highest scores")
+    void testTopK() {
+        List<Integer> numbers = IntStream.range(0, 50_000).map(i -> (i * 7919) % 50_000).boxed()
+                .collect(Collectors.toList());
+        List<Integer> expected = numbers.stream().sorted(Comparator.reverseOrder()).limit(10)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, numbers.stream().collect(PrimitiveCollectors.topK(10, Integer::doubleValue)));
+        assertEquals(expected, numbers.parallelStream().collect(PrimitiveCollectors.topK(10, Integer::doubleValue)));
+        assertEquals(List.of(3, 2, 1), List.of(1, 2, 3).stream().collect(PrimitiveCollectors.topK(5, Integer::doubleValue)));
+        assertEquals(List.of(), numbers.stream().collect(PrimitiveCollectors.topK(0, Integer::doubleValue)));
+    }
+
+    @Test
+    @DisplayName("Should estimate distinct counts within a few percent")
+    void testApproximateDistinct() {
+        Function<Person, String> name = Person::getName;
+        HyperLogLog seq = PEOPLE.stream().collect(PrimitiveCollectors.approximateDistinct(name));
+        HyperLogLog par = PEOPLE.parallelStream().collect(PrimitiveCollectors.approximateDistinct(name));
+
+        assertEquals(seq.estimate(), par.estimate());
+        assertEquals(100_000, seq.estimate(), 100_000 * 0.03);
+        assertEquals(50, PEOPLE.stream().collect(PrimitiveCollectors.approximateDistinct(Person::getAge)).estimate());
+
+        HyperLogLog longs = IntStream.range(0, 1_000_000).parallel().boxed()
+                .collect(PrimitiveCollectors.approximateDistinctLong(i -> i % 250_000));
+        assertEquals(250_000, longs.estimate(), 250_000 * 0.03);
+    }
+
+    @Test
+    @DisplayName("Should give quantiles within the relative accuracy")
+    void testQuantiles() {
+        double[] values = new Random(7).doubles(200_000, -500, 5000).toArray();
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        QuantileSketch seq = PrimitiveCollectors.quantiles(Arrays.stream(values));
+        QuantileSketch par = PrimitiveCollectors.quantiles(Arrays.stream(values).parallel());
+        for (double q : new double[] {0, 0.01, 0.25, 0.5, 0.9, 0.99, 1}) {
+            double exact = sorted[(int) (q * (sorted.length - 1))];
+            assertEquals(exact, seq.quantile(q), Math.abs(exact) * 0.01 + 1e-9, "q=" + q);
+            assertEquals(seq.quantile(q), par.quantile(q), "q=" + q);
+        }
+        assertEquals(sorted[0], seq.getMin());
+        assertEquals(sorted[sorted.length - 1], seq.getMax());
+
+        QuantileSketch ages = PEOPLE.parallelStream().collect(PrimitiveCollectors.quantiles(Person::getAge, 0.001));
+        assertEquals(18, ages.quantile(0), 0.02);
+        assertEquals(67, ages.quantile(1), 0.07);
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+}
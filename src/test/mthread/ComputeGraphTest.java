@@ -0,0 +1,81 @@
+package mthread;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for ComputeGraph
+ */
+class ComputeGraphTest {
+
+    private ComputeGraph trig() {
+        return new ComputeGraph()
+                .input("angle")
+                .node("sin", in -> Math.sin(in[0]), "angle")
+                .node("cos", in -> Math.cos(in[0]), "angle")
+                .node("tan", in -> in[0] / in[1], "sin", "cos");
+    }
+
+    @Test
+    @DisplayName("Graph computes tan45 from parallel sin and cos")
+    void testTan45() {
+        Map<String, Double> result = trig().evaluate(Map.of("angle", Math.PI / 4));
+        assertEquals(1.0, result.get("tan"), 1e-12);
+        assertEquals(Math.sin(Math.PI / 4), result.get("sin"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Shared dependency is computed once per evaluation")
+    void testSharedNodeIsMemoized() {
+        AtomicInteger calls = new AtomicInteger();
+        ComputeGraph graph = new ComputeGraph()
+                .input("x")
+                .node("square", in -> {
+                    calls.incrementAndGet();
+                    return in[0] * in[0];
+                }, "x")
+                .node("a", in -> in[0] + 1, "square")
+                .node("b", in -> in[0] + 2, "square")
+                .node("sum", in -> in[0] + in[1], "a", "b");
+
+        assertEquals(21.0, graph.evaluate(Map.of("x", 3.0)).get("sum"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Table evaluation matches row by row evaluation")
+    void testEvaluateTable() {
+        ComputeGraph graph = trig();
+        double[][] rows = new double[10_000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new double[] { i / 1000.0 };
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        double[][] table;
+        try {
+            table = graph.evaluateTable(rows, pool, "tan", "sin");
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 0; i < rows.length; i += 997) {
+            Map<String, Double> single = graph.evaluate(Map.of("angle", rows[i][0]));
+            assertEquals(single.get("tan"), table[i][0], 0.0);
+            assertEquals(single.get("sin"), table[i][1], 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown dependency and missing input are rejected")
+    void testInvalidGraph() {
+        ComputeGraph graph = trig();
+        assertThrows(IllegalArgumentException.class, () -> graph.node("bad", in -> 0, "nope"));
+        assertThrows(IllegalArgumentException.class, () -> graph.node("sin", in -> 0, "angle"));
+        assertThrows(IllegalArgumentException.class, () -> graph.evaluate(Map.of()));
+    }
+}
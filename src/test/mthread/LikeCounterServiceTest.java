@@ -0,0 +1,190 @@
+package mthread;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stress tests for LikeCounterService: thousands of threads clicking while the
+ * flusher persists, then every click must be counted exactly once.
+ */
+class LikeCounterServiceTest {
+
+    private static final int THREADS = 2_000;
+    private static final int CLICKS_PER_THREAD = 500;
+    private static final int PAGES = 50;
+
+    @Test
+    @DisplayName("Concurrent clicks are neither lost nor persisted twice")
+    void testNoLostUpdatesUnderContention() throws Exception {
+        InMemoryLikeStore store = new InMemoryLikeStore();
+        LikeCounterService service = new LikeCounterService(store, 5, 16);
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] users = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final String page = "page-" + (i % PAGES);
+            users[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < CLICKS_PER_THREAD; j++) {
+                    service.plusOne(page);
+                }
+            });
+            users[i].start();
+        }
+
+        start.countDown();
+        for (Thread t : users) {
+            t.join();
+        }
+        service.close();
+
+        long expectedPerPage = (long) THREADS / PAGES * CLICKS_PER_THREAD;
+        for (int p = 0; p < PAGES; p++) {
+            assertEquals(expectedPerPage, service.likes("page-" + p));
+            assertEquals(expectedPerPage, store.load("page-" + p));
+        }
+        assertEquals((long) THREADS * CLICKS_PER_THREAD, service.totalClicks());
+    }
+
+    @Test
+    @DisplayName("Clicks are coalesced into one delta per page")
+    void testDeltasAreCoalesced() throws Exception {
+        InMemoryLikeStore store = new InMemoryLikeStore();
+        LikeCounterService service = new LikeCounterService(store, 0);
+
+        for (int i = 0; i < 1_000; i++) {
+            service.plusOne("everest");
+        }
+        assertEquals(1, service.flush());
+        assertEquals(1, store.batches());
+        assertEquals(1_000, store.load("everest"));
+
+        // Nothing new, nothing written.
+        assertEquals(0, service.flush());
+        assertEquals(1, store.batches());
+    }
+
+    @Test
+    @DisplayName("Failed batch is retried without double counting")
+    void testFailedBatchIsRetried() throws Exception {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        InMemoryLikeStore delegate = new InMemoryLikeStore();
+        LikeStore flaky = new LikeStore() {
+            @Override
+            public void persist(Map<String, Long> deltas) throws Exception {
+                if (fail.get()) {
+                    throw new Exception("database down");
+                }
+                delegate.persist(deltas);
+            }
+
+            @Override
+            public long load(String pageId) {
+                return delegate.load(pageId);
+            }
+        };
+        LikeCounterService service = new LikeCounterService(flaky, 0);
+
+        service.add("everest", 500);
+        assertThrows(Exception.class, service::flush);
+        assertEquals(1, service.failedBatches());
+
+        service.plusOne("everest");
+        fail.set(false);
+        service.flush();
+
+        assertEquals(501, delegate.load("everest"));
+        assertEquals(501, service.likes("everest"));
+    }
+
+    @Test
+    @DisplayName("Closed service rejects clicks")
+    void testClosedServiceRejectsClicks() throws Exception {
+        LikeCounterService service = new LikeCounterService(new InMemoryLikeStore(), 0);
+        service.close();
+        assertThrows(IllegalStateException.class, () -> service.plusOne("everest"));
+    }
+
+    @Test
+    @DisplayName("Close waits for a click that passed the closed check")
+    void testCloseDrainsClickInFlight() throws Exception {
+        InMemoryLikeStore delegate = new InMemoryLikeStore();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LikeStore slowLoad = new LikeStore() {
+            @Override
+            public void persist(Map<String, Long> deltas) throws Exception {
+                delegate.persist(deltas);
+            }
+
+            @Override
+            public long load(String pageId) throws Exception {
+                loading.countDown();
+                release.await();
+                return delegate.load(pageId);
+            }
+        };
+        LikeCounterService service = new LikeCounterService(slowLoad, 0);
+
+        Thread user = new Thread(() -> service.plusOne("everest"));
+        user.start();
+        loading.await();
+
+        Thread closer = new Thread(service::close);
+        closer.start();
+        closer.join(200);
+        assertTrue(closer.isAlive(), "close() must wait for the click inside add()");
+
+        release.countDown();
+        user.join();
+        closer.join();
+        assertEquals(1, delegate.load("everest"));
+    }
+
+    @Test
+    @DisplayName("Close gives up on a click stuck inside add() at the timeout")
+    void testCloseTimeout() throws Exception {
+        InMemoryLikeStore delegate = new InMemoryLikeStore();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LikeStore stuckLoad = new LikeStore() {
+            @Override
+            public void persist(Map<String, Long> deltas) throws Exception {
+                delegate.persist(deltas);
+            }
+
+            @Override
+            public long load(String pageId) throws Exception {
+                if (pageId.equals("stuck")) {
+                    loading.countDown();
+                    release.await();
+                }
+                return delegate.load(pageId);
+            }
+        };
+        LikeCounterService service = new LikeCounterService(stuckLoad, 0);
+        service.plusOne("everest");
+
+        Thread user = new Thread(() -> service.plusOne("stuck"));
+        user.start();
+        loading.await();
+
+        long begin = System.nanoTime();
+        service.close(Duration.ofMillis(200));
+        assertTrue(System.nanoTime() - begin < 5_000_000_000L, "close() must not wait for the stuck click");
+        assertEquals(1, delegate.load("everest"));
+
+        release.countDown();
+        user.join();
+    }
+}
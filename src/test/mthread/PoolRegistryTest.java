@@ -0,0 +1,116 @@
+package mthread;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import mthread.MonitoredExecutor.PoolStats;
+
+/**
+ * Unit tests for PoolRegistry, MonitoredExecutor and NamedThreadFactory
+ */
+class PoolRegistryTest {
+
+    @Test
+    @DisplayName("Threads are named after their pool")
+    void testThreadNames() throws Exception {
+        PoolRegistry registry = new PoolRegistry();
+        MonitoredExecutor pool = registry.newFixedPool("orders", 1, 10);
+
+        String name = pool.submit(() -> Thread.currentThread().getName()).get();
+
+        assertEquals("orders-1", name);
+        registry.shutdownAll();
+    }
+
+    @Test
+    @DisplayName("Full pool reports queue depth, rejections and saturation")
+    void testSaturatedPool() throws Exception {
+        PoolRegistry registry = new PoolRegistry();
+        MonitoredExecutor busy = registry.newFixedPool("busy", 1, 2);
+        MonitoredExecutor idle = registry.newFixedPool("idle", 1, 2);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        busy.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+        busy.execute(() -> { });
+        busy.execute(() -> { });
+        assertThrows(RejectedExecutionException.class, () -> busy.execute(() -> { }));
+
+        PoolStats stats = busy.stats();
+        assertEquals(1, stats.active);
+        assertEquals(2, stats.queued);
+        assertEquals(1, stats.rejected);
+        assertTrue(stats.isSaturated());
+        assertEquals("busy", registry.snapshot().get(0).name);
+        assertFalse(idle.stats().isSaturated());
+
+        release.countDown();
+        registry.shutdownAll();
+        assertTrue(busy.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(3, busy.stats().completed);
+        assertEquals(0, busy.stats().queued);
+    }
+
+    @Test
+    @DisplayName("Submitted tasks that throw count as failed")
+    void testSubmittedFailure() throws Exception {
+        PoolRegistry registry = new PoolRegistry();
+        MonitoredExecutor pool = registry.newFixedPool("jobs", 1, 10);
+
+        java.util.concurrent.Future<?> boom = pool.submit(() -> { throw new IllegalStateException("boom"); });
+        assertThrows(java.util.concurrent.ExecutionException.class, boom::get);
+        pool.submit(() -> "ok").get();
+
+        registry.shutdownAll();
+        assertTrue(pool.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(1, pool.stats().failed);
+        assertEquals(1, pool.stats().completed);
+    }
+
+    @Test
+    @DisplayName("Virtual pool falls back to platform threads before Java 21")
+    void testVirtualPool() throws Exception {
+        PoolRegistry registry = new PoolRegistry();
+        MonitoredExecutor pool = registry.newVirtualPool("requests");
+
+        assertEquals(NamedThreadFactory.virtualThreadsSupported(), pool.stats().virtual);
+        assertTrue(pool.submit(() -> Thread.currentThread().getName()).get().startsWith("requests-"));
+        registry.shutdownAll();
+    }
+
+    @Test
+    @DisplayName("Histogram percentiles land in the right power-of-two bucket")
+    void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+
+        assertEquals(100, histogram.count());
+        assertEquals(1023, histogram.percentileNanos(50));
+        assertEquals(1023, histogram.percentileNanos(99));
+        assertEquals((1L << 20) - 1, histogram.percentileNanos(100));
+    }
+
+    @Test
+    @DisplayName("Duplicate pool names are rejected")
+    void testDuplicateName() {
+        PoolRegistry registry = new PoolRegistry();
+        registry.newFixedPool("io", 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> registry.newFixedPool("io", 1, 1));
+        registry.shutdownAll();
+    }
+}
@@ -0,0 +1,98 @@
+package mthread;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mthread.ShutdownCoordinator.Phase;
+import mthread.ShutdownCoordinator.Result;
+import mthread.ShutdownCoordinator.Status;
+
+/**
+ * Unit tests for ShutdownCoordinator
+ */
+class ShutdownCoordinatorTest {
+
+    @Test
+    @DisplayName("Phases run in order")
+    void testPhaseOrder() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        ShutdownCoordinator coordinator = new ShutdownCoordinator(Duration.ofSeconds(1), Duration.ofSeconds(10));
+        coordinator.register(Phase.CLOSE_POOLS, "pool", r -> order.add("pool"));
+        coordinator.register(Phase.FLUSH_WRITERS, "writer", r -> order.add("writer"));
+        coordinator.register(Phase.STOP_INTAKE, "intake", r -> order.add("intake"));
+        coordinator.register(Phase.DRAIN_QUEUES, "queue", r -> order.add("queue"));
+
+        List<Result> results = coordinator.shutdown();
+
+        assertEquals(List.of("intake", "queue", "writer", "pool"), order);
+        assertTrue(results.stream().allMatch(r -> r.status == Status.OK));
+    }
+
+    @Test
+    @DisplayName("Executor queue is drained before writers are flushed")
+    void testExecutorIsDrained() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        InMemoryLikeStore store = new InMemoryLikeStore();
+        LikeCounterService likes = new LikeCounterService(store, 0);
+        for (int i = 0; i < 200; i++) {
+            workers.submit(() -> {
+                Thread.sleep(1);
+                likes.plusOne("everest");
+                return null;
+            });
+        }
+
+        ShutdownCoordinator coordinator = new ShutdownCoordinator(Duration.ofSeconds(5), Duration.ofSeconds(30));
+        coordinator.registerExecutor("workers", workers);
+        coordinator.registerCloseable(Phase.FLUSH_WRITERS, "likes", likes);
+        List<Result> results = coordinator.shutdown();
+
+        assertTrue(results.stream().allMatch(r -> r.status == Status.OK), results.toString());
+        assertEquals(200, store.load("everest"));
+    }
+
+    @Test
+    @DisplayName("Stuck task times out and later phases still run")
+    void testPhaseDeadline() {
+        AtomicInteger closed = new AtomicInteger();
+        ShutdownCoordinator coordinator = new ShutdownCoordinator(Duration.ofMillis(100), Duration.ofSeconds(10));
+        coordinator.register(Phase.FLUSH_WRITERS, "stuck", r -> new CountDownLatch(1).await());
+        coordinator.register(Phase.FLUSH_WRITERS, "broken", r -> {
+            throw new IllegalStateException("disk full");
+        });
+        coordinator.register(Phase.CLOSE_POOLS, "pool", r -> closed.incrementAndGet());
+
+        List<Result> results = coordinator.shutdown();
+
+        assertEquals(Status.TIMED_OUT, results.get(0).status);
+        assertEquals(Status.FAILED, results.get(1).status);
+        assertEquals(Status.OK, results.get(2).status);
+        assertEquals(1, closed.get());
+        // each task reports its own run time, not the wait for the ones before it
+        assertTrue(results.get(0).millis >= 100, results.get(0).toString());
+        assertTrue(results.get(1).millis < 100, results.get(1).toString());
+    }
+
+    @Test
+    @DisplayName("Watchdog fires when the whole shutdown is too slow")
+    void testWatchdog() {
+        CountDownLatch fired = new CountDownLatch(1);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator(Duration.ofMillis(300), Duration.ofMillis(100))
+                .onWatchdogTimeout(fired::countDown);
+        coordinator.register(Phase.DRAIN_QUEUES, "slow", r -> Thread.sleep(250));
+
+        coordinator.shutdown();
+
+        assertEquals(0, fired.getCount());
+        assertThrows(IllegalStateException.class, () -> coordinator.register(Phase.STOP_INTAKE, "late", r -> { }));
+    }
+}
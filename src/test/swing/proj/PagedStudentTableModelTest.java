@@ -0,0 +1,199 @@
+package swing.proj;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Unit tests for PagedStudentTableModel
+ */
+class PagedStudentTableModelTest {
+
+    private static final int STUDENTS = 1_000_000;
+
+    /* Counts how often the source is hit. */
+    private static class CountingSource extends GeneratedStudentSource {
+        final AtomicInteger loads = new AtomicInteger();
+
+        CountingSource(int rows, long latencyMillis) {
+            super(rows, latencyMillis);
+        }
+
+        @Override
+        public Object[][] load(int from, int length) throws InterruptedException {
+            loads.incrementAndGet();
+            return super.load(from, length);
+        }
+    }
+
+    private static <T> T onEdt(java.util.concurrent.Callable<T> call) throws Exception {
+        Object[] result = new Object[1];
+        Exception[] error = new Exception[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result[0] = call.call();
+            } catch (Exception e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) result[0];
+        return t;
+    }
+
+    /* Wait until the row's block has been delivered to the EDT. */
+    private static void awaitLoaded(PagedStudentTableModel model, int row) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!onEdt(() -> model.isLoaded(row))) {
+            assertTrue(System.currentTimeMillis() < deadline, "row " + row + " not loaded");
+            Thread.sleep(5);
+        }
+    }
+
+    private static PagedStudentTableModel refreshed(StudentSource source) throws Exception {
+        PagedStudentTableModel model = new PagedStudentTableModel(source);
+        model.refresh().get();
+        // done() runs on the EDT after get() returns
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (onEdt(model::getRowCount) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        return model;
+    }
+
+    @Test
+    @DisplayName("Rows are counted without loading any of them")
+    void testRefresh() throws Exception {
+        CountingSource source = new CountingSource(STUDENTS, 0);
+        PagedStudentTableModel model = refreshed(source);
+
+        assertEquals(STUDENTS, (int) onEdt(model::getRowCount));
+        assertEquals(7, (int) onEdt(model::getColumnCount));
+        assertEquals("Roll No", onEdt(() -> model.getColumnName(0)));
+        assertEquals(0, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("Unloaded rows show a placeholder and are filled in by the background load")
+    void testPlaceholderThenRow() throws Exception {
+        PagedStudentTableModel model = refreshed(new CountingSource(STUDENTS, 50));
+        int row = 500_000;
+
+        assertEquals(PagedStudentTableModel.LOADING, onEdt(() -> model.getValueAt(row, 1)));
+        awaitLoaded(model, row);
+        assertEquals(GeneratedStudentSource.row(row)[1], onEdt(() -> model.getValueAt(row, 1)));
+        assertEquals(row + 1, onEdt(() -> model.getValueAt(row, 0)));
+    }
+
+    @Test
+    @DisplayName("Rows missing from a short block are empty, not an error")
+    void testShortBlock() throws Exception {
+        // students deleted after count(): the last block comes back short
+        CountingSource source = new CountingSource(1000, 0) {
+            @Override
+            public Object[][] load(int from, int length) throws InterruptedException {
+                return super.load(from, Math.max(0, Math.min(length, 900 - from)));
+            }
+        };
+        PagedStudentTableModel model = refreshed(source);
+        int row = 950;
+
+        onEdt(() -> model.getValueAt(row, 0));
+        awaitLoaded(model, row);
+        assertNull(onEdt(() -> model.getValueAt(row, 0)));
+        assertEquals(900, onEdt(() -> model.getValueAt(899, 0)));
+    }
+
+    @Test
+    @DisplayName("Neighbouring blocks are prefetched")
+    void testPrefetch() throws Exception {
+        PagedStudentTableModel model = refreshed(new CountingSource(STUDENTS, 0));
+        int row = 10 * PagedStudentTableModel.BLOCK_SIZE + 5;
+
+        onEdt(() -> model.getValueAt(row, 0));
+        awaitLoaded(model, row);
+        awaitLoaded(model, row + PagedStudentTableModel.BLOCK_SIZE);
+        awaitLoaded(model, row - PagedStudentTableModel.BLOCK_SIZE);
+    }
+
+    @Test
+    @DisplayName("Scrolling through 1M rows keeps the block cache bounded")
+    void testScrollBounded() throws Exception {
+        CountingSource source = new CountingSource(STUDENTS, 0);
+        PagedStudentTableModel model = refreshed(source);
+
+        int step = 20 * PagedStudentTableModel.BLOCK_SIZE;
+        for (int row = 0; row < STUDENTS; row += step) {
+            int r = row;
+            onEdt(() -> model.getValueAt(r, 0));
+            awaitLoaded(model, r);
+            assertTrue(onEdt(model::cachedBlocks) <= PagedStudentTableModel.MAX_BLOCKS);
+        }
+        int blocks = STUDENTS / PagedStudentTableModel.BLOCK_SIZE;
+        assertTrue(source.loads.get() < blocks / 5, source.loads.get() + " loads");
+    }
+
+    @Test
+    @DisplayName("Cached rows do not go back to the source")
+    void testCacheHit() throws Exception {
+        CountingSource source = new CountingSource(STUDENTS, 0);
+        PagedStudentTableModel model = refreshed(source);
+
+        onEdt(() -> model.getValueAt(0, 0));
+        awaitLoaded(model, 0);
+        awaitLoaded(model, PagedStudentTableModel.BLOCK_SIZE);
+        int loads = source.loads.get();
+        for (int row = 0; row < PagedStudentTableModel.BLOCK_SIZE; row++) {
+            int r = row;
+            assertNotEquals(PagedStudentTableModel.LOADING, onEdt(() -> model.getValueAt(r, 1)));
+        }
+        assertEquals(loads, source.loads.get());
+    }
+
+    @Test
+    @DisplayName("A row map shows the selected source rows in its order")
+    void testRowMap() throws Exception {
+        PagedStudentTableModel model = refreshed(new CountingSource(STUDENTS, 0));
+        int[] rows = { 999_999, 5, 123_456 };
+
+        onEdt(() -> {
+            model.setRowMap(rows);
+            return null;
+        });
+        assertEquals(3, (int) onEdt(model::getRowCount));
+        onEdt(() -> model.getValueAt(0, 0));
+        awaitLoaded(model, 0);
+        assertEquals(1_000_000, onEdt(() -> model.getValueAt(0, 0)));
+        assertEquals(6, onEdt(() -> model.getValueAt(1, 0)));
+        assertEquals(123_456, (int) onEdt(() -> model.sourceRow(2)));
+
+        onEdt(() -> {
+            model.setRowMap(null);
+            return null;
+        });
+        assertEquals(STUDENTS, (int) onEdt(model::getRowCount));
+    }
+
+    @Test
+    @DisplayName("Mapped rows are read with one query per run of nearby rows")
+    void testBatchedRowLoad() throws Exception {
+        CountingSource source = new CountingSource(STUDENTS, 0);
+        int[] rows = { 40, 999_999, 3, 10, 500_000, 12, 3 };
+
+        Object[][] block = source.load(rows);
+
+        assertEquals(4, source.loads.get());
+        for (int i = 0; i < rows.length; i++) {
+            assertArrayEquals(GeneratedStudentSource.row(rows[i]), block[i]);
+        }
+        assertEquals(0, source.load(new int[] { STUDENTS + 5 })[0].length);
+    }
+}
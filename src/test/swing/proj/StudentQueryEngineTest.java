@@ -0,0 +1,181 @@
+package swing.proj;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for StudentQueryEngine
+ */
+class StudentQueryEngineTest {
+
+    private static final int STUDENTS = 200_000;
+
+    private final List<StudentQueryEngine.Result> published = Collections.synchronizedList(new ArrayList<>());
+    private StudentQueryEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Publish on the worker thread so the test does not need the EDT
+        engine = new StudentQueryEngine(new GeneratedStudentSource(STUDENTS), published::add, Runnable::run);
+        engine.load().get();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    private StudentQueryEngine.Result query(String filter, int column, boolean ascending) throws Exception {
+        engine.query(filter, column, ascending).get();
+        return published.get(published.size() - 1);
+    }
+
+    private static boolean matches(int row, String filter) {
+        for (Object value : GeneratedStudentSource.row(row)) {
+            if (value.toString().toLowerCase().contains(filter.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Filter matches any column ignoring case")
+    void testFilter() throws Exception {
+        StudentQueryEngine.Result result = query("sita thapa", -1, true);
+        assertTrue(result.rows.length > 0);
+        int expected = 0;
+        for (int row = 0; row < STUDENTS; row++) {
+            if (matches(row, "sita thapa")) {
+                expected++;
+            }
+        }
+        assertEquals(expected, result.rows.length);
+        for (int i = 1; i < result.rows.length; i++) {
+            assertTrue(result.rows[i - 1] < result.rows[i], "source order");
+        }
+    }
+
+    @Test
+    @DisplayName("Sorting uses the column index, ascending and descending")
+    void testSort() throws Exception {
+        int name = 1;
+        StudentQueryEngine.Result asc = query("", name, true);
+        assertEquals(STUDENTS, asc.rows.length);
+        for (int i = 1; i < asc.rows.length; i++) {
+            String a = (String) GeneratedStudentSource.row(asc.rows[i - 1])[name];
+            String b = (String) GeneratedStudentSource.row(asc.rows[i])[name];
+            assertTrue(a.compareTo(b) <= 0);
+            if (a.equals(b)) {
+                assertTrue(asc.rows[i - 1] < asc.rows[i], "stable");
+            }
+        }
+
+        StudentQueryEngine.Result desc = query("", name, false);
+        for (int i = 1; i < desc.rows.length; i++) {
+            String a = (String) GeneratedStudentSource.row(desc.rows[i - 1])[name];
+            String b = (String) GeneratedStudentSource.row(desc.rows[i])[name];
+            assertTrue(a.compareTo(b) >= 0);
+            if (a.equals(b)) {
+                assertTrue(desc.rows[i - 1] < desc.rows[i], "stable descending");
+            }
+        }
+
+        StudentQueryEngine.Result byRoll = query("", 0, false);
+        assertEquals(STUDENTS - 1, byRoll.rows[0]);
+    }
+
+    @Test
+    @DisplayName("Typing more of the search only re-checks the previous matches")
+    void testIncrementalFilter() throws Exception {
+        query("s", 3, true);
+        long checked = engine.rowsChecked();
+        StudentQueryEngine.Result narrowed = query("sc", 3, true);
+        long extra = engine.rowsChecked() - checked;
+        assertTrue(extra < STUDENTS, extra + " rows checked");
+
+        int expected = 0;
+        for (int row = 0; row < STUDENTS; row++) {
+            if (matches(row, "sc")) {
+                expected++;
+            }
+        }
+        assertEquals(expected, narrowed.rows.length);
+    }
+
+    @Test
+    @DisplayName("Re-sorting the same search does not re-match rows")
+    void testResortKeepsMatches() throws Exception {
+        StudentQueryEngine.Result byName = query("gita", 1, true);
+        long checked = engine.rowsChecked();
+        StudentQueryEngine.Result byDate = query("gita", 4, true);
+        assertEquals(checked, engine.rowsChecked());
+        assertEquals(byName.rows.length, byDate.rows.length);
+        for (int i = 1; i < byDate.rows.length; i++) {
+            String a = (String) GeneratedStudentSource.row(byDate.rows[i - 1])[4];
+            String b = (String) GeneratedStudentSource.row(byDate.rows[i])[4];
+            assertTrue(a.compareTo(b) <= 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Only the newest of a burst of queries is published")
+    void testSupersededQueries() throws Exception {
+        published.clear();
+        String text = "management";
+        for (int i = 1; i <= text.length(); i++) {
+            engine.query(text.substring(0, i), 2, i % 2 == 0);
+        }
+        engine.query(text, 1, true).get();
+        assertEquals(1, published.size());
+        assertEquals(text, published.get(0).filter);
+        assertEquals(1, published.get(0).sortColumn);
+    }
+
+    @Test
+    @DisplayName("Loaded engine serves table rows from memory")
+    void testSource() throws Exception {
+        assertEquals(STUDENTS, engine.count());
+        Object[][] rows = engine.load(new int[] { 7, 3 });
+        assertArrayEquals(GeneratedStudentSource.row(7), rows[0]);
+        assertArrayEquals(GeneratedStudentSource.row(3), rows[1]);
+        assertArrayEquals(GeneratedStudentSource.row(STUDENTS - 1), engine.load(STUDENTS - 1, 10)[0]);
+    }
+
+    @Test
+    @DisplayName("A failed load is reported, and so are queries after it")
+    void testLoadFailure() throws Exception {
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        StudentSource broken = new GeneratedStudentSource(10) {
+            @Override
+            public int count() {
+                throw new IllegalStateException("database down");
+            }
+        };
+        StudentQueryEngine.Listener listener = new StudentQueryEngine.Listener() {
+            @Override
+            public void published(StudentQueryEngine.Result result) {
+                fail("nothing is loaded");
+            }
+
+            @Override
+            public void failed(Exception error) {
+                failures.add(error);
+            }
+        };
+        try (StudentQueryEngine failing = new StudentQueryEngine(broken, listener, Runnable::run)) {
+            assertThrows(java.util.concurrent.ExecutionException.class, () -> failing.load().get());
+            failing.query("x", -1, true).get();
+            assertEquals(2, failures.size());
+            assertEquals("database down", failures.get(1).getMessage());
+            assertFalse(failing.isLoaded());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import util.expr.CompiledExpression;
+import util.expr.ExpressionException;
+import util.expr.Expressions;
+import util.expr.Node;
+
+/**
+ * Unit tests for the util.expr expression engine and CalculatorConsole
+ */
+class ExpressionsTest {
+
+    @Test
+    @DisplayName("Operators follow precedence and associativity")
+    void testPrecedence() {
+        assertEquals(14.0, CalculatorConsole.expre("2+3*4"));
+        assertEquals(20.0, CalculatorConsole.expre("(2+3)*4"));
+        assertEquals(1.0, CalculatorConsole.expre("8-4-3"));
+        assertEquals(1.0, CalculatorConsole.expre("8/4/2"));
+        assertEquals(512.0, CalculatorConsole.expre("2^3^2"));
+        assertEquals(-4.0, CalculatorConsole.expre("-2^2"));
+        assertEquals(-6.0, CalculatorConsole.expre("2*-3"));
+        assertEquals(2.5, CalculatorConsole.expre(" 10 / 4 "));
+        assertEquals(1.5e3, CalculatorConsole.expre("1.5e3"));
+    }
+
+    @Test
+    @DisplayName("Old right-to-left inputs without mixed precedence still agree")
+    void testSimpleInputs() {
+        assertEquals(15.0, CalculatorConsole.expre("10+5"));
+        assertEquals(42.0, CalculatorConsole.expre("42"));
+        assertEquals(50.0, CalculatorConsole.expre("10*5"));
+    }
+
+    @Test
+    @DisplayName("Variables are numbered in order of first use")
+    void testVariables() {
+        CompiledExpression price = Expressions.compile("base * (1 + tax) - discount + base * 0");
+
+        assertEquals(List.of("base", "tax", "discount"), price.variables());
+        double[] vars = { 100, 0.2, 5 };
+        assertEquals(115.0, price.evaluate(vars), 1e-9);
+        assertEquals(115.0, price.evaluate(Map.of("base", 100, "tax", 0.2, "discount", 5)), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> price.evaluate(new double[1]));
+    }
+
+    @Test
+    @DisplayName("Constant subtrees are folded")
+    void testConstantFolding() {
+        CompiledExpression constant = Expressions.compile("2 * (3 + 4) - sqrt(16)");
+        assertTrue(constant.isConstant());
+        assertEquals(10.0, constant.evaluate());
+
+        Node ast = Expressions.compile("x * (60 * 60)").ast();
+        assertEquals(new Node.Binary('*', new Node.Var("x", 0), new Node.Num(3600)), ast);
+    }
+
+    @Test
+    @DisplayName("Functions are evaluated")
+    void testFunctions() {
+        CompiledExpression f = Expressions.compile("max(a, b) + abs(-a) + pow(b, 2)");
+        assertEquals(3 + 1 + 9, f.evaluate(new double[] { 1, 3 }), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Compiled expressions are cached by text")
+    void testCache() {
+        assertSame(Expressions.compile("a + b * 2"), Expressions.compile("a + b * 2"));
+    }
+
+    @Test
+    @DisplayName("Syntax errors report their position")
+    void testErrors() {
+        ExpressionException e = assertThrows(ExpressionException.class, () -> Expressions.compile("2 + * 3"));
+        assertEquals(4, e.getPosition());
+        assertThrows(ExpressionException.class, () -> Expressions.compile("(1 + 2"));
+        assertThrows(ExpressionException.class, () -> Expressions.compile("foo(1)"));
+        assertThrows(ExpressionException.class, () -> Expressions.compile("1 2"));
+        assertThrows(ExpressionException.class, () -> Expressions.compile(""));
+    }
+
+    @Test
+    @DisplayName("Deep nesting is an ExpressionException, not a StackOverflowError")
+    void testNestingLimit() {
+        int limit = util.expr.ExpressionParser.MAX_DEPTH;
+        String deep = "(".repeat(100_000) + "1" + ")".repeat(100_000);
+        assertThrows(ExpressionException.class, () -> Expressions.compile(deep));
+        assertThrows(ExpressionException.class, () -> Expressions.compile("-".repeat(100_000) + "1"));
+        assertThrows(ExpressionException.class, () -> Expressions.compile("x" + "+x".repeat(100_000)));
+
+        assertEquals(1.0, CalculatorConsole.expre("(".repeat(limit - 1) + "1" + ")".repeat(limit - 1)));
+        assertEquals(100_001.0, CalculatorConsole.expre("1" + "+1".repeat(100_000)));
+        assertEquals(100.0, Expressions.compile("x" + "+x".repeat(99)).evaluate(new double[] { 1 }));
+    }
+
+    @Test
+    @DisplayName("Bytecode tier computes the same values as the interpreter")
+    void testBytecodeTier() {
+        String[] formulas = {
+            "a * (1 + b) ^ c - d / 4 % 3",
+            "-a + max(b, c) * sqrt(abs(d)) - pow(a, 2)",
+            "exp(log(a)) + sin(b) * cos(c) / tan(d) + min(a, 0.5)",
+            "v0+v1+v2+v3+v4+v5+v6+v7*1.5"
+        };
+        double[] vars = { 1.5, 0.25, 3, -7, 2, 3, 4, 5 };
+        for (String formula : formulas) {
+            CompiledExpression e = Expressions.compile(formula);
+            double expected = e.interpreter().evaluate(vars);
+            assertTrue(e.compileToBytecode(), formula);
+            assertTrue(e.isBytecodeCompiled());
+            assertEquals(expected, e.evaluate(vars), 0.0, formula);
+        }
+    }
+
+    @Test
+    @DisplayName("Hot expressions switch to bytecode after the threshold")
+    void testHotExpressionIsCompiled() {
+        CompiledExpression e = Expressions.compile("x * 2 + 1");
+        double[] vars = new double[1];
+        for (int i = 0; i < 20_000; i++) {
+            vars[0] = i;
+            assertEquals(i * 2 + 1, e.evaluate(vars));
+        }
+        assertTrue(e.isBytecodeCompiled());
+        assertFalse(Expressions.compile("7 * 6").isBytecodeCompiled());
+    }
+
+    @Test
+    @DisplayName("Column evaluation matches row by row evaluation")
+    void testEvaluateColumns() {
+        CompiledExpression e = Expressions.compile("-(price * qty) * (1 + tax) - 2 / qty + max(price, qty) ^ 2 % 7 + abs(tax)");
+        int rows = 100_003;
+        double[][] columns = new double[3][rows];
+        for (int i = 0; i < rows; i++) {
+            columns[0][i] = i * 0.01;
+            columns[1][i] = 1 + i % 17;
+            columns[2][i] = (i % 5) / 10.0;
+        }
+
+        double[] sequential = e.evaluateColumns(columns);
+        double[] parallel = new double[rows];
+        e.evaluateColumns(columns, parallel, new ForkJoinPool(4));
+
+        double[] row = new double[3];
+        for (int i = 0; i < rows; i++) {
+            row[0] = columns[0][i];
+            row[1] = columns[1][i];
+            row[2] = columns[2][i];
+            double expected = e.interpreter().evaluate(row);
+            assertEquals(expected, sequential[i], 0.0);
+            assertEquals(expected, parallel[i], 0.0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> e.evaluateColumns(new double[][] { new double[2], new double[3], new double[2] }));
+    }
+}
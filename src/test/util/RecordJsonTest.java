@@ -0,0 +1,133 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import util.json.JsonWriter;
+import util.json.RecordJson;
+
+/**
+ * Unit tests for util.json.RecordJson and JsonWriter
+ */
+class RecordJsonTest {
+
+    enum Level { LOW, HIGH }
+
+    record Point(int x, int y) {
+    }
+
+    record Sample(String name, long count, double ratio, float weight, boolean active, char grade, short small,
+            Level level, LocalDate day, Optional<String> note, int[] values, List<Point> points, Map<String, Object> extra) {
+    }
+
+    record Node(String name, Node next) {
+    }
+
+    @Test
+    @DisplayName("Every component kind is written in declaration order")
+    void testComponents() {
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("a", 1);
+        extra.put("b", null);
+        Sample s = new Sample("x", 1L << 40, 0.25, 1.5f, true, 'A', (short) -3, Level.HIGH, LocalDate.of(2024, 2, 29),
+                Optional.empty(), new int[] { 1, 2 }, List.of(new Point(1, -2)), extra);
+        assertEquals("{\"name\":\"x\",\"count\":1099511627776,\"ratio\":0.25,\"weight\":1.5,\"active\":true,\"grade\":\"A\","
+                + "\"small\":-3,\"level\":\"HIGH\",\"day\":\"2024-02-29\",\"note\":null,\"values\":[1,2],"
+                + "\"points\":[{\"x\":1,\"y\":-2}],\"extra\":{\"a\":1,\"b\":null}}", RecordJson.toJson(s));
+    }
+
+    record Reading(float value, Float boxed, float[] series) {
+    }
+
+    @Test
+    @DisplayName("Floats are written with their own shortest digits")
+    void testFloats() {
+        assertEquals("{\"value\":1.1,\"boxed\":0.1,\"series\":[3.3,2.0,1.0E-10]}",
+                RecordJson.toJson(new Reading(1.1f, 0.1f, new float[] { 3.3f, 2f, 1e-10f })));
+        assertEquals("[1.1]", RecordJson.toJson(List.of(1.1f)));
+    }
+
+    @Test
+    @DisplayName("Nested and self-referencing records")
+    void testNested() {
+        Node list = new Node("a", new Node("b", null));
+        assertEquals("{\"name\":\"a\",\"next\":{\"name\":\"b\",\"next\":null}}", RecordJson.toJson(list));
+        assertEquals("[{\"x\":0,\"y\":0},null]", RecordJson.toJson(new Object[] { new Point(0, 0), null }));
+    }
+
+    @Test
+    @DisplayName("Strings are escaped and encoded as UTF-8")
+    void testStrings() {
+        String text = "q\" b\\ n\n t\t c\u0001 é 日本 😀";
+        String json = RecordJson.toJson(new Node(text, null));
+        assertEquals("{\"name\":\"q\\\" b\\\\ n\\n t\\t c\\u0001 é 日本 😀\",\"next\":null}", json);
+    }
+
+    @Test
+    @DisplayName("Long strings with surrogate pairs across buffer chunks")
+    void testLongStrings() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append(i % 7 == 0 ? "😀" : i % 5 == 0 ? "\"" : "ab");
+        }
+        text.append('\uD800'); // unpaired
+        for (int size : new int[] { 64, 67, 100, 8192 }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonWriter json = new JsonWriter(out, size);
+            json.beginArray().value(text).value(text.toString()).endArray();
+            json.flush();
+            String expected = "\"" + text.toString().replace("\"", "\\\"").replace('\uD800', '?') + "\"";
+            assertEquals("[" + expected + "," + expected + "]", out.toString(StandardCharsets.UTF_8), "buffer " + size);
+        }
+    }
+
+    @Test
+    @DisplayName("Numbers: extremes, whole doubles, NaN")
+    void testNumbers() {
+        assertEquals("[-9223372036854775808,9223372036854775807,0,-7]",
+                RecordJson.toJson(List.of(Long.MIN_VALUE, Long.MAX_VALUE, 0, -7)));
+        assertEquals("[75000.0,-0.5,1.0E20,null,null]",
+                RecordJson.toJson(List.of(75000.0, -0.5, 1e20, Double.NaN, Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    @DisplayName("Output larger than the buffer arrives complete")
+    void testLargeOutput() throws Exception {
+        List<Point> points = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            points.add(new Point(i, -i));
+            expected.append(i == 0 ? "" : ",").append("{\"x\":").append(i).append(",\"y\":").append(-i).append('}');
+        }
+        expected.append(']');
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter json = new JsonWriter(out, 64);
+        RecordJson.write(json, points);
+        json.flush();
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("JsonWriter inserts commas and rejects unbalanced ends")
+    void testWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject().name("a").beginArray().value(1).value("s").nullValue().endArray()
+                .name("b").beginObject().endObject().name("c").value(false).endObject();
+        json.flush();
+        assertEquals("{\"a\":[1,\"s\",null],\"b\":{},\"c\":false}", out.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, json::endArray);
+        JsonWriter half = new JsonWriter(new ByteArrayOutputStream()).beginObject().name("x");
+        assertThrows(IllegalStateException.class, half::endObject);
+    }
+}
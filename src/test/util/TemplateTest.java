@@ -0,0 +1,102 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import util.template.Template;
+import util.template.TemplateException;
+
+/**
+ * Unit tests for util.template.Template
+ */
+class TemplateTest {
+
+    private static final Template PAGE = Template.html("<title>{{title}}</title><h1>{{ title }}</h1><div>{{{body}}}</div>");
+
+    @Test
+    @DisplayName("Slots are named in order of first use and repeated slots share a value")
+    void testSlots() {
+        assertEquals(List.of("title", "body"), PAGE.slots());
+        assertEquals("<title>T</title><h1>T</h1><div><p>b</p></div>", PAGE.render("T", "<p>b</p>"));
+        assertEquals("no slots", Template.text("no slots").render());
+    }
+
+    @Test
+    @DisplayName("HTML escaping for {{}} only, text templates never escape")
+    void testEscaping() {
+        assertEquals("<title>Fish &amp; &lt;Chips&gt; &quot;&#39;</title><h1>Fish &amp; &lt;Chips&gt; &quot;&#39;</h1><div><b>&</b></div>",
+                PAGE.render("Fish & <Chips> \"'", "<b>&</b>"));
+        assertEquals("a <b> & c", Template.text("a {{x}} & c").render("<b>"));
+    }
+
+    @Test
+    @DisplayName("Values by name, numbers, null")
+    void testValues() {
+        Template t = Template.text("{{name}} is {{age}}, {{score}}{{missing}}.");
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Ram");
+        values.put("age", 30);
+        values.put("score", 1.5);
+        values.put("missing", null);
+        assertEquals("Ram is 30, 1.5.", t.render(values));
+        values.remove("missing");
+        assertThrows(IllegalArgumentException.class, () -> t.render(values));
+        assertThrows(IllegalArgumentException.class, () -> t.render("Ram"));
+    }
+
+    @Test
+    @DisplayName("renderTo, writeTo and encodeTo give the same text as render")
+    void testOutputs() throws Exception {
+        Object[] values = { "Straße & 😀 <日本>", "<i>ü</i>" };
+        String expected = PAGE.render(values);
+
+        StringBuilder sb = new StringBuilder("x");
+        assertEquals("x" + expected, PAGE.renderTo(sb, values).toString());
+
+        StringWriter writer = new StringWriter();
+        PAGE.writeTo(writer, values);
+        assertEquals(expected, writer.toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        PAGE.encodeTo(buffer, values);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    @DisplayName("Parse errors report their position")
+    void testErrors() {
+        TemplateException e = assertThrows(TemplateException.class, () -> Template.html("ab {{name"));
+        assertEquals(3, e.getPosition());
+        assertThrows(TemplateException.class, () -> Template.html("{{}}"));
+        assertThrows(TemplateException.class, () -> Template.html("{{a b}}"));
+        assertThrows(TemplateException.class, () -> Template.html("{{{raw}}"));
+    }
+
+    @Test
+    @DisplayName("A render inside a value's toString does not clear the outer render")
+    void testNestedRender() throws Exception {
+        Template inner = Template.text("[{{x}}]");
+        Template outer = Template.text("A{{a}}B{{b}}C");
+        Object lazy = new Object() {
+            @Override
+            public String toString() {
+                return inner.render("in");
+            }
+        };
+
+        assertEquals("AfirstB[in]C", outer.render("first", lazy));
+        StringWriter writer = new StringWriter();
+        outer.writeTo(writer, "first", lazy);
+        assertEquals("AfirstB[in]C", writer.toString());
+        assertEquals("AxB[in]C", outer.render("x", lazy));
+    }
+}
@@ -2,8 +2,11 @@ package util;
 
 import java.util.Scanner;
 
+import util.expr.Expressions;
+
 /**
- * Sample Calculator without precedence check.
+ * Sample Calculator. Expressions are parsed once by util.expr and follow the usual
+ * precedence: 2+3*4 = 14, (2+3)*4 = 20, 2^3^2 = 512.
  * 
  * @author ojhay
  * 
@@ -24,47 +27,20 @@ public class CalculatorConsole {
 				break;
 			}
 
-			double result = expre( expression );
-			System.out.println( expression + "= " + result );
+			try {
+				double result = expre( expression );
+				System.out.println( expression + "= " + result );
+			} catch ( IllegalArgumentException e ) {
+				System.out.println( "Invalid expression: " + e.getMessage( ) );
+			}
 
 		}
 		sc.close( );
 	}
 
-	// Recursive method to evaluate arithmetic expression.
+	// Evaluate arithmetic expression with precedence, e.g. 2+3*4 = 14.
 	public static double expre( String expre ) {
-
-		if ( ! ( expre.contains( "+" ) || expre.contains( "-" ) || expre.contains( "*" ) || expre.contains( "/" ) ) ) {
-			return Integer.valueOf( expre );
-		}
-
-		double result = 0;
-		for ( int i = 0; i < expre.length( ); i++ ) {
-
-			char symbol = expre.charAt( i );
-			if ( !Character.isDigit( symbol ) ) { // Symbol
-
-				double operand1 = Integer.parseInt( expre.substring( 0, i ) );
-
-				switch ( symbol ) {
-				case '+':
-					result = operand1 + expre( expre.substring( i + 1 ) );
-					break;
-				case '-':
-					result = operand1 - expre( expre.substring( i + 1 ) );
-					break;
-				case '*':
-					result = operand1 * expre( expre.substring( i + 1 ) );
-					break;
-				case '/':
-					result = operand1 / expre( expre.substring( i + 1 ) );
-					break;
-				}
-
-				break;
-			}
-		}
-		return result;
+		return Expressions.compile( expre ).evaluate( );
 	}
 
 }
@@ -0,0 +1,263 @@
+package util.expr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Second tier of the expression engine: writes the AST out as the bytecode of a
+ * class implementing Evaluator and loads it with Lookup.defineHiddenClass().
+ *
+ * "a * (1 + b)" becomes the method body
+ *
+ * <pre>
+ * aload_1 iconst_0 daload  dconst_1 aload_1 iconst_1 daload  dadd  dmul  dreturn
+ * </pre>
+ *
+ * so the JIT sees one flat method instead of a tree of lambdas. Expressions have no
+ * branches, which keeps the class file simple: no stack map frames are needed.
+ * Hidden classes are not registered with a class loader and are unloaded once the
+ * expression is garbage.
+ *
+ * CompiledExpression uses this after COMPILE_THRESHOLD evaluations, set with
+ * -Dutil.expr.compileThreshold (negative turns the tier off).
+ */
+final class BytecodeCompiler {
+
+	static final int				COMPILE_THRESHOLD	= Integer.getInteger( "util.expr.compileThreshold", 10_000 );
+
+	private static final String		CLASS_NAME			= "util/expr/GeneratedEvaluator";
+	private static final int		MAX_CODE_LENGTH		= 65_535;
+
+	private final Map<String, Integer>	constants	= new HashMap<>( );
+	private final ByteArrayOutputStream	poolBytes	= new ByteArrayOutputStream( );
+	private final DataOutputStream		pool		= new DataOutputStream( poolBytes );
+	private int							poolCount	= 1;
+
+	private final ByteArrayOutputStream	codeBytes	= new ByteArrayOutputStream( );
+	private final DataOutputStream		code		= new DataOutputStream( codeBytes );
+
+	private BytecodeCompiler( ) {
+	}
+
+	/* Load the AST as a hidden class. Throws if the expression is too large for one method. */
+	static Evaluator compile( Node ast ) {
+		try {
+			byte[] bytes = new BytecodeCompiler( ).classFile( ast );
+			MethodHandles.Lookup lookup = MethodHandles.lookup( ).defineHiddenClass( bytes, true );
+			return (Evaluator) lookup.findConstructor( lookup.lookupClass( ), MethodType.methodType( void.class ) ).invoke( );
+		} catch ( RuntimeException | Error e ) {
+			throw e;
+		} catch ( Throwable e ) {
+			throw new IllegalStateException( "Could not load generated evaluator", e );
+		}
+	}
+
+	private byte[] classFile( Node ast ) throws IOException {
+		int thisClass = classRef( CLASS_NAME );
+		int superClass = classRef( "java/lang/Object" );
+		int evaluator = classRef( "util/expr/Evaluator" );
+		int objectInit = methodRef( "java/lang/Object", "<init>", "()V" );
+		int codeAttr = utf8( "Code" );
+
+		// Constructor: super(); return;
+		byte[] init = { 0x2a, (byte) 0xb7, (byte) ( objectInit >> 8 ), (byte) objectInit, (byte) 0xb1 };
+
+		// evaluate(double[]): expression then dreturn
+		emit( ast );
+		code.writeByte( 0xaf ); // dreturn
+		byte[] body = codeBytes.toByteArray( );
+		if ( body.length > MAX_CODE_LENGTH ) {
+			throw new IllegalArgumentException( "Expression too large for bytecode: " + body.length + " bytes" );
+		}
+
+		int initName = utf8( "<init>" );
+		int initDesc = utf8( "()V" );
+		int evalName = utf8( "evaluate" );
+		int evalDesc = utf8( "([D)D" );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream( );
+		DataOutputStream cls = new DataOutputStream( out );
+		cls.writeInt( 0xCAFEBABE );
+		cls.writeShort( 0 );
+		cls.writeShort( 61 ); // Java 17
+		cls.writeShort( poolCount );
+		cls.write( poolBytes.toByteArray( ) );
+		cls.writeShort( 0x0031 ); // public final super
+		cls.writeShort( thisClass );
+		cls.writeShort( superClass );
+		cls.writeShort( 1 );
+		cls.writeShort( evaluator );
+		cls.writeShort( 0 ); // fields
+		cls.writeShort( 2 ); // methods
+		method( cls, initName, initDesc, codeAttr, 1, 1, init );
+		method( cls, evalName, evalDesc, codeAttr, stackSize( ast ), 2, body );
+		cls.writeShort( 0 ); // attributes
+		return out.toByteArray( );
+	}
+
+	private static void method( DataOutputStream cls, int name, int desc, int codeAttr, int maxStack, int maxLocals,
+			byte[] body ) throws IOException {
+		cls.writeShort( 0x0001 ); // public
+		cls.writeShort( name );
+		cls.writeShort( desc );
+		cls.writeShort( 1 );
+		cls.writeShort( codeAttr );
+		cls.writeInt( 12 + body.length );
+		cls.writeShort( maxStack );
+		cls.writeShort( maxLocals );
+		cls.writeInt( body.length );
+		cls.write( body );
+		cls.writeShort( 0 ); // exception table
+		cls.writeShort( 0 ); // attributes
+	}
+
+	private void emit( Node node ) throws IOException {
+		if ( node instanceof Node.Num n ) {
+			double v = n.value( );
+			if ( Double.doubleToRawLongBits( v ) == 0L ) {
+				code.writeByte( 0x0e ); // dconst_0
+			} else if ( v == 1.0 ) {
+				code.writeByte( 0x0f ); // dconst_1
+			} else {
+				code.writeByte( 0x14 ); // ldc2_w
+				code.writeShort( doubleConst( v ) );
+			}
+		} else if ( node instanceof Node.Var v ) {
+			code.writeByte( 0x2b ); // aload_1
+			pushInt( v.slot( ) );
+			code.writeByte( 0x31 ); // daload
+		} else if ( node instanceof Node.Unary u ) {
+			emit( u.operand( ) );
+			code.writeByte( 0x77 ); // dneg
+		} else if ( node instanceof Node.Binary b ) {
+			emit( b.left( ) );
+			emit( b.right( ) );
+			switch ( b.op( ) ) {
+			case '+':
+				code.writeByte( 0x63 );
+				break;
+			case '-':
+				code.writeByte( 0x67 );
+				break;
+			case '*':
+				code.writeByte( 0x6b );
+				break;
+			case '/':
+				code.writeByte( 0x6f );
+				break;
+			case '%':
+				code.writeByte( 0x73 ); // drem, same as Java %
+				break;
+			case '^':
+				invokeMath( "pow", 2 );
+				break;
+			default:
+				throw new IllegalArgumentException( "Unknown operator: " + b.op( ) );
+			}
+		} else {
+			Node.Call c = (Node.Call) node;
+			emit( c.first( ) );
+			if ( c.second( ) != null ) {
+				emit( c.second( ) );
+			}
+			invokeMath( c.function( ).name( ).toLowerCase( ), c.function( ).arity( ) );
+		}
+	}
+
+	private void invokeMath( String name, int arity ) throws IOException {
+		code.writeByte( 0xb8 ); // invokestatic
+		code.writeShort( methodRef( "java/lang/Math", name, arity == 1 ? "(D)D" : "(DD)D" ) );
+	}
+
+	private void pushInt( int value ) throws IOException {
+		if ( value <= 5 ) {
+			code.writeByte( 0x03 + value ); // iconst_n
+		} else if ( value <= Byte.MAX_VALUE ) {
+			code.writeByte( 0x10 ); // bipush
+			code.writeByte( value );
+		} else if ( value <= Short.MAX_VALUE ) {
+			code.writeByte( 0x11 ); // sipush
+			code.writeShort( value );
+		} else {
+			throw new IllegalArgumentException( "Too many variables: " + value );
+		}
+	}
+
+	/* Operand stack slots needed for node; a double takes two. */
+	private static int stackSize( Node node ) {
+		if ( node instanceof Node.Unary u ) {
+			return stackSize( u.operand( ) );
+		}
+		if ( node instanceof Node.Binary b ) {
+			return Math.max( stackSize( b.left( ) ), 2 + stackSize( b.right( ) ) );
+		}
+		if ( node instanceof Node.Call c ) {
+			return c.second( ) == null ? stackSize( c.first( ) )
+					: Math.max( stackSize( c.first( ) ), 2 + stackSize( c.second( ) ) );
+		}
+		return 2;
+	}
+
+	/* Constant pool */
+
+	private int utf8( String s ) throws IOException {
+		Integer index = constants.get( "U" + s );
+		if ( index == null ) {
+			pool.writeByte( 1 );
+			pool.writeUTF( s );
+			index = poolCount++;
+			constants.put( "U" + s, index );
+		}
+		return index;
+	}
+
+	private int classRef( String internalName ) throws IOException {
+		int name = utf8( internalName );
+		Integer index = constants.get( "C" + internalName );
+		if ( index == null ) {
+			pool.writeByte( 7 );
+			pool.writeShort( name );
+			index = poolCount++;
+			constants.put( "C" + internalName, index );
+		}
+		return index;
+	}
+
+	private int methodRef( String owner, String name, String desc ) throws IOException {
+		String key = "M" + owner + "." + name + desc;
+		Integer index = constants.get( key );
+		if ( index == null ) {
+			int ownerIndex = classRef( owner );
+			int nameIndex = utf8( name );
+			int descIndex = utf8( desc );
+			pool.writeByte( 12 ); // NameAndType
+			pool.writeShort( nameIndex );
+			pool.writeShort( descIndex );
+			int nameAndType = poolCount++;
+			pool.writeByte( 10 ); // Methodref
+			pool.writeShort( ownerIndex );
+			pool.writeShort( nameAndType );
+			index = poolCount++;
+			constants.put( key, index );
+		}
+		return index;
+	}
+
+	private int doubleConst( double value ) throws IOException {
+		String key = "D" + Double.doubleToRawLongBits( value );
+		Integer index = constants.get( key );
+		if ( index == null ) {
+			pool.writeByte( 6 );
+			pool.writeDouble( value );
+			index = poolCount;
+			poolCount += 2; // doubles take two constant pool entries
+			constants.put( key, index );
+		}
+		return index;
+	}
+}
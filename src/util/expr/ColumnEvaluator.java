@@ -0,0 +1,233 @@
+package util.expr;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates an expression over whole columns instead of one row at a time.
+ *
+ * Rows are processed in chunks of CHUNK. Within a chunk the AST is walked once and
+ * every node runs a plain loop over CHUNK doubles, e.g. "a * b" becomes
+ *
+ * <pre>
+ * for ( int i = 0; i &lt; n; i++ ) r0[i] *= r1[i];
+ * </pre>
+ *
+ * which the JIT unrolls and turns into SIMD instructions. The per-node dispatch
+ * cost is paid once per chunk, not once per row. Intermediate results live in a
+ * small stack of chunk-sized registers, one per tree level, that stay in cache.
+ */
+final class ColumnEvaluator {
+
+	static final int	CHUNK		= 1024;
+
+	/* Chunks handed to one fork/join task before it stops splitting. */
+	private static final int	TASK_CHUNKS	= 16;
+
+	private final Node	ast;
+	private final int	registers;
+
+	ColumnEvaluator( Node ast ) {
+		this.ast = ast;
+		this.registers = depth( ast );
+	}
+
+	/* out[i] = expression with variable j set to columns[j][i], for i in [from, to). */
+	void evaluate( double[][] columns, double[] out, int from, int to ) {
+		double[][] regs = new double[registers][CHUNK];
+		for ( int start = from; start < to; start += CHUNK ) {
+			int n = Math.min( CHUNK, to - start );
+			eval( ast, 0, regs, columns, start, n );
+			System.arraycopy( regs[0], 0, out, start, n );
+		}
+	}
+
+	void evaluateParallel( double[][] columns, double[] out, ForkJoinPool pool ) {
+		pool.invoke( new ChunkTask( columns, out, 0, out.length ) );
+	}
+
+	private final class ChunkTask extends RecursiveAction {
+		private static final long	serialVersionUID	= 1L;
+
+		private final double[][]	columns;
+		private final double[]		out;
+		private final int			from, to;
+
+		ChunkTask( double[][] columns, double[] out, int from, int to ) {
+			this.columns = columns;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute( ) {
+			if ( to - from <= CHUNK * TASK_CHUNKS ) {
+				evaluate( columns, out, from, to );
+				return;
+			}
+			// Split on a chunk boundary so every task but the last works on full chunks.
+			int mid = from + ( ( to - from ) / 2 / CHUNK ) * CHUNK;
+			invokeAll( new ChunkTask( columns, out, from, mid ), new ChunkTask( columns, out, mid, to ) );
+		}
+	}
+
+	/* Leave the values of node for rows [start, start + n) in regs[r]. */
+	private static void eval( Node node, int r, double[][] regs, double[][] columns, int start, int n ) {
+		double[] dst = regs[r];
+
+		if ( node instanceof Node.Num num ) {
+			Arrays.fill( dst, 0, n, num.value( ) );
+
+		} else if ( node instanceof Node.Var v ) {
+			System.arraycopy( columns[v.slot( )], start, dst, 0, n );
+
+		} else if ( node instanceof Node.Unary u ) {
+			eval( u.operand( ), r, regs, columns, start, n );
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = -dst[i];
+			}
+
+		} else if ( node instanceof Node.Binary b ) {
+			if ( b.right( ) instanceof Node.Num k ) {
+				eval( b.left( ), r, regs, columns, start, n );
+				scalarRight( b.op( ), dst, k.value( ), n );
+			} else if ( b.left( ) instanceof Node.Num k ) {
+				eval( b.right( ), r, regs, columns, start, n );
+				scalarLeft( b.op( ), k.value( ), dst, n );
+			} else {
+				eval( b.left( ), r, regs, columns, start, n );
+				eval( b.right( ), r + 1, regs, columns, start, n );
+				vector( b.op( ), dst, regs[r + 1], n );
+			}
+
+		} else {
+			Node.Call c = (Node.Call) node;
+			eval( c.first( ), r, regs, columns, start, n );
+			if ( c.second( ) == null ) {
+				MathFunction f = c.function( );
+				for ( int i = 0; i < n; i++ ) {
+					dst[i] = f.apply( dst[i], 0 );
+				}
+			} else {
+				eval( c.second( ), r + 1, regs, columns, start, n );
+				double[] arg = regs[r + 1];
+				MathFunction f = c.function( );
+				for ( int i = 0; i < n; i++ ) {
+					dst[i] = f.apply( dst[i], arg[i] );
+				}
+			}
+		}
+	}
+
+	/* dst = dst op src, one loop per operator so each one is a simple vectorizable body. */
+	private static void vector( char op, double[] dst, double[] src, int n ) {
+		switch ( op ) {
+		case '+':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] += src[i];
+			}
+			break;
+		case '-':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] -= src[i];
+			}
+			break;
+		case '*':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] *= src[i];
+			}
+			break;
+		case '/':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] /= src[i];
+			}
+			break;
+		default:
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = Node.apply( op, dst[i], src[i] );
+			}
+		}
+	}
+
+	/* dst = dst op k */
+	private static void scalarRight( char op, double[] dst, double k, int n ) {
+		switch ( op ) {
+		case '+':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] += k;
+			}
+			break;
+		case '-':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] -= k;
+			}
+			break;
+		case '*':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] *= k;
+			}
+			break;
+		case '/':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] /= k;
+			}
+			break;
+		default:
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = Node.apply( op, dst[i], k );
+			}
+		}
+	}
+
+	/* dst = k op dst */
+	private static void scalarLeft( char op, double k, double[] dst, int n ) {
+		switch ( op ) {
+		case '+':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = k + dst[i];
+			}
+			break;
+		case '-':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = k - dst[i];
+			}
+			break;
+		case '*':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = k * dst[i];
+			}
+			break;
+		case '/':
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = k / dst[i];
+			}
+			break;
+		default:
+			for ( int i = 0; i < n; i++ ) {
+				dst[i] = Node.apply( op, k, dst[i] );
+			}
+		}
+	}
+
+	/* Registers needed: one per level where a right operand is kept beside its left. */
+	private static int depth( Node node ) {
+		if ( node instanceof Node.Unary u ) {
+			return depth( u.operand( ) );
+		}
+		if ( node instanceof Node.Binary b ) {
+			if ( b.right( ) instanceof Node.Num ) {
+				return depth( b.left( ) );
+			}
+			if ( b.left( ) instanceof Node.Num ) {
+				return depth( b.right( ) );
+			}
+			return Math.max( depth( b.left( ) ), 1 + depth( b.right( ) ) );
+		}
+		if ( node instanceof Node.Call c ) {
+			return c.second( ) == null ? depth( c.first( ) ) : Math.max( depth( c.first( ) ), 1 + depth( c.second( ) ) );
+		}
+		return 1;
+	}
+}
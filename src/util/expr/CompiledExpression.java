@@ -0,0 +1,195 @@
+package util.expr;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A parsed and compiled expression, safe to share between threads.
+ *
+ * Variables are numbered in order of first use, see variables(). The fast path is
+ * evaluate(double[]): fill one array with the variable values, reuse it for every
+ * call, and no evaluation allocates anything.
+ *
+ * Expressions start on the lambda tree built by TreeCompiler. An expression that is
+ * evaluated BytecodeCompiler.COMPILE_THRESHOLD times is hot: it is compiled to a
+ * hidden class once and all later calls go straight to that. Cold expressions never
+ * pay for class generation.
+ *
+ * For many rows use evaluateColumns(): one double[] per variable, one call for the
+ * whole table, see ColumnEvaluator.
+ */
+public class CompiledExpression {
+
+	private static final double[]	NO_VARS	= new double[0];
+
+	private final String			text;
+	private final Node				ast;
+	private final String[]			variables;
+	private final Evaluator			interpreter;
+
+	private volatile ColumnEvaluator	columnEvaluator;	// created on first batch
+	private volatile Evaluator		evaluator;	// current tier
+	private int						calls;		// racy counter, only needs to be roughly right
+	private boolean					bytecode;
+
+	CompiledExpression( String text, Node ast, String[] variables ) {
+		this.text = text;
+		this.ast = ast;
+		this.variables = variables;
+		this.interpreter = TreeCompiler.compile( ast );
+		if ( BytecodeCompiler.COMPILE_THRESHOLD < 0 || ast instanceof Node.Num ) {
+			this.evaluator = interpreter;
+		} else if ( BytecodeCompiler.COMPILE_THRESHOLD == 0 ) {
+			this.evaluator = interpreter;
+			compileToBytecode( );
+		} else {
+			this.evaluator = this::countAndEvaluate;
+		}
+	}
+
+	/* Evaluate with vars[i] as the value of variables().get(i). */
+	public double evaluate( double[] vars ) {
+		if ( vars.length < variables.length ) {
+			throw new IllegalArgumentException( "Expression \"" + text + "\" needs " + variables.length + " variables "
+					+ Arrays.toString( variables ) + ", got " + vars.length );
+		}
+		return evaluator.evaluate( vars );
+	}
+
+	/*
+	 * Evaluate every row of a table: columns[j][i] is the value of variable j in row i.
+	 * All columns must have the same length; the result has one value per row.
+	 */
+	public double[] evaluateColumns( double[][] columns ) {
+		double[] out = new double[rows( columns )];
+		columns( ).evaluate( columns, out, 0, out.length );
+		return out;
+	}
+
+	/*
+	 * Same as evaluateColumns( columns ), writing into out and splitting the rows into
+	 * chunks on pool. Small tables are evaluated on the calling thread.
+	 */
+	public void evaluateColumns( double[][] columns, double[] out, ForkJoinPool pool ) {
+		int rows = rows( columns );
+		if ( out.length != rows ) {
+			throw new IllegalArgumentException( "Output has " + out.length + " rows, columns have " + rows );
+		}
+		if ( pool == null || rows <= ColumnEvaluator.CHUNK * 4 ) {
+			columns( ).evaluate( columns, out, 0, rows );
+		} else {
+			columns( ).evaluateParallel( columns, out, pool );
+		}
+	}
+
+	private int rows( double[][] columns ) {
+		if ( columns.length < variables.length ) {
+			throw new IllegalArgumentException( "Expression \"" + text + "\" needs " + variables.length + " columns "
+					+ Arrays.toString( variables ) + ", got " + columns.length );
+		}
+		if ( columns.length == 0 ) {
+			throw new IllegalArgumentException( "No columns, the row count is unknown" );
+		}
+		int rows = columns[0].length;
+		for ( int j = 1; j < variables.length; j++ ) {
+			if ( columns[j].length != rows ) {
+				throw new IllegalArgumentException( "Column " + variables[j] + " has " + columns[j].length + " rows, expected " + rows );
+			}
+		}
+		return rows;
+	}
+
+	private ColumnEvaluator columns( ) {
+		ColumnEvaluator c = columnEvaluator;
+		if ( c == null ) {
+			c = new ColumnEvaluator( ast );
+			columnEvaluator = c;
+		}
+		return c;
+	}
+
+	/* Evaluate an expression without variables. */
+	public double evaluate( ) {
+		return evaluate( NO_VARS );
+	}
+
+	/* Convenience for occasional calls; allocates the slot array. */
+	public double evaluate( Map<String, ? extends Number> values ) {
+		double[] vars = new double[variables.length];
+		for ( int i = 0; i < vars.length; i++ ) {
+			Number value = values.get( variables[i] );
+			if ( value == null ) {
+				throw new IllegalArgumentException( "No value for variable " + variables[i] + " in \"" + text + "\"" );
+			}
+			vars[i] = value.doubleValue( );
+		}
+		return evaluator.evaluate( vars );
+	}
+
+	/*
+	 * Switch to the bytecode tier now instead of waiting for the threshold. Returns
+	 * false if the expression could not be compiled; it then stays interpreted.
+	 */
+	public synchronized boolean compileToBytecode( ) {
+		if ( !bytecode ) {
+			try {
+				evaluator = BytecodeCompiler.compile( ast );
+				bytecode = true;
+			} catch ( RuntimeException e ) {
+				evaluator = interpreter;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public synchronized boolean isBytecodeCompiled( ) {
+		return bytecode;
+	}
+
+	/* The lambda tree, whatever tier is current. For benchmarks and tests. */
+	public Evaluator interpreter( ) {
+		return interpreter;
+	}
+
+	private double countAndEvaluate( double[] vars ) {
+		if ( ++calls >= BytecodeCompiler.COMPILE_THRESHOLD ) {
+			compileToBytecode( );
+		}
+		return interpreter.evaluate( vars );
+	}
+
+	/* Slot of a variable, -1 if the expression does not use it. */
+	public int slot( String variable ) {
+		for ( int i = 0; i < variables.length; i++ ) {
+			if ( variables[i].equals( variable ) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public List<String> variables( ) {
+		return List.of( variables );
+	}
+
+	public Node ast( ) {
+		return ast;
+	}
+
+	public String text( ) {
+		return text;
+	}
+
+	/* True when folding reduced the whole expression to one number. */
+	public boolean isConstant( ) {
+		return ast instanceof Node.Num;
+	}
+
+	@Override
+	public String toString( ) {
+		return text;
+	}
+}
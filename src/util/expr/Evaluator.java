@@ -0,0 +1,9 @@
+package util.expr;
+
+/**
+ * Compiled form of an expression: reads variables by slot and never allocates.
+ */
+@FunctionalInterface
+public interface Evaluator {
+	double evaluate( double[] vars );
+}
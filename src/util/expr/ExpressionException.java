@@ -0,0 +1,21 @@
+package util.expr;
+
+/**
+ * Thrown when an expression cannot be parsed. position is the index in the
+ * expression text where the problem was found.
+ */
+public class ExpressionException extends IllegalArgumentException {
+
+	private static final long	serialVersionUID	= 1L;
+
+	private final int			position;
+
+	public ExpressionException( String message, String expression, int position ) {
+		super( message + " at position " + position + " in \"" + expression + "\"" );
+		this.position = position;
+	}
+
+	public int getPosition( ) {
+		return position;
+	}
+}
@@ -0,0 +1,234 @@
+package util.expr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass parser for arithmetic expressions such as "price * (1 + rate) ^ years".
+ *
+ * Tokens are read on demand while parsing, so the text is scanned once and the only
+ * substrings taken are number and identifier literals. Binary operators are parsed
+ * by precedence climbing:
+ *
+ * + -      1  left
+ * * / %    2  left
+ * unary -  3
+ * ^        4  right
+ *
+ * Subtrees without variables are folded into constants as they are built.
+ *
+ * Parsing and evaluation both recurse over the tree, so nesting (parentheses, unary
+ * operators, calls, and operator chains that did not fold) is capped at MAX_DEPTH and
+ * deeper input fails with an ExpressionException instead of a StackOverflowError.
+ */
+public class ExpressionParser {
+
+	private static final int	UNARY_PRECEDENCE	= 3;
+	public static final int		MAX_DEPTH			= 500;
+
+	private final String		text;
+	private final List<String>	variables	= new ArrayList<>( );
+	private int					pos;
+	private int					depth;
+
+	private ExpressionParser( String text ) {
+		this.text = text;
+	}
+
+	/* Parsed, folded expression; variables are numbered in order of first use. */
+	public static CompiledExpression parse( String text ) {
+		ExpressionParser parser = new ExpressionParser( text );
+		Node root = parser.parseExpression( 1 );
+		parser.skipSpaces( );
+		if ( parser.pos < text.length( ) ) {
+			throw parser.error( "Unexpected '" + text.charAt( parser.pos ) + "'" );
+		}
+		return new CompiledExpression( text, root, parser.variables.toArray( new String[0] ) );
+	}
+
+	private Node parseExpression( int minPrecedence ) {
+		enter( );
+		int chained = 0;
+		try {
+			Node left = parseUnary( );
+			while ( true ) {
+				skipSpaces( );
+				if ( pos >= text.length( ) ) {
+					return left;
+				}
+				char op = text.charAt( pos );
+				int precedence = precedence( op );
+				if ( precedence < minPrecedence ) {
+					return left;
+				}
+				pos++;
+				// '^' is right associative: 2^3^2 = 2^(3^2)
+				Node right = op == '^' ? parseExpression( precedence ) : parseExpression( precedence + 1 );
+				left = fold( new Node.Binary( op, left, right ) );
+				// a chain like a+b+c+... deepens the tree one level per operator
+				if ( !( left instanceof Node.Num ) ) {
+					chained++;
+					enter( );
+				}
+			}
+		} finally {
+			depth -= 1 + chained;
+		}
+	}
+
+	private void enter( ) {
+		if ( ++depth > MAX_DEPTH ) {
+			throw error( "Expression nested deeper than " + MAX_DEPTH + " levels" );
+		}
+	}
+
+	private Node parseUnary( ) {
+		skipSpaces( );
+		if ( pos < text.length( ) ) {
+			char c = text.charAt( pos );
+			if ( c == '-' ) {
+				pos++;
+				return fold( new Node.Unary( '-', parseExpression( UNARY_PRECEDENCE ) ) );
+			}
+			if ( c == '+' ) {
+				pos++;
+				return parseExpression( UNARY_PRECEDENCE );
+			}
+		}
+		return parsePrimary( );
+	}
+
+	private Node parsePrimary( ) {
+		skipSpaces( );
+		if ( pos >= text.length( ) ) {
+			throw error( "Unexpected end of expression" );
+		}
+		char c = text.charAt( pos );
+
+		if ( c == '(' ) {
+			pos++;
+			Node inner = parseExpression( 1 );
+			expect( ')' );
+			return inner;
+		}
+		if ( Character.isDigit( c ) || c == '.' ) {
+			return new Node.Num( number( ) );
+		}
+		if ( Character.isLetter( c ) || c == '_' ) {
+			int start = pos;
+			String name = identifier( );
+			skipSpaces( );
+			if ( pos < text.length( ) && text.charAt( pos ) == '(' ) {
+				return call( name, start );
+			}
+			return new Node.Var( name, slot( name ) );
+		}
+		throw error( "Unexpected '" + c + "'" );
+	}
+
+	private Node call( String name, int start ) {
+		MathFunction function = MathFunction.byName( name );
+		if ( function == null ) {
+			pos = start;
+			throw error( "Unknown function " + name );
+		}
+		pos++; // (
+		Node first = parseExpression( 1 );
+		Node second = null;
+		if ( function.arity( ) == 2 ) {
+			expect( ',' );
+			second = parseExpression( 1 );
+		}
+		expect( ')' );
+		return fold( new Node.Call( function, first, second ) );
+	}
+
+	/* Replace an operation on constants by its value. */
+	private static Node fold( Node node ) {
+		if ( node instanceof Node.Binary b && b.left( ) instanceof Node.Num l && b.right( ) instanceof Node.Num r ) {
+			return new Node.Num( Node.apply( b.op( ), l.value( ), r.value( ) ) );
+		}
+		if ( node instanceof Node.Unary u && u.operand( ) instanceof Node.Num n ) {
+			return new Node.Num( -n.value( ) );
+		}
+		if ( node instanceof Node.Call c && c.first( ) instanceof Node.Num a
+				&& ( c.second( ) == null || c.second( ) instanceof Node.Num ) ) {
+			double b = c.second( ) == null ? 0 : ( (Node.Num) c.second( ) ).value( );
+			return new Node.Num( c.function( ).apply( a.value( ), b ) );
+		}
+		return node;
+	}
+
+	private static int precedence( char op ) {
+		switch ( op ) {
+		case '+':
+		case '-':
+			return 1;
+		case '*':
+		case '/':
+		case '%':
+			return 2;
+		case '^':
+			return 4;
+		default:
+			return -1; // not an operator, ends the expression
+		}
+	}
+
+	private double number( ) {
+		int start = pos;
+		while ( pos < text.length( ) && ( Character.isDigit( text.charAt( pos ) ) || text.charAt( pos ) == '.' ) ) {
+			pos++;
+		}
+		if ( pos < text.length( ) && ( text.charAt( pos ) == 'e' || text.charAt( pos ) == 'E' ) ) {
+			pos++;
+			if ( pos < text.length( ) && ( text.charAt( pos ) == '+' || text.charAt( pos ) == '-' ) ) {
+				pos++;
+			}
+			while ( pos < text.length( ) && Character.isDigit( text.charAt( pos ) ) ) {
+				pos++;
+			}
+		}
+		try {
+			return Double.parseDouble( text.substring( start, pos ) );
+		} catch ( NumberFormatException e ) {
+			pos = start;
+			throw error( "Invalid number" );
+		}
+	}
+
+	private String identifier( ) {
+		int start = pos;
+		while ( pos < text.length( ) && ( Character.isLetterOrDigit( text.charAt( pos ) ) || text.charAt( pos ) == '_' ) ) {
+			pos++;
+		}
+		return text.substring( start, pos );
+	}
+
+	private int slot( String name ) {
+		int slot = variables.indexOf( name );
+		if ( slot < 0 ) {
+			slot = variables.size( );
+			variables.add( name );
+		}
+		return slot;
+	}
+
+	private void expect( char c ) {
+		skipSpaces( );
+		if ( pos >= text.length( ) || text.charAt( pos ) != c ) {
+			throw error( "Expected '" + c + "'" );
+		}
+		pos++;
+	}
+
+	private void skipSpaces( ) {
+		while ( pos < text.length( ) && Character.isWhitespace( text.charAt( pos ) ) ) {
+			pos++;
+		}
+	}
+
+	private ExpressionException error( String message ) {
+		return new ExpressionException( message, text, pos );
+	}
+}
@@ -0,0 +1,60 @@
+package util.expr;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point of the expression engine: compile() parses each distinct text once
+ * and hands out the cached CompiledExpression afterwards.
+ *
+ * <pre>
+ * CompiledExpression price = Expressions.compile( "base * (1 + tax) - discount" );
+ * double[] vars = new double[price.variables( ).size( )];
+ * vars[0] = 100; vars[1] = 0.2; vars[2] = 5;
+ * price.evaluate( vars ); // 115.0
+ * </pre>
+ */
+public final class Expressions {
+
+	/* Upper bound for the cache, so user-typed one-off expressions cannot fill the heap. */
+	public static final int	MAX_CACHED	= 10_000;
+
+	private static final ConcurrentHashMap<String, CompiledExpression>	CACHE	= new ConcurrentHashMap<>( );
+
+	private Expressions( ) {
+	}
+
+	public static CompiledExpression compile( String text ) {
+		CompiledExpression compiled = CACHE.get( text );
+		if ( compiled != null ) {
+			return compiled;
+		}
+		compiled = ExpressionParser.parse( text );
+		if ( CACHE.size( ) >= MAX_CACHED ) {
+			evictOne( );
+		}
+		CompiledExpression raced = CACHE.putIfAbsent( text, compiled );
+		return raced != null ? raced : compiled;
+	}
+
+	/* Parse and evaluate once, for expressions without variables. */
+	public static double evaluate( String text ) {
+		return compile( text ).evaluate( );
+	}
+
+	public static int cacheSize( ) {
+		return CACHE.size( );
+	}
+
+	public static void clearCache( ) {
+		CACHE.clear( );
+	}
+
+	private static void evictOne( ) {
+		Iterator<String> it = CACHE.keySet( ).iterator( );
+		if ( it.hasNext( ) ) {
+			it.next( );
+			it.remove( );
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package util.expr;
+
+/**
+ * Functions an expression may call, e.g. "sqrt(x)" or "max(a, b)".
+ */
+public enum MathFunction {
+
+	ABS( 1 ), SQRT( 1 ), EXP( 1 ), LOG( 1 ), SIN( 1 ), COS( 1 ), TAN( 1 ), MIN( 2 ), MAX( 2 ), POW( 2 );
+
+	private final int	arity;
+
+	MathFunction( int arity ) {
+		this.arity = arity;
+	}
+
+	public int arity( ) {
+		return arity;
+	}
+
+	/* b is ignored by one-argument functions. */
+	public double apply( double a, double b ) {
+		switch ( this ) {
+		case ABS:
+			return Math.abs( a );
+		case SQRT:
+			return Math.sqrt( a );
+		case EXP:
+			return Math.exp( a );
+		case LOG:
+			return Math.log( a );
+		case SIN:
+			return Math.sin( a );
+		case COS:
+			return Math.cos( a );
+		case TAN:
+			return Math.tan( a );
+		case MIN:
+			return Math.min( a, b );
+		case MAX:
+			return Math.max( a, b );
+		case POW:
+			return Math.pow( a, b );
+		default:
+			throw new AssertionError( this );
+		}
+	}
+
+	/* Function called name (case-insensitive), or null. */
+	public static MathFunction byName( String name ) {
+		for ( MathFunction f : values( ) ) {
+			if ( f.name( ).equalsIgnoreCase( name ) ) {
+				return f;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,47 @@
+package util.expr;
+
+/**
+ * Abstract syntax tree of an expression, as produced by ExpressionParser.
+ * Variables refer to their slot, the index of their value in the array passed to
+ * CompiledExpression.evaluate().
+ */
+public sealed interface Node permits Node.Num, Node.Var, Node.Unary, Node.Binary, Node.Call {
+
+	record Num( double value ) implements Node {
+	}
+
+	record Var( String name, int slot ) implements Node {
+	}
+
+	/* Only '-' is kept; unary '+' is dropped by the parser. */
+	record Unary( char op, Node operand ) implements Node {
+	}
+
+	/* op is one of + - * / % ^ */
+	record Binary( char op, Node left, Node right ) implements Node {
+	}
+
+	/* second is null for one-argument functions. */
+	record Call( MathFunction function, Node first, Node second ) implements Node {
+	}
+
+	/* Value of a binary operator, shared by constant folding and every backend. */
+	static double apply( char op, double left, double right ) {
+		switch ( op ) {
+		case '+':
+			return left + right;
+		case '-':
+			return left - right;
+		case '*':
+			return left * right;
+		case '/':
+			return left / right;
+		case '%':
+			return left % right;
+		case '^':
+			return Math.pow( left, right );
+		default:
+			throw new IllegalArgumentException( "Unknown operator: " + op );
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package util.expr;
+
+/**
+ * Turns an AST into a tree of small Evaluator lambdas. Operators are resolved
+ * here, once, so evaluation is a chain of direct calls with no switch on the
+ * operator and no allocation. Constant right operands, the common "x * 1.2" case,
+ * get their own lambdas that skip a call.
+ */
+final class TreeCompiler {
+
+	private TreeCompiler( ) {
+	}
+
+	static Evaluator compile( Node node ) {
+		if ( node instanceof Node.Num n ) {
+			double value = n.value( );
+			return vars -> value;
+		}
+		if ( node instanceof Node.Var v ) {
+			int slot = v.slot( );
+			return vars -> vars[slot];
+		}
+		if ( node instanceof Node.Unary u ) {
+			Evaluator operand = compile( u.operand( ) );
+			return vars -> -operand.evaluate( vars );
+		}
+		if ( node instanceof Node.Binary b ) {
+			return binary( b );
+		}
+		Node.Call c = (Node.Call) node;
+		MathFunction function = c.function( );
+		Evaluator first = compile( c.first( ) );
+		if ( c.second( ) == null ) {
+			return vars -> function.apply( first.evaluate( vars ), 0 );
+		}
+		Evaluator second = compile( c.second( ) );
+		return vars -> function.apply( first.evaluate( vars ), second.evaluate( vars ) );
+	}
+
+	private static Evaluator binary( Node.Binary b ) {
+		Evaluator l = compile( b.left( ) );
+		if ( b.right( ) instanceof Node.Num n ) {
+			double k = n.value( );
+			switch ( b.op( ) ) {
+			case '+':
+				return vars -> l.evaluate( vars ) + k;
+			case '-':
+				return vars -> l.evaluate( vars ) - k;
+			case '*':
+				return vars -> l.evaluate( vars ) * k;
+			case '/':
+				return vars -> l.evaluate( vars ) / k;
+			default:
+				break;
+			}
+		}
+
+		Evaluator r = compile( b.right( ) );
+		switch ( b.op( ) ) {
+		case '+':
+			return vars -> l.evaluate( vars ) + r.evaluate( vars );
+		case '-':
+			return vars -> l.evaluate( vars ) - r.evaluate( vars );
+		case '*':
+			return vars -> l.evaluate( vars ) * r.evaluate( vars );
+		case '/':
+			return vars -> l.evaluate( vars ) / r.evaluate( vars );
+		case '%':
+			return vars -> l.evaluate( vars ) % r.evaluate( vars );
+		case '^':
+			return vars -> Math.pow( l.evaluate( vars ), r.evaluate( vars ) );
+		default:
+			throw new IllegalArgumentException( "Unknown operator: " + b.op( ) );
+		}
+	}
+}
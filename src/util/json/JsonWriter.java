@@ -0,0 +1,366 @@
+package util.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON writer that encodes UTF-8 straight into its own byte buffer and
+ * hands full buffers to the OutputStream.
+ *
+ * <pre>
+ * JsonWriter json = new JsonWriter( out );
+ * json.beginObject( ).name( "id" ).value( 7 ).name( "tags" ).beginArray( ).value( "a" ).endArray( ).endObject( );
+ * json.flush( );
+ * </pre>
+ *
+ * Strings are copied a chunk at a time into a reused char[] and escaped and
+ * encoded from there into the buffer; numbers are written as digits. Writing a
+ * string or an integer creates no String or byte[] on the way.
+ * Commas are inserted by the writer. NaN and infinite doubles, which JSON cannot
+ * represent, are written as null.
+ *
+ * Not thread safe; one writer per output.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+
+	private static final int	BUFFER_SIZE	= 8192;
+	private static final byte[]	HEX			= "0123456789abcdef".getBytes( );
+	private static final byte[]	NULL		= { 'n', 'u', 'l', 'l' };
+	private static final byte[]	TRUE		= { 't', 'r', 'u', 'e' };
+	private static final byte[]	FALSE		= { 'f', 'a', 'l', 's', 'e' };
+
+	private final OutputStream	out;
+	private final byte[]		buf;
+	private int					pos;
+	private final char[]		chars;		// chunk of the string being encoded
+
+	/* empty[depth]: nothing written yet in the array/object open at depth */
+	private boolean[]			empty		= new boolean[16];
+	private int					depth;
+	private boolean				afterName;
+
+	public JsonWriter( OutputStream out ) {
+		this( out, BUFFER_SIZE );
+	}
+
+	public JsonWriter( OutputStream out, int bufferSize ) {
+		this.out = out;
+		this.buf = new byte[Math.max( bufferSize, 64 )];
+		this.chars = new char[buf.length / 6];
+	}
+
+	public JsonWriter beginObject( ) throws IOException {
+		separator( );
+		put( (byte) '{' );
+		push( );
+		return this;
+	}
+
+	public JsonWriter endObject( ) throws IOException {
+		pop( );
+		put( (byte) '}' );
+		return this;
+	}
+
+	public JsonWriter beginArray( ) throws IOException {
+		separator( );
+		put( (byte) '[' );
+		push( );
+		return this;
+	}
+
+	public JsonWriter endArray( ) throws IOException {
+		pop( );
+		put( (byte) ']' );
+		return this;
+	}
+
+	public JsonWriter name( String name ) throws IOException {
+		separator( );
+		string( name );
+		put( (byte) ':' );
+		afterName = true;
+		return this;
+	}
+
+	/* A name already encoded as "name": (see encodeName), written with one copy. */
+	JsonWriter name( byte[] encoded ) throws IOException {
+		separator( );
+		put( encoded );
+		afterName = true;
+		return this;
+	}
+
+	public JsonWriter value( CharSequence value ) throws IOException {
+		separator( );
+		if ( value == null ) {
+			put( NULL );
+		} else {
+			string( value );
+		}
+		return this;
+	}
+
+	public JsonWriter value( long value ) throws IOException {
+		separator( );
+		digits( value );
+		return this;
+	}
+
+	public JsonWriter value( double value ) throws IOException {
+		separator( );
+		if ( Double.isNaN( value ) || Double.isInfinite( value ) ) {
+			put( NULL );
+		} else if ( value == (long) value && Math.abs( value ) < 1e15 ) {
+			digits( (long) value );
+			put( (byte) '.' );
+			put( (byte) '0' );
+		} else {
+			ascii( Double.toString( value ) );
+		}
+		return this;
+	}
+
+	/* Shortest digits of the float itself: 1.1f is 1.1, not the 1.100000023841858 of its double. */
+	public JsonWriter value( float value ) throws IOException {
+		separator( );
+		if ( Float.isNaN( value ) || Float.isInfinite( value ) ) {
+			put( NULL );
+		} else if ( value == (long) value && Math.abs( value ) < 1e15f ) {
+			digits( (long) value );
+			put( (byte) '.' );
+			put( (byte) '0' );
+		} else {
+			ascii( Float.toString( value ) );
+		}
+		return this;
+	}
+
+	public JsonWriter value( boolean value ) throws IOException {
+		separator( );
+		put( value ? TRUE : FALSE );
+		return this;
+	}
+
+	public JsonWriter nullValue( ) throws IOException {
+		separator( );
+		put( NULL );
+		return this;
+	}
+
+	/* Bytes written since the last flush to the stream, still in the buffer */
+	public int buffered( ) {
+		return pos;
+	}
+
+	@Override
+	public void flush( ) throws IOException {
+		drain( );
+		out.flush( );
+	}
+
+	@Override
+	public void close( ) throws IOException {
+		drain( );
+		out.close( );
+	}
+
+	/* "name": as UTF-8, for names written over and over. */
+	static byte[] encodeName( String name ) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream( name.length( ) + 3 );
+			JsonWriter w = new JsonWriter( bytes, 64 );
+			w.string( name );
+			w.put( (byte) ':' );
+			w.drain( );
+			return bytes.toByteArray( );
+		} catch ( IOException e ) {
+			throw new IllegalStateException( e ); // not thrown by ByteArrayOutputStream
+		}
+	}
+
+	private void separator( ) throws IOException {
+		if ( afterName ) {
+			afterName = false;
+		} else if ( depth > 0 ) {
+			if ( empty[depth] ) {
+				empty[depth] = false;
+			} else {
+				put( (byte) ',' );
+			}
+		}
+	}
+
+	private void push( ) {
+		if ( ++depth == empty.length ) {
+			empty = Arrays.copyOf( empty, depth * 2 );
+		}
+		empty[depth] = true;
+	}
+
+	private void pop( ) {
+		if ( depth == 0 || afterName ) {
+			throw new IllegalStateException( depth == 0 ? "Nothing open to end" : "Name without a value" );
+		}
+		depth--;
+	}
+
+	private void string( CharSequence s ) throws IOException {
+		put( (byte) '"' );
+		int length = s.length( );
+		int i = 0;
+		while ( i < length ) {
+			if ( buf.length - pos < 12 ) {
+				drain( );
+			}
+			// No char takes more than 6 bytes, so this many fit without checking each one
+			int n = Math.min( length - i, ( buf.length - pos ) / 6 );
+			if ( s instanceof String ) {
+				( (String) s ).getChars( i, i + n, chars, 0 ); // one bulk copy instead of a charAt( ) per char
+			} else {
+				for ( int k = 0; k < n; k++ ) {
+					chars[k] = s.charAt( i + k );
+				}
+			}
+			if ( n > 1 && Character.isHighSurrogate( chars[n - 1] ) ) {
+				n--; // keep a surrogate pair in one chunk
+			}
+			encode( n );
+			i += n;
+		}
+		put( (byte) '"' );
+	}
+
+	/* Encodes chars[0, n) into the buffer, which has room for 6 bytes per char. */
+	private void encode( int n ) {
+		char[] cs = chars;
+		byte[] b = buf;
+		int p = pos;
+		for ( int i = 0; i < n; i++ ) {
+			char c = cs[i];
+			if ( c < 0x80 ) {
+				if ( c >= 0x20 && c != '"' && c != '\\' ) {
+					b[p++] = (byte) c;
+				} else {
+					p = escape( c, p );
+				}
+			} else if ( c < 0x800 ) {
+				b[p++] = (byte) ( 0xC0 | c >> 6 );
+				b[p++] = (byte) ( 0x80 | c & 0x3F );
+			} else if ( Character.isHighSurrogate( c ) && i + 1 < n && Character.isLowSurrogate( cs[i + 1] ) ) {
+				int cp = Character.toCodePoint( c, cs[++i] );
+				b[p++] = (byte) ( 0xF0 | cp >> 18 );
+				b[p++] = (byte) ( 0x80 | cp >> 12 & 0x3F );
+				b[p++] = (byte) ( 0x80 | cp >> 6 & 0x3F );
+				b[p++] = (byte) ( 0x80 | cp & 0x3F );
+			} else if ( Character.isSurrogate( c ) ) {
+				b[p++] = '?'; // unpaired, as String.getBytes( UTF_8 ) does
+			} else {
+				b[p++] = (byte) ( 0xE0 | c >> 12 );
+				b[p++] = (byte) ( 0x80 | c >> 6 & 0x3F );
+				b[p++] = (byte) ( 0x80 | c & 0x3F );
+			}
+		}
+		pos = p;
+	}
+
+	private int escape( char c, int p ) {
+		byte[] b = buf;
+		b[p++] = '\\';
+		switch ( c ) {
+		case '"':
+			b[p++] = '"';
+			break;
+		case '\\':
+			b[p++] = '\\';
+			break;
+		case '\n':
+			b[p++] = 'n';
+			break;
+		case '\r':
+			b[p++] = 'r';
+			break;
+		case '\t':
+			b[p++] = 't';
+			break;
+		default:
+			b[p++] = 'u';
+			b[p++] = '0';
+			b[p++] = '0';
+			b[p++] = HEX[c >> 4];
+			b[p++] = HEX[c & 0xF];
+		}
+		return p;
+	}
+
+	private void digits( long value ) throws IOException {
+		ensure( 20 );
+		if ( value == Long.MIN_VALUE ) {
+			put( "-9223372036854775808".getBytes( ) );
+			return;
+		}
+		if ( value < 0 ) {
+			buf[pos++] = '-';
+			value = -value;
+		}
+		int end = pos + digitCount( value );
+		pos = end;
+		do {
+			buf[--end] = (byte) ( '0' + value % 10 );
+			value /= 10;
+		} while ( value != 0 );
+	}
+
+	/* A number's text, ASCII only */
+	private void ascii( String s ) throws IOException {
+		ensure( s.length( ) );
+		for ( int i = 0; i < s.length( ); i++ ) {
+			buf[pos++] = (byte) s.charAt( i );
+		}
+	}
+
+	private static int digitCount( long value ) {
+		int n = 1;
+		while ( value >= 10 ) {
+			value /= 10;
+			n++;
+		}
+		return n;
+	}
+
+	private void put( byte b ) throws IOException {
+		if ( pos == buf.length ) {
+			drain( );
+		}
+		buf[pos++] = b;
+	}
+
+	private void put( byte[] bytes ) throws IOException {
+		if ( bytes.length > buf.length - pos ) {
+			drain( );
+			if ( bytes.length > buf.length ) {
+				out.write( bytes );
+				return;
+			}
+		}
+		System.arraycopy( bytes, 0, buf, pos, bytes.length );
+		pos += bytes.length;
+	}
+
+	private void ensure( int bytes ) throws IOException {
+		if ( pos + bytes > buf.length ) {
+			drain( );
+		}
+	}
+
+	private void drain( ) throws IOException {
+		if ( pos > 0 ) {
+			out.write( buf, 0, pos );
+			pos = 0;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package util.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * JSON for records, written straight to an OutputStream as UTF-8.
+ *
+ * <pre>
+ * RecordJson.write( employees, out ); // [{"person":{"name":"Alice",...},"salary":75000.0},...]
+ * </pre>
+ *
+ * The first time a record class is written its components are looked up once:
+ * each accessor's MethodHandle is linked into a ToIntFunction, ToLongFunction,
+ * ToDoubleFunction, Predicate or Function by LambdaMetafactory, so primitives are
+ * written without boxing, and each component name is encoded to "name": bytes
+ * once. The result is kept in a
+ * ClassValue. Writing a record is then a loop over its components, with no
+ * reflection and no intermediate Strings.
+ *
+ * Besides records: null, strings, numbers, booleans, chars, enums (by name),
+ * Optionals, arrays, Iterables and Maps (keys by String.valueOf) are written as
+ * JSON; any other object as the string of its toString( ), e.g. a LocalDate.
+ */
+public final class RecordJson {
+
+	private static final ClassValue<RecordWriter>	WRITERS	= new ClassValue<RecordWriter>( ) {
+		@Override
+		protected RecordWriter computeValue( Class<?> type ) {
+			return new RecordWriter( type );
+		}
+	};
+
+	private RecordJson( ) {
+	}
+
+	/* value as JSON to out, flushed but not closed. */
+	public static void write( Object value, OutputStream out ) throws IOException {
+		JsonWriter json = new JsonWriter( out );
+		write( json, value );
+		json.flush( );
+	}
+
+	public static void write( JsonWriter json, Object value ) throws IOException {
+		if ( value == null ) {
+			json.nullValue( );
+		} else if ( value instanceof Record ) {
+			WRITERS.get( value.getClass( ) ).write( json, value );
+		} else if ( value instanceof CharSequence ) {
+			json.value( (CharSequence) value );
+		} else if ( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ) {
+			json.value( ( (Number) value ).longValue( ) );
+		} else if ( value instanceof Double ) {
+			json.value( ( (Double) value ).doubleValue( ) );
+		} else if ( value instanceof Float ) {
+			json.value( ( (Float) value ).floatValue( ) );
+		} else if ( value instanceof Boolean ) {
+			json.value( ( (Boolean) value ).booleanValue( ) );
+		} else if ( value instanceof Character || value instanceof Enum ) {
+			json.value( value instanceof Enum ? ( (Enum<?>) value ).name( ) : value.toString( ) );
+		} else if ( value instanceof Optional ) {
+			write( json, ( (Optional<?>) value ).orElse( null ) );
+		} else if ( value instanceof Iterable ) {
+			json.beginArray( );
+			for ( Object element : (Iterable<?>) value ) {
+				write( json, element );
+			}
+			json.endArray( );
+		} else if ( value instanceof Map ) {
+			json.beginObject( );
+			for ( Map.Entry<?, ?> e : ( (Map<?, ?>) value ).entrySet( ) ) {
+				json.name( String.valueOf( e.getKey( ) ) );
+				write( json, e.getValue( ) );
+			}
+			json.endObject( );
+		} else if ( value.getClass( ).isArray( ) ) {
+			writeArray( json, value );
+		} else {
+			json.value( value.toString( ) );
+		}
+	}
+
+	public static String toJson( Object value ) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream( );
+		try {
+			write( value, bytes );
+		} catch ( IOException e ) {
+			throw new IllegalStateException( e ); // not thrown by ByteArrayOutputStream
+		}
+		return bytes.toString( StandardCharsets.UTF_8 );
+	}
+
+	private static void writeArray( JsonWriter json, Object array ) throws IOException {
+		json.beginArray( );
+		if ( array instanceof int[] ) {
+			for ( int v : (int[]) array ) {
+				json.value( v );
+			}
+		} else if ( array instanceof long[] ) {
+			for ( long v : (long[]) array ) {
+				json.value( v );
+			}
+		} else if ( array instanceof double[] ) {
+			for ( double v : (double[]) array ) {
+				json.value( v );
+			}
+		} else if ( array instanceof Object[] ) {
+			for ( Object v : (Object[]) array ) {
+				write( json, v );
+			}
+		} else {
+			int length = Array.getLength( array ); // the other primitive arrays
+			for ( int i = 0; i < length; i++ ) {
+				write( json, Array.get( array, i ) );
+			}
+		}
+		json.endArray( );
+	}
+
+	/* The components of one record class, resolved once */
+	private static final class RecordWriter {
+
+		private final byte[][]		names;
+		private final Object[]		accessors;	// ToIntFunction, ToLongFunction, ToDoubleFunction, Predicate or Function
+		private final boolean[]		floats;		// float component behind a ToDoubleFunction
+
+		RecordWriter( Class<?> type ) {
+			if ( !type.isRecord( ) ) {
+				throw new IllegalArgumentException( type.getName( ) + " is not a record" );
+			}
+			RecordComponent[] components = type.getRecordComponents( );
+			names = new byte[components.length][];
+			accessors = new Object[components.length];
+			floats = new boolean[components.length];
+			try {
+				// Full access to the record's class, so records that are not public work too
+				MethodHandles.Lookup lookup = MethodHandles.privateLookupIn( type, MethodHandles.lookup( ) );
+				for ( int i = 0; i < components.length; i++ ) {
+					names[i] = JsonWriter.encodeName( components[i].getName( ) );
+					accessors[i] = accessor( lookup, type, components[i] );
+					floats[i] = components[i].getType( ) == float.class;
+				}
+			} catch ( Throwable e ) {
+				throw new IllegalArgumentException( "Cannot access the components of " + type.getName( ), e );
+			}
+		}
+
+		/*
+		 * The accessor's MethodHandle linked into a functional interface, the way the
+		 * compiler links Person::age; primitives stay unboxed, and calling it is an
+		 * interface call rather than invokeExact on a handle that is not a constant.
+		 */
+		private static Object accessor( MethodHandles.Lookup lookup, Class<?> type, RecordComponent component ) throws Throwable {
+			MethodHandle handle = lookup.unreflect( component.getAccessor( ) );
+			Class<?> t = component.getType( );
+			Class<?> api;
+			String method;
+			Class<?> returns;
+			if ( t == int.class || t == short.class || t == byte.class ) {
+				api = ToIntFunction.class;
+				method = "applyAsInt";
+				returns = int.class;
+			} else if ( t == long.class ) {
+				api = ToLongFunction.class;
+				method = "applyAsLong";
+				returns = long.class;
+			} else if ( t == double.class || t == float.class ) {
+				api = ToDoubleFunction.class;
+				method = "applyAsDouble";
+				returns = double.class;
+			} else if ( t == boolean.class ) {
+				api = Predicate.class;
+				method = "test";
+				returns = boolean.class;
+			} else {
+				api = Function.class;
+				method = "apply";
+				returns = Object.class;
+			}
+			MethodType erased = MethodType.methodType( returns, Object.class );
+			MethodType instantiated = MethodType.methodType( returns == Object.class ? wrap( t ) : returns, type );
+			return LambdaMetafactory.metafactory( lookup, method, MethodType.methodType( api ), erased, handle, instantiated )
+					.getTarget( ).invoke( );
+		}
+
+		private static Class<?> wrap( Class<?> t ) {
+			return t.isPrimitive( ) ? MethodType.methodType( t ).wrap( ).returnType( ) : t;
+		}
+
+		@SuppressWarnings( "unchecked" )
+		void write( JsonWriter json, Object record ) throws IOException {
+			json.beginObject( );
+			for ( int i = 0; i < names.length; i++ ) {
+				json.name( names[i] );
+				Object accessor = accessors[i];
+				if ( accessor instanceof Function ) {
+					Object value = ( (Function<Object, Object>) accessor ).apply( record );
+					if ( value instanceof String ) {
+						json.value( (String) value );
+					} else {
+						RecordJson.write( json, value );
+					}
+				} else if ( accessor instanceof ToIntFunction ) {
+					json.value( ( (ToIntFunction<Object>) accessor ).applyAsInt( record ) );
+				} else if ( accessor instanceof ToDoubleFunction ) {
+					double value = ( (ToDoubleFunction<Object>) accessor ).applyAsDouble( record );
+					if ( floats[i] ) {
+						json.value( (float) value ); // exact, the double was widened from this float
+					} else {
+						json.value( value );
+					}
+				} else if ( accessor instanceof ToLongFunction ) {
+					json.value( ( (ToLongFunction<Object>) accessor ).applyAsLong( record ) );
+				} else {
+					json.value( ( (Predicate<Object>) accessor ).test( record ) );
+				}
+			}
+			json.endObject( );
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package util.template;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text template parsed once into literal text and named slots, for output that
+ * is rendered over and over (pages, messages).
+ *
+ * <pre>
+ * static final Template PAGE = Template.html( "&lt;h1&gt;{{title}}&lt;/h1&gt;{{{body}}}" );
+ * PAGE.render( "Fish &amp; Chips", "&lt;p&gt;menu&lt;/p&gt;" );
+ * </pre>
+ *
+ * {{name}} inserts a value, HTML-escaped for html( ) templates; {{{name}}} always
+ * inserts it as is. Values are passed in the order the slot names first appear
+ * (see slots( )) or by name in a Map. A null value renders as nothing.
+ *
+ * Unlike String.format nothing is parsed per call: rendering appends the literal
+ * parts (kept as Strings and as UTF-8 bytes) and the values; a value without
+ * special characters is appended whole, otherwise runs of safe characters are.
+ * render( ) and writeTo( ) reuse a per-thread StringBuilder, renderTo( ) and
+ * encodeTo( ) write straight into the caller's StringBuilder or ByteBuffer. The
+ * per-thread builder is taken out while in use, so a render nested in a value's
+ * toString( ) gets a fresh one instead of clearing the outer render.
+ */
+public final class Template {
+
+	/* Per-thread builders that grew past this are not kept */
+	private static final int					MAX_REUSED	= 1 << 16;
+
+	/* Null while the thread's builder is in use */
+	private static final ThreadLocal<StringBuilder>	BUILDER		= new ThreadLocal<>( );
+
+	private final String		text;
+	private final boolean		html;
+	private final List<String>	slots;
+	private final String[]		literals;	// literals[i] comes before slot reference i, one more at the end
+	private final byte[][]		utf8;
+	private final int[]			slotOf;		// slot reference i -> index in slots
+	private final boolean[]		raw;
+	private final int			literalLength;
+
+	private Template( String text, boolean html ) {
+		this.text = text;
+		this.html = html;
+		List<String> names = new ArrayList<>( );
+		List<String> parts = new ArrayList<>( );
+		List<Integer> refs = new ArrayList<>( );
+		List<Boolean> rawRefs = new ArrayList<>( );
+		int from = 0;
+		int open;
+		while ( ( open = text.indexOf( "{{", from ) ) >= 0 ) {
+			boolean triple = text.startsWith( "{{{", open );
+			String close = triple ? "}}}" : "}}";
+			int start = open + close.length( );
+			int end = text.indexOf( close, start );
+			if ( end < 0 ) {
+				throw new TemplateException( "Unclosed " + ( triple ? "{{{" : "{{" ), open );
+			}
+			String name = text.substring( start, end ).trim( );
+			if ( !isName( name ) ) {
+				throw new TemplateException( "Bad slot name \"" + name + "\"", start );
+			}
+			int slot = names.indexOf( name );
+			if ( slot < 0 ) {
+				slot = names.size( );
+				names.add( name );
+			}
+			parts.add( text.substring( from, open ) );
+			refs.add( slot );
+			rawRefs.add( triple );
+			from = end + close.length( );
+		}
+		parts.add( text.substring( from ) );
+
+		this.slots = Collections.unmodifiableList( names );
+		this.literals = parts.toArray( new String[0] );
+		this.utf8 = new byte[literals.length][];
+		int length = 0;
+		for ( int i = 0; i < literals.length; i++ ) {
+			utf8[i] = literals[i].getBytes( StandardCharsets.UTF_8 );
+			length += literals[i].length( );
+		}
+		this.literalLength = length;
+		this.slotOf = new int[refs.size( )];
+		this.raw = new boolean[refs.size( )];
+		for ( int i = 0; i < slotOf.length; i++ ) {
+			slotOf[i] = refs.get( i );
+			raw[i] = rawRefs.get( i );
+		}
+	}
+
+	/* {{name}} values are HTML-escaped. */
+	public static Template html( String text ) {
+		return new Template( text, true );
+	}
+
+	/* Values are inserted as they are. */
+	public static Template text( String text ) {
+		return new Template( text, false );
+	}
+
+	/* Slot names in the order render( Object... ) takes their values. */
+	public List<String> slots( ) {
+		return slots;
+	}
+
+	public String text( ) {
+		return text;
+	}
+
+	public boolean isHtml( ) {
+		return html;
+	}
+
+	public String render( Object... values ) {
+		StringBuilder out = builder( );
+		try {
+			return renderTo( out, values ).toString( );
+		} finally {
+			release( out );
+		}
+	}
+
+	public String render( Map<String, ?> values ) {
+		return render( byName( values ) );
+	}
+
+	public StringBuilder renderTo( StringBuilder out, Object... values ) {
+		check( values );
+		out.ensureCapacity( out.length( ) + literalLength + 16 * slotOf.length );
+		for ( int i = 0; i < slotOf.length; i++ ) {
+			out.append( literals[i] );
+			append( out, values[slotOf[i]], html && !raw[i] );
+		}
+		return out.append( literals[slotOf.length] );
+	}
+
+	/* Rendered in a per-thread StringBuilder first, then written with one call. */
+	public void writeTo( Writer out, Object... values ) throws IOException {
+		StringBuilder page = builder( );
+		try {
+			out.append( renderTo( page, values ) );
+		} finally {
+			release( page );
+		}
+	}
+
+	/* UTF-8 encoded into out; throws BufferOverflowException if it does not fit. */
+	public void encodeTo( ByteBuffer out, Object... values ) {
+		check( values );
+		for ( int i = 0; i < slotOf.length; i++ ) {
+			out.put( utf8[i] );
+			Object value = values[slotOf[i]];
+			if ( value != null ) {
+				String s = value.toString( );
+				if ( html && !raw[i] && needsEscape( s ) ) {
+					StringBuilder escaped = new StringBuilder( s.length( ) + 16 );
+					escape( escaped, s );
+					s = escaped.toString( );
+				}
+				out.put( s.getBytes( StandardCharsets.UTF_8 ) );
+			}
+		}
+		out.put( utf8[slotOf.length] );
+	}
+
+	@Override
+	public String toString( ) {
+		return text;
+	}
+
+	private void check( Object[] values ) {
+		if ( values.length != slots.size( ) ) {
+			throw new IllegalArgumentException( "Expected " + slots.size( ) + " values for " + slots + ", got " + values.length );
+		}
+	}
+
+	/* The thread's builder, or a new one when it is taken (a render inside a render). */
+	private static StringBuilder builder( ) {
+		StringBuilder out = BUILDER.get( );
+		if ( out == null ) {
+			return new StringBuilder( 256 );
+		}
+		BUILDER.set( null );
+		out.setLength( 0 );
+		return out;
+	}
+
+	private static void release( StringBuilder out ) {
+		if ( out.capacity( ) <= MAX_REUSED ) {
+			BUILDER.set( out );
+		}
+	}
+
+	private Object[] byName( Map<String, ?> values ) {
+		Object[] array = new Object[slots.size( )];
+		for ( int i = 0; i < array.length; i++ ) {
+			String name = slots.get( i );
+			if ( !values.containsKey( name ) ) {
+				throw new IllegalArgumentException( "No value for slot " + name );
+			}
+			array[i] = values.get( name );
+		}
+		return array;
+	}
+
+	private static void append( StringBuilder out, Object value, boolean escape ) {
+		if ( value == null ) {
+			return;
+		}
+		// Numbers never need escaping and append without a toString( ) copy
+		if ( value instanceof Integer ) {
+			out.append( ( (Integer) value ).intValue( ) );
+		} else if ( value instanceof Long ) {
+			out.append( ( (Long) value ).longValue( ) );
+		} else {
+			String s = value.toString( );
+			if ( escape && needsEscape( s ) ) {
+				escape( out, s );
+			} else {
+				out.append( s );
+			}
+		}
+	}
+
+	/* Runs of safe characters are appended in one call, only the special characters are replaced */
+	private static void escape( StringBuilder out, String s ) {
+		int run = 0;
+		for ( int i = 0; i < s.length( ); i++ ) {
+			char c = s.charAt( i );
+			String entity = c <= '>' ? entity( c ) : null;
+			if ( entity != null ) {
+				out.append( s, run, i ).append( entity );
+				run = i + 1;
+			}
+		}
+		out.append( s, run, s.length( ) );
+	}
+
+	private static boolean needsEscape( String s ) {
+		for ( int i = 0; i < s.length( ); i++ ) {
+			char c = s.charAt( i );
+			if ( c <= '>' && entity( c ) != null ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String entity( char c ) {
+		switch ( c ) {
+		case '&':
+			return "&amp;";
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '"':
+			return "&quot;";
+		case '\'':
+			return "&#39;";
+		default:
+			return null;
+		}
+	}
+
+	private static boolean isName( String name ) {
+		if ( name.isEmpty( ) || !Character.isJavaIdentifierStart( name.charAt( 0 ) ) ) {
+			return false;
+		}
+		for ( int i = 1; i < name.length( ); i++ ) {
+			char c = name.charAt( i );
+			if ( !Character.isJavaIdentifierPart( c ) && c != '.' ) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
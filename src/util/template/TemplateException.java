@@ -0,0 +1,21 @@
+package util.template;
+
+/**
+ * Thrown when a template cannot be parsed. position is the index in the template
+ * text where the problem was found.
+ */
+public class TemplateException extends IllegalArgumentException {
+
+	private static final long	serialVersionUID	= 1L;
+
+	private final int			position;
+
+	public TemplateException( String message, int position ) {
+		super( message + " at position " + position );
+		this.position = position;
+	}
+
+	public int getPosition( ) {
+		return position;
+	}
+}